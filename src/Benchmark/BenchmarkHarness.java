@@ -0,0 +1,292 @@
+package Benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * BenchmarkHarness.java
+ * <p>
+ * A small micro benchmark harness in the style of JMH. Each benchmark runs its operation in a loop for a number
+ * of timed warm up iterations, so the JIT compiler has optimized it, followed by timed measurement iterations.
+ * The score is the average time per operation in nanoseconds, reported with the error of its 99.9% confidence
+ * interval.
+ * <p>
+ * The results are written as JSON in the layout of the JMH result file, so the same tools can compare runs.
+ * Benchmarks run in the harness JVM without forking, so they should be run from a quiet machine and compared
+ * with runs made the same way.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class BenchmarkHarness {
+
+    /**
+     * Represents one invocation of the code being measured.
+     */
+    public interface Operation {
+
+        /**
+         * Runs the code being measured once.
+         *
+         * @return Any result of the code, kept so the JIT compiler can not remove the code as unused.
+         */
+        Object run();
+    }
+
+    // Operations run between two reads of the timer
+    private static final int BATCH_SIZE = 64;
+
+    // Quantile of the normal distribution for a two-sided 99.9% confidence interval
+    private static final double CONFIDENCE_QUANTILE = 3.291;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final String filter;
+    private final ArrayList<Result> results = new ArrayList<>();
+
+    // Receives the results of the operations so their code can not be removed
+    private Object sink;
+
+    /**
+     * Creates a harness.
+     *
+     * @param warmupIterations      The number of warm up iterations of each benchmark.
+     * @param measurementIterations The number of measured iterations of each benchmark.
+     * @param iterationMillis       The length of one iteration in milliseconds.
+     * @param filter                Only benchmarks whose name contains this text are run, or null to run all.
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = Math.max(2, measurementIterations);
+        this.iterationMillis = iterationMillis;
+        this.filter = filter;
+    }
+
+    /**
+     * Checks if a benchmark is selected by the filter.
+     *
+     * @param name The name of the benchmark.
+     * @return True if the benchmark should run.
+     */
+    public boolean isSelected(String name) {
+        return filter == null || name.contains(filter);
+    }
+
+    /**
+     * Measures the average time of an operation.
+     *
+     * @param name      The name of the benchmark.
+     * @param params    The parameters the operation was set up with, in the order to report them.
+     * @param operation The operation to measure.
+     */
+    public void run(String name, Map<String, String> params, Operation operation) {
+        if (!isSelected(name)) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            measure(operation);
+        }
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            scores[i] = measure(operation);
+        }
+        report(name, params, scores, "ns/op");
+    }
+
+    /**
+     * Records a benchmark measured outside the harness, for example a throughput test that runs its own threads.
+     *
+     * @param name   The name of the benchmark.
+     * @param params The parameters of the benchmark, in the order to report them.
+     * @param scores The score of each measured iteration.
+     * @param unit   The unit of the scores.
+     */
+    public void report(String name, Map<String, String> params, double[] scores, String unit) {
+        Result result = new Result(name, new LinkedHashMap<>(params), scores, unit);
+        results.add(result);
+        System.out.printf(Locale.ROOT, "%-60s %-30s %14.3f +- %10.3f %s%n", name, params.isEmpty() ? "" : params,
+                result.getScore(), result.getError(), unit);
+    }
+
+    /**
+     * Gets the number of warm up iterations of each benchmark.
+     *
+     * @return The number of warm up iterations.
+     */
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    /**
+     * Gets the number of measured iterations of each benchmark.
+     *
+     * @return The number of measured iterations.
+     */
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+    /**
+     * Gets the length of one iteration.
+     *
+     * @return The length in milliseconds.
+     */
+    public long getIterationMillis() {
+        return iterationMillis;
+    }
+
+    /**
+     * Gets the results of the benchmarks run so far.
+     *
+     * @return The results in the order the benchmarks ran.
+     */
+    public ArrayList<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Writes the results to a file in the JSON layout of JMH.
+     *
+     * @param fileName The name of the result file.
+     * @throws IOException If the file can not be written.
+     */
+    public void writeJson(String fileName) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(fileName))) {
+            out.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                Result r = results.get(i);
+                out.println("    {");
+                out.println("        \"benchmark\" : " + quote(r.name) + ",");
+                out.println("        \"mode\" : \"avgt\",");
+                out.println("        \"threads\" : 1,");
+                out.println("        \"forks\" : 0,");
+                out.println("        \"warmupIterations\" : " + warmupIterations + ",");
+                out.println("        \"warmupTime\" : \"" + iterationMillis + " ms\",");
+                out.println("        \"measurementIterations\" : " + r.scores.length + ",");
+                out.println("        \"measurementTime\" : \"" + iterationMillis + " ms\",");
+                out.println("        \"params\" : {");
+                int p = 0;
+                for (Map.Entry<String, String> e : r.params.entrySet()) {
+                    out.println("            " + quote(e.getKey()) + " : " + quote(e.getValue()) + (++p < r.params.size() ? "," : ""));
+                }
+                out.println("        },");
+                out.println("        \"primaryMetric\" : {");
+                out.println("            \"score\" : " + number(r.getScore()) + ",");
+                out.println("            \"scoreError\" : " + number(r.getError()) + ",");
+                out.println("            \"scoreConfidence\" : [ " + number(r.getScore() - r.getError()) + ", " + number(r.getScore() + r.getError()) + " ],");
+                out.println("            \"scoreUnit\" : " + quote(r.unit) + ",");
+                StringBuilder raw = new StringBuilder();
+                for (int s = 0; s < r.scores.length; s++) {
+                    raw.append(s == 0 ? "" : ", ").append(number(r.scores[s]));
+                }
+                out.println("            \"rawData\" : [ [ " + raw + " ] ]");
+                out.println("        }");
+                out.println("    }" + (i + 1 < results.size() ? "," : ""));
+            }
+            out.println("]");
+        }
+    }
+
+    /**
+     * Runs the operation for one iteration.
+     *
+     * @param operation The operation to measure.
+     * @return The average time per operation in nanoseconds.
+     */
+    private double measure(Operation operation) {
+        long operations = 0;
+        long start = System.nanoTime();
+        long deadline = start + iterationMillis * 1_000_000;
+        long now;
+        do {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                sink = operation.run();
+            }
+            operations += BATCH_SIZE;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return (double) (now - start) / operations;
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String number(double value) {
+        // JSON has no NaN, JMH writes it as a string
+        if (Double.isNaN(value)) {
+            return "\"NaN\"";
+        }
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    /**
+     * The scores of one benchmark.
+     */
+    public static class Result {
+        private final String name;
+        private final Map<String, String> params;
+        private final double[] scores;
+        private final String unit;
+
+        Result(String name, Map<String, String> params, double[] scores, String unit) {
+            this.name = name;
+            this.params = params;
+            this.scores = scores;
+            this.unit = unit;
+        }
+
+        /**
+         * Gets the name of the benchmark.
+         *
+         * @return The benchmark name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the parameters of the benchmark.
+         *
+         * @return The parameters.
+         */
+        public Map<String, String> getParams() {
+            return params;
+        }
+
+        /**
+         * Gets the mean score of the measured iterations.
+         *
+         * @return The mean score.
+         */
+        public double getScore() {
+            double sum = 0;
+            for (double s : scores) {
+                sum += s;
+            }
+            return sum / scores.length;
+        }
+
+        /**
+         * Gets the half width of the 99.9% confidence interval of the score.
+         *
+         * @return The score error.
+         */
+        public double getError() {
+            if (scores.length < 2) {
+                return Double.NaN;
+            }
+            double mean = getScore();
+            double squares = 0;
+            for (double s : scores) {
+                squares += (s - mean) * (s - mean);
+            }
+            return CONFIDENCE_QUANTILE * Math.sqrt(squares / (scores.length - 1)) / Math.sqrt(scores.length);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Benchmark;
+
+import Common.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * CodecBenchmarks.java
+ * <p>
+ * Benchmarks of the message encoding: the serialize and deserialize helpers of {@link SystemRequest} and
+ * {@link ElevatorStatus}, and the {@link MessageCodec} encoding into a reused buffer that the transports use. Java
+ * object serialization of the same messages is measured as a baseline.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class CodecBenchmarks {
+
+    private static final int[] STOPS_PER_DIRECTION = {0, 8, 22};
+
+    /**
+     * Runs the codec benchmarks.
+     *
+     * @param harness The benchmark harness.
+     */
+    public static void run(BenchmarkHarness harness) {
+        ElevatorRequest elevatorRequest = new ElevatorRequest(LocalTime.of(8, 30), 3, "Up", 12, FaultType.NO_FAULT);
+        SystemRequest request = new SystemRequest(SystemRequestType.ADD_NEW_REQUEST, elevatorRequest, 2);
+        byte[] requestBytes = SystemRequest.serializeRequest(request);
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MAX_MESSAGE_SIZE);
+
+        harness.run("SystemRequest.serializeRequest", Map.of(), () -> SystemRequest.serializeRequest(request));
+        harness.run("SystemRequest.deserializeRequest", Map.of(), () -> SystemRequest.deserializeRequest(requestBytes));
+        harness.run("MessageCodec.encodeSystemRequest", Map.of(), () -> {
+            buffer.clear();
+            MessageCodec.encodeSystemRequest(request, buffer);
+            return buffer;
+        });
+        harness.run("ObjectOutputStream.writeObject", Map.of("message", "SystemRequest"), () -> javaSerialize(request));
+
+        for (int stops : STOPS_PER_DIRECTION) {
+            ElevatorStatus status = createStatus(1, Direction.UP, 5, stops);
+            byte[] statusBytes = ElevatorStatus.serializeStatus(status);
+            Map<String, String> params = Map.of("stopsPerDirection", String.valueOf(stops));
+
+            harness.run("ElevatorStatus.serializeStatus", params, () -> ElevatorStatus.serializeStatus(status));
+            harness.run("ElevatorStatus.deserializeStatus", params, () -> ElevatorStatus.deserializeStatus(statusBytes));
+            harness.run("ObjectOutputStream.writeObject", Map.of("message", "ElevatorStatus", "stopsPerDirection", String.valueOf(stops)), () -> javaSerialize(status));
+        }
+    }
+
+    /**
+     * Creates an elevator status with the given number of stops in each direction.
+     *
+     * @param elevatorId  The elevator id.
+     * @param direction   The direction of travel.
+     * @param floorNumber The current floor.
+     * @param stops       The number of stops in each direction.
+     * @return The elevator status.
+     */
+    static ElevatorStatus createStatus(int elevatorId, Direction direction, int floorNumber, int stops) {
+        ArrayList<Integer> up = new ArrayList<>();
+        ArrayList<Integer> down = new ArrayList<>();
+        for (int i = 0; i < stops; i++) {
+            up.add(1 + i % Constants.NUMBER_OF_FLOORS);
+            down.add(Constants.NUMBER_OF_FLOORS - i % Constants.NUMBER_OF_FLOORS);
+        }
+        return new ElevatorStatus(elevatorId, direction, floorNumber, up, down);
+    }
+
+    /**
+     * Serializes a message with Java object serialization, the encoding the messages used before MessageCodec.
+     *
+     * @param object The message.
+     * @return The serialized bytes.
+     */
+    static byte[] javaSerialize(Serializable object) {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(); ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(object);
+            oos.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
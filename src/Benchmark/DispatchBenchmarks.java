@@ -0,0 +1,64 @@
+package Benchmark;
+
+import Common.*;
+import Scheduler.EtaDispatcher;
+import Scheduler.Scheduler;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * DispatchBenchmarks.java
+ * <p>
+ * Benchmarks of {@link Scheduler#selectBestElevatorNumber} and the {@link EtaDispatcher} for different numbers of
+ * elevators. The statuses and the requests are built up front with a fixed seed, and the requests are taken in turn
+ * so the measured code does not see the same request every time.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class DispatchBenchmarks {
+
+    private static final int[] NUMBER_OF_ELEVATORS = {4, 64, 1024};
+    private static final int NUMBER_OF_REQUESTS = 1024;
+    private static final int STOPS_PER_ELEVATOR = 3;
+
+    /**
+     * Runs the dispatch benchmarks.
+     *
+     * @param harness The benchmark harness.
+     */
+    public static void run(BenchmarkHarness harness) {
+        Random random = new Random(1);
+        ElevatorRequest[] requests = new ElevatorRequest[NUMBER_OF_REQUESTS];
+        for (int i = 0; i < requests.length; i++) {
+            int floor = 1 + random.nextInt(Constants.NUMBER_OF_FLOORS);
+            int destination = 1 + random.nextInt(Constants.NUMBER_OF_FLOORS - 1);
+            destination = destination >= floor ? destination + 1 : destination;
+            requests[i] = new ElevatorRequest(LocalTime.MIDNIGHT, floor, destination > floor ? "Up" : "Down", destination, FaultType.NO_FAULT);
+        }
+
+        EtaDispatcher etaDispatcher = new EtaDispatcher();
+        for (int elevators : NUMBER_OF_ELEVATORS) {
+            ArrayList<ElevatorStatus> statuses = new ArrayList<>();
+            Direction[] directions = Direction.values();
+            for (int id = 0; id < elevators; id++) {
+                ArrayList<Integer> up = new ArrayList<>();
+                ArrayList<Integer> down = new ArrayList<>();
+                for (int s = 0; s < STOPS_PER_ELEVATOR; s++) {
+                    up.add(1 + random.nextInt(Constants.NUMBER_OF_FLOORS));
+                    down.add(1 + random.nextInt(Constants.NUMBER_OF_FLOORS));
+                }
+                statuses.add(new ElevatorStatus(id, directions[random.nextInt(directions.length)],
+                        1 + random.nextInt(Constants.NUMBER_OF_FLOORS), up, down));
+            }
+
+            int[] next = {0};
+            harness.run("Scheduler.selectBestElevatorNumber", Map.of("elevators", String.valueOf(elevators)),
+                    () -> Scheduler.selectBestElevatorNumber(requests[next[0]++ & (NUMBER_OF_REQUESTS - 1)], statuses));
+            harness.run("EtaDispatcher.selectElevator", Map.of("elevators", String.valueOf(elevators)),
+                    () -> etaDispatcher.selectElevator(requests[next[0]++ & (NUMBER_OF_REQUESTS - 1)], statuses));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package Benchmark;
+
+import Common.LogPrinter;
+
+import java.io.IOException;
+
+/**
+ * Main class for running the micro benchmarks and writing their results as JSON.
+ * <p>
+ * Usage: Benchmark.Main [resultFile] [filter] [measurementIterations] [iterationMillis]
+ * <p>
+ * Only the benchmarks whose name contains the filter are run. Use "all" as the filter to run every benchmark.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class Main {
+    public static void main(String[] args) {
+        String resultFile = args.length > 0 ? args[0] : "benchmark-results.json";
+        String filter = args.length > 1 && !args[1].equalsIgnoreCase("all") ? args[1] : null;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long iterationMillis = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+
+        // The elevator subsystem logs every request it handles
+        LogPrinter.setEnabled(false);
+
+        BenchmarkHarness harness = new BenchmarkHarness(iterations, iterations, iterationMillis, filter);
+        CodecBenchmarks.run(harness);
+        DispatchBenchmarks.run(harness);
+        SubsystemBenchmarks.run(harness);
+
+        try {
+            harness.writeJson(resultFile);
+            System.out.println("Wrote " + harness.getResults().size() + " results to " + resultFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package Benchmark;
+
+import Common.*;
+import Elevator.Elevator;
+import Elevator.ElevatorController;
+import Elevator.ElevatorSubsystem;
+import Scheduler.Scheduler;
+import Scheduler.SchedulerMode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * RelayBenchmark.java
+ * <p>
+ * Measures the full cost of relaying an elevator query through the scheduler over loopback UDP: elevator,
+ * scheduler, elevator controller, scheduler and back to the elevator. A {@link Scheduler} and one
+ * {@link ElevatorController} per elevator run in this JVM, and one client thread per elevator sends a mix of
+ * queries with {@link Elevator#sendQuery} as fast as the replies come back.
+ * <p>
+ * Reports the round trips per second of each measured iteration and the 50th, 99th and 99.9th percentile of
+ * the round trip time over all measured iterations. The scheduler binds the usual ports, so only one run can
+ * happen at a time.
+ * <p>
+ * Usage: Benchmark.RelayBenchmark [resultFile] [SEQUENTIAL|CONCURRENT] [numberOfElevators] [SOCKET|CHANNEL]
+ * [mix] [iterations] [iterationMillis]
+ * <p>
+ * The mix gives the share of each query type, for example IS_STOP_REQUIRED:9,NEW_PRIMARY_REQUEST:1.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class RelayBenchmark {
+
+    public static final String DEFAULT_MIX = "IS_STOP_REQUIRED:9,NEW_PRIMARY_REQUEST:1";
+
+    // Messages sent over UDP for each round trip
+    private static final int MESSAGES_PER_ROUND_TRIP = 4;
+
+    // Time given to the controllers to register before the clients start
+    private static final long REGISTRATION_MILLIS = 200;
+
+    private final SchedulerMode mode;
+    private final int numberOfElevators;
+    private final boolean channelTransport;
+    private final SystemRequestType[] mix;
+
+    private final AtomicLongArray completed;
+    private final long[][] latencies;
+    private final int[] latencyCounts;
+    private volatile boolean recording;
+    private volatile boolean stopped;
+
+    /**
+     * Creates the benchmark.
+     *
+     * @param mode              The event loop mode of the scheduler.
+     * @param numberOfElevators The number of elevators and controllers.
+     * @param channelTransport  True to use the DatagramChannel transport, false for the DatagramSocket one.
+     * @param mix               The query mix, for example IS_STOP_REQUIRED:9,NEW_PRIMARY_REQUEST:1.
+     */
+    public RelayBenchmark(SchedulerMode mode, int numberOfElevators, boolean channelTransport, String mix) {
+        this.mode = mode;
+        this.numberOfElevators = numberOfElevators;
+        this.channelTransport = channelTransport;
+        this.mix = parseMix(mix);
+        this.completed = new AtomicLongArray(numberOfElevators);
+        this.latencies = new long[numberOfElevators][1024];
+        this.latencyCounts = new int[numberOfElevators];
+    }
+
+    /**
+     * Starts the scheduler and the controllers, runs the clients and reports the results to the harness.
+     *
+     * @param harness The benchmark harness giving the number and length of the iterations.
+     */
+    public void run(BenchmarkHarness harness) {
+        // The scheduler and the controllers also print to the console, which would be measured along with them
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        Thread scheduler = new Thread(new Scheduler(mode, numberOfElevators), "Scheduler");
+        scheduler.setDaemon(true);
+        scheduler.start();
+
+        ArrayList<Elevator> elevators = new ArrayList<>();
+        for (int id = 0; id < numberOfElevators; id++) {
+            ElevatorSubsystem subsystem = new ElevatorSubsystem(id);
+            Elevator elevator = new Elevator(subsystem, id, false, openTransport(Constants.SCHEDULER_PORT));
+            Thread controller = new Thread(new ElevatorController(elevator, subsystem, openTransport(Constants.SCHEDULER_PORT_2)), "ElevatorController" + id);
+            controller.setDaemon(true);
+            controller.start();
+            elevators.add(elevator);
+        }
+        sleep(REGISTRATION_MILLIS);
+
+        Thread[] clients = new Thread[numberOfElevators];
+        for (int id = 0; id < numberOfElevators; id++) {
+            int client = id;
+            clients[id] = new Thread(() -> runClient(elevators.get(client), client), "RelayClient" + id);
+            clients[id].setDaemon(true);
+            clients[id].start();
+        }
+
+        for (int i = 0; i < harness.getWarmupIterations(); i++) {
+            sleep(harness.getIterationMillis());
+        }
+
+        recording = true;
+        double[] throughput = new double[harness.getMeasurementIterations()];
+        for (int i = 0; i < throughput.length; i++) {
+            long before = totalCompleted();
+            long start = System.nanoTime();
+            sleep(harness.getIterationMillis());
+            throughput[i] = (totalCompleted() - before) * 1e9 / (System.nanoTime() - start);
+        }
+        recording = false;
+        stopped = true;
+        for (Thread client : clients) {
+            try {
+                client.join(1000);
+            } catch (InterruptedException e) {
+            }
+        }
+        System.setOut(console);
+
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("mode", mode.name());
+        params.put("elevators", String.valueOf(numberOfElevators));
+        params.put("transport", channelTransport ? "CHANNEL" : "SOCKET");
+        harness.report("RelayBenchmark.roundTrips", params, throughput, "ops/s");
+
+        double[] messages = new double[throughput.length];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = throughput[i] * MESSAGES_PER_ROUND_TRIP;
+        }
+        harness.report("RelayBenchmark.messages", params, messages, "msgs/s");
+
+        long[] samples = mergeLatencies();
+        Arrays.sort(samples);
+        for (double percentile : new double[]{50, 99, 99.9}) {
+            double micros = samples.length == 0 ? Double.NaN : samples[(int) Math.min(samples.length - 1, Math.ceil(samples.length * percentile / 100) - 1)] / 1000.0;
+            harness.report("RelayBenchmark.roundTrip:p" + (percentile == 99.9 ? "99.9" : String.valueOf((int) percentile)), params, new double[]{micros}, "us/op");
+        }
+    }
+
+    /**
+     * Sends queries in the mix as one elevator until the benchmark stops.
+     *
+     * @param elevator The elevator sending the queries.
+     * @param id       The elevator id.
+     */
+    private void runClient(Elevator elevator, int id) {
+        Random random = new Random(id);
+        int floor = 1;
+        while (!stopped) {
+            SystemRequest query = switch (mix[random.nextInt(mix.length)]) {
+                case NEW_PRIMARY_REQUEST -> new SystemRequest(SystemRequestType.NEW_PRIMARY_REQUEST, id);
+                default -> new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, floor, Direction.UP, id);
+            };
+            floor = floor % Constants.NUMBER_OF_FLOORS + 1;
+
+            long start = System.nanoTime();
+            elevator.sendQuery(query);
+            long elapsed = System.nanoTime() - start;
+
+            if (recording) {
+                recordLatency(id, elapsed);
+            }
+            completed.incrementAndGet(id);
+        }
+    }
+
+    private void recordLatency(int id, long nanos) {
+        if (latencyCounts[id] == latencies[id].length) {
+            latencies[id] = Arrays.copyOf(latencies[id], latencies[id].length * 2);
+        }
+        latencies[id][latencyCounts[id]++] = nanos;
+    }
+
+    private long[] mergeLatencies() {
+        int total = 0;
+        for (int count : latencyCounts) {
+            total += count;
+        }
+        long[] samples = new long[total];
+        int position = 0;
+        for (int id = 0; id < latencies.length; id++) {
+            System.arraycopy(latencies[id], 0, samples, position, latencyCounts[id]);
+            position += latencyCounts[id];
+        }
+        return samples;
+    }
+
+    private long totalCompleted() {
+        long total = 0;
+        for (int id = 0; id < numberOfElevators; id++) {
+            total += completed.get(id);
+        }
+        return total;
+    }
+
+    private MessageTransport openTransport(int destinationPort) {
+        if (channelTransport) {
+            return new UDPChannelTransport(0, destinationPort);
+        }
+        return new UDPSenderReceiver(0, destinationPort);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+        }
+    }
+
+    /**
+     * Expands a query mix into a table of query types to draw from.
+     *
+     * @param mix The query mix, for example IS_STOP_REQUIRED:9,NEW_PRIMARY_REQUEST:1.
+     * @return The query types, each repeated by its share.
+     */
+    private static SystemRequestType[] parseMix(String mix) {
+        ArrayList<SystemRequestType> types = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            SystemRequestType type = SystemRequestType.valueOf(parts[0].trim().toUpperCase());
+            if (type != SystemRequestType.IS_STOP_REQUIRED && type != SystemRequestType.NEW_PRIMARY_REQUEST) {
+                throw new IllegalArgumentException("The scheduler only relays IS_STOP_REQUIRED and NEW_PRIMARY_REQUEST queries");
+            }
+            int share = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            for (int i = 0; i < share; i++) {
+                types.add(type);
+            }
+        }
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("Empty query mix");
+        }
+        return types.toArray(new SystemRequestType[0]);
+    }
+
+    public static void main(String[] args) {
+        String resultFile = args.length > 0 ? args[0] : "relay-results.json";
+        SchedulerMode mode = args.length > 1 ? SchedulerMode.valueOf(args[1].toUpperCase()) : SchedulerMode.CONCURRENT;
+        int numberOfElevators = args.length > 2 ? Integer.parseInt(args[2]) : Constants.NUMBER_OF_ELEVATORS;
+        boolean channelTransport = args.length > 3 && args[3].equalsIgnoreCase("CHANNEL");
+        String mix = args.length > 4 ? args[4] : DEFAULT_MIX;
+        int iterations = args.length > 5 ? Integer.parseInt(args[5]) : 5;
+        long iterationMillis = args.length > 6 ? Long.parseLong(args[6]) : 1000;
+
+        // Logging every relayed message would measure the console instead of the relay
+        LogPrinter.setEnabled(false);
+
+        BenchmarkHarness harness = new BenchmarkHarness(iterations, iterations, iterationMillis, null);
+        new RelayBenchmark(mode, numberOfElevators, channelTransport, mix).run(harness);
+        try {
+            harness.writeJson(resultFile);
+            System.out.println("Wrote " + harness.getResults().size() + " results to " + resultFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,78 @@
+package Benchmark;
+
+import Common.*;
+import Elevator.ElevatorSubsystem;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * SubsystemBenchmarks.java
+ * <p>
+ * Benchmarks of the {@link ElevatorSubsystem} request queue operations for different queue sizes. Operations
+ * that change the queue are measured in pairs that leave the queue as it was, so every iteration sees the same
+ * queue size: a request taken by receiveNewPrimaryRequest is added back, and a picked up request is added and
+ * then completed.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class SubsystemBenchmarks {
+
+    private static final int[] QUEUE_SIZES = {10, 100, 1000};
+
+    /**
+     * Runs the elevator subsystem benchmarks.
+     *
+     * @param harness The benchmark harness.
+     */
+    public static void run(BenchmarkHarness harness) {
+        for (int size : QUEUE_SIZES) {
+            Map<String, String> params = Map.of("queueSize", String.valueOf(size));
+
+            ElevatorSubsystem stopSubsystem = createSubsystem(size);
+            int[] floor = {0};
+            harness.run("ElevatorSubsystem.isStopRequiredForFloor", params,
+                    () -> stopSubsystem.isStopRequiredForFloor(1 + floor[0]++ % Constants.NUMBER_OF_FLOORS, Direction.UP));
+
+            ElevatorSubsystem primarySubsystem = createSubsystem(size);
+            harness.run("ElevatorSubsystem.receiveNewPrimaryRequest+addNewRequest", params, () -> {
+                ElevatorRequest request = primarySubsystem.receiveNewPrimaryRequest();
+                primarySubsystem.addNewRequest(request);
+                return request;
+            });
+
+            ElevatorSubsystem completedSubsystem = createSubsystem(size);
+            ElevatorRequest[] pickedUp = new ElevatorRequest[Constants.NUMBER_OF_FLOORS - 1];
+            for (int i = 0; i < pickedUp.length; i++) {
+                pickedUp[i] = new ElevatorRequest(LocalTime.MIDNIGHT, 1, "Up", i + 2, FaultType.NO_FAULT);
+                pickedUp[i].setStatus(RequestStatus.PASSENGER_PICKED_UP);
+            }
+            int[] next = {0};
+            harness.run("ElevatorSubsystem.addNewRequest+processCompletedRequests", params, () -> {
+                ElevatorRequest request = pickedUp[next[0]++ % pickedUp.length];
+                completedSubsystem.addNewRequest(request);
+                completedSubsystem.processCompletedRequests(request.getCarButton(), Direction.UP);
+                return request;
+            });
+        }
+    }
+
+    /**
+     * Creates a subsystem holding the given number of pending requests spread over the floors and directions.
+     *
+     * @param size The number of requests.
+     * @return The elevator subsystem.
+     */
+    private static ElevatorSubsystem createSubsystem(int size) {
+        Random random = new Random(size);
+        ElevatorSubsystem subsystem = new ElevatorSubsystem(0);
+        for (int i = 0; i < size; i++) {
+            int floor = 1 + random.nextInt(Constants.NUMBER_OF_FLOORS);
+            int destination = 1 + random.nextInt(Constants.NUMBER_OF_FLOORS - 1);
+            destination = destination >= floor ? destination + 1 : destination;
+            subsystem.addNewRequest(new ElevatorRequest(LocalTime.MIDNIGHT, floor, destination > floor ? "Up" : "Down", destination, FaultType.NO_FAULT));
+        }
+        return subsystem;
+    }
+}
@@ -0,0 +1,121 @@
+package Common;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+
+/**
+ * BinaryTraceReader.java
+ * <p>
+ * Replays a binary trace file written by {@link BinaryTraceWriter}. The file is memory mapped and the records
+ * are read in sequence straight from the mapping, so replaying a trace involves no text parsing and no copying.
+ * Files larger than a single mapping are mapped one window at a time.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class BinaryTraceReader implements TraceSource {
+
+    // Largest mapping, a whole number of records
+    private static final long MAX_WINDOW_SIZE = (Integer.MAX_VALUE / BinaryTraceWriter.RECORD_SIZE) * (long) BinaryTraceWriter.RECORD_SIZE;
+
+    private static final FaultType[] FAULT_TYPES = FaultType.values();
+
+    private final LocalTime startTime;
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowEnd;
+    private long recordCount;
+    private long recordsRead;
+
+    /**
+     * Opens a binary trace file.
+     *
+     * @param fileName  The name of the trace file.
+     * @param startTime The time the time offsets of the records are added to.
+     * @throws IOException If the file can not be opened or is not a binary trace.
+     */
+    public BinaryTraceReader(String fileName, LocalTime startTime) throws IOException {
+        this.startTime = startTime;
+        this.channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryTraceWriter.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != BinaryTraceWriter.MAGIC || header.getShort() != BinaryTraceWriter.VERSION
+                    || header.getShort() != BinaryTraceWriter.RECORD_SIZE) {
+                throw new IOException("Not a binary trace file: " + fileName);
+            }
+            this.recordCount = header.getLong();
+            this.windowEnd = BinaryTraceWriter.HEADER_SIZE;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next request of the trace.
+     *
+     * @return The next elevator request, or null if the trace has ended.
+     */
+    @Override
+    public ElevatorRequest next() {
+        if (recordsRead == recordCount || channel == null) {
+            return null;
+        }
+        if (window == null || !window.hasRemaining()) {
+            mapNextWindow();
+        }
+
+        int offset = window.getInt();
+        int floor = Short.toUnsignedInt(window.getShort());
+        int carButton = Short.toUnsignedInt(window.getShort());
+        String floorButton = window.get() == 0 ? "Up" : "Down";
+        FaultType faultType = FAULT_TYPES[window.get()];
+        window.getShort();
+        recordsRead++;
+        return new ElevatorRequest(startTime.plusNanos(offset * 1_000_000L), floor, floorButton, carButton, faultType);
+    }
+
+    /**
+     * Gets the number of requests in the trace.
+     *
+     * @return The number of records.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Closes the trace file.
+     */
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+        window = null;
+    }
+
+    private void mapNextWindow() {
+        long remaining = (recordCount - recordsRead) * BinaryTraceWriter.RECORD_SIZE;
+        long size = Math.min(remaining, MAX_WINDOW_SIZE);
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, size);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowEnd += size;
+    }
+}
@@ -0,0 +1,143 @@
+package Common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * BinaryTraceWriter.java
+ * <p>
+ * Writes elevator requests to a binary trace file that {@link BinaryTraceReader} replays. The file starts with a
+ * 16 byte header followed by one fixed 12 byte record per request, all in little endian byte order:
+ * <pre>
+ * header: magic i32 | version u16 | record size u16 | record count i64
+ * record: time offset ms i32 | floor u16 | car button u16 | floor button u8 (0 up, 1 down) | fault u8 | unused u16
+ * </pre>
+ * The time offset is the time of the request after the start of the trace.
+ * <p>
+ * Run as a program to convert a text input file: BinaryTraceWriter [inputFile] [traceFile]
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class BinaryTraceWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x45545243;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 12;
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+    private final LocalTime startTime;
+    private long recordCount;
+
+    /**
+     * Creates a binary trace file, replacing any existing file.
+     *
+     * @param fileName  The name of the trace file.
+     * @param startTime The time the time offsets of the records are measured from.
+     * @throws IOException If the file can not be created.
+     */
+    public BinaryTraceWriter(String fileName, LocalTime startTime) throws IOException {
+        this.startTime = startTime;
+        this.channel = FileChannel.open(Path.of(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Appends a request to the trace.
+     *
+     * @param request The elevator request.
+     * @throws IOException If the record can not be written.
+     */
+    public void write(ElevatorRequest request) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        long offset = Duration.between(startTime, request.getTime()).toMillis();
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Request time out of range of the trace: " + request.getTime());
+        }
+        buffer.putInt((int) offset);
+        buffer.putShort((short) request.getFloor());
+        buffer.putShort((short) request.getCarButton());
+        buffer.put((byte) ("up".equalsIgnoreCase(request.getFloorButton()) ? 0 : 1));
+        buffer.put((byte) request.getFault().ordinal());
+        buffer.putShort((short) 0);
+        recordCount++;
+    }
+
+    /**
+     * Writes the remaining records and the header, and closes the file.
+     *
+     * @throws IOException If the file can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort((short) VERSION).putShort((short) RECORD_SIZE).putLong(recordCount).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, HEADER_SIZE - header.remaining());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Gets the number of requests written so far.
+     *
+     * @return The number of records.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Converts a trace in the text format of the input files to the binary format.
+     *
+     * @param inputFileName The name of the text input file.
+     * @param traceFileName The name of the binary trace file to create.
+     * @return The number of requests converted.
+     * @throws IOException If the trace file can not be written.
+     */
+    public static long convert(String inputFileName, String traceFileName) throws IOException {
+        try (TraceSource input = new TraceReader(inputFileName, LocalTime.MIDNIGHT);
+             BinaryTraceWriter output = new BinaryTraceWriter(traceFileName, LocalTime.MIDNIGHT)) {
+            for (ElevatorRequest request = input.next(); request != null; request = input.next()) {
+                output.write(request);
+            }
+            return output.getRecordCount();
+        }
+    }
+
+    public static void main(String[] args) {
+        String inputFile = args.length > 0 ? args[0] : "data.txt";
+        String traceFile = args.length > 1 ? args[1] : "data.trace";
+        try {
+            long count = convert(inputFile, traceFile);
+            System.out.println("Converted " + count + " requests from " + inputFile + " to " + traceFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package Common;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * BufferPool.java
+ * <p>
+ * A pool of direct byte buffers used by {@link UDPChannelTransport} so that sending and receiving messages
+ * does not allocate a new buffer for every datagram.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class BufferPool {
+
+    // Pool shared by all transports in the process
+    private static final BufferPool SHARED = new BufferPool(MessageCodec.MAX_MESSAGE_SIZE, 64);
+
+    private final ArrayDeque<ByteBuffer> buffers;
+    private final int bufferSize;
+    private final int maxPooled;
+
+    /**
+     * Creates a new buffer pool.
+     *
+     * @param bufferSize The capacity of each buffer in bytes.
+     * @param maxPooled  The maximum number of idle buffers kept in the pool.
+     */
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.buffers = new ArrayDeque<>(maxPooled);
+    }
+
+    /**
+     * Gets the pool shared by all transports in the process.
+     *
+     * @return The shared buffer pool.
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating a new one if the pool is empty.
+     *
+     * @return A cleared direct buffer.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = buffers.pollFirst();
+        }
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. Buffers beyond the pool limit are left to the garbage collector.
+     *
+     * @param buffer The buffer to return.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize || !buffer.isDirect()) {
+            return;
+        }
+        synchronized (this) {
+            if (buffers.size() < maxPooled) {
+                buffers.addFirst(buffer);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of idle buffers in the pool.
+     *
+     * @return The number of idle buffers.
+     */
+    public synchronized int size() {
+        return buffers.size();
+    }
+}
@@ -19,10 +19,50 @@ public final class Constants {
     public static final int SCHEDULER_PORT_2 = 50001;
     public static final int FLOOR_CONTROLLER_PORT = 50002;
 
+    // Use the DatagramChannel transport with pooled buffers instead of the DatagramSocket one
+    public static final boolean USE_CHANNEL_TRANSPORT = true;
+
     // Travel and loading times
     public static final int BASE_MOVE_TIME = 0;
     public static final int INCREMENTAL_MOVE_TIME = 10000;
     public static final int LOADING_TIME = 6000;
     public static final int BOARDING_TIME_PER_PASSENGER = 5000;
     public static final int TRANSIENT_FAULT_TIME = 20000;
+
+    // Number of requests the floor subsystem reads from the trace ahead of their time
+    public static final int TRACE_LOOK_AHEAD = 64;
+
+    // Longest delay in releasing a request from the floors before a warning is logged
+    public static final int MAX_RELEASE_JITTER = 50;
+
+    // Real time between snapshots of the metrics printed to the console, or 0 to not print them
+    public static final int METRICS_DUMP_INTERVAL = 60000;
+
+    // Log messages the asynchronous log holds before dropping new ones, and the most it prints in one batch
+    public static final int LOG_BUFFER_SIZE = 8192;
+    public static final int LOG_BATCH_SIZE = 256;
+
+    // Largest size of a journal segment file
+    public static final long JOURNAL_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    // Journal directory of the Scheduler, Elevator and Floor programs (empty to not record a journal)
+    public static final String JOURNAL_DIRECTORY = "";
+
+    // Re-optimization of the waiting requests (see Scheduler.AssignmentOptimizer), 0 interval to not re-optimize
+    public static final int REOPTIMIZATION_INTERVAL = 5000;
+    public static final int REOPTIMIZATION_MIN_GAIN = 20000;
+    public static final int REOPTIMIZATION_REPLY_TIMEOUT = 1000;
+
+    // Parking of the idle elevators by time of day (see Elevator.ParkingSchedule and Elevator.ParkingPolicy)
+    public static final String PARKING_SCHEDULE = "HISTORY";
+    public static final int PARKING_CHECK_INTERVAL = 60000;
+    public static final int PARKING_HISTORY_SIZE = 200;
+
+    // Demand model of the arrivals at each floor (see Common.DemandModel), 0 reserve weight to not use it in dispatch
+    public static final int DEMAND_BUCKET_MINUTES = 15;
+    public static final int DEMAND_HALF_LIFE = 300000;
+    public static final double DEMAND_DAY_DECAY = 0.8;
+    public static final double DEMAND_RECENT_WEIGHT = 0.3;
+    public static final int DEMAND_HORIZON = 300000;
+    public static final double DEMAND_RESERVE_WEIGHT = 0.5;
 }
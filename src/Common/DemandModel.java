@@ -0,0 +1,351 @@
+package Common;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * DemandModel.java
+ * <p>
+ * Forecasts the passengers arriving at each floor in each direction from the requests that arrived before. The
+ * model keeps two estimates of every arrival rate:
+ * <p>
+ * - The recent rate: the arrivals counted with an exponential decay, with a half life of
+ * {@link Constants#DEMAND_HALF_LIFE}, so it follows the traffic of the last few minutes. <p>
+ * - The time of day profile: the arrivals in every {@link Constants#DEMAND_BUCKET_MINUTES} minute bucket of the
+ * day, averaged over the days the bucket was seen. Each day before weighs {@link Constants#DEMAND_DAY_DECAY} times
+ * as much as the day after it, so the profile follows the building as its traffic changes. A bucket is added to
+ * the profile once it has ended, so the bucket in progress does not pull its average down.
+ * <p>
+ * A prediction blends the recent rate with the profile of the buckets it covers, with the weight
+ * {@link Constants#DEMAND_RECENT_WEIGHT} on the recent rate. Because the profile knows the traffic to come, a
+ * prediction a few minutes ahead already shows a surge that happens at the same time every day, like the morning
+ * rush at the lobby, before the first of its requests arrives.
+ * <p>
+ * The scheduler records every request from the floors. The profile of the days before can be trained from a
+ * trace of the requests of those days, which the Simulation program does with its last argument. The Scheduler
+ * program has no training input, so its profile only fills in as the run goes past the end of each bucket.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class DemandModel {
+
+    private static final DemandModel instance = new DemandModel(Constants.NUMBER_OF_FLOORS, Constants.DEMAND_BUCKET_MINUTES,
+            Constants.DEMAND_HALF_LIFE, Constants.DEMAND_DAY_DECAY, Constants.DEMAND_RECENT_WEIGHT);
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final int numberOfFloors;
+    private final long bucketMillis;
+    private final int bucketsPerDay;
+    private final double decayPerMilli;
+    private final double dayDecay;
+    private final double recentWeight;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Arrivals decayed to recentTime, indexed by floor and direction
+    private final double[][] recentCounts;
+    private long recentTime = Long.MIN_VALUE;
+
+    // Arrivals of every bucket of the day summed over the days with the day decay, the decayed number of days the
+    // bucket was seen, and the day the bucket was last seen
+    private final double[][][] profileCounts;
+    private final double[] profileDays;
+    private final long[] profileLastDay;
+
+    // Arrivals of the bucket in progress, and its index counted in buckets since the epoch
+    private final double[][] currentCounts;
+    private long currentBucket = -1;
+
+    /**
+     * Creates an empty model.
+     *
+     * @param numberOfFloors The number of floors of the building.
+     * @param bucketMinutes  The length of the time of day buckets in minutes, a divisor of a day.
+     * @param halfLife       The half life of the recent arrivals in ms.
+     * @param dayDecay       The weight of each day before compared to the day after it, from 0 to 1.
+     * @param recentWeight   The weight of the recent rate in a prediction, from 0 to 1.
+     */
+    public DemandModel(int numberOfFloors, int bucketMinutes, long halfLife, double dayDecay, double recentWeight) {
+        this.numberOfFloors = numberOfFloors;
+        this.bucketMillis = bucketMinutes * 60_000L;
+        this.bucketsPerDay = (int) (DAY_MILLIS / bucketMillis);
+        this.decayPerMilli = Math.log(2) / halfLife;
+        this.dayDecay = dayDecay;
+        this.recentWeight = recentWeight;
+        this.recentCounts = new double[numberOfFloors + 1][2];
+        this.currentCounts = new double[numberOfFloors + 1][2];
+        this.profileCounts = new double[bucketsPerDay][numberOfFloors + 1][2];
+        this.profileDays = new double[bucketsPerDay];
+        this.profileLastDay = new long[bucketsPerDay];
+    }
+
+    /**
+     * Gets the demand model of this process.
+     *
+     * @return The demand model.
+     */
+    public static DemandModel getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records the arrival of a request.
+     *
+     * @param request    The elevator request.
+     * @param timeMillis The clock time the request arrived at in milliseconds since the epoch.
+     */
+    public void record(ElevatorRequest request, long timeMillis) {
+        record(request.getFloor(), request.getDirection(), timeMillis);
+    }
+
+    /**
+     * Records the arrival of a passenger.
+     *
+     * @param floor      The floor the passenger arrived at.
+     * @param direction  The direction the passenger is going in.
+     * @param timeMillis The clock time the passenger arrived at in milliseconds since the epoch.
+     */
+    public synchronized void record(int floor, Direction direction, long timeMillis) {
+        if (floor < 1 || floor > numberOfFloors || direction == Direction.STOPPED) {
+            return;
+        }
+        advance(timeMillis);
+        decayRecent(timeMillis);
+        recentCounts[floor][direction.ordinal()]++;
+        currentCounts[floor][direction.ordinal()]++;
+    }
+
+    /**
+     * Adds the requests of a trace to the time of day profile, as the arrivals of a day before the current day of
+     * the simulation clock. Only the buckets from the first to the last request of the trace count as seen.
+     *
+     * @param trace   The requests, with their times of day.
+     * @param daysAgo The number of days before the current day the requests arrived on.
+     * @return The number of requests added.
+     */
+    public synchronized long train(TraceSource trace, int daysAgo) {
+        long day = Math.floorDiv(toLocalMillis(SimulationClock.getInstance().currentTimeMillis()), DAY_MILLIS) - daysAgo;
+        double[][][] counts = new double[bucketsPerDay][numberOfFloors + 1][2];
+        int firstBucket = bucketsPerDay;
+        int lastBucket = -1;
+        long trained = 0;
+        for (ElevatorRequest request = trace.next(); request != null; request = trace.next()) {
+            int bucket = getBucketOfDay(request.getTime());
+            if (request.getFloor() < 1 || request.getFloor() > numberOfFloors || request.getDirection() == Direction.STOPPED) {
+                continue;
+            }
+            counts[bucket][request.getFloor()][request.getDirection().ordinal()]++;
+            firstBucket = Math.min(firstBucket, bucket);
+            lastBucket = Math.max(lastBucket, bucket);
+            trained++;
+        }
+        trace.close();
+        for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            addToProfile(bucket, day, counts[bucket]);
+        }
+        return trained;
+    }
+
+    /**
+     * Gets the number of passengers expected to arrive at a floor in one direction in the given time.
+     *
+     * @param floor      The floor.
+     * @param direction  The direction the passengers are going in.
+     * @param fromMillis The start of the time, usually now, in milliseconds since the epoch.
+     * @param toMillis   The end of the time in milliseconds since the epoch.
+     * @return The expected number of passengers.
+     */
+    public synchronized double getPredictedArrivals(int floor, Direction direction, long fromMillis, long toMillis) {
+        if (floor < 1 || floor > numberOfFloors || direction == Direction.STOPPED) {
+            return 0;
+        }
+        return predict(floor, direction.ordinal(), fromMillis, toMillis);
+    }
+
+    /**
+     * Gets the number of passengers expected to arrive at a floor in both directions in the given time.
+     *
+     * @param floor      The floor.
+     * @param fromMillis The start of the time, usually now, in milliseconds since the epoch.
+     * @param toMillis   The end of the time in milliseconds since the epoch.
+     * @return The expected number of passengers.
+     */
+    public synchronized double getPredictedArrivals(int floor, long fromMillis, long toMillis) {
+        if (floor < 1 || floor > numberOfFloors) {
+            return 0;
+        }
+        return predict(floor, 0, fromMillis, toMillis) + predict(floor, 1, fromMillis, toMillis);
+    }
+
+    /**
+     * Gets the number of passengers expected to arrive at every floor in both directions in the given time.
+     *
+     * @param fromMillis The start of the time, usually now, in milliseconds since the epoch.
+     * @param toMillis   The end of the time in milliseconds since the epoch.
+     * @return The expected numbers of passengers, indexed by floor number.
+     */
+    public synchronized double[] getPredictedArrivals(long fromMillis, long toMillis) {
+        double[] arrivals = new double[numberOfFloors + 1];
+        for (int floor = 1; floor <= numberOfFloors; floor++) {
+            arrivals[floor] = predict(floor, 0, fromMillis, toMillis) + predict(floor, 1, fromMillis, toMillis);
+        }
+        return arrivals;
+    }
+
+    /**
+     * Checks if the time of day profile has seen the bucket of the given time on an earlier day, so a prediction
+     * for that time knows more than the recent arrivals.
+     *
+     * @param timeMillis The clock time in milliseconds since the epoch.
+     * @return True if the bucket of the time is in the profile.
+     */
+    public synchronized boolean hasProfile(long timeMillis) {
+        long bucket = Math.floorDiv(toLocalMillis(timeMillis), bucketMillis);
+        return profileDays[(int) Math.floorMod(bucket, (long) bucketsPerDay)] > 0;
+    }
+
+    /**
+     * Gets the recent arrival rate at a floor in one direction.
+     *
+     * @param floor      The floor.
+     * @param direction  The direction the passengers are going in.
+     * @param timeMillis The clock time in milliseconds since the epoch.
+     * @return The arrivals per minute.
+     */
+    public synchronized double getRecentRate(int floor, Direction direction, long timeMillis) {
+        if (floor < 1 || floor > numberOfFloors || direction == Direction.STOPPED) {
+            return 0;
+        }
+        return getRecentRatePerMilli(floor, direction.ordinal(), timeMillis) * 60_000;
+    }
+
+    /**
+     * Forgets all the arrivals, recent and of the days before.
+     */
+    public synchronized void clear() {
+        for (int floor = 0; floor <= numberOfFloors; floor++) {
+            Arrays.fill(recentCounts[floor], 0);
+            Arrays.fill(currentCounts[floor], 0);
+            for (int bucket = 0; bucket < bucketsPerDay; bucket++) {
+                Arrays.fill(profileCounts[bucket][floor], 0);
+            }
+        }
+        Arrays.fill(profileDays, 0);
+        recentTime = Long.MIN_VALUE;
+        currentBucket = -1;
+    }
+
+    /**
+     * Sums the predicted arrival rate over every bucket of the day the given time covers.
+     */
+    private double predict(int floor, int direction, long fromMillis, long toMillis) {
+        double recentRate = getRecentRatePerMilli(floor, direction, fromMillis);
+        double arrivals = 0;
+        long start = fromMillis;
+        while (start < toMillis) {
+            long bucket = Math.floorDiv(toLocalMillis(start), bucketMillis);
+            long end = Math.min(toMillis, start + (bucket + 1) * bucketMillis - toLocalMillis(start));
+            int bucketOfDay = (int) Math.floorMod(bucket, (long) bucketsPerDay);
+            double rate = recentRate;
+            if (profileDays[bucketOfDay] > 0) {
+                double profileRate = profileCounts[bucketOfDay][floor][direction] / profileDays[bucketOfDay] / bucketMillis;
+                rate = recentWeight * recentRate + (1 - recentWeight) * profileRate;
+            }
+            arrivals += rate * (end - start);
+            start = end;
+        }
+        return arrivals;
+    }
+
+    /**
+     * Gets the recent arrival rate, decayed to the given time.
+     */
+    private double getRecentRatePerMilli(int floor, int direction, long timeMillis) {
+        if (recentTime == Long.MIN_VALUE) {
+            return 0;
+        }
+        double decay = Math.exp(-decayPerMilli * Math.max(0, timeMillis - recentTime));
+        return recentCounts[floor][direction] * decay * decayPerMilli;
+    }
+
+    /**
+     * Decays the recent arrivals to the given time.
+     */
+    private void decayRecent(long timeMillis) {
+        if (recentTime != Long.MIN_VALUE && timeMillis > recentTime) {
+            double decay = Math.exp(-decayPerMilli * (timeMillis - recentTime));
+            for (double[] counts : recentCounts) {
+                counts[0] *= decay;
+                counts[1] *= decay;
+            }
+        }
+        recentTime = Math.max(recentTime, timeMillis);
+    }
+
+    /**
+     * Adds the buckets that ended before the given time to the profile, including the buckets without arrivals.
+     */
+    private void advance(long timeMillis) {
+        long bucket = Math.floorDiv(toLocalMillis(timeMillis), bucketMillis);
+        if (currentBucket < 0) {
+            currentBucket = bucket;
+            return;
+        }
+        if (bucket <= currentBucket) {
+            return;
+        }
+        addToProfile((int) Math.floorMod(currentBucket, (long) bucketsPerDay), Math.floorDiv(currentBucket, (long) bucketsPerDay), currentCounts);
+        for (double[] counts : currentCounts) {
+            Arrays.fill(counts, 0);
+        }
+        double[][] empty = new double[numberOfFloors + 1][2];
+        for (long skipped = Math.max(currentBucket + 1, bucket - bucketsPerDay + 1); skipped < bucket; skipped++) {
+            addToProfile((int) Math.floorMod(skipped, (long) bucketsPerDay), Math.floorDiv(skipped, (long) bucketsPerDay), empty);
+        }
+        currentBucket = bucket;
+    }
+
+    /**
+     * Adds the arrivals of one bucket on one day to the profile. A day older than the last day the bucket was seen
+     * is added with the weight of its age, so the days can be added in any order.
+     */
+    private void addToProfile(int bucketOfDay, long day, double[][] counts) {
+        double[][] profile = profileCounts[bucketOfDay];
+        double newWeight = 1;
+        if (profileDays[bucketOfDay] == 0) {
+            profileLastDay[bucketOfDay] = day;
+        } else if (day >= profileLastDay[bucketOfDay]) {
+            double oldWeight = Math.pow(dayDecay, day - profileLastDay[bucketOfDay]);
+            for (double[] floorCounts : profile) {
+                floorCounts[0] *= oldWeight;
+                floorCounts[1] *= oldWeight;
+            }
+            profileDays[bucketOfDay] *= oldWeight;
+            profileLastDay[bucketOfDay] = day;
+        } else {
+            newWeight = Math.pow(dayDecay, profileLastDay[bucketOfDay] - day);
+        }
+        for (int floor = 0; floor <= numberOfFloors; floor++) {
+            profile[floor][0] += newWeight * counts[floor][0];
+            profile[floor][1] += newWeight * counts[floor][1];
+        }
+        profileDays[bucketOfDay] += newWeight;
+    }
+
+    /**
+     * Gets the bucket of the day a time of day falls in.
+     */
+    private int getBucketOfDay(LocalTime time) {
+        return (int) (time.toNanoOfDay() / 1_000_000 / bucketMillis);
+    }
+
+    /**
+     * Converts a clock time to milliseconds since the epoch in the local time zone, so days and buckets start at
+     * local midnight.
+     */
+    private long toLocalMillis(long timeMillis) {
+        return timeMillis + zone.getRules().getOffset(Instant.ofEpochMilli(timeMillis)).getTotalSeconds() * 1000L;
+    }
+}
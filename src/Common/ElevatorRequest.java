@@ -1,7 +1,9 @@
 package Common;
 
-import java.io.*;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ElevatorRequest.java
@@ -20,7 +22,18 @@ public class ElevatorRequest implements Serializable {
 
     private FaultType faultType;
 
-    // TODO: Add timestamps for total time and deadline
+    // Identifies the request and its copies sent between the subsystems
+    private int requestId;
+    private static final AtomicInteger nextRequestId = new AtomicInteger();
+
+    // Clock times in milliseconds at which the request went through each step, or -1 if it did not yet
+    private long releaseTime = -1;
+    private long assignTime = -1;
+    private long pickUpTime = -1;
+    private long completionTime = -1;
+
+    // Set once the passenger has been left behind by a full elevator
+    private boolean leftBehind;
 
     /**
      * Constructs an instance of the elevator event
@@ -38,12 +51,32 @@ public class ElevatorRequest implements Serializable {
         this.carButton = carButton;
         this.status = RequestStatus.PENDING;
         this.faultType = faultType;
+        this.requestId = nextRequestId.incrementAndGet();
     }
 
     public FaultType getFault() {
         return faultType;
     }
 
+    /**
+     * Gets the id of the request. Requests made in the same process get different ids, and a request decoded from
+     * a message keeps the id of the request that was sent.
+     *
+     * @return The request id
+     */
+    public int getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Sets the id of the request
+     *
+     * @param requestId The request id
+     */
+    public void setRequestId(int requestId) {
+        this.requestId = requestId;
+    }
+
     /**
      * Returns the status of the elevator request
      *
@@ -62,6 +95,117 @@ public class ElevatorRequest implements Serializable {
         this.status = status;
     }
 
+    /**
+     * Gets the clock time at which the floor released the request to the scheduler.
+     *
+     * @return The release time in milliseconds, or -1 if the request was not released yet.
+     */
+    public long getReleaseTime() {
+        return releaseTime;
+    }
+
+    /**
+     * Sets the clock time at which the floor released the request to the scheduler.
+     *
+     * @param releaseTime The release time in milliseconds.
+     */
+    public void setReleaseTime(long releaseTime) {
+        this.releaseTime = releaseTime;
+    }
+
+    /**
+     * Gets the clock time at which the scheduler assigned the request to an elevator.
+     *
+     * @return The assignment time in milliseconds, or -1 if the request was not assigned yet.
+     */
+    public long getAssignTime() {
+        return assignTime;
+    }
+
+    /**
+     * Sets the clock time at which the scheduler assigned the request to an elevator.
+     *
+     * @param assignTime The assignment time in milliseconds.
+     */
+    public void setAssignTime(long assignTime) {
+        this.assignTime = assignTime;
+    }
+
+    /**
+     * Gets the clock time at which the elevator picked up the passenger.
+     *
+     * @return The pick up time in milliseconds, or -1 if the passenger was not picked up yet.
+     */
+    public long getPickUpTime() {
+        return pickUpTime;
+    }
+
+    /**
+     * Sets the clock time at which the elevator picked up the passenger.
+     *
+     * @param pickUpTime The pick up time in milliseconds.
+     */
+    public void setPickUpTime(long pickUpTime) {
+        this.pickUpTime = pickUpTime;
+    }
+
+    /**
+     * Gets the clock time at which the passenger arrived at the destination floor.
+     *
+     * @return The completion time in milliseconds, or -1 if the request is not completed yet.
+     */
+    public long getCompletionTime() {
+        return completionTime;
+    }
+
+    /**
+     * Sets the clock time at which the passenger arrived at the destination floor.
+     *
+     * @param completionTime The completion time in milliseconds.
+     */
+    public void setCompletionTime(long completionTime) {
+        this.completionTime = completionTime;
+    }
+
+    /**
+     * Marks the passenger as left behind by a full elevator.
+     *
+     * @return True the first time the passenger is left behind, false afterwards.
+     */
+    public boolean markLeftBehind() {
+        boolean first = !leftBehind;
+        leftBehind = true;
+        return first;
+    }
+
+    /**
+     * Gets how long the passenger waited at the floor, from the release of the request until the pick up.
+     *
+     * @return The wait time in milliseconds, or -1 if unknown.
+     */
+    public long getWaitTime() {
+        return releaseTime < 0 || pickUpTime < 0 ? -1 : pickUpTime - releaseTime;
+    }
+
+    /**
+     * Gets how long the passenger rode the elevator, from the pick up until the arrival at the destination.
+     *
+     * @return The ride time in milliseconds, or -1 if unknown.
+     */
+    public long getRideTime() {
+        return pickUpTime < 0 || completionTime < 0 ? -1 : completionTime - pickUpTime;
+    }
+
+    /**
+     * Gets the time to destination of the passenger, from the release of the request until the arrival at the
+     * destination.
+     *
+     * @return The journey time in milliseconds, or -1 if unknown.
+     */
+    public long getJourneyTime() {
+        return releaseTime < 0 || completionTime < 0 ? -1 : completionTime - releaseTime;
+    }
+
     /**
      * The timestamp of the request
      *
@@ -137,37 +281,27 @@ public class ElevatorRequest implements Serializable {
     }
 
     /**
-     * Serializes an {@link ElevatorRequest} object into a byte array.
+     * Serializes an {@link ElevatorRequest} object (which may be null) into a byte array using the
+     * {@link MessageCodec} wire format.
      *
      * @param request The {@link ElevatorRequest} to be serialized.
      * @return A byte array containing the serialized data.
      */
     public static byte[] serializeRequest(ElevatorRequest request) {
-        byte[] requestBytes = null;
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(); ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-            oos.writeObject(request);
-            requestBytes = bos.toByteArray();
-        } catch (IOException e) {
-            System.err.println(e);
-            System.exit(1);
-        }
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MAX_MESSAGE_SIZE);
+        MessageCodec.encodeElevatorRequest(request, buffer);
+        byte[] requestBytes = new byte[buffer.position()];
+        buffer.flip().get(requestBytes);
         return requestBytes;
     }
 
     /**
-     * Deserializes a byte array into an {@link ElevatorRequest} object.
+     * Deserializes a byte array in the {@link MessageCodec} wire format into an {@link ElevatorRequest} object.
      *
      * @param requestBytes The byte array containing the serialized data.
-     * @return The deserialized {@link ElevatorRequest} object.
+     * @return The deserialized {@link ElevatorRequest} object, or null if a null request was serialized.
      */
     public static ElevatorRequest deserializeRequest(byte[] requestBytes) {
-        ElevatorRequest deserializedRequest = null;
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(requestBytes); ObjectInputStream ois = new ObjectInputStream(bis)) {
-            deserializedRequest = (ElevatorRequest) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println(e);
-            System.exit(1);
-        }
-        return deserializedRequest;
+        return MessageCodec.decodeElevatorRequest(ByteBuffer.wrap(requestBytes));
     }
 }
@@ -1,6 +1,7 @@
 package Common;
 
-import java.io.*;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 public class ElevatorStatus implements Serializable {
@@ -10,13 +11,67 @@ public class ElevatorStatus implements Serializable {
     private final int floorNumber;
     private final ArrayList<Integer> stopRequestFloorsGoingUp;
     private final ArrayList<Integer> stopRequestFloorsGoingDown;
+    private final ArrayList<Integer> destinationFloors;
+    private final int passengerCount;
+    private final long version;
 
     public ElevatorStatus(int elevatorId, Direction direction, int floorNumber, ArrayList<Integer> stopRequestFloorsGoingUp, ArrayList<Integer> stopRequestFloorsGoingDown) {
+        this(elevatorId, direction, floorNumber, stopRequestFloorsGoingUp, stopRequestFloorsGoingDown, 0);
+    }
+
+    /**
+     * Creates a status snapshot with a version number. Snapshots published by the same elevator
+     * carry increasing versions so that the receiver can discard out of date ones.
+     *
+     * @param elevatorId                 The elevator id.
+     * @param direction                  The direction of travel.
+     * @param floorNumber                The current floor of the elevator.
+     * @param stopRequestFloorsGoingUp   The floors with a pending request going up.
+     * @param stopRequestFloorsGoingDown The floors with a pending request going down.
+     * @param version                    The version of the snapshot.
+     */
+    public ElevatorStatus(int elevatorId, Direction direction, int floorNumber, ArrayList<Integer> stopRequestFloorsGoingUp, ArrayList<Integer> stopRequestFloorsGoingDown, long version) {
+        this(elevatorId, direction, floorNumber, stopRequestFloorsGoingUp, stopRequestFloorsGoingDown, new ArrayList<>(), version);
+    }
+
+    /**
+     * Creates a status snapshot that also lists the floors the elevator is committed to stop at whatever its
+     * direction of travel, so a dispatcher can estimate when the elevator reaches each of its stops.
+     *
+     * @param elevatorId                 The elevator id.
+     * @param direction                  The direction of travel.
+     * @param floorNumber                The current floor of the elevator.
+     * @param stopRequestFloorsGoingUp   The floors with a pending request going up.
+     * @param stopRequestFloorsGoingDown The floors with a pending request going down.
+     * @param destinationFloors          The destination floor of each passenger on board.
+     * @param version                    The version of the snapshot.
+     */
+    public ElevatorStatus(int elevatorId, Direction direction, int floorNumber, ArrayList<Integer> stopRequestFloorsGoingUp, ArrayList<Integer> stopRequestFloorsGoingDown, ArrayList<Integer> destinationFloors, long version) {
+        this(elevatorId, direction, floorNumber, stopRequestFloorsGoingUp, stopRequestFloorsGoingDown, destinationFloors, 0, version);
+    }
+
+    /**
+     * Creates a status snapshot that also carries the load of the elevator, so a dispatcher can tell if the
+     * elevator is full when it reaches a floor.
+     *
+     * @param elevatorId                 The elevator id.
+     * @param direction                  The direction of travel.
+     * @param floorNumber                The current floor of the elevator.
+     * @param stopRequestFloorsGoingUp   The floors with a pending request going up.
+     * @param stopRequestFloorsGoingDown The floors with a pending request going down.
+     * @param destinationFloors          The destination floor of each passenger on board.
+     * @param passengerCount             The number of passengers on board.
+     * @param version                    The version of the snapshot.
+     */
+    public ElevatorStatus(int elevatorId, Direction direction, int floorNumber, ArrayList<Integer> stopRequestFloorsGoingUp, ArrayList<Integer> stopRequestFloorsGoingDown, ArrayList<Integer> destinationFloors, int passengerCount, long version) {
         this.elevatorId = elevatorId;
         this.direction = direction;
         this.floorNumber = floorNumber;
         this.stopRequestFloorsGoingUp = stopRequestFloorsGoingUp;
         this.stopRequestFloorsGoingDown = stopRequestFloorsGoingDown;
+        this.destinationFloors = destinationFloors;
+        this.passengerCount = passengerCount;
+        this.version = version;
     }
 
     /**
@@ -57,37 +112,80 @@ public class ElevatorStatus implements Serializable {
     }
 
     /**
-     * Serializes an {@link ElevatorStatus} object into a byte array.
+     * Gets the floors the elevator has to stop at whatever its direction of travel: the destination floor of each
+     * passenger on board, so a floor is listed once for every passenger leaving there.
+     *
+     * @return The list of floor numbers, in increasing order
+     */
+    public ArrayList<Integer> getDestinationFloors() {
+        return destinationFloors;
+    }
+
+    /**
+     * Gets the number of passengers on board.
+     *
+     * @return The passenger count.
+     */
+    public int getPassengerCount() {
+        return passengerCount;
+    }
+
+    /**
+     * Checks if the elevator is full, so it leaves new passengers behind.
+     *
+     * @return True if the elevator is full, false otherwise.
+     */
+    public boolean isAtMaxCapacity() {
+        return passengerCount >= Constants.MAX_PASSENGER_COUNT;
+    }
+
+    /**
+     * Gets the version of this status snapshot.
+     *
+     * @return The version number.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks if this status describes the same floor, direction and stop requests as the given one.
+     *
+     * @param other The status to compare with.
+     * @return True if nothing the scheduler dispatches on has changed, false otherwise.
+     */
+    public boolean hasSameStateAs(ElevatorStatus other) {
+        return other != null
+                && elevatorId == other.elevatorId
+                && direction == other.direction
+                && floorNumber == other.floorNumber
+                && stopRequestFloorsGoingUp.equals(other.stopRequestFloorsGoingUp)
+                && stopRequestFloorsGoingDown.equals(other.stopRequestFloorsGoingDown)
+                && destinationFloors.equals(other.destinationFloors)
+                && passengerCount == other.passengerCount;
+    }
+
+    /**
+     * Serializes an {@link ElevatorStatus} object into a byte array using the {@link MessageCodec} wire format.
      *
      * @param status The {@link ElevatorStatus} to be serialized.
      * @return A byte array containing the serialized data.
      */
     public static byte[] serializeStatus(ElevatorStatus status) {
-        byte[] statusBytes = null;
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(); ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-            oos.writeObject(status);
-            statusBytes = bos.toByteArray();
-        } catch (IOException e) {
-            System.err.println(e);
-            System.exit(1);
-        }
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MAX_MESSAGE_SIZE);
+        MessageCodec.encodeElevatorStatus(status, buffer);
+        byte[] statusBytes = new byte[buffer.position()];
+        buffer.flip().get(statusBytes);
         return statusBytes;
     }
 
     /**
-     * Deserializes a byte array into an {@link ElevatorStatus} object.
+     * Deserializes a byte array in the {@link MessageCodec} wire format into an {@link ElevatorStatus} object.
      *
      * @param statusBytes The byte array containing the serialized data.
      * @return The deserialized {@link ElevatorStatus} object.
      */
     public static ElevatorStatus deserializeStatus(byte[] statusBytes) {
-        ElevatorStatus deserializedStatus = null;
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(statusBytes); ObjectInputStream ois = new ObjectInputStream(bis)) {
-            deserializedStatus = (ElevatorStatus) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println(e);
-            System.exit(1);
-        }
-        return deserializedStatus;
+        return MessageCodec.decodeElevatorStatus(ByteBuffer.wrap(statusBytes));
     }
 }
@@ -0,0 +1,17 @@
+package Common;
+
+/**
+ * LogLevel.java
+ * <p>
+ * The levels of the messages printed by the {@link LogPrinter}, from the least to the most important.
+ * <p>
+ * - {@link LogLevel#INFO}: The step by step log of the elevators, the scheduler and the floors. <p>
+ * - {@link LogLevel#WARNING}: Something unexpected that the system recovers from. <p>
+ * - {@link LogLevel#ERROR}: A fault. <p>
+ * - {@link LogLevel#OFF}: Used as the lowest printed level to print nothing.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public enum LogLevel {
+    INFO, WARNING, ERROR, OFF
+}
@@ -1,18 +1,37 @@
 package Common;
 
+import java.io.PrintStream;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * LogPrinter.java
  * <p>
  * A utility class for printing colored text to the console.
+ * <p>
+ * Messages are not printed by the calling thread. They are put in a {@link LogRingBuffer} and a single writer
+ * thread prints them in batches, so elevator and scheduler threads never wait for the console, even inside
+ * synchronized methods. If the console cannot keep up and the buffer fills, new messages are dropped and the
+ * number of dropped messages is printed instead. Messages below the current {@link LogLevel} are discarded before
+ * they reach the buffer.
  *
  * @version 1.0, March 17, 2024
  */
 public class LogPrinter {
 
     private static final String RESET = "\u001B[0m";
+    private static final String WARNING_PREFIX = "\u001B[43m" + "\u001B[30m";
+    private static final String ERROR_PREFIX = "\u001B[30m" + "\u001B[101m";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    // Longest time a flush waits for the writer thread
+    private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+    // Large simulations turn the log off, since printing would take most of the run time
+    private static volatile LogLevel level = LogLevel.INFO;
 
     // An array of RGB color values for different colors
     private static final int[][] COLORS = {
@@ -27,6 +46,30 @@ public class LogPrinter {
             {80, 80, 220}       // Blue
     };
 
+    // Escape sequences of the message styles: one per color, then the warning and the error style
+    private static final int WARNING_STYLE = COLORS.length;
+    private static final int ERROR_STYLE = COLORS.length + 1;
+    private static final String[] PREFIXES = new String[COLORS.length + 2];
+
+    private static final LogRingBuffer buffer = new LogRingBuffer(Constants.LOG_BUFFER_SIZE);
+    private static final LongAdder droppedMessages = new LongAdder();
+    private static final Thread writer;
+    private static volatile boolean writerParked;
+    private static volatile boolean writing;
+
+    static {
+        for (int i = 0; i < COLORS.length; i++) {
+            PREFIXES[i] = getColorString(COLORS[i]);
+        }
+        PREFIXES[WARNING_STYLE] = WARNING_PREFIX;
+        PREFIXES[ERROR_STYLE] = ERROR_PREFIX;
+
+        writer = new Thread(LogPrinter::writeMessages, "LogWriter");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(LogPrinter::flush, "LogFlush"));
+    }
+
     /**
      * Generates an ANSI escape sequence for the specified RGB color.
      *
@@ -48,7 +91,9 @@ public class LogPrinter {
      * @param text  The text to be printed.
      */
     public static void print(int index, String text) {
-        System.out.println(getColorString(COLORS[index % COLORS.length]) + text + RESET);
+        if (isEnabled(LogLevel.INFO)) {
+            enqueue(Math.floorMod(index, COLORS.length), text);
+        }
     }
 
     /**
@@ -57,7 +102,9 @@ public class LogPrinter {
      * @param text The error message.
      */
     public static void printError(String text) {
-        System.out.println("\u001B[30m" + "\u001B[101m" + text + RESET);
+        if (isEnabled(LogLevel.ERROR)) {
+            enqueue(ERROR_STYLE, text);
+        }
     }
 
     /**
@@ -66,7 +113,9 @@ public class LogPrinter {
      * @param text The warning message.
      */
     public static void printWarning(String text) {
-        System.out.println("\u001B[43m" + "\u001B[30m" + text + RESET);
+        if (isEnabled(LogLevel.WARNING)) {
+            enqueue(WARNING_STYLE, text);
+        }
     }
 
     /**
@@ -75,11 +124,105 @@ public class LogPrinter {
      * @return Timestamp string
      */
     public static String getTimestamp() {
-        LocalTime currentTime = LocalTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
-        return "(" + currentTime.format(formatter) + ")";
+        LocalTime currentTime = SimulationClock.getInstance().now();
+        return "(" + currentTime.format(TIMESTAMP_FORMAT) + ")";
     }
 
     public static int[][] getColors() {return COLORS;}
 
+    /**
+     * Turns the log output on or off.
+     *
+     * @param enabled True to print all log messages, false to discard them
+     */
+    public static void setEnabled(boolean enabled) {
+        setLevel(enabled ? LogLevel.INFO : LogLevel.OFF);
+    }
+
+    /**
+     * Sets the least important level of the messages that are printed.
+     *
+     * @param level The lowest printed level, or {@link LogLevel#OFF} to print nothing
+     */
+    public static void setLevel(LogLevel level) {
+        LogPrinter.level = level;
+    }
+
+    /**
+     * Checks whether messages of the given level are printed. Callers can check this before building an
+     * expensive message.
+     *
+     * @param messageLevel The level of the message
+     * @return True if messages of the level are printed
+     */
+    public static boolean isEnabled(LogLevel messageLevel) {
+        return messageLevel.compareTo(level) >= 0 && messageLevel != LogLevel.OFF;
+    }
+
+    /**
+     * Gets the number of messages dropped because the buffer was full, since the last time the writer thread
+     * reported them.
+     *
+     * @return The number of dropped messages
+     */
+    public static long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    /**
+     * Waits until every message logged so far has been printed, or the flush timeout has passed.
+     */
+    public static void flush() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT_MILLIS);
+        while ((!buffer.isEmpty() || writing) && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Adds a message to the buffer and wakes up the writer thread if it is waiting for messages.
+     *
+     * @param style The style of the message
+     * @param text  The message
+     */
+    private static void enqueue(int style, String text) {
+        if (!buffer.offer(style, text)) {
+            droppedMessages.increment();
+        } else if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Runs the writer thread: prints the buffered messages in batches and waits when there are none.
+     */
+    private static void writeMessages() {
+        StringBuilder batch = new StringBuilder(Constants.LOG_BATCH_SIZE * 100);
+        while (true) {
+            writing = true;
+            int count = buffer.drain((text, style) -> batch.append(PREFIXES[style]).append(text).append(RESET).append('\n'), Constants.LOG_BATCH_SIZE);
+            long dropped = droppedMessages.sumThenReset();
+            if (dropped > 0) {
+                batch.append(WARNING_PREFIX).append("Log buffer full, dropped ").append(dropped).append(" messages").append(RESET).append('\n');
+            }
+            if (batch.length() > 0) {
+                PrintStream out = System.out;
+                out.print(batch);
+                out.flush();
+                batch.setLength(0);
+            }
+            writing = false;
+            if (count > 0) {
+                continue;
+            }
+
+            // Park only if no message arrived after the drain, since its writer may have missed the flag
+            writerParked = true;
+            if (buffer.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            writerParked = false;
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package Common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * LogRingBuffer.java
+ * <p>
+ * A bounded queue of log messages that many threads can add to without locking, emptied by a single reader.
+ * Every slot carries a sequence number telling whether it is free for the writer of a given position or filled
+ * for the reader, so a writer only has to claim a position with one compare-and-set. When the buffer is full,
+ * new messages are rejected instead of waiting for the reader.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class LogRingBuffer {
+
+    private final int mask;
+    private final String[] messages;
+    private final int[] styles;
+    private final AtomicLongArray sequences;
+    private final AtomicLong writePosition = new AtomicLong();
+    private volatile long readPosition;
+
+    /**
+     * Creates a ring buffer.
+     *
+     * @param capacity The number of messages the buffer holds, rounded up to a power of two.
+     */
+    public LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.messages = new String[size];
+        this.styles = new int[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a message to the buffer without blocking.
+     *
+     * @param style   The style the message is printed with.
+     * @param message The message.
+     * @return True if the message was added, false if the buffer is full.
+     */
+    public boolean offer(int style, String message) {
+        while (true) {
+            long position = writePosition.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference < 0) {
+                return false;
+            } else if (difference == 0 && writePosition.compareAndSet(position, position + 1)) {
+                messages[slot] = message;
+                styles[slot] = style;
+                // Publishing the sequence hands the slot to the reader
+                sequences.set(slot, position + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes up to the given number of messages from the buffer in the order they were added. Must only be
+     * called by one thread.
+     *
+     * @param consumer    Called with each message and its style.
+     * @param maxMessages The largest number of messages to remove.
+     * @return The number of messages removed.
+     */
+    public int drain(ObjIntConsumer<String> consumer, int maxMessages) {
+        int drained = 0;
+        while (drained < maxMessages) {
+            int slot = (int) readPosition & mask;
+            if (sequences.get(slot) != readPosition + 1) {
+                break;
+            }
+            String message = messages[slot];
+            int style = styles[slot];
+            messages[slot] = null;
+            // Free the slot for the writer that comes around the buffer next
+            sequences.set(slot, readPosition + mask + 1);
+            readPosition++;
+            consumer.accept(message, style);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Checks whether the buffer holds no messages.
+     *
+     * @return True if no message is waiting to be read.
+     */
+    public boolean isEmpty() {
+        return writePosition.get() == readPosition;
+    }
+
+    /**
+     * Gets the number of messages the buffer holds at most.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,368 @@
+package Common;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+
+/**
+ * MessageCodec.java
+ * <p>
+ * Compact binary wire format for the messages exchanged between the scheduler, the elevators and the floors.
+ * Every message starts with a two byte header (codec version and message tag) followed by the fixed-layout
+ * primitive fields of the message. Messages are encoded straight into a caller supplied {@link ByteBuffer} so
+ * the buffer can be reused between sends.
+ * <p>
+ * Layouts (all integers big-endian):
+ * <pre>
+ * header           version:u8 tag:u8
+ * SystemRequest    type:u8 correlationId:i32 id:i32 floorNumber:i16 direction:i8 state:u8 elevatorRequest:ER requestCount:i16 ER*
+ *                  statusPresent:u8 [ES]
+ * ElevatorRequest  present:u8 [requestId:i32 time:i64 floor:i16 carButton:i16 status:u8 fault:i8 floorButtonLength:i8
+ *                  ascii* releaseTime:i64 assignDelay:i32 pickUpDelay:i32 completionDelay:i32]
+ * ElevatorStatus   elevatorId:i32 version:i64 direction:i8 floorNumber:i16 upCount:i16 i16* downCount:i16 i16*
+ *                  destinationCount:i16 i16* passengerCount:i16
+ * </pre>
+ * A direction or fault of -1, a time of -1 and a count of -1 stand for null. The correlation id and elevator id
+ * of a SystemRequest sit at fixed offsets so a relay can match a reply to its query without decoding it. The
+ * assignment, pick up and completion times of a request are sent as delays after its release time, -1 if the
+ * step did not happen yet or the request was never released.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public final class MessageCodec {
+
+    public static final byte VERSION = 7;
+
+    // Largest message the codec and the transports expect to handle
+    public static final int MAX_MESSAGE_SIZE = 4096;
+
+    // Most elevator requests sent in the list of one message, so the message stays within MAX_MESSAGE_SIZE
+    public static final int MAX_REQUESTS_PER_MESSAGE = 64;
+
+    // Offsets of the SystemRequest fields that can be read without decoding the message
+    private static final int TYPE_OFFSET = 2;
+    private static final int CORRELATION_ID_OFFSET = 3;
+    private static final int ID_OFFSET = 7;
+
+    // Message tags
+    public static final byte SYSTEM_REQUEST_TAG = 1;
+    public static final byte ELEVATOR_REQUEST_TAG = 2;
+    public static final byte ELEVATOR_STATUS_TAG = 3;
+
+    private static final SystemRequestType[] REQUEST_TYPES = SystemRequestType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final RequestStatus[] REQUEST_STATUSES = RequestStatus.values();
+    private static final FaultType[] FAULT_TYPES = FaultType.values();
+
+    private MessageCodec() {
+    }
+
+    /**
+     * Encodes a {@link SystemRequest} into the given buffer, starting at its current position.
+     *
+     * @param request The request to encode.
+     * @param buffer  The destination buffer.
+     * @throws IllegalArgumentException If the request holds more than {@link #MAX_REQUESTS_PER_MESSAGE} elevator
+     *                                  requests in its list.
+     */
+    public static void encodeSystemRequest(SystemRequest request, ByteBuffer buffer) {
+        ArrayList<ElevatorRequest> requests = request.getElevatorRequests();
+        if (requests != null && requests.size() > MAX_REQUESTS_PER_MESSAGE) {
+            throw new IllegalArgumentException("A message holds at most " + MAX_REQUESTS_PER_MESSAGE
+                    + " elevator requests, not " + requests.size());
+        }
+
+        writeHeader(buffer, SYSTEM_REQUEST_TAG);
+        buffer.put((byte) request.getType().ordinal());
+        buffer.putInt(request.getCorrelationId());
+        buffer.putInt(request.getId());
+        buffer.putShort((short) request.getFloorNumber());
+        buffer.put(encodeDirection(request.getDirection()));
+        buffer.put((byte) (request.getState() ? 1 : 0));
+        writeElevatorRequest(request.getElevatorRequest(), buffer);
+
+        if (requests == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) requests.size());
+            for (ElevatorRequest r : requests) {
+                writeElevatorRequest(r, buffer);
+            }
+        }
+
+        if (request.getElevatorStatus() == null) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) 1);
+            writeElevatorStatus(request.getElevatorStatus(), buffer);
+        }
+    }
+
+    /**
+     * Decodes a {@link SystemRequest} from the given buffer, starting at its current position.
+     *
+     * @param buffer The source buffer.
+     * @return The decoded request.
+     */
+    public static SystemRequest decodeSystemRequest(ByteBuffer buffer) {
+        try {
+            readHeader(buffer, SYSTEM_REQUEST_TAG);
+            SystemRequestType type = REQUEST_TYPES[buffer.get()];
+            int correlationId = buffer.getInt();
+            int id = buffer.getInt();
+            int floorNumber = buffer.getShort();
+            Direction direction = decodeDirection(buffer.get());
+            boolean state = buffer.get() != 0;
+            ElevatorRequest elevatorRequest = readElevatorRequest(buffer);
+
+            ArrayList<ElevatorRequest> requests = null;
+            int count = buffer.getShort();
+            if (count >= 0) {
+                requests = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    requests.add(readElevatorRequest(buffer));
+                }
+            }
+            ElevatorStatus status = buffer.get() == 0 ? null : readElevatorStatus(buffer);
+            return new SystemRequest(type, correlationId, id, floorNumber, direction, state, elevatorRequest, requests, status);
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed system request message", e);
+        }
+    }
+
+    /**
+     * Encodes an {@link ElevatorRequest} (which may be null) into the given buffer.
+     *
+     * @param request The request to encode, or null.
+     * @param buffer  The destination buffer.
+     */
+    public static void encodeElevatorRequest(ElevatorRequest request, ByteBuffer buffer) {
+        writeHeader(buffer, ELEVATOR_REQUEST_TAG);
+        writeElevatorRequest(request, buffer);
+    }
+
+    /**
+     * Decodes an {@link ElevatorRequest} (which may be null) from the given buffer.
+     *
+     * @param buffer The source buffer.
+     * @return The decoded request, or null if a null request was encoded.
+     */
+    public static ElevatorRequest decodeElevatorRequest(ByteBuffer buffer) {
+        try {
+            readHeader(buffer, ELEVATOR_REQUEST_TAG);
+            return readElevatorRequest(buffer);
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed elevator request message", e);
+        }
+    }
+
+    /**
+     * Encodes an {@link ElevatorStatus} into the given buffer.
+     *
+     * @param status The status to encode.
+     * @param buffer The destination buffer.
+     */
+    public static void encodeElevatorStatus(ElevatorStatus status, ByteBuffer buffer) {
+        writeHeader(buffer, ELEVATOR_STATUS_TAG);
+        writeElevatorStatus(status, buffer);
+    }
+
+    /**
+     * Decodes an {@link ElevatorStatus} from the given buffer.
+     *
+     * @param buffer The source buffer.
+     * @return The decoded status.
+     */
+    public static ElevatorStatus decodeElevatorStatus(ByteBuffer buffer) {
+        try {
+            readHeader(buffer, ELEVATOR_STATUS_TAG);
+            return readElevatorStatus(buffer);
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed elevator status message", e);
+        }
+    }
+
+    /**
+     * Returns the message tag of an encoded message without consuming it.
+     *
+     * @param buffer The buffer holding the message at its current position.
+     * @return The message tag.
+     */
+    public static byte peekTag(ByteBuffer buffer) {
+        return buffer.get(buffer.position() + 1);
+    }
+
+    /**
+     * Returns the type of an encoded {@link SystemRequest} without consuming it.
+     *
+     * @param buffer The buffer holding the message at its current position.
+     * @return The request type.
+     */
+    public static SystemRequestType peekType(ByteBuffer buffer) {
+        return REQUEST_TYPES[buffer.get(buffer.position() + TYPE_OFFSET)];
+    }
+
+    /**
+     * Returns the correlation id of an encoded {@link SystemRequest} without consuming it.
+     *
+     * @param buffer The buffer holding the message at its current position.
+     * @return The correlation id.
+     */
+    public static int peekCorrelationId(ByteBuffer buffer) {
+        return buffer.getInt(buffer.position() + CORRELATION_ID_OFFSET);
+    }
+
+    /**
+     * Returns the elevator id of an encoded {@link SystemRequest} without consuming it.
+     *
+     * @param buffer The buffer holding the message at its current position.
+     * @return The elevator id.
+     */
+    public static int peekId(ByteBuffer buffer) {
+        return buffer.getInt(buffer.position() + ID_OFFSET);
+    }
+
+    private static void writeHeader(ByteBuffer buffer, byte tag) {
+        buffer.put(VERSION);
+        buffer.put(tag);
+    }
+
+    private static void readHeader(ByteBuffer buffer, byte expectedTag) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported message version " + version + ", expected " + VERSION);
+        }
+        byte tag = buffer.get();
+        if (tag != expectedTag) {
+            throw new IllegalArgumentException("Unexpected message tag " + tag + ", expected " + expectedTag);
+        }
+    }
+
+    private static void writeElevatorRequest(ElevatorRequest request, ByteBuffer buffer) {
+        if (request == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put((byte) 1);
+        buffer.putInt(request.getRequestId());
+        buffer.putLong(request.getTime() == null ? -1 : request.getTime().toNanoOfDay());
+        buffer.putShort((short) request.getFloor());
+        buffer.putShort((short) request.getCarButton());
+        buffer.put((byte) request.getStatus().ordinal());
+        buffer.put(request.getFault() == null ? -1 : (byte) request.getFault().ordinal());
+
+        String floorButton = request.getFloorButton();
+        if (floorButton == null) {
+            buffer.put((byte) -1);
+        } else {
+            buffer.put((byte) floorButton.length());
+            for (int i = 0; i < floorButton.length(); i++) {
+                buffer.put((byte) floorButton.charAt(i));
+            }
+        }
+
+        long releaseTime = request.getReleaseTime();
+        buffer.putLong(releaseTime);
+        buffer.putInt(encodeDelay(releaseTime, request.getAssignTime()));
+        buffer.putInt(encodeDelay(releaseTime, request.getPickUpTime()));
+        buffer.putInt(encodeDelay(releaseTime, request.getCompletionTime()));
+    }
+
+    private static ElevatorRequest readElevatorRequest(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        int requestId = buffer.getInt();
+        long nanoOfDay = buffer.getLong();
+        int floor = buffer.getShort();
+        int carButton = buffer.getShort();
+        RequestStatus status = REQUEST_STATUSES[buffer.get()];
+        byte fault = buffer.get();
+
+        String floorButton = null;
+        int length = buffer.get();
+        if (length >= 0) {
+            byte[] chars = new byte[length];
+            buffer.get(chars);
+            floorButton = new String(chars, StandardCharsets.US_ASCII);
+        }
+        long releaseTime = buffer.getLong();
+        int assignDelay = buffer.getInt();
+        int pickUpDelay = buffer.getInt();
+        int completionDelay = buffer.getInt();
+
+        LocalTime time = nanoOfDay < 0 ? null : LocalTime.ofNanoOfDay(nanoOfDay);
+        ElevatorRequest request = new ElevatorRequest(time, floor, floorButton, carButton, fault < 0 ? null : FAULT_TYPES[fault]);
+        request.setRequestId(requestId);
+        request.setStatus(status);
+        request.setReleaseTime(releaseTime);
+        request.setAssignTime(decodeDelay(releaseTime, assignDelay));
+        request.setPickUpTime(decodeDelay(releaseTime, pickUpDelay));
+        request.setCompletionTime(decodeDelay(releaseTime, completionDelay));
+        return request;
+    }
+
+    private static void writeElevatorStatus(ElevatorStatus status, ByteBuffer buffer) {
+        buffer.putInt(status.getElevatorId());
+        buffer.putLong(status.getVersion());
+        buffer.put(encodeDirection(status.getDirection()));
+        buffer.putShort((short) status.getFloorNumber());
+        writeFloorList(status.getStopRequestFloorsInDirection(Direction.UP), buffer);
+        writeFloorList(status.getStopRequestFloorsInDirection(Direction.DOWN), buffer);
+        writeFloorList(status.getDestinationFloors(), buffer);
+        buffer.putShort((short) status.getPassengerCount());
+    }
+
+    private static ElevatorStatus readElevatorStatus(ByteBuffer buffer) {
+        int elevatorId = buffer.getInt();
+        long version = buffer.getLong();
+        Direction direction = decodeDirection(buffer.get());
+        int floorNumber = buffer.getShort();
+        ArrayList<Integer> up = readFloorList(buffer);
+        ArrayList<Integer> down = readFloorList(buffer);
+        ArrayList<Integer> destinations = readFloorList(buffer);
+        int passengerCount = buffer.getShort();
+        return new ElevatorStatus(elevatorId, direction, floorNumber, up, down, destinations, passengerCount, version);
+    }
+
+    private static void writeFloorList(ArrayList<Integer> floors, ByteBuffer buffer) {
+        if (floors == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        buffer.putShort((short) floors.size());
+        for (int floor : floors) {
+            buffer.putShort((short) floor);
+        }
+    }
+
+    private static ArrayList<Integer> readFloorList(ByteBuffer buffer) {
+        int count = buffer.getShort();
+        if (count < 0) {
+            return null;
+        }
+        ArrayList<Integer> floors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            floors.add((int) buffer.getShort());
+        }
+        return floors;
+    }
+
+    private static int encodeDelay(long releaseTime, long time) {
+        return releaseTime < 0 || time < releaseTime ? -1 : (int) Math.min(Integer.MAX_VALUE, time - releaseTime);
+    }
+
+    private static long decodeDelay(long releaseTime, int delay) {
+        return releaseTime < 0 || delay < 0 ? -1 : releaseTime + delay;
+    }
+
+    private static byte encodeDirection(Direction direction) {
+        return direction == null ? -1 : (byte) direction.ordinal();
+    }
+
+    private static Direction decodeDirection(byte value) {
+        return value < 0 ? null : DIRECTIONS[value];
+    }
+}
@@ -0,0 +1,68 @@
+package Common;
+
+/**
+ * MessageTransport.java
+ * <p>
+ * Represents the transport used by the scheduler, elevators and floors to exchange messages.
+ * Only SystemRequest messages are exchanged through this interface. Transports that also carry raw bytes,
+ * as the scheduler needs to relay replies, implement {@link RelayTransport}.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public interface MessageTransport {
+
+    /**
+     * Opens the default transport implementation selected by {@link Constants#USE_CHANNEL_TRANSPORT}.
+     *
+     * @param socketPort      The socket port for sending and receiving data (0 for any free port).
+     * @param destinationPort The default destination port for sending data.
+     * @return The new transport.
+     */
+    static MessageTransport open(int socketPort, int destinationPort) {
+        return RelayTransport.open(socketPort, destinationPort);
+    }
+
+    /**
+     * Receives a SystemRequest object.
+     *
+     * @return The decoded SystemRequest object.
+     */
+    SystemRequest receiveSystemRequest();
+
+    /**
+     * Receives a SystemRequest object, waiting at most the given time for it.
+     *
+     * @param timeoutMillis The longest time to wait in milliseconds.
+     * @return The decoded SystemRequest object, or null if nothing was received in time.
+     */
+    SystemRequest receiveSystemRequest(int timeoutMillis);
+
+    /**
+     * Sends a SystemRequest object to the default destination port.
+     *
+     * @param systemRequest The SystemRequest to be sent.
+     */
+    void sendSystemRequest(SystemRequest systemRequest);
+
+    /**
+     * Sends a SystemRequest object to a specific destination port.
+     *
+     * @param systemRequest   The SystemRequest to be sent.
+     * @param destinationPort The destination port for sending the request.
+     */
+    void sendSystemRequest(SystemRequest systemRequest, int destinationPort);
+
+    /**
+     * Gets the port of the sender of the last received message.
+     *
+     * @return The last sender port.
+     */
+    int getLastSenderPort();
+
+    /**
+     * Gets the local port the transport is bound to.
+     *
+     * @return The local port.
+     */
+    int getLocalPort();
+}
@@ -0,0 +1,106 @@
+package Common;
+
+/**
+ * PendingResponseTable.java
+ * <p>
+ * Keeps track of the queries that are waiting for a reply, keyed by the correlation id carried by the query
+ * and its reply. Replies can then be matched to their query in any order. Each entry holds the port waiting
+ * for the reply and the time the query was sent.
+ * <p>
+ * The table is a fixed size ring indexed by the correlation id, so adding and removing entries does not
+ * allocate. Correlation ids are expected to be handed out in increasing order by a single requester.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class PendingResponseTable {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] correlationIds;
+    private final int[] ports;
+    private final long[] sentTimes;
+    private final boolean[] occupied;
+    private final int mask;
+    private int size;
+
+    /**
+     * Creates a table with the default capacity.
+     */
+    public PendingResponseTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a table that can hold the given number of outstanding queries.
+     *
+     * @param capacity The maximum number of outstanding queries, rounded up to a power of two.
+     */
+    public PendingResponseTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.correlationIds = new int[size];
+        this.ports = new int[size];
+        this.sentTimes = new long[size];
+        this.occupied = new boolean[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Records a query waiting for a reply.
+     *
+     * @param correlationId The correlation id of the query.
+     * @param port          The port waiting for the reply.
+     * @param sentNanos     The time the query was sent, from {@link System#nanoTime()}.
+     * @return True if the entry was added, false if it replaced a query that never got a reply.
+     */
+    public synchronized boolean put(int correlationId, int port, long sentNanos) {
+        int slot = correlationId & mask;
+        boolean replaced = occupied[slot];
+        if (!replaced) {
+            size++;
+        }
+        correlationIds[slot] = correlationId;
+        ports[slot] = port;
+        sentTimes[slot] = sentNanos;
+        occupied[slot] = true;
+        return !replaced;
+    }
+
+    /**
+     * Removes the query with the given correlation id.
+     *
+     * @param correlationId The correlation id carried by the reply.
+     * @return The port waiting for the reply, or -1 if no such query is pending.
+     */
+    public synchronized int remove(int correlationId) {
+        int slot = correlationId & mask;
+        if (!occupied[slot] || correlationIds[slot] != correlationId) {
+            return -1;
+        }
+        occupied[slot] = false;
+        size--;
+        return ports[slot];
+    }
+
+    /**
+     * Gets the time a pending query was sent.
+     *
+     * @param correlationId The correlation id of the query.
+     * @return The send time from {@link System#nanoTime()}, or -1 if no such query is pending.
+     */
+    public synchronized long getSentNanos(int correlationId) {
+        int slot = correlationId & mask;
+        if (!occupied[slot] || correlationIds[slot] != correlationId) {
+            return -1;
+        }
+        return sentTimes[slot];
+    }
+
+    /**
+     * Gets the number of queries waiting for a reply.
+     *
+     * @return The number of pending queries.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
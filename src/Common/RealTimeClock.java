@@ -0,0 +1,81 @@
+package Common;
+
+import java.time.LocalTime;
+
+/**
+ * RealTimeClock.java
+ * <p>
+ * A {@link SimulationClock} that follows the wall clock. Used when the scheduler, the elevators and the floors
+ * run in separate processes.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class RealTimeClock extends SimulationClock {
+
+    /**
+     * Gets the current wall clock time.
+     *
+     * @return The current time in milliseconds since the epoch.
+     */
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Sleeps for the given amount of time.
+     *
+     * @param millis The time to sleep in milliseconds.
+     * @throws InterruptedException If the thread is interrupted while sleeping.
+     */
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    /**
+     * Gets the current wall clock time of day, at the full precision of the system clock.
+     *
+     * @return The current time of day.
+     */
+    @Override
+    public LocalTime now() {
+        return LocalTime.now();
+    }
+
+    /**
+     * Waits until the given signal is fired or the given amount of time has passed.
+     *
+     * @param signal        The signal to wait on.
+     * @param timeoutMillis The longest time to wait in milliseconds, or 0 to wait without a time limit.
+     * @return True if the signal was fired, false if the time ran out.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    @Override
+    public boolean awaitSignal(WakeupSignal signal, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (signal) {
+            while (!signal.consume()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (timeoutMillis > 0 && remaining <= 0) {
+                    return false;
+                }
+                signal.wait(timeoutMillis > 0 ? remaining : 0);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fires the given signal, waking up the thread waiting on it.
+     *
+     * @param signal The signal to fire.
+     */
+    @Override
+    public void fireSignal(WakeupSignal signal) {
+        synchronized (signal) {
+            signal.set();
+            signal.notifyAll();
+        }
+    }
+}
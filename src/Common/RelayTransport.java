@@ -0,0 +1,75 @@
+package Common;
+
+import java.nio.ByteBuffer;
+
+/**
+ * RelayTransport.java
+ * <p>
+ * Represents a {@link MessageTransport} that also carries raw bytes, so received messages can be relayed
+ * without being decoded. Implementations are {@link UDPSenderReceiver} (blocking DatagramSocket) and
+ * {@link UDPChannelTransport} (DatagramChannel with pooled direct buffers).
+ *
+ * @version 1.0, March 17, 2024
+ */
+public interface RelayTransport extends MessageTransport {
+
+    /**
+     * Opens the default transport implementation selected by {@link Constants#USE_CHANNEL_TRANSPORT}.
+     *
+     * @param socketPort      The socket port for sending and receiving data (0 for any free port).
+     * @param destinationPort The default destination port for sending data.
+     * @return The new transport.
+     */
+    static RelayTransport open(int socketPort, int destinationPort) {
+        if (Constants.USE_CHANNEL_TRANSPORT) {
+            return new UDPChannelTransport(socketPort, destinationPort);
+        }
+        return new UDPSenderReceiver(socketPort, destinationPort);
+    }
+
+    /**
+     * Receives a response.
+     *
+     * @return The received data as a byte array.
+     */
+    byte[] receiveResponse();
+
+    /**
+     * Receives a response into a pooled buffer. The buffer is ready to be read and must be handed back
+     * with {@link #releaseBuffer(ByteBuffer)} once it is no longer needed.
+     *
+     * @return The buffer holding the received data.
+     */
+    ByteBuffer receiveBuffer();
+
+    /**
+     * Returns a buffer obtained from {@link #receiveBuffer()} to the pool.
+     *
+     * @param buffer The buffer to release.
+     */
+    void releaseBuffer(ByteBuffer buffer);
+
+    /**
+     * Sends a response to the default destination port.
+     *
+     * @param msg The response data to be sent.
+     */
+    void sendResponse(byte[] msg);
+
+    /**
+     * Sends a response to a specific destination port.
+     *
+     * @param msg             The response data to be sent.
+     * @param destinationPort The destination port for sending the response.
+     */
+    void sendResponse(byte[] msg, int destinationPort);
+
+    /**
+     * Sends the remaining bytes of the given buffer to a specific destination port. The position of the
+     * buffer is left unchanged so the same data can be sent more than once.
+     *
+     * @param buffer          The buffer holding the data to be sent.
+     * @param destinationPort The destination port for sending the data.
+     */
+    void sendBuffer(ByteBuffer buffer, int destinationPort);
+}
@@ -0,0 +1,93 @@
+package Common;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * SimulationClock.java
+ * <p>
+ * The clock used by the elevators and the floors for every delay and timestamp of the simulation. The default
+ * {@link RealTimeClock} follows the wall clock, while a {@link VirtualTimeClock} lets the simulation skip the
+ * time in which every thread is waiting.
+ * <p>
+ * Threads that drive the simulation forward (the elevators and the floor subsystem) register with the clock so
+ * a virtual clock knows when all of them are waiting.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public abstract class SimulationClock {
+
+    private static volatile SimulationClock instance = new RealTimeClock();
+
+    /**
+     * Gets the clock used by the simulation.
+     *
+     * @return The current clock.
+     */
+    public static SimulationClock getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the clock used by the simulation. Must be called before the simulation threads are started.
+     *
+     * @param clock The new clock.
+     */
+    public static void setInstance(SimulationClock clock) {
+        instance = clock;
+    }
+
+    /**
+     * Gets the current time of the clock.
+     *
+     * @return The current time in milliseconds since the epoch.
+     */
+    public abstract long currentTimeMillis();
+
+    /**
+     * Waits until the given amount of clock time has passed.
+     *
+     * @param millis The time to wait in milliseconds.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public abstract void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Waits until the given signal is fired or the given amount of clock time has passed.
+     *
+     * @param signal        The signal to wait on.
+     * @param timeoutMillis The longest time to wait in milliseconds, or 0 to wait without a time limit.
+     * @return True if the signal was fired, false if the time ran out.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public abstract boolean awaitSignal(WakeupSignal signal, long timeoutMillis) throws InterruptedException;
+
+    /**
+     * Fires the given signal, waking up the thread waiting on it.
+     *
+     * @param signal The signal to fire.
+     */
+    public abstract void fireSignal(WakeupSignal signal);
+
+    /**
+     * Registers the calling thread as a thread that drives the simulation forward.
+     */
+    public void register() {
+    }
+
+    /**
+     * Removes the calling thread from the threads that drive the simulation forward.
+     */
+    public void deregister() {
+    }
+
+    /**
+     * Gets the current time of the clock as a time of day.
+     *
+     * @return The current time of day.
+     */
+    public LocalTime now() {
+        return LocalTime.ofInstant(Instant.ofEpochMilli(currentTimeMillis()), ZoneId.systemDefault());
+    }
+}
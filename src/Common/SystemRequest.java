@@ -1,6 +1,7 @@
 package Common;
 
-import java.io.*;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -14,12 +15,14 @@ import java.util.ArrayList;
  */
 public class SystemRequest implements Serializable {
     private int id;
+    private int correlationId;
     private int floorNumber;
     private Direction direction;
     private boolean state;
     private SystemRequestType type;
     private ElevatorRequest elevatorRequest;
     private ArrayList<ElevatorRequest> elevatorRequests;
+    private ElevatorStatus elevatorStatus;
 
     /**
      * Creates a system request with the specified type.
@@ -67,6 +70,19 @@ public class SystemRequest implements Serializable {
         this.id = id;
     }
 
+    /**
+     * Creates a system request with the specified type, elevator status, and ID.
+     *
+     * @param type           The type of the system request.
+     * @param elevatorStatus The associated elevator status.
+     * @param id             The id of the elevator.
+     */
+    public SystemRequest(SystemRequestType type, ElevatorStatus elevatorStatus, int id) {
+        this.type = type;
+        this.elevatorStatus = elevatorStatus;
+        this.id = id;
+    }
+
     /**
      * Creates a system request with the specified type, floor number, direction, and ID.
      *
@@ -100,38 +116,52 @@ public class SystemRequest implements Serializable {
     }
 
     /**
-     * Serializes a {@link SystemRequest} object into a byte array.
+     * Creates a system request with every field set. Used by {@link MessageCodec} when decoding.
+     *
+     * @param type             The type of the system request.
+     * @param correlationId    The id matching a query with its reply.
+     * @param id               The id of the elevator.
+     * @param floorNumber      The floor number associated with the request.
+     * @param direction        The direction of the request (e.g., UP, DOWN).
+     * @param state            The state value related to the system request.
+     * @param elevatorRequest  The associated elevator request.
+     * @param elevatorRequests The associated elevator requests.
+     * @param elevatorStatus   The associated elevator status.
+     */
+    SystemRequest(SystemRequestType type, int correlationId, int id, int floorNumber, Direction direction, boolean state, ElevatorRequest elevatorRequest, ArrayList<ElevatorRequest> elevatorRequests, ElevatorStatus elevatorStatus) {
+        this.type = type;
+        this.correlationId = correlationId;
+        this.id = id;
+        this.floorNumber = floorNumber;
+        this.direction = direction;
+        this.state = state;
+        this.elevatorRequest = elevatorRequest;
+        this.elevatorRequests = elevatorRequests;
+        this.elevatorStatus = elevatorStatus;
+    }
+
+    /**
+     * Serializes a {@link SystemRequest} object into a byte array using the {@link MessageCodec} wire format.
      *
      * @param request The {@link SystemRequest} to be serialized.
      * @return A byte array containing the serialized data.
      */
     public static byte[] serializeRequest(SystemRequest request) {
-        byte[] requestBytes = null;
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(); ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-            oos.writeObject(request);
-            requestBytes = bos.toByteArray();
-        } catch (IOException e) {
-            System.err.println(e);
-            System.exit(1);
-        }
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MAX_MESSAGE_SIZE);
+        MessageCodec.encodeSystemRequest(request, buffer);
+        byte[] requestBytes = new byte[buffer.position()];
+        buffer.flip().get(requestBytes);
         return requestBytes;
     }
 
     /**
-     * Deserializes a byte array into a {@link SystemRequest} object.
+     * Deserializes a byte array in the {@link MessageCodec} wire format into a {@link SystemRequest} object.
      *
      * @param requestBytes The byte array containing the serialized data.
      * @return The deserialized {@link SystemRequest} object.
      */
     public static SystemRequest deserializeRequest(byte[] requestBytes) {
-        SystemRequest deserializedRequest = null;
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(requestBytes); ObjectInputStream ois = new ObjectInputStream(bis)) {
-            deserializedRequest = (SystemRequest) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println(e);
-            System.exit(1);
-        }
-        return deserializedRequest;
+        return MessageCodec.decodeSystemRequest(ByteBuffer.wrap(requestBytes));
     }
 
     /**
@@ -143,6 +173,24 @@ public class SystemRequest implements Serializable {
         return id;
     }
 
+    /**
+     * Gets the correlation id that matches a query with its reply.
+     *
+     * @return The correlation id, or 0 if the request is not a query.
+     */
+    public int getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Sets the correlation id that matches a query with its reply.
+     *
+     * @param correlationId The correlation id.
+     */
+    public void setCorrelationId(int correlationId) {
+        this.correlationId = correlationId;
+    }
+
     /**
      * Gets the floor number related to the request.
      *
@@ -205,6 +253,7 @@ public class SystemRequest implements Serializable {
         // PROCESS_COMPLETED_REQUESTS              floorNumber Direction   elevatorID
         // SET_FLOOR_DIRECTION_LAMPS               floorNumber Direction   state   elevatorID
         // SET_FLOOR_LAMPS                         floorNumber Direction   state   elevatorID
+        // STATUS_UPDATE                           elevatorID
 
         String str = "| RequestType = " + type + " ";
         if (type == SystemRequestType.ADD_NEW_REQUEST) {
@@ -234,4 +283,13 @@ public class SystemRequest implements Serializable {
     public ArrayList<ElevatorRequest> getElevatorRequests() {
         return elevatorRequests;
     }
+
+    /**
+     * Gets the elevator status associated with this system request.
+     *
+     * @return The elevator status.
+     */
+    public ElevatorStatus getElevatorStatus() {
+        return elevatorStatus;
+    }
 }
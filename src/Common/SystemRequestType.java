@@ -17,5 +17,9 @@ public enum SystemRequestType {
     SET_FLOOR_LAMPS,
     ADD_NEW_REQUEST,
     STATUS_REQUEST,
-    ELEVATOR_SHUTDOWN_REQUEST
+    STATUS_UPDATE,
+    ELEVATOR_SHUTDOWN_REQUEST,
+    HALL_CALL_ASSIGNMENT,
+    WAITING_REQUESTS,
+    REVOKE_REQUEST
 }
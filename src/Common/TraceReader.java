@@ -0,0 +1,183 @@
+package Common;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalTime;
+
+/**
+ * TraceReader.java
+ * <p>
+ * Reads the elevator requests of a text input file one line at a time. Each line holds the time offset, the
+ * floor, the floor button, the car button and the fault type separated by spaces, for example
+ * "00:00:05.25 3 Up 7 0". The request times are the offsets added to the given start time.
+ * <p>
+ * Lines are split and parsed by hand instead of with a Scanner and String.split, and only the line being parsed
+ * is held in memory.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class TraceReader implements TraceSource {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final LocalTime startTime;
+    private BufferedReader reader;
+    private int lineNumber;
+
+    /**
+     * Opens a trace file. If the file can not be opened, the trace is empty.
+     *
+     * @param fileName  The name of the input file.
+     * @param startTime The time the offsets in the file are added to.
+     */
+    public TraceReader(String fileName, LocalTime startTime) {
+        this.startTime = startTime;
+        try {
+            this.reader = new BufferedReader(new FileReader(fileName), BUFFER_SIZE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the next request of the trace, skipping blank lines.
+     *
+     * @return The next elevator request, or null if the trace has ended.
+     */
+    @Override
+    public ElevatorRequest next() {
+        if (reader == null) {
+            return null;
+        }
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                ElevatorRequest request = parseLine(line);
+                if (request != null) {
+                    return request;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        close();
+        return null;
+    }
+
+    /**
+     * Closes the trace file.
+     */
+    @Override
+    public void close() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        reader = null;
+    }
+
+    /**
+     * Parses one line of the trace.
+     *
+     * @param line The line.
+     * @return The elevator request, or null if the line is blank.
+     */
+    private ElevatorRequest parseLine(String line) {
+        int[] bounds = new int[10];
+        int fields = 0;
+        int length = line.length();
+        int i = 0;
+        while (fields < 5) {
+            while (i < length && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            bounds[2 * fields] = i;
+            while (i < length && !Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            bounds[2 * fields + 1] = i;
+            fields++;
+        }
+        if (fields == 0) {
+            return null;
+        }
+
+        try {
+            if (fields < 5) {
+                throw new NumberFormatException("Expected 5 fields but found " + fields);
+            }
+            long offsetMillis = parseOffset(line, bounds[0], bounds[1]);
+            int floor = Integer.parseInt(line, bounds[2], bounds[3], 10);
+            String floorButton = line.substring(bounds[4], bounds[5]);
+            int carButton = Integer.parseInt(line, bounds[6], bounds[7], 10);
+            FaultType faultType = switch (Integer.parseInt(line, bounds[8], bounds[9], 10)) {
+                case 0 -> FaultType.NO_FAULT;
+                case 1 -> FaultType.DOOR_FAULT;
+                case 2 -> FaultType.FLOOR_TIMER_FAULT;
+                default -> throw new NumberFormatException("Error: Unrecognized fault type in input file, should be 0, 1, or 2.");
+            };
+            return new ElevatorRequest(startTime.plusNanos(offsetMillis * 1_000_000), floor, floorButton, carButton, faultType);
+        } catch (NumberFormatException e) {
+            LogPrinter.printError("Invalid request on line " + lineNumber + " of the input file: " + line);
+            e.printStackTrace();
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Parses a time offset written as HH:MM:SS, HH:MM:SS.ff or HH:MM.
+     *
+     * @param line  The line holding the offset.
+     * @param start The index of the first character of the offset.
+     * @param end   The index after the last character of the offset.
+     * @return The offset in milliseconds.
+     */
+    private static long parseOffset(String line, int start, int end) {
+        int fraction = line.indexOf('.', start);
+        int wholeEnd = fraction >= 0 && fraction < end ? fraction : end;
+
+        long seconds = 0;
+        int parts = 0;
+        int partStart = start;
+        for (int i = start; i <= wholeEnd; i++) {
+            if (i == wholeEnd || line.charAt(i) == ':') {
+                seconds = seconds * 60 + Integer.parseInt(line, partStart, i, 10);
+                partStart = i + 1;
+                parts++;
+            }
+        }
+        if (parts == 2 && wholeEnd == end) {
+            seconds *= 60;
+        } else if (parts != 3) {
+            throw new NumberFormatException("Invalid time offset: " + line.substring(start, end));
+        }
+
+        // Keep up to three digits of the fraction of a second
+        long millis = 0;
+        int digits = 0;
+        for (int i = wholeEnd + 1; i < end; i++, digits++) {
+            int digit = Character.digit(line.charAt(i), 10);
+            if (digit < 0) {
+                throw new NumberFormatException("Invalid time offset: " + line.substring(start, end));
+            }
+            if (digits < 3) {
+                millis = millis * 10 + digit;
+            }
+        }
+        for (; digits < 3; digits++) {
+            millis *= 10;
+        }
+        return seconds * 1000 + millis;
+    }
+}
@@ -0,0 +1,56 @@
+package Common;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.time.LocalTime;
+
+/**
+ * TraceSource.java
+ * <p>
+ * Represents a stream of elevator requests in the order of their time, read one at a time so a trace of any
+ * length can be replayed without holding it in memory.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public interface TraceSource extends AutoCloseable {
+
+    /**
+     * Opens a trace file, reading it with {@link BinaryTraceReader} if it is a binary trace and with
+     * {@link TraceReader} otherwise.
+     *
+     * @param fileName  The name of the trace file.
+     * @param startTime The time the time offsets in the file are added to.
+     * @return The trace.
+     */
+    static TraceSource open(String fileName, LocalTime startTime) {
+        int magic = 0;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fileName))) {
+            magic = Integer.reverseBytes(in.readInt());
+        } catch (IOException e) {
+            // Too short or missing, the text reader reports it
+        }
+        if (magic == BinaryTraceWriter.MAGIC) {
+            try {
+                return new BinaryTraceReader(fileName, startTime);
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+        return new TraceReader(fileName, startTime);
+    }
+
+    /**
+     * Reads the next request of the trace.
+     *
+     * @return The next elevator request, or null if the trace has ended.
+     */
+    ElevatorRequest next();
+
+    /**
+     * Releases the resources held by the trace.
+     */
+    @Override
+    void close();
+}
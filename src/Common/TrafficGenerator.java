@@ -0,0 +1,233 @@
+package Common;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Random;
+
+/**
+ * TrafficGenerator.java
+ * <p>
+ * Generates synthetic elevator requests for load testing. Requests arrive as a Poisson process at the given
+ * mean rate, their floors follow a {@link TrafficPattern}, and a share of them carry a door or floor timer
+ * fault. The generator is seeded, so the same settings always produce the same requests.
+ * <p>
+ * Run as a program to write a trace file:
+ * TrafficGenerator [pattern] [requestsPerMinute] [minutes] [seed] [traceFile] [doorFaultRate] [floorTimerFaultRate]
+ * A trace file ending in .trace is written in the binary format, any other in the text format of the input files.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class TrafficGenerator implements TraceSource {
+
+    // Share of the trips in a peak pattern that go against the main flow or between upper floors
+    private static final double PEAK_COUNTER_FLOW = 0.05;
+    private static final double PEAK_INTER_FLOOR = 0.10;
+    private static final double LUNCH_INTER_FLOOR = 0.10;
+
+    private final TrafficPattern pattern;
+    private final double meanInterArrivalMillis;
+    private final int numberOfFloors;
+    private final long durationMillis;
+    private final double doorFaultRate;
+    private final double floorTimerFaultRate;
+    private final LocalTime startTime;
+    private final Random random;
+    private double offsetMillis;
+
+    /**
+     * Creates a generator without faults.
+     *
+     * @param pattern           The traffic pattern.
+     * @param requestsPerMinute The mean number of requests per minute.
+     * @param numberOfFloors    The number of floors in the building.
+     * @param durationMillis    The length of the trace in milliseconds.
+     * @param seed              The seed of the random numbers.
+     * @param startTime         The time of the start of the trace.
+     */
+    public TrafficGenerator(TrafficPattern pattern, double requestsPerMinute, int numberOfFloors, long durationMillis,
+                            long seed, LocalTime startTime) {
+        this(pattern, requestsPerMinute, numberOfFloors, durationMillis, 0, 0, seed, startTime);
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param pattern             The traffic pattern.
+     * @param requestsPerMinute   The mean number of requests per minute.
+     * @param numberOfFloors      The number of floors in the building, at least 3.
+     * @param durationMillis      The length of the trace in milliseconds.
+     * @param doorFaultRate       The share of requests with a door fault, from 0 to 1.
+     * @param floorTimerFaultRate The share of requests with a floor timer fault, from 0 to 1.
+     * @param seed                The seed of the random numbers.
+     * @param startTime           The time of the start of the trace.
+     */
+    public TrafficGenerator(TrafficPattern pattern, double requestsPerMinute, int numberOfFloors, long durationMillis,
+                            double doorFaultRate, double floorTimerFaultRate, long seed, LocalTime startTime) {
+        if (requestsPerMinute <= 0 || numberOfFloors < 3 || doorFaultRate + floorTimerFaultRate > 1) {
+            throw new IllegalArgumentException("Invalid traffic settings");
+        }
+        this.pattern = pattern;
+        this.meanInterArrivalMillis = 60_000 / requestsPerMinute;
+        this.numberOfFloors = numberOfFloors;
+        this.durationMillis = durationMillis;
+        this.doorFaultRate = doorFaultRate;
+        this.floorTimerFaultRate = floorTimerFaultRate;
+        this.startTime = startTime;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates the next request.
+     *
+     * @return The next elevator request, or null once the length of the trace is reached.
+     */
+    @Override
+    public ElevatorRequest next() {
+        // Exponential gaps between the arrivals make a Poisson process
+        offsetMillis += -Math.log(1 - random.nextDouble()) * meanInterArrivalMillis;
+        if (offsetMillis >= durationMillis) {
+            offsetMillis = durationMillis;
+            return null;
+        }
+
+        int origin;
+        int destination;
+        double trip = random.nextDouble();
+        switch (pattern) {
+            case UP_PEAK -> {
+                if (trip < PEAK_COUNTER_FLOW) {
+                    origin = upperFloor();
+                    destination = 1;
+                } else if (trip < PEAK_COUNTER_FLOW + PEAK_INTER_FLOOR) {
+                    origin = upperFloor();
+                    destination = upperFloorOtherThan(origin);
+                } else {
+                    origin = 1;
+                    destination = upperFloor();
+                }
+            }
+            case DOWN_PEAK -> {
+                if (trip < PEAK_COUNTER_FLOW) {
+                    origin = 1;
+                    destination = upperFloor();
+                } else if (trip < PEAK_COUNTER_FLOW + PEAK_INTER_FLOOR) {
+                    origin = upperFloor();
+                    destination = upperFloorOtherThan(origin);
+                } else {
+                    origin = upperFloor();
+                    destination = 1;
+                }
+            }
+            case LUNCH -> {
+                if (trip < LUNCH_INTER_FLOOR) {
+                    origin = upperFloor();
+                    destination = upperFloorOtherThan(origin);
+                } else if (trip < (1 + LUNCH_INTER_FLOOR) / 2) {
+                    origin = 1;
+                    destination = upperFloor();
+                } else {
+                    origin = upperFloor();
+                    destination = 1;
+                }
+            }
+            case INTER_FLOOR -> {
+                origin = upperFloor();
+                destination = upperFloorOtherThan(origin);
+            }
+            default -> {
+                origin = 1 + random.nextInt(numberOfFloors);
+                destination = 1 + random.nextInt(numberOfFloors - 1);
+                if (destination >= origin) {
+                    destination++;
+                }
+            }
+        }
+
+        FaultType faultType = FaultType.NO_FAULT;
+        double fault = random.nextDouble();
+        if (fault < doorFaultRate) {
+            faultType = FaultType.DOOR_FAULT;
+        } else if (fault < doorFaultRate + floorTimerFaultRate) {
+            faultType = FaultType.FLOOR_TIMER_FAULT;
+        }
+
+        LocalTime time = startTime.plusNanos((long) offsetMillis * 1_000_000);
+        return new ElevatorRequest(time, origin, destination > origin ? "Up" : "Down", destination, faultType);
+    }
+
+    /**
+     * Nothing to release for a generator.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Writes the remaining requests to a trace file in the text format of the input files.
+     *
+     * @param fileName The name of the trace file.
+     * @return The number of requests written.
+     * @throws IOException If the file can not be written.
+     */
+    public long writeTextTrace(String fileName) throws IOException {
+        long count = 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+            for (ElevatorRequest request = next(); request != null; request = next()) {
+                long offset = Duration.between(startTime, request.getTime()).toMillis();
+                writer.write(String.format("%02d:%02d:%02d.%03d %d %s %d %d%n", offset / 3_600_000, offset / 60_000 % 60,
+                        offset / 1000 % 60, offset % 1000, request.getFloor(), request.getFloorButton(),
+                        request.getCarButton(), request.getFault().ordinal()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the remaining requests to a trace file in the binary format.
+     *
+     * @param fileName The name of the trace file.
+     * @return The number of requests written.
+     * @throws IOException If the file can not be written.
+     */
+    public long writeBinaryTrace(String fileName) throws IOException {
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(fileName, startTime)) {
+            for (ElevatorRequest request = next(); request != null; request = next()) {
+                writer.write(request);
+            }
+            return writer.getRecordCount();
+        }
+    }
+
+    private int upperFloor() {
+        return 2 + random.nextInt(numberOfFloors - 1);
+    }
+
+    private int upperFloorOtherThan(int floor) {
+        int other = 2 + random.nextInt(numberOfFloors - 2);
+        return other >= floor ? other + 1 : other;
+    }
+
+    public static void main(String[] args) {
+        TrafficPattern pattern = args.length > 0 ? TrafficPattern.valueOf(args[0].toUpperCase()) : TrafficPattern.UNIFORM;
+        double requestsPerMinute = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        long minutes = args.length > 2 ? Long.parseLong(args[2]) : 60;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        String traceFile = args.length > 4 ? args[4] : "traffic.txt";
+        double doorFaultRate = args.length > 5 ? Double.parseDouble(args[5]) : 0;
+        double floorTimerFaultRate = args.length > 6 ? Double.parseDouble(args[6]) : 0;
+
+        TrafficGenerator generator = new TrafficGenerator(pattern, requestsPerMinute, Constants.NUMBER_OF_FLOORS,
+                minutes * 60_000, doorFaultRate, floorTimerFaultRate, seed, LocalTime.MIDNIGHT);
+        try {
+            long count = traceFile.endsWith(".trace") ? generator.writeBinaryTrace(traceFile) : generator.writeTextTrace(traceFile);
+            System.out.println("Wrote " + count + " " + pattern + " requests to " + traceFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
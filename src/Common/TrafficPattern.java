@@ -0,0 +1,15 @@
+package Common;
+
+/**
+ * TrafficPattern.java
+ * <p>
+ * Enum representing the kinds of passenger traffic the {@link TrafficGenerator} produces. The lobby is floor 1.
+ * UNIFORM spreads trips evenly over all floors, UP_PEAK is the morning rush out of the lobby, DOWN_PEAK is the
+ * evening rush to the lobby, LUNCH mixes trips to and from the lobby, and INTER_FLOOR only has trips between the
+ * upper floors.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public enum TrafficPattern {
+    UNIFORM, UP_PEAK, DOWN_PEAK, LUNCH, INTER_FLOOR
+}
@@ -0,0 +1,334 @@
+package Common;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * UDPChannelTransport.java
+ * <p>
+ * A {@link RelayTransport} built on a NIO {@link DatagramChannel}. Messages are encoded and received into
+ * pooled direct buffers and destination addresses are resolved once and cached, so the steady state send and
+ * receive paths do not allocate.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class UDPChannelTransport implements RelayTransport {
+
+    // Number of destination addresses cached per transport (must be a power of two)
+    private static final int ADDRESS_CACHE_SIZE = 64;
+
+    private DatagramChannel channel;
+    private final BufferPool pool;
+    private final InetAddress destinationHost;
+    private final InetSocketAddress[] addressCache = new InetSocketAddress[ADDRESS_CACHE_SIZE];
+    private final int destinationPort;
+    private volatile int lastSenderPort;
+
+    // Selector of the receives with a timeout, opened on first use
+    private Selector timeoutSelector;
+
+    /**
+     * Initializes a new UDPChannelTransport using the shared buffer pool.
+     *
+     * @param socketPort      The socket port for sending and receiving data (0 for any free port).
+     * @param destinationPort The default destination port for sending data.
+     */
+    public UDPChannelTransport(int socketPort, int destinationPort) {
+        this(socketPort, destinationPort, BufferPool.shared());
+    }
+
+    /**
+     * Initializes a new UDPChannelTransport.
+     *
+     * @param socketPort      The socket port for sending and receiving data (0 for any free port).
+     * @param destinationPort The default destination port for sending data.
+     * @param pool            The pool the send and receive buffers are taken from.
+     */
+    public UDPChannelTransport(int socketPort, int destinationPort, BufferPool pool) {
+        InetAddress host = null;
+        try {
+            host = InetAddress.getLocalHost();
+            channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(socketPort));
+        } catch (UnknownHostException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (IOException e) {   // Can't create the channel.
+            e.printStackTrace();
+            System.exit(1);
+        }
+        this.destinationHost = host;
+        this.destinationPort = destinationPort;
+        this.pool = pool;
+        this.lastSenderPort = 0;
+    }
+
+    /**
+     * Receives a response.
+     *
+     * @return The received data as a byte array.
+     */
+    @Override
+    public byte[] receiveResponse() {
+        ByteBuffer buffer = receiveBuffer();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        releaseBuffer(buffer);
+        return data;
+    }
+
+    /**
+     * Receives a response into a pooled direct buffer.
+     *
+     * @return The buffer holding the received data, ready to be read.
+     */
+    @Override
+    public ByteBuffer receiveBuffer() {
+        ByteBuffer buffer = pool.acquire();
+        try {
+            // Block until a datagram is received via the channel.
+            SocketAddress sender = channel.receive(buffer);
+            lastSenderPort = ((InetSocketAddress) sender).getPort();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Returns a received buffer to the pool.
+     *
+     * @param buffer The buffer to release.
+     */
+    @Override
+    public void releaseBuffer(ByteBuffer buffer) {
+        pool.release(buffer);
+    }
+
+    /**
+     * Switches the channel to non-blocking mode and registers it with the given selector for reads.
+     * Once registered, messages must be received with {@link #poll()} instead of the blocking methods.
+     *
+     * @param selector   The selector to register with.
+     * @param attachment The object attached to the selection key.
+     * @return The selection key of the channel.
+     * @throws IOException If the channel cannot be registered.
+     */
+    public SelectionKey register(Selector selector, Object attachment) throws IOException {
+        channel.configureBlocking(false);
+        return channel.register(selector, SelectionKey.OP_READ, attachment);
+    }
+
+    /**
+     * Receives a datagram into a pooled buffer without blocking.
+     *
+     * @return The buffer holding the received data, ready to be read, or null if no datagram is available.
+     */
+    public ByteBuffer poll() {
+        ByteBuffer buffer = pool.acquire();
+        try {
+            SocketAddress sender = channel.receive(buffer);
+            if (sender == null) {
+                pool.release(buffer);
+                return null;
+            }
+            lastSenderPort = ((InetSocketAddress) sender).getPort();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Receives a SystemRequest object.
+     *
+     * @return The decoded SystemRequest object.
+     */
+    @Override
+    public SystemRequest receiveSystemRequest() {
+        ByteBuffer buffer = receiveBuffer();
+        try {
+            return MessageCodec.decodeSystemRequest(buffer);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Receives a SystemRequest object into a pooled buffer, waiting at most the given time for it. The channel must
+     * be in blocking mode, like for the other blocking receive methods. It is switched to non-blocking mode for the
+     * wait and back to blocking mode before this returns.
+     *
+     * @param timeoutMillis The longest time to wait in milliseconds.
+     * @return The decoded SystemRequest object, or null if nothing was received in time.
+     */
+    @Override
+    public SystemRequest receiveSystemRequest(int timeoutMillis) {
+        ByteBuffer buffer = pool.acquire();
+        SelectionKey key = null;
+        try {
+            // A channel can only wait with a timeout on a selector
+            if (timeoutSelector == null) {
+                timeoutSelector = Selector.open();
+            }
+            channel.configureBlocking(false);
+            key = channel.register(timeoutSelector, SelectionKey.OP_READ);
+            timeoutSelector.select(timeoutMillis);
+            SocketAddress sender = channel.receive(buffer);
+            if (sender == null) {
+                return null;
+            }
+            lastSenderPort = ((InetSocketAddress) sender).getPort();
+            buffer.flip();
+            return MessageCodec.decodeSystemRequest(buffer);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return null;
+        } finally {
+            pool.release(buffer);
+            restoreBlocking(key);
+        }
+    }
+
+    /**
+     * Deregisters the channel from the selector of the receives with a timeout and switches it back to
+     * blocking mode.
+     *
+     * @param key The selection key of the channel, or null if it was not registered.
+     */
+    private void restoreBlocking(SelectionKey key) {
+        try {
+            if (key != null) {
+                // The key is only removed from the selector on its next selection
+                key.cancel();
+                timeoutSelector.selectNow();
+            }
+            channel.configureBlocking(true);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sends a SystemRequest object to the default destination port.
+     *
+     * @param systemRequest The SystemRequest to be sent.
+     */
+    @Override
+    public void sendSystemRequest(SystemRequest systemRequest) {
+        sendSystemRequest(systemRequest, destinationPort);
+    }
+
+    /**
+     * Sends a SystemRequest object to a specific destination port.
+     *
+     * @param systemRequest   The SystemRequest to be sent.
+     * @param destinationPort The destination port for sending the request.
+     */
+    @Override
+    public void sendSystemRequest(SystemRequest systemRequest, int destinationPort) {
+        ByteBuffer buffer = pool.acquire();
+        MessageCodec.encodeSystemRequest(systemRequest, buffer);
+        buffer.flip();
+        sendBuffer(buffer, destinationPort);
+        pool.release(buffer);
+    }
+
+    /**
+     * Sends a response to the default destination port.
+     *
+     * @param msg The response data to be sent.
+     */
+    @Override
+    public void sendResponse(byte[] msg) {
+        sendResponse(msg, destinationPort);
+    }
+
+    /**
+     * Sends a response to a specific destination port.
+     *
+     * @param msg             The response data to be sent.
+     * @param destinationPort The destination port for sending the response.
+     */
+    @Override
+    public void sendResponse(byte[] msg, int destinationPort) {
+        ByteBuffer buffer = pool.acquire();
+        buffer.put(msg).flip();
+        sendBuffer(buffer, destinationPort);
+        pool.release(buffer);
+    }
+
+    /**
+     * Sends the remaining bytes of the given buffer to a specific destination port.
+     *
+     * @param buffer          The buffer holding the data to be sent.
+     * @param destinationPort The destination port for sending the data.
+     */
+    @Override
+    public void sendBuffer(ByteBuffer buffer, int destinationPort) {
+        int position = buffer.position();
+        try {
+            // A non-blocking channel sends nothing when the socket buffer is full, so try again
+            while (channel.send(buffer, resolve(destinationPort)) == 0 && buffer.hasRemaining()) {
+                Thread.onSpinWait();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        buffer.position(position);
+    }
+
+    /**
+     * Gets the port of the sender of the last received message.
+     *
+     * @return The last sender port.
+     */
+    @Override
+    public int getLastSenderPort() {
+        return lastSenderPort;
+    }
+
+    /**
+     * Gets the local port the channel is bound to.
+     *
+     * @return The local port.
+     */
+    @Override
+    public int getLocalPort() {
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets the resolved address for the given destination port, creating and caching it on first use.
+     *
+     * @param port The destination port.
+     * @return The socket address of the destination.
+     */
+    private InetSocketAddress resolve(int port) {
+        int slot = port & (ADDRESS_CACHE_SIZE - 1);
+        InetSocketAddress address = addressCache[slot];
+        if (address == null || address.getPort() != port) {
+            address = new InetSocketAddress(destinationHost, port);
+            addressCache[slot] = address;
+        }
+        return address;
+    }
+}
@@ -2,22 +2,28 @@ package Common;
 
 import java.io.IOException;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
  * UDPSenderReceiver.java
  * <p>
  * Represents a utility class for sending and receiving data via UDP (User Datagram Protocol) sockets.
+ * This is the blocking {@link DatagramSocket} implementation of {@link RelayTransport}.
  *
  * @version 1.0, March 17, 2024
  */
-public class UDPSenderReceiver {
+public class UDPSenderReceiver implements RelayTransport {
 
     private DatagramPacket sendPacket, receivePacket;
     private DatagramSocket sendReceiveSocket;
     private int destinationPort;
     private int lastSenderPort;
 
+    // Reusable buffers for encoding and decoding messages with the MessageCodec
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(MessageCodec.MAX_MESSAGE_SIZE);
+    private final byte[] receiveData = new byte[MessageCodec.MAX_MESSAGE_SIZE];
+
     /**
      * Initializes a new UDPSenderReceiver instance.
      *
@@ -43,8 +49,8 @@ public class UDPSenderReceiver {
     public byte[] receiveResponse() {
 
         // Construct a DatagramPacket for receiving packets up
-        // to 1000 bytes long (the length of the byte array).
-        byte data[] = new byte[1000];
+        // to the largest message size long (the length of the byte array).
+        byte data[] = new byte[MessageCodec.MAX_MESSAGE_SIZE];
         receivePacket = new DatagramPacket(data, data.length);
 
         try {
@@ -59,13 +65,71 @@ public class UDPSenderReceiver {
         return Arrays.copyOfRange(receivePacket.getData(), 0, receivePacket.getLength());
     }
 
+    /**
+     * Receives a response via UDP wrapped in a buffer.
+     *
+     * @return The buffer holding the received data.
+     */
+    @Override
+    public ByteBuffer receiveBuffer() {
+        return ByteBuffer.wrap(receiveResponse());
+    }
+
+    /**
+     * Buffers returned by {@link #receiveBuffer()} are not pooled, so there is nothing to release.
+     *
+     * @param buffer The buffer to release.
+     */
+    @Override
+    public void releaseBuffer(ByteBuffer buffer) {
+    }
+
     /**
      * Receives a SystemRequest object via UDP.
      *
      * @return The deserialized SystemRequest object.
      */
     public SystemRequest receiveSystemRequest() {
-        return SystemRequest.deserializeRequest(receiveResponse());
+        DatagramPacket packet = new DatagramPacket(receiveData, receiveData.length);
+        try {
+            // Block until a datagram is received via sendReceiveSocket.
+            sendReceiveSocket.receive(packet);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        this.lastSenderPort = packet.getPort();
+        return MessageCodec.decodeSystemRequest(ByteBuffer.wrap(receiveData, 0, packet.getLength()));
+    }
+
+    /**
+     * Receives a SystemRequest object via UDP, waiting at most the given time for it.
+     *
+     * @param timeoutMillis The longest time to wait in milliseconds.
+     * @return The deserialized SystemRequest object, or null if nothing was received in time.
+     */
+    @Override
+    public SystemRequest receiveSystemRequest(int timeoutMillis) {
+        DatagramPacket packet = new DatagramPacket(receiveData, receiveData.length);
+        try {
+            sendReceiveSocket.setSoTimeout(timeoutMillis);
+            sendReceiveSocket.receive(packet);
+        } catch (SocketTimeoutException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            try {
+                sendReceiveSocket.setSoTimeout(0);
+            } catch (SocketException e) {
+                e.printStackTrace();
+            }
+        }
+
+        this.lastSenderPort = packet.getPort();
+        return MessageCodec.decodeSystemRequest(ByteBuffer.wrap(receiveData, 0, packet.getLength()));
     }
 
     /**
@@ -83,9 +147,10 @@ public class UDPSenderReceiver {
      * @param systemRequest   The SystemRequest to be sent.
      * @param destinationPort The destination port for sending the request.
      */
-    public void sendSystemRequest(SystemRequest systemRequest, int destinationPort) {
-        byte[] msg = SystemRequest.serializeRequest(systemRequest);
-        sendResponse(msg, destinationPort);
+    public synchronized void sendSystemRequest(SystemRequest systemRequest, int destinationPort) {
+        sendBuffer.clear();
+        MessageCodec.encodeSystemRequest(systemRequest, sendBuffer);
+        sendResponse(sendBuffer.array(), sendBuffer.position(), destinationPort);
     }
 
     /**
@@ -104,11 +169,22 @@ public class UDPSenderReceiver {
      * @param destinationPort The destination port for sending the response.
      */
     public void sendResponse(byte[] msg, int destinationPort) {
+        sendResponse(msg, msg.length, destinationPort);
+    }
+
+    /**
+     * Sends the first length bytes of the given data via UDP to a specific destination port.
+     *
+     * @param msg             The buffer holding the response data.
+     * @param length          The number of bytes to send.
+     * @param destinationPort The destination port for sending the response.
+     */
+    private void sendResponse(byte[] msg, int length, int destinationPort) {
 
         // Construct a datagram packet that is to be sent to a specified port
         // on a specified host.
         try {
-            sendPacket = new DatagramPacket(msg, msg.length, InetAddress.getLocalHost(), destinationPort);
+            sendPacket = new DatagramPacket(msg, length, InetAddress.getLocalHost(), destinationPort);
         } catch (UnknownHostException e) {
             e.printStackTrace();
             System.exit(1);
@@ -123,6 +199,29 @@ public class UDPSenderReceiver {
         }
     }
 
+    /**
+     * Sends the remaining bytes of the given buffer via UDP to a specific destination port.
+     *
+     * @param buffer          The buffer holding the data to be sent.
+     * @param destinationPort The destination port for sending the data.
+     */
+    @Override
+    public void sendBuffer(ByteBuffer buffer, int destinationPort) {
+        byte[] msg = new byte[buffer.remaining()];
+        buffer.duplicate().get(msg);
+        sendResponse(msg, destinationPort);
+    }
+
+    /**
+     * Gets the local port the socket is bound to.
+     *
+     * @return The local port.
+     */
+    @Override
+    public int getLocalPort() {
+        return sendReceiveSocket.getLocalPort();
+    }
+
     /**
      * Gets the last sender port used for receiving data.
      *
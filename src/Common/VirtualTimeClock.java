@@ -0,0 +1,200 @@
+package Common;
+
+import java.util.HashSet;
+import java.util.PriorityQueue;
+
+/**
+ * VirtualTimeClock.java
+ * <p>
+ * A {@link SimulationClock} whose time only moves when every registered thread is sleeping on the clock. The
+ * clock then jumps straight to the earliest wake up time instead of waiting for it, so hours of simulated
+ * traffic replay in seconds. Threads wake up in the same order they would with the real time clock.
+ * <p>
+ * Registered threads that are busy or waiting for a message hold the clock back. Before jumping ahead the clock
+ * waits for a short settle delay in real time, so messages that are still on their way between the scheduler,
+ * the elevators and the floors are delivered first.
+ * <p>
+ * The virtual time is only shared by the threads of one process, so all components have to run in the same
+ * process (see Simulation.Main).
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class VirtualTimeClock extends SimulationClock {
+
+    // Real time all registered threads have to stay asleep before the clock jumps ahead
+    public static final long DEFAULT_SETTLE_MILLIS = 2;
+
+    private final long settleMillis;
+    private final HashSet<Thread> participants = new HashSet<>();
+    private final PriorityQueue<Long> wakeUpTimes = new PriorityQueue<>();
+    private long currentTime;
+    private int sleepingParticipants;
+
+    // Incremented whenever a thread goes to sleep, wakes up or registers, to detect changes during the settle delay
+    private long generation;
+
+    /**
+     * Creates a virtual clock starting at the current wall clock time.
+     */
+    public VirtualTimeClock() {
+        this(System.currentTimeMillis(), DEFAULT_SETTLE_MILLIS);
+    }
+
+    /**
+     * Creates a virtual clock.
+     *
+     * @param startTimeMillis The start time in milliseconds since the epoch.
+     * @param settleMillis    The real time all registered threads have to stay asleep before the clock jumps ahead.
+     */
+    public VirtualTimeClock(long startTimeMillis, long settleMillis) {
+        this.currentTime = startTimeMillis;
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * Gets the current virtual time.
+     *
+     * @return The current time in milliseconds since the epoch.
+     */
+    @Override
+    public synchronized long currentTimeMillis() {
+        return currentTime;
+    }
+
+    /**
+     * Registers the calling thread as a thread that drives the simulation forward.
+     */
+    @Override
+    public synchronized void register() {
+        participants.add(Thread.currentThread());
+        generation++;
+        notifyAll();
+    }
+
+    /**
+     * Removes the calling thread from the threads that drive the simulation forward.
+     */
+    @Override
+    public synchronized void deregister() {
+        participants.remove(Thread.currentThread());
+        generation++;
+        notifyAll();
+    }
+
+    /**
+     * Waits until the virtual time has moved forward by the given amount.
+     *
+     * @param millis The time to wait in milliseconds.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    @Override
+    public synchronized void sleep(long millis) throws InterruptedException {
+        long wakeUpTime = currentTime + Math.max(0, millis);
+        boolean participant = startWaiting(wakeUpTime);
+        try {
+            while (currentTime < wakeUpTime) {
+                waitForNextStep();
+            }
+        } finally {
+            stopWaiting(wakeUpTime, participant);
+        }
+    }
+
+    /**
+     * Waits until the given signal is fired or the virtual time has moved forward by the given amount.
+     * A registered thread waiting on a signal counts as asleep.
+     *
+     * @param signal        The signal to wait on.
+     * @param timeoutMillis The longest time to wait in milliseconds, or 0 to wait without a time limit.
+     * @return True if the signal was fired, false if the time ran out.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    @Override
+    public synchronized boolean awaitSignal(WakeupSignal signal, long timeoutMillis) throws InterruptedException {
+        if (signal.consume()) {
+            return true;
+        }
+        long wakeUpTime = timeoutMillis > 0 ? currentTime + timeoutMillis : Long.MAX_VALUE;
+        boolean participant = startWaiting(wakeUpTime);
+        try {
+            while (!signal.consume()) {
+                if (currentTime >= wakeUpTime) {
+                    return false;
+                }
+                waitForNextStep();
+            }
+            return true;
+        } finally {
+            stopWaiting(wakeUpTime, participant);
+        }
+    }
+
+    /**
+     * Fires the given signal, waking up the thread waiting on it.
+     *
+     * @param signal The signal to fire.
+     */
+    @Override
+    public synchronized void fireSignal(WakeupSignal signal) {
+        signal.set();
+        generation++;
+        notifyAll();
+    }
+
+    /**
+     * Records the calling thread as waiting until the given time.
+     *
+     * @param wakeUpTime The wake up time, or Long.MAX_VALUE to wait without a time limit.
+     * @return True if the calling thread is registered.
+     */
+    private boolean startWaiting(long wakeUpTime) {
+        boolean participant = participants.contains(Thread.currentThread());
+        if (wakeUpTime != Long.MAX_VALUE) {
+            wakeUpTimes.add(wakeUpTime);
+        }
+        if (participant) {
+            sleepingParticipants++;
+        }
+        generation++;
+        notifyAll();
+        return participant;
+    }
+
+    /**
+     * Removes the record of a waiting thread.
+     *
+     * @param wakeUpTime  The wake up time the thread was waiting for.
+     * @param participant True if the thread is registered.
+     */
+    private void stopWaiting(long wakeUpTime, boolean participant) {
+        if (wakeUpTime != Long.MAX_VALUE) {
+            wakeUpTimes.remove(wakeUpTime);
+        }
+        if (participant) {
+            sleepingParticipants--;
+        }
+        generation++;
+        notifyAll();
+    }
+
+    /**
+     * Waits for something to change. If every registered thread is asleep, lets in-flight messages settle and
+     * jumps to the earliest wake up time if nothing changed in the meantime.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private void waitForNextStep() throws InterruptedException {
+        if (sleepingParticipants < participants.size() || wakeUpTimes.isEmpty()) {
+            wait();
+            return;
+        }
+
+        long observed = generation;
+        wait(settleMillis);
+        if (observed == generation && sleepingParticipants >= participants.size() && !wakeUpTimes.isEmpty() && currentTime < wakeUpTimes.peek()) {
+            currentTime = wakeUpTimes.peek();
+            generation++;
+            notifyAll();
+        }
+    }
+}
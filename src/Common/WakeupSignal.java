@@ -0,0 +1,98 @@
+package Common;
+
+/**
+ * WakeupSignal.java
+ * <p>
+ * A signal a thread can wait on until another thread fires it, used to wake up an idle elevator as soon as a
+ * request is assigned to it. A signal fired while nobody is waiting stays set, so the next wait returns right
+ * away and no wake up is lost. Waiting and firing go through the {@link SimulationClock}, so a virtual clock
+ * knows the waiting thread is idle.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class WakeupSignal {
+
+    private boolean fired;
+
+    // Clock specific record of the thread waiting on the signal
+    private Object waiter;
+
+    /**
+     * Waits until the signal is fired.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void await() throws InterruptedException {
+        SimulationClock.getInstance().awaitSignal(this, 0);
+    }
+
+    /**
+     * Waits until the signal is fired or the given amount of clock time has passed.
+     *
+     * @param timeoutMillis The longest time to wait in milliseconds, or 0 to wait without a time limit.
+     * @return True if the signal was fired, false if the time ran out.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        return SimulationClock.getInstance().awaitSignal(this, timeoutMillis);
+    }
+
+    /**
+     * Fires the signal, waking up the thread waiting on it.
+     */
+    public void fire() {
+        SimulationClock.getInstance().fireSignal(this);
+    }
+
+    /**
+     * Clears the signal, forgetting any fire that was not waited on yet.
+     */
+    public synchronized void clear() {
+        fired = false;
+    }
+
+    /**
+     * Checks if the signal is set.
+     *
+     * @return True if the signal was fired and not waited on yet.
+     */
+    public synchronized boolean isFired() {
+        return fired;
+    }
+
+    /**
+     * Sets the signal. Used by the clocks.
+     */
+    public synchronized void set() {
+        fired = true;
+    }
+
+    /**
+     * Clears the signal and returns whether it was set. Used by the clocks.
+     *
+     * @return True if the signal was set.
+     */
+    public synchronized boolean consume() {
+        boolean wasFired = fired;
+        fired = false;
+        return wasFired;
+    }
+
+    /**
+     * Gets the clock specific record of the waiting thread. Used by the clocks.
+     *
+     * @return The waiter, or null if no thread is waiting.
+     */
+    public synchronized Object getWaiter() {
+        return waiter;
+    }
+
+    /**
+     * Sets the clock specific record of the waiting thread. Used by the clocks.
+     *
+     * @param waiter The waiter, or null if no thread is waiting.
+     */
+    public synchronized void setWaiter(Object waiter) {
+        this.waiter = waiter;
+    }
+}
@@ -1,6 +1,8 @@
 package Elevator;
 
 import Common.*;
+import Metrics.Counter;
+import Metrics.MetricsRegistry;
 
 import static Common.Constants.*;
 import static Common.SystemRequestType.*;
@@ -16,6 +18,9 @@ public class CloseDoorState implements ElevatorState {
 
     private Elevator elevator;
 
+    // Primary requests put back in the queue because the elevator was full when it reached their floor
+    private static final Counter requeuedRequests = MetricsRegistry.getInstance().counter("elevator.requests.requeued");
+
     /**
      * Constructs a new CloseDoorState for the specified elevator.
      *
@@ -36,13 +41,14 @@ public class CloseDoorState implements ElevatorState {
     @Override
     public void handleState() {
         int elevatorId = elevator.getElevatorId();
-        UDPSenderReceiver senderReceiver = elevator.getSenderReceiver();
+        MessageTransport senderReceiver = elevator.getSenderReceiver();
 
         LogPrinter.print(elevatorId, "ELEVATOR " + elevatorId + " STATE: CLOSE_DOOR " + LogPrinter.getTimestamp());
 
         // Check if we picked up the passenger for the primary request
         if (elevator.getPrimaryRequest().getCurrentTargetFloor() == elevator.getFloorNumber() && elevator.getPrimaryRequest().getStatus() == RequestStatus.PENDING) {
             if(elevator.getSubsystem().isAtMaxCapacity()){
+                requeuedRequests.increment();
                 ElevatorRequest newPrimaryRequest = elevator.getSubsystem().switchPrimaryRequest(elevator.getPrimaryRequest());
                 elevator.setPrimaryRequest(newPrimaryRequest);
                 elevator.setDirection(elevator.getPrimaryRequest().getDirection());
@@ -51,6 +57,7 @@ public class CloseDoorState implements ElevatorState {
             }else{
                 elevator.getSubsystem().updateCountersForBoardingPassengers();
                 elevator.getPrimaryRequest().setStatus(RequestStatus.PASSENGER_PICKED_UP);
+                elevator.getSubsystem().recordPickUp(elevator.getPrimaryRequest());
                 elevator.setDirection(elevator.getPrimaryRequest().getDirection());
                 elevator.getSubsystem().setElevatorLamps(elevator.getPrimaryRequest().getCarButton(), true);
                 LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Picked up passenger for primary request");
@@ -67,7 +74,7 @@ public class CloseDoorState implements ElevatorState {
             elevator.setDeadline((LOADING_TIME / 2) + (elevator.getSubsystem().getBoardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
             elevator.setTime((LOADING_TIME / 2) + (elevator.getSubsystem().getBoardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
             elevator.setTotalTime((LOADING_TIME / 2) + (elevator.getSubsystem().getBoardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
-            Thread.sleep((LOADING_TIME / 2) + (elevator.getSubsystem().getBoardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
+            SimulationClock.getInstance().sleep((LOADING_TIME / 2) + (elevator.getSubsystem().getBoardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
             LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Boarding Passenger Count: " + elevator.getSubsystem().getBoardingPassengerCount());
         } catch (InterruptedException e) {
         }
@@ -2,6 +2,9 @@ package Elevator;
 
 import Common.*;
 import Common.FaultType;
+import Journal.Journal;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
 
 import java.util.ArrayList;
 
@@ -15,7 +18,7 @@ import java.util.ArrayList;
  */
 public class Elevator implements Runnable {
     private ElevatorSubsystem subsystem;
-    private ElevatorRequest primaryRequest;
+    private volatile ElevatorRequest primaryRequest;
     private ElevatorState currentState;
     private Direction direction;
     private int floorNumber, movements;
@@ -25,7 +28,31 @@ public class Elevator implements Runnable {
     private boolean autoRun;
     private double time, deadline, totalTime;
 
-    private UDPSenderReceiver senderReceiver;
+    private MessageTransport senderReceiver;
+    private ElevatorController controller;
+
+    // Where the elevator waits when it has no request, and the floor it is moving to while idle (-1 if none)
+    private ParkingSchedule parkingSchedule = ParkingSchedule.getDefault();
+    private volatile int parkingFloor = -1;
+
+    // Queries sent to the controller that are waiting for a reply, keyed by correlation id
+    private final PendingResponseTable pendingQueries = new PendingResponseTable();
+    private int lastCorrelationId;
+
+    // Clock time the current state was entered and its code, to record how long the elevator stays in each state
+    private long stateEnteredMillis;
+    private int stateCode;
+
+    private static final LatencyHistogram queryTimes = MetricsRegistry.getInstance().histogram("elevator.query.rttNanos");
+
+    // Time spent in each state, indexed by the code of the state in Journal.STATE_NAMES
+    private static final LatencyHistogram[] stateDwellTimes = new LatencyHistogram[Journal.STATE_NAMES.length];
+
+    static {
+        for (int i = 0; i < stateDwellTimes.length; i++) {
+            stateDwellTimes[i] = MetricsRegistry.getInstance().histogram("elevator.state." + Journal.STATE_NAMES[i] + ".dwellMillis");
+        }
+    }
 
     public static ArrayList<Elevator> elevList = new ArrayList<Elevator>();
     /**
@@ -35,6 +62,18 @@ public class Elevator implements Runnable {
      * @param elevatorId The unique identifier for this elevator.
      */
     public Elevator(ElevatorSubsystem subsystem, int elevatorId, boolean autoRun) {
+        this(subsystem, elevatorId, autoRun, MessageTransport.open(0, Constants.SCHEDULER_PORT));
+    }
+
+    /**
+     * Constructs a new Elevator instance that talks to the scheduler through the given transport.
+     *
+     * @param subsystem      The elevator subsystem to which this elevator belongs.
+     * @param elevatorId     The unique identifier for this elevator.
+     * @param autoRun        Whether a state change runs the new state right away.
+     * @param senderReceiver The transport used to reach the scheduler.
+     */
+    public Elevator(ElevatorSubsystem subsystem, int elevatorId, boolean autoRun, MessageTransport senderReceiver) {
         this.subsystem = subsystem;
         this.elevatorId = elevatorId;
         this.autoRun = autoRun;
@@ -43,8 +82,9 @@ public class Elevator implements Runnable {
         this.primaryRequest = null;
         this.motorRunning = false;
         this.doorOpen = true;
-        this.senderReceiver = new UDPSenderReceiver(0, Constants.SCHEDULER_PORT);
+        this.senderReceiver = senderReceiver;
         this.currentState = new IdleState(this);
+        this.stateEnteredMillis = SimulationClock.getInstance().currentTimeMillis();
         this.time = 0.0;
         this.deadline = 0.0;
         this.movements = 0;
@@ -87,6 +127,7 @@ public class Elevator implements Runnable {
      */
     public void setFloorNumberToNextFloor() {
         this.floorNumber = getNextFloorNumber();
+        publishStatus();
     }
 
     /**
@@ -105,12 +146,26 @@ public class Elevator implements Runnable {
      * @param currentState The new state to set.
      */
     public void setCurrentState(ElevatorState currentState) {
+        long now = SimulationClock.getInstance().currentTimeMillis();
+        if (this.currentState != null && stateCode < stateDwellTimes.length) {
+            stateDwellTimes[stateCode].record(now - stateEnteredMillis);
+        }
+        this.stateEnteredMillis = now;
+        this.stateCode = Journal.getStateCode(currentState.getClass().getSimpleName());
         this.currentState = currentState;
+        journalState();
         if(autoRun){
             this.currentState.handleState();
         }
     }
 
+    /**
+     * Records the current state of the elevator in the journal, which also starts the timeline of the elevator.
+     */
+    public void journalState() {
+        Journal.recordStateChange(elevatorId, currentState.getClass().getSimpleName(), floorNumber);
+    }
+
     /**
      * Sets the door state.
      *
@@ -190,6 +245,7 @@ public class Elevator implements Runnable {
      */
     public void setPrimaryRequest(ElevatorRequest primaryRequest) {
         this.primaryRequest = primaryRequest;
+        publishStatus();
     }
 
     /**
@@ -198,7 +254,73 @@ public class Elevator implements Runnable {
      * @param direction The new direction.
      */
     public void setDirection(Direction direction) {
-        this.direction = direction;
+        if (this.direction != direction) {
+            this.direction = direction;
+            publishStatus();
+        }
+    }
+
+    /**
+     * Sets the controller that publishes the status of this elevator to the scheduler.
+     *
+     * @param controller The elevator controller.
+     */
+    public void setController(ElevatorController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Lets the controller push the new elevator status to the scheduler.
+     */
+    private void publishStatus() {
+        if (controller != null) {
+            controller.publishStatus();
+        }
+    }
+
+    /**
+     * Sets the schedule of the floors the elevator waits at when it has no request.
+     *
+     * @param parkingSchedule The parking schedule.
+     */
+    public void setParkingSchedule(ParkingSchedule parkingSchedule) {
+        this.parkingSchedule = parkingSchedule;
+    }
+
+    /**
+     * Gets the schedule of the floors the elevator waits at when it has no request.
+     *
+     * @return The parking schedule.
+     */
+    public ParkingSchedule getParkingSchedule() {
+        return parkingSchedule;
+    }
+
+    /**
+     * Sets the floor the idle elevator is moving to.
+     *
+     * @param parkingFloor The parking floor, or -1 once the elevator is not parking anymore.
+     */
+    public void setParkingFloor(int parkingFloor) {
+        this.parkingFloor = parkingFloor;
+    }
+
+    /**
+     * Gets the floor the idle elevator is moving to.
+     *
+     * @return The parking floor, or -1 if the elevator is not parking.
+     */
+    public int getParkingFloor() {
+        return parkingFloor;
+    }
+
+    /**
+     * Checks if the elevator is moving to its parking floor without a request.
+     *
+     * @return True if the elevator is parking, false otherwise.
+     */
+    public boolean isParking() {
+        return primaryRequest == null && parkingFloor >= 0;
     }
 
     /**
@@ -215,19 +337,44 @@ public class Elevator implements Runnable {
      *
      * @return The sender/receiver.
      */
-    public UDPSenderReceiver getSenderReceiver() {
+    public MessageTransport getSenderReceiver() {
         return senderReceiver;
     }
 
+    /**
+     * Sends a query to the elevator controller through the scheduler and waits for the matching reply.
+     * Replies to earlier queries that arrive late are discarded.
+     *
+     * @param query The query to send.
+     * @return The reply of the controller.
+     */
+    public SystemRequest sendQuery(SystemRequest query) {
+        int correlationId = ++lastCorrelationId;
+        query.setCorrelationId(correlationId);
+        pendingQueries.put(correlationId, senderReceiver.getLocalPort(), System.nanoTime());
+        senderReceiver.sendSystemRequest(query);
+
+        while (true) {
+            SystemRequest reply = senderReceiver.receiveSystemRequest();
+            long sentNanos = pendingQueries.getSentNanos(reply.getCorrelationId());
+            pendingQueries.remove(reply.getCorrelationId());
+            if (reply.getCorrelationId() == correlationId) {
+                queryTimes.record(System.nanoTime() - sentNanos);
+                return reply;
+            }
+            LogPrinter.printWarning("Elevator " + elevatorId + " discarding stale reply " + reply.getCorrelationId() + " while waiting for " + correlationId);
+        }
+    }
+
     public boolean hasTransientFault() {
-        if (primaryRequest.getStatus() == RequestStatus.PASSENGER_PICKED_UP && primaryRequest.getFault() == FaultType.DOOR_FAULT && primaryRequest.getCarButton() == floorNumber) {
+        if (primaryRequest != null && primaryRequest.getStatus() == RequestStatus.PASSENGER_PICKED_UP && primaryRequest.getFault() == FaultType.DOOR_FAULT && primaryRequest.getCarButton() == floorNumber) {
             return true;
         }
         return this.subsystem.hasFault(FaultType.DOOR_FAULT, floorNumber);
     }
 
     public boolean hasHardFault() {
-        if (primaryRequest.getStatus() == RequestStatus.PASSENGER_PICKED_UP && primaryRequest.getFault() == FaultType.FLOOR_TIMER_FAULT && primaryRequest.getCarButton() == floorNumber) {
+        if (primaryRequest != null && primaryRequest.getStatus() == RequestStatus.PASSENGER_PICKED_UP && primaryRequest.getFault() == FaultType.FLOOR_TIMER_FAULT && primaryRequest.getCarButton() == floorNumber) {
             return true;
         }
         return this.subsystem.hasFault(FaultType.FLOOR_TIMER_FAULT, floorNumber);
@@ -238,7 +385,14 @@ public class Elevator implements Runnable {
      */
     @Override
     public void run() {
-        this.currentState.handleState();
+        SimulationClock clock = SimulationClock.getInstance();
+        clock.register();
+        try {
+            journalState();
+            this.currentState.handleState();
+        } finally {
+            clock.deregister();
+        }
     }
 
 }
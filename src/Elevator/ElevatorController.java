@@ -3,6 +3,7 @@ package Elevator;
 import Common.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 import static Common.SystemRequestType.*;
 
@@ -15,10 +16,14 @@ import static Common.SystemRequestType.*;
  */
 public class ElevatorController implements Runnable {
 
-    private UDPSenderReceiver senderReceiver;
+    private MessageTransport senderReceiver;
     private Elevator elevator;
     private ElevatorSubsystem subsystem;
 
+    // Last status pushed to the scheduler and its version number
+    private ElevatorStatus publishedStatus;
+    private long statusVersion;
+
     /**
      * Constructs a new ElevatorController instance.
      *
@@ -26,12 +31,27 @@ public class ElevatorController implements Runnable {
      * @param subsystem The elevator subsystem to which this controller belongs.
      */
     public ElevatorController(Elevator elevator, ElevatorSubsystem subsystem) {
+        this(elevator, subsystem, MessageTransport.open(0, Constants.SCHEDULER_PORT_2));
+    }
+
+    /**
+     * Constructs a new ElevatorController instance that talks to the scheduler through the given transport.
+     *
+     * @param elevator       The elevator associated with this controller.
+     * @param subsystem      The elevator subsystem to which this controller belongs.
+     * @param senderReceiver The transport used to reach the scheduler.
+     */
+    public ElevatorController(Elevator elevator, ElevatorSubsystem subsystem, MessageTransport senderReceiver) {
         this.elevator = elevator;
         this.subsystem = subsystem;
 
-        this.senderReceiver = new UDPSenderReceiver(0, Constants.SCHEDULER_PORT_2);
+        this.senderReceiver = senderReceiver;
 
         this.senderReceiver.sendSystemRequest(new SystemRequest(REGISTER_ELEVATOR_CONTROLLER, elevator.getElevatorId()), Constants.SCHEDULER_PORT);
+
+        // Publish the initial status and keep the scheduler updated whenever the elevator moves
+        this.elevator.setController(this);
+        publishStatus();
     }
 
     /**
@@ -42,6 +62,7 @@ public class ElevatorController implements Runnable {
     public synchronized void addNewRequest(ElevatorRequest request) {
         subsystem.addNewRequest(request);
         LogPrinter.print(this.elevator.getElevatorId(), "Elevator " + this.elevator.getElevatorId() + ": New Request Received: " + request);
+        publishStatus();
     }
 
 
@@ -54,6 +75,7 @@ public class ElevatorController implements Runnable {
      */
     public synchronized void processCompletedRequests(int floorNumber, Direction direction) {
         subsystem.processCompletedRequests(floorNumber, direction);
+        publishStatus();
     }
 
     /**
@@ -65,6 +87,7 @@ public class ElevatorController implements Runnable {
      */
     public synchronized void processRequestsAtCurrentFloor(int floorNumber, Direction direction) {
         subsystem.processRequestsAtCurrentFloor(floorNumber, direction);
+        publishStatus();
     }
 
     /**
@@ -76,9 +99,39 @@ public class ElevatorController implements Runnable {
      * @return A new primary elevator request
      */
     public synchronized ElevatorRequest receiveNewPrimaryRequest() {
-        return subsystem.receiveNewPrimaryRequest();
+        ElevatorRequest primaryRequest = subsystem.receiveNewPrimaryRequest();
+        publishStatus();
+        return primaryRequest;
+    }
+
+
+    /**
+     * Gets the requests assigned to the elevator whose passengers were not picked up yet, oldest first
+     *
+     * @return The waiting requests, at most {@link MessageCodec#MAX_REQUESTS_PER_MESSAGE} of them
+     */
+    public synchronized ArrayList<ElevatorRequest> getWaitingRequests() {
+        ArrayList<ElevatorRequest> waitingRequests = subsystem.getWaitingRequests();
+        if (waitingRequests.size() > MessageCodec.MAX_REQUESTS_PER_MESSAGE) {
+            return new ArrayList<>(waitingRequests.subList(0, MessageCodec.MAX_REQUESTS_PER_MESSAGE));
+        }
+        return waitingRequests;
     }
 
+    /**
+     * Takes back a request whose passenger is still waiting, so the scheduler can give it to another elevator
+     *
+     * @param requestId The id of the request
+     * @return The revoked request, or null if the passenger was already picked up
+     */
+    public synchronized ElevatorRequest revokeRequest(int requestId) {
+        ElevatorRequest request = subsystem.revokeRequest(requestId);
+        if (request != null) {
+            LogPrinter.print(this.elevator.getElevatorId(), "Elevator " + this.elevator.getElevatorId() + ": Request revoked: " + request);
+            publishStatus();
+        }
+        return request;
+    }
 
     /**
      * Checks of a stop is required at any given floor for the given direction
@@ -103,7 +156,78 @@ public class ElevatorController implements Runnable {
         ArrayList<Integer> stopRequestFloorsGoingUp = subsystem.getStopRequestFloorsInDirection(Direction.UP);
         ArrayList<Integer> stopRequestFloorsGoingDown = subsystem.getStopRequestFloorsInDirection(Direction.DOWN);
 
-        return new ElevatorStatus(elevatorId, direction, floorNumber, stopRequestFloorsGoingUp, stopRequestFloorsGoingDown);
+        // The primary request is held by the elevator, so it is added to the queued ones: as a passenger on board
+        // once picked up, otherwise as a floor to pick up at
+        ArrayList<Integer> destinationFloors = subsystem.getDestinationFloors();
+        ElevatorRequest primaryRequest = elevator.getPrimaryRequest();
+        if (primaryRequest != null && primaryRequest.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
+            destinationFloors.add(primaryRequest.getCarButton());
+            Collections.sort(destinationFloors);
+        } else if (primaryRequest != null) {
+            ArrayList<Integer> pickUpFloors = primaryRequest.getDirection() == Direction.UP ? stopRequestFloorsGoingUp : stopRequestFloorsGoingDown;
+            if (!pickUpFloors.contains(primaryRequest.getFloor())) {
+                pickUpFloors.add(primaryRequest.getFloor());
+                Collections.sort(pickUpFloors);
+            }
+        }
+
+        return new ElevatorStatus(elevatorId, direction, floorNumber, stopRequestFloorsGoingUp, stopRequestFloorsGoingDown, destinationFloors, subsystem.getPassengerCount(), 0);
+    }
+
+    /**
+     * Pushes the elevator status to the scheduler if the floor, direction, stop requests, destinations or load
+     * changed since the last published status.
+     */
+    public synchronized void publishStatus() {
+        ElevatorStatus status = getElevatorStatus();
+        if (status.hasSameStateAs(publishedStatus)) {
+            return;
+        }
+        statusVersion++;
+        publishedStatus = new ElevatorStatus(status.getElevatorId(), status.getDirection(), status.getFloorNumber(),
+                status.getStopRequestFloorsInDirection(Direction.UP), status.getStopRequestFloorsInDirection(Direction.DOWN),
+                status.getDestinationFloors(), status.getPassengerCount(), statusVersion);
+        senderReceiver.sendSystemRequest(new SystemRequest(STATUS_UPDATE, publishedStatus, elevator.getElevatorId()), Constants.SCHEDULER_PORT);
+    }
+
+    /**
+     * Sends the reply to a query back through the scheduler, tagged with the correlation id of the query so the
+     * scheduler and the elevator can match it even when replies of several queries are in flight.
+     *
+     * @param query The query being answered.
+     * @param reply The reply to send.
+     */
+    private void reply(SystemRequest query, SystemRequest reply) {
+        reply.setCorrelationId(query.getCorrelationId());
+        senderReceiver.sendSystemRequest(reply, Constants.SCHEDULER_PORT_2);
+    }
+
+    /**
+     * Processes a system request received from the scheduler, replying to it if it is a query.
+     *
+     * @param request The system request
+     */
+    public void handleRequest(SystemRequest request) {
+        if (request.getType() == ADD_NEW_REQUEST) {
+            addNewRequest(request.getElevatorRequest());
+        } else if (request.getType() == PROCESS_COMPLETED_REQUESTS) {
+            processCompletedRequests(request.getFloorNumber(), request.getDirection());
+        } else if (request.getType() == PROCESSES_REQUESTS_AT_CURRENT_FLOOR) {
+            processRequestsAtCurrentFloor(request.getFloorNumber(), request.getDirection());
+        } else if (request.getType() == NEW_PRIMARY_REQUEST) {
+            ElevatorRequest er = receiveNewPrimaryRequest();
+            reply(request, new SystemRequest(NEW_PRIMARY_REQUEST, er, elevator.getElevatorId()));
+        } else if (request.getType() == IS_STOP_REQUIRED) {
+            boolean isRequired = isStopRequiredForFloor(request.getFloorNumber(), request.getDirection());
+            reply(request, new SystemRequest(IS_STOP_REQUIRED, request.getFloorNumber(), request.getDirection(), isRequired, elevator.getElevatorId()));
+        } else if (request.getType() == STATUS_REQUEST) {
+            reply(request, new SystemRequest(STATUS_REQUEST, getElevatorStatus(), elevator.getElevatorId()));
+        } else if (request.getType() == WAITING_REQUESTS) {
+            reply(request, new SystemRequest(WAITING_REQUESTS, getWaitingRequests(), elevator.getElevatorId()));
+        } else if (request.getType() == REVOKE_REQUEST) {
+            ElevatorRequest revoked = revokeRequest(request.getElevatorRequest().getRequestId());
+            reply(request, new SystemRequest(REVOKE_REQUEST, revoked, elevator.getElevatorId()));
+        }
     }
 
     /**
@@ -112,26 +236,7 @@ public class ElevatorController implements Runnable {
     @Override
     public void run() {
         while (true) {
-            SystemRequest request = senderReceiver.receiveSystemRequest();
-            if (request.getType() == ADD_NEW_REQUEST) {
-                addNewRequest(request.getElevatorRequest());
-            } else if (request.getType() == PROCESS_COMPLETED_REQUESTS) {
-                processCompletedRequests(request.getFloorNumber(), request.getDirection());
-            } else if (request.getType() == PROCESSES_REQUESTS_AT_CURRENT_FLOOR) {
-                processRequestsAtCurrentFloor(request.getFloorNumber(), request.getDirection());
-            } else if (request.getType() == NEW_PRIMARY_REQUEST) {
-                ElevatorRequest er = receiveNewPrimaryRequest();
-                senderReceiver.sendResponse(ElevatorRequest.serializeRequest(er), Constants.SCHEDULER_PORT_2);
-            } else if (request.getType() == IS_STOP_REQUIRED) {
-                boolean isRequired = isStopRequiredForFloor(request.getFloorNumber(), request.getDirection());
-                byte[] data = new byte[1];
-                data[0] = (byte) (isRequired ? 1 : 0);
-                senderReceiver.sendResponse(data, Constants.SCHEDULER_PORT_2);
-            } else if (request.getType() == STATUS_REQUEST) {
-                ElevatorStatus status = getElevatorStatus();
-                senderReceiver.sendResponse(ElevatorStatus.serializeStatus(status), Constants.SCHEDULER_PORT_2);
-            }
-
+            handleRequest(senderReceiver.receiveSystemRequest());
         }
     }
 }
@@ -4,12 +4,20 @@ import static Common.Constants.*;
 
 import Common.Direction;
 import Common.ElevatorRequest;
+import Common.LogLevel;
 import Common.LogPrinter;
 import Common.RequestStatus;
+import Common.SimulationClock;
 import Common.FaultType;
+import Common.WakeupSignal;
+import Journal.Journal;
+import Metrics.Counter;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Metrics.PassengerStatistics;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 
 /**
  * ElevatorSubsystem.java
@@ -19,10 +27,9 @@ import java.util.Iterator;
  * @version 1.0, March 17, 2024
  */
 public class ElevatorSubsystem {
-    //Queue for elevator events
-    private ArrayList<ElevatorRequest> downRequests = new ArrayList<>();
-    private ArrayList<ElevatorRequest> upRequests = new ArrayList<>();
-    private boolean hasWaitingRequests;
+    //Queue for elevator events, indexed by floor
+    private RequestQueue downRequests = new RequestQueue();
+    private RequestQueue upRequests = new RequestQueue();
     public ArrayList<Boolean> elevatorLamps = new ArrayList<>();
     private int passengerCount;
     private int boardingPassengerCount;
@@ -30,6 +37,15 @@ public class ElevatorSubsystem {
 
     private final int elevatorId;
 
+    // Fired when a new request is added, so an idle elevator starts moving without polling the scheduler
+    private final WakeupSignal wakeupSignal = new WakeupSignal();
+
+    // Number of requests queued in a subsystem, sampled whenever a request is added
+    private static final LatencyHistogram queueDepths = MetricsRegistry.getInstance().histogram("elevator.queueDepth.requests");
+
+    // Passengers a full elevator left behind, each counted once however many times they are passed over
+    private static final Counter leftBehindPassengers = MetricsRegistry.getInstance().counter("elevator.passengers.leftBehind");
+
     /**
      * Constructs a new ElevatorSubsystem instance.
      *
@@ -40,7 +56,6 @@ public class ElevatorSubsystem {
         this.passengerCount = 0;
         this.boardingPassengerCount = 0;
         this.unboardingPassengerCount = 0;
-        this.hasWaitingRequests = false;
 
         // Initialize all elevator laps at off state
         for (int i = 0; i < NUMBER_OF_FLOORS; i++) {
@@ -49,34 +64,51 @@ public class ElevatorSubsystem {
     }
 
     /**
-     * Gets a list of floor numbers where a request in the given direction is present
+     * Gets a list of floor numbers where a request in the given direction is waiting to be picked up
      *
      * @param direction The direction of travel
-     * @return The floor number list
+     * @return The floor number list, in increasing order
      */
     public synchronized ArrayList<Integer> getStopRequestFloorsInDirection(Direction direction) {
-        ArrayList<Integer> floors = new ArrayList<>();
+        return getRequests(direction).getPendingFloors();
+    }
 
-        ArrayList<ElevatorRequest> requests = direction == Direction.UP ? upRequests : downRequests;
-        for (ElevatorRequest r : requests) {
-            if (r.getStatus() == RequestStatus.PENDING) {
-                floors.add(r.getFloor());
-            }
-        }
+    /**
+     * Gets the destination floors of the passengers on board, in both directions of travel, once for every
+     * passenger
+     *
+     * @return The floor number list, in increasing order
+     */
+    public synchronized ArrayList<Integer> getDestinationFloors() {
+        ArrayList<Integer> floors = upRequests.getPickedUpFloors();
+        floors.addAll(downRequests.getPickedUpFloors());
+        Collections.sort(floors);
         return floors;
     }
 
     /**
-     * Add the new assigned elevator request to the elevator's request queue
+     * Add the new assigned elevator request to the elevator's request queue and wake up the elevator if it is idle
      *
      * @param request The new elevator request
      */
-    public synchronized void addNewRequest(ElevatorRequest request) {
-        switch (request.getDirection()) {
-            case UP -> upRequests.add(request);
-            case DOWN -> downRequests.add(request);
+    public void addNewRequest(ElevatorRequest request) {
+        synchronized (this) {
+            switch (request.getDirection()) {
+                case UP -> upRequests.add(request);
+                case DOWN -> downRequests.add(request);
+            }
+            queueDepths.record(upRequests.size() + downRequests.size());
         }
-        hasWaitingRequests = true;
+        wakeupSignal.fire();
+    }
+
+    /**
+     * Gets the signal fired whenever a new request is added.
+     *
+     * @return The wake up signal.
+     */
+    public WakeupSignal getWakeupSignal() {
+        return wakeupSignal;
     }
 
     /**
@@ -85,7 +117,7 @@ public class ElevatorSubsystem {
      * @return True if there is a request in the queue, false otherwise.
      */
     public synchronized boolean hasWaitingRequests() {
-        return hasWaitingRequests;
+        return !upRequests.isEmpty() || !downRequests.isEmpty();
     }
 
     /**
@@ -112,42 +144,39 @@ public class ElevatorSubsystem {
      * @param direction   The direction of travel of the elevator
      */
     public synchronized void processCompletedRequests(int floorNumber, Direction direction) {
-        if (direction == Direction.UP) {
-            // Iterate over all up requests
-            Iterator<ElevatorRequest> iterator = this.upRequests.iterator();
-            while (iterator.hasNext()) {
-                ElevatorRequest r = iterator.next();
-
-                // If the request is completed, remove from the queue and update elevator lamps
-                if (r.getCurrentTargetFloor() == floorNumber && r.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
-                    LogPrinter.print(this.elevatorId, "Elevator " + this.elevatorId + ": Completed Request: " + r);
-                    this.setElevatorLamps(r.getCarButton(), false);
-                    iterator.remove();
-                    updateCountersForUnboardingPassengers();
-                }
-            }
-        } else {
-            // Iterate over all down requests
-            Iterator<ElevatorRequest> iterator = this.downRequests.iterator();
-            while (iterator.hasNext()) {
-                ElevatorRequest r = iterator.next();
-
-                // If the request is completed, remove from the queue and update elevator lamps
-                if (r.getCurrentTargetFloor() == floorNumber && r.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
-                    LogPrinter.print(this.elevatorId, "Elevator " + this.elevatorId + ": Completed Request: " + r);
-                    this.setElevatorLamps(r.getCarButton(), false);
-                    iterator.remove();
-                    updateCountersForUnboardingPassengers();
-                }
+        // Only the requests going to this floor need to be checked
+        for (ElevatorRequest r : getRequests(direction).removeCompletedAt(floorNumber)) {
+            if (LogPrinter.isEnabled(LogLevel.INFO)) {
+                LogPrinter.print(this.elevatorId, "Elevator " + this.elevatorId + ": Completed Request: " + r);
             }
+            this.setElevatorLamps(r.getCarButton(), false);
+            updateCountersForUnboardingPassengers();
+            completeRequest(r);
         }
+    }
 
-        // Update the flag for empty elevator request queue
-        if (this.upRequests.isEmpty() && this.downRequests.isEmpty()) {
-            this.hasWaitingRequests = false;
-        }
+    /**
+     * Records the completion time of a request whose passenger arrived at the destination floor, and adds the
+     * times of the request to the passenger statistics.
+     *
+     * @param request The completed request
+     */
+    public void completeRequest(ElevatorRequest request) {
+        request.setCompletionTime(SimulationClock.getInstance().currentTimeMillis());
+        PassengerStatistics.getInstance().recordCompletion(request, elevatorId);
+        Journal.recordCompletion(elevatorId, request);
     }
 
+    /**
+     * Records the pick up time of a request whose passenger boarded the elevator.
+     *
+     * @param request The picked up request
+     */
+    public void recordPickUp(ElevatorRequest request) {
+        request.setPickUpTime(SimulationClock.getInstance().currentTimeMillis());
+        TrafficHistory.getInstance().record(request.getFloor());
+        Journal.recordPickUp(elevatorId, request);
+    }
 
     /**
      * Process the request at the given floor for the given direction by picking up the
@@ -157,21 +186,23 @@ public class ElevatorSubsystem {
      * @param direction   The elevator direction of travel
      */
     public synchronized void processRequestsAtCurrentFloor(int floorNumber, Direction direction) {
-        if (direction == Direction.UP) {
-            for (ElevatorRequest r : this.upRequests) {
-                if (r.getCurrentTargetFloor() == floorNumber && r.getStatus() == RequestStatus.PENDING && passengerCount < MAX_PASSENGER_COUNT) {
-                    updateCountersForBoardingPassengers();
-                    r.setStatus(RequestStatus.PASSENGER_PICKED_UP);
-                    this.setElevatorLamps(r.getCarButton(), true);
-                    LogPrinter.print(this.elevatorId, "Elevator " + this.elevatorId + ": Picked up passenger: " + r);
+        RequestQueue requests = getRequests(direction);
+        if (!requests.isStopRequired(floorNumber)) {
+            return;
+        }
+
+        // Picked up requests move to the bucket of their destination, so iterate over a copy of this floor's bucket
+        for (ElevatorRequest r : new ArrayList<>(requests.getRequestsAt(floorNumber))) {
+            if (r.getStatus() == RequestStatus.PENDING && passengerCount >= MAX_PASSENGER_COUNT) {
+                if (r.markLeftBehind()) {
+                    leftBehindPassengers.increment();
                 }
-            }
-        } else {
-            for (ElevatorRequest r : this.downRequests) {
-                if (r.getCurrentTargetFloor() == floorNumber && r.getStatus() == RequestStatus.PENDING && passengerCount < MAX_PASSENGER_COUNT) {
-                    updateCountersForBoardingPassengers();
-                    r.setStatus(RequestStatus.PASSENGER_PICKED_UP);
-                    this.setElevatorLamps(r.getCarButton(), true);
+            } else if (r.getStatus() == RequestStatus.PENDING) {
+                updateCountersForBoardingPassengers();
+                requests.markPickedUp(r);
+                recordPickUp(r);
+                this.setElevatorLamps(r.getCarButton(), true);
+                if (LogPrinter.isEnabled(LogLevel.INFO)) {
                     LogPrinter.print(this.elevatorId, "Elevator " + this.elevatorId + ": Picked up passenger: " + r);
                 }
             }
@@ -188,39 +219,25 @@ public class ElevatorSubsystem {
      * @return A new primary elevator request
      */
     public synchronized ElevatorRequest receiveNewPrimaryRequest() {
-
-        // Check if elevator request queue is empty
-        if (!this.hasWaitingRequests) {
-            return null;
-        }
-
-        // If there is only one request left, set hasWaitingRequests
-        // since the last remaining request will be removed by the end of this method
-        if (this.upRequests.size() + this.downRequests.size() == 1) {
-            this.hasWaitingRequests = false;
+        // Check for partially processed request in UP direction, then in DOWN direction
+        ElevatorRequest request = upRequests.firstPickedUp();
+        if (request == null) {
+            request = downRequests.firstPickedUp();
         }
 
-        // Check for partially processed request in UP direction
-        for (int i = 0; i < this.upRequests.size(); i++) {
-            if (this.upRequests.get(i).getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
-                return this.upRequests.remove(i);
-            }
+        // Since there are no partially completed request, take any request in UP direction, then in DOWN direction
+        if (request == null) {
+            request = upRequests.first();
         }
-
-        // Check for partially processed request in DOWN direction
-        for (int i = 0; i < this.downRequests.size(); i++) {
-            if (this.downRequests.get(i).getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
-                return this.downRequests.remove(i);
-            }
+        if (request == null) {
+            request = downRequests.first();
         }
 
-        // Since there are no partially completed request, check for any request in UP direction
-        if (!this.upRequests.isEmpty()) {
-            return this.upRequests.remove(0);
+        // The request is null if the elevator request queue is empty
+        if (request != null && !upRequests.remove(request)) {
+            downRequests.remove(request);
         }
-
-        // Since there are no UP requests, return any request in DOWN direction
-        return this.downRequests.remove(0);
+        return request;
     }
 
 
@@ -232,51 +249,23 @@ public class ElevatorSubsystem {
      * @return True if a stop is required, false otherwise
      */
     public synchronized boolean isStopRequiredForFloor(int nextFloorNumber, Direction direction) {
-        if (direction == Direction.UP) {
-            // Check for requests in the up direction
-            for (ElevatorRequest r : this.upRequests) {
-                if (r.getCurrentTargetFloor() == nextFloorNumber) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        // Check for request in the down direction
-        for (ElevatorRequest r : this.downRequests) {
-            if (r.getCurrentTargetFloor() == nextFloorNumber) {
-                return true;
-            }
-        }
-        return false;
+        return getRequests(direction).isStopRequired(nextFloorNumber);
     }
 
-    public boolean hasFault(FaultType faultType, int floorNumber) {
-        for (ElevatorRequest e : upRequests) {
-            if (e.getStatus() == RequestStatus.PASSENGER_PICKED_UP && e.getFault() == faultType && e.getCarButton() == floorNumber) {
-                return true;
-            }
-        }
-
-        for (ElevatorRequest e : downRequests) {
-            if (e.getStatus() == RequestStatus.PASSENGER_PICKED_UP && e.getFault() == faultType && e.getCarButton() == floorNumber) {
-                return true;
-            }
-        }
-
-        return false;
+    public synchronized boolean hasFault(FaultType faultType, int floorNumber) {
+        return upRequests.hasFault(faultType, floorNumber) || downRequests.hasFault(faultType, floorNumber);
     }
 
-    public ArrayList<ElevatorRequest> getWaitingRequests() {
+    public synchronized ArrayList<ElevatorRequest> getWaitingRequests() {
         ArrayList<ElevatorRequest> requestsNotPicked = new ArrayList<>();
 
-        for (ElevatorRequest e : upRequests) {
+        for (ElevatorRequest e : upRequests.toList()) {
             if (e.getStatus() != RequestStatus.PASSENGER_PICKED_UP) {
                 requestsNotPicked.add(e);
             }
         }
 
-        for (ElevatorRequest e : downRequests) {
+        for (ElevatorRequest e : downRequests.toList()) {
             if (e.getStatus() != RequestStatus.PASSENGER_PICKED_UP) {
                 requestsNotPicked.add(e);
             }
@@ -284,12 +273,30 @@ public class ElevatorSubsystem {
         return requestsNotPicked;
     }
 
-    public ArrayList<ElevatorRequest> getUpRequests() {
-        return this.getUpRequests();
+    /**
+     * Removes a request whose passenger is still waiting to be picked up, so it can be given to another elevator
+     *
+     * @param requestId The id of the request
+     * @return The removed request, or null if the request is not waiting in the queue
+     */
+    public synchronized ElevatorRequest revokeRequest(int requestId) {
+        for (RequestQueue requests : new RequestQueue[]{upRequests, downRequests}) {
+            for (ElevatorRequest r : requests.toList()) {
+                if (r.getRequestId() == requestId && r.getStatus() == RequestStatus.PENDING) {
+                    requests.remove(r);
+                    return r;
+                }
+            }
+        }
+        return null;
+    }
+
+    public synchronized ArrayList<ElevatorRequest> getUpRequests() {
+        return this.upRequests.toList();
     }
 
-    public ArrayList<ElevatorRequest> getDownRequests() {
-        return this.getDownRequests();
+    public synchronized ArrayList<ElevatorRequest> getDownRequests() {
+        return this.downRequests.toList();
     }
       
     public synchronized ElevatorRequest switchPrimaryRequest(ElevatorRequest oldPrimaryRequest) {
@@ -300,21 +307,15 @@ public class ElevatorSubsystem {
             this.downRequests.add(oldPrimaryRequest);
         }
 
-        // Check for partially processed request in UP direction
-        for (int i = 0; i < this.upRequests.size(); i++) {
-            if (this.upRequests.get(i).getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
-                return this.upRequests.remove(i);
-            }
+        // Check for partially processed request in UP direction, then in DOWN direction
+        ElevatorRequest request = upRequests.firstPickedUp();
+        if (request == null) {
+            request = downRequests.firstPickedUp();
         }
-
-        // Check for partially processed request in DOWN direction
-        for (int i = 0; i < this.downRequests.size(); i++) {
-            if (this.downRequests.get(i).getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
-                return this.downRequests.remove(i);
-            }
+        if (request != null && !upRequests.remove(request)) {
+            downRequests.remove(request);
         }
-
-        return null;
+        return request;
     }
 
     public synchronized void updateCountersForBoardingPassengers() {
@@ -331,6 +332,10 @@ public class ElevatorSubsystem {
         return passengerCount == MAX_PASSENGER_COUNT;
     }
 
+    public synchronized int getPassengerCount() {
+        return passengerCount;
+    }
+
     public synchronized void clearBoardingCounters() {
         unboardingPassengerCount = 0;
         boardingPassengerCount = 0;
@@ -343,4 +348,14 @@ public class ElevatorSubsystem {
     public synchronized int getUnboardingPassengerCount() {
         return unboardingPassengerCount;
     }
+
+    /**
+     * Gets the request queue for the given direction of travel
+     *
+     * @param direction The direction of travel
+     * @return The request queue
+     */
+    private RequestQueue getRequests(Direction direction) {
+        return direction == Direction.UP ? upRequests : downRequests;
+    }
 }
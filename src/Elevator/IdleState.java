@@ -1,6 +1,8 @@
 package Elevator;
 
 import Common.*;
+import Metrics.Counter;
+import Metrics.MetricsRegistry;
 
 import static Common.SystemRequestType.*;
 
@@ -15,6 +17,8 @@ public class IdleState implements ElevatorState {
 
     private Elevator elevator;
 
+    private static final Counter parkingTrips = MetricsRegistry.getInstance().counter("elevator.parking.trips");
+
     /**
      * Constructs a new IdleState for the specified elevator.
      *
@@ -27,6 +31,7 @@ public class IdleState implements ElevatorState {
     /**
      * Handles the behavior of the elevator in the IDLE state:
      * - Waits for the first/new elevator request from the scheduler.
+     * - Moves to the parking floor of its {@link ParkingSchedule} while there is no request.
      * - Determines the direction the elevator needs to move.
      * - Transitions to the CloseDoorState to close the door before starting to move.
      */
@@ -35,19 +40,32 @@ public class IdleState implements ElevatorState {
         elevator.setDirection(Direction.STOPPED);
 
         int elevatorId = elevator.getElevatorId();
-        UDPSenderReceiver senderReceiver = elevator.getSenderReceiver();
 
         LogPrinter.print(elevatorId, "ELEVATOR " + elevatorId + " STATE: IDLE " + LogPrinter.getTimestamp());
         LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Waiting for a request at floor " + elevator.getFloorNumber() + "!");
 
-        // Wait for the first/new elevator request and receive it from scheduler
+        // Wait for the first/new elevator request and receive it from scheduler. The signal is cleared before
+        // asking, so a request added after the answer still wakes the elevator up.
+        WakeupSignal wakeupSignal = elevator.getSubsystem().getWakeupSignal();
         while (elevator.getPrimaryRequest() == null){
-            senderReceiver.sendSystemRequest(new SystemRequest(NEW_PRIMARY_REQUEST, elevatorId));
-            elevator.setPrimaryRequest(ElevatorRequest.deserializeRequest(senderReceiver.receiveResponse()));
+            wakeupSignal.clear();
+            elevator.setPrimaryRequest(elevator.sendQuery(new SystemRequest(NEW_PRIMARY_REQUEST, elevatorId)).getElevatorRequest());
 
             if (elevator.getPrimaryRequest() == null) {
+                // Move to where the next passengers are expected, the trip stops as soon as a request comes in
+                int parkingFloor = elevator.getParkingSchedule().selectParkingFloor(elevatorId, elevator.getFloorNumber(), SimulationClock.getInstance().now());
+                if (parkingFloor != elevator.getFloorNumber()) {
+                    LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Parking at floor " + parkingFloor);
+                    parkingTrips.increment();
+                    elevator.setParkingFloor(parkingFloor);
+                    elevator.setDirection(parkingFloor > elevator.getFloorNumber() ? Direction.UP : Direction.DOWN);
+                    elevator.setCurrentState(new MovingState(elevator));
+                    return;
+                }
+
+                // Check again from time to time, as the parking floor changes with the time of day and the traffic
                 try {
-                    Thread.sleep(5000);
+                    wakeupSignal.await(Constants.PARKING_CHECK_INTERVAL);
                 } catch (InterruptedException e) {
                 }
             }
@@ -3,6 +3,8 @@ package Elevator;
 import Common.Constants;
 import Common.LogPrinter;
 import Display.DisplayView;
+import Journal.Journal;
+import Metrics.MetricsRegistry;
 
 import java.util.ArrayList;
 
@@ -15,6 +17,10 @@ public class Main {
     public static void main(String[] args) {
         //ArrayList for Storing Elevator Objects
 
+        if (!Constants.JOURNAL_DIRECTORY.isEmpty()) {
+            Journal.open(Constants.JOURNAL_DIRECTORY, "elevator");
+        }
+
 
         for (int elevatorId = 0; elevatorId < Constants.NUMBER_OF_ELEVATORS; elevatorId++) {
             // Instantiate Elevator and Floor Subsystem
@@ -31,6 +37,9 @@ public class Main {
 
         }
 
+        // Publish the metrics over JMX and print them periodically
+        MetricsRegistry.getInstance().start();
+
         //Create the Elevator UI
         DisplayView display = new DisplayView(Elevator.elevList);
         Thread displayView = new Thread(display, "DisplayView");
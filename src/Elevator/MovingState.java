@@ -31,11 +31,14 @@ public class MovingState implements ElevatorState {
      * Handles the behavior of the elevator in the MOVING state:
      * - Moves the elevator to the next floor until reaching the primary target floor or a floor with an elevator request.
      * - Transitions to the OpenDoorState to open the door.
+     * <p>
+     * An idle elevator moving to its parking floor stops at the next floor as soon as a request is assigned to it,
+     * and goes back to the IdleState without opening the door, both then and when it reaches the parking floor.
      */
     @Override
     public void handleState() {
         int elevatorId = elevator.getElevatorId();
-        UDPSenderReceiver senderReceiver = elevator.getSenderReceiver();
+        MessageTransport senderReceiver = elevator.getSenderReceiver();
 
         LogPrinter.print(elevatorId, "ELEVATOR " + elevatorId + " STATE: MOVING " + LogPrinter.getTimestamp());
         LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Current floor: " + elevator.getFloorNumber());
@@ -51,22 +54,25 @@ public class MovingState implements ElevatorState {
             elevator.setTime(BASE_MOVE_TIME / 2);
             elevator.setTotalTime(BASE_MOVE_TIME / 2);
             elevator.setDeadline(BASE_MOVE_TIME / 2);
-            Thread.sleep(BASE_MOVE_TIME / 2);
+            SimulationClock.getInstance().sleep(BASE_MOVE_TIME / 2);
         } catch (InterruptedException e) {
         }
 
         // Keep traveling floors until we reach the primary target floor or a floor with an elevator request
+        boolean parking = elevator.isParking();
+        int targetFloor = parking ? elevator.getParkingFloor() : elevator.getPrimaryRequest().getCurrentTargetFloor();
         int nextFloorNumber;
         boolean isStopRequiredAtNextFloor;
         do {
             // Check if a stop is required at the next stop
             nextFloorNumber = elevator.getNextFloorNumber();
 
-            if(nextFloorNumber == elevator.getPrimaryRequest().getCurrentTargetFloor()){
+            if(nextFloorNumber == targetFloor){
                 isStopRequiredAtNextFloor = true;
+            }else if (parking) {
+                isStopRequiredAtNextFloor = elevator.getSubsystem().hasWaitingRequests();
             }else {
-                senderReceiver.sendSystemRequest(new SystemRequest(IS_STOP_REQUIRED, nextFloorNumber, elevator.getDirection(), elevatorId));
-                isStopRequiredAtNextFloor = senderReceiver.receiveResponse()[0] == 1;
+                isStopRequiredAtNextFloor = elevator.sendQuery(new SystemRequest(IS_STOP_REQUIRED, nextFloorNumber, elevator.getDirection(), elevatorId)).getState();
             }
 
             //Increase deadline
@@ -78,7 +84,7 @@ public class MovingState implements ElevatorState {
                 elevator.setTime(INCREMENTAL_MOVE_TIME);
                 elevator.setTotalTime(INCREMENTAL_MOVE_TIME);
                 elevator.setMovements(1);
-                Thread.sleep(INCREMENTAL_MOVE_TIME);
+                SimulationClock.getInstance().sleep(INCREMENTAL_MOVE_TIME);
             } catch (InterruptedException e) {
             }
 
@@ -86,26 +92,32 @@ public class MovingState implements ElevatorState {
             elevator.setFloorNumberToNextFloor();
             LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Moved to next floor: " + elevator.getFloorNumber());
 
-        } while (elevator.getPrimaryRequest().getCurrentTargetFloor() != nextFloorNumber && !isStopRequiredAtNextFloor);
+        } while (targetFloor != nextFloorNumber && !isStopRequiredAtNextFloor);
 
         try {
             elevator.setTime(BASE_MOVE_TIME / 2);
             elevator.setTotalTime(BASE_MOVE_TIME / 2);
             elevator.setDeadline(BASE_MOVE_TIME / 2);
-            Thread.sleep(BASE_MOVE_TIME / 2);
+            SimulationClock.getInstance().sleep(BASE_MOVE_TIME / 2);
         } catch (InterruptedException e) {
         }
         //Check for Hard Fault
-        LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Deadline: " + elevator.getDeadline() + " Time: " + elevator.getTime());
+        if (LogPrinter.isEnabled(LogLevel.INFO)) {
+            LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Deadline: " + elevator.getDeadline() + " Time: " + elevator.getTime());
+        }
 
         if (elevator.hasHardFault() || (elevator.getTime() > elevator.getDeadline())) {
 
             ArrayList<ElevatorRequest> requests =  elevator.getSubsystem().getWaitingRequests();
-            if (elevator.getPrimaryRequest().getStatus() != RequestStatus.PASSENGER_PICKED_UP) {
+            if (elevator.getPrimaryRequest() != null && elevator.getPrimaryRequest().getStatus() != RequestStatus.PASSENGER_PICKED_UP) {
                 requests.add(elevator.getPrimaryRequest());
             }
 
-            senderReceiver.sendSystemRequest(new SystemRequest(ELEVATOR_SHUTDOWN_REQUEST, requests, elevatorId));
+            // One message holds a limited number of requests, so a long list is sent in several shutdown requests
+            for (int from = 0; from == 0 || from < requests.size(); from += MessageCodec.MAX_REQUESTS_PER_MESSAGE) {
+                int to = Math.min(requests.size(), from + MessageCodec.MAX_REQUESTS_PER_MESSAGE);
+                senderReceiver.sendSystemRequest(new SystemRequest(ELEVATOR_SHUTDOWN_REQUEST, new ArrayList<>(requests.subList(from, to)), elevatorId));
+            }
 
             // TODO: Let scheduler know this elevator is not available
             // Print Error Message
@@ -119,6 +131,11 @@ public class MovingState implements ElevatorState {
         LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Stopped at floor " + elevator.getFloorNumber());
         elevator.setMotorRunning(false);
 
+        if (parking) {
+            elevator.setParkingFloor(-1);
+            elevator.setCurrentState(new IdleState(elevator));
+            return;
+        }
         elevator.setCurrentState(new OpenDoorState(elevator));
     }
 }
@@ -38,7 +38,7 @@ public class OpenDoorState implements ElevatorState {
     @Override
     public void handleState() {
         int elevatorId = elevator.getElevatorId();
-        UDPSenderReceiver senderReceiver = elevator.getSenderReceiver();
+        MessageTransport senderReceiver = elevator.getSenderReceiver();
 
         LogPrinter.print(elevatorId, "ELEVATOR " + elevatorId + " STATE: OPEN_DOOR " + LogPrinter.getTimestamp());
 
@@ -51,7 +51,7 @@ public class OpenDoorState implements ElevatorState {
             elevator.setTime(doorOpeningDelay);
             elevator.setDeadline(LOADING_TIME / 2);
             elevator.setTotalTime(doorOpeningDelay);
-            Thread.sleep(doorOpeningDelay);
+            SimulationClock.getInstance().sleep(doorOpeningDelay);
         } catch (InterruptedException e) {
         }
 
@@ -60,13 +60,13 @@ public class OpenDoorState implements ElevatorState {
             LogPrinter.print(elevatorId, "Elevator " + elevatorId + ": Waiting before attempting again.");
 
             try {
-                Thread.sleep(TRANSIENT_FAULT_TIME);
+                SimulationClock.getInstance().sleep(TRANSIENT_FAULT_TIME);
                 elevator.setTotalTime(TRANSIENT_FAULT_TIME);
                 LogPrinter.print(elevatorId, "Elevator " + elevatorId + ": Attempting again.");
                 doorOpeningDelay = (LOADING_TIME / 2);
                 elevator.setTime(doorOpeningDelay);
                 elevator.setTotalTime(doorOpeningDelay);
-                Thread.sleep(doorOpeningDelay);
+                SimulationClock.getInstance().sleep(doorOpeningDelay);
             } catch (InterruptedException e) {
             }
         }
@@ -85,19 +85,19 @@ public class OpenDoorState implements ElevatorState {
             LogPrinter.print(elevatorId, " Completed primary request: " + elevator.getPrimaryRequest());
             elevator.getSubsystem().setElevatorLamps(elevator.getPrimaryRequest().getCarButton(), false);
             elevator.getSubsystem().updateCountersForUnboardingPassengers();
+            elevator.getSubsystem().completeRequest(elevator.getPrimaryRequest());
 
             try{
                 elevator.setTime(elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER);
                 elevator.setTotalTime(elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER);
                 elevator.setDeadline(elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER);
-                Thread.sleep((elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
+                SimulationClock.getInstance().sleep((elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
                 LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Unboarding Passenger Count: " + elevator.getSubsystem().getUnboardingPassengerCount() + " WaitTime: " + ((elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER)));
             }catch (InterruptedException e){
             }
 
             // Get new request from queue
-            senderReceiver.sendSystemRequest(new SystemRequest(NEW_PRIMARY_REQUEST, elevatorId));
-            elevator.setPrimaryRequest(ElevatorRequest.deserializeRequest(senderReceiver.receiveResponse()));
+            elevator.setPrimaryRequest(elevator.sendQuery(new SystemRequest(NEW_PRIMARY_REQUEST, elevatorId)).getElevatorRequest());
 
             if (elevator.getPrimaryRequest() == null) {
                 LogPrinter.print(elevatorId, "Elevator " + elevatorId + ": No request in queue, going to IDLE");
@@ -128,7 +128,7 @@ public class OpenDoorState implements ElevatorState {
                 elevator.setTime(elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER);
                 elevator.setTotalTime(elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER);
                 elevator.setDeadline(elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER);
-                Thread.sleep((elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
+                SimulationClock.getInstance().sleep((elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER));
                 LogPrinter.print(elevatorId, "Elevator " + elevatorId + " Unboarding Passenger Count: " + elevator.getSubsystem().getUnboardingPassengerCount() + " WaitTime: " + ((elevator.getSubsystem().getUnboardingPassengerCount() * BOARDING_TIME_PER_PASSENGER)));
             }catch (InterruptedException e){
             }
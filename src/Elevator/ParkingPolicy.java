@@ -0,0 +1,126 @@
+package Elevator;
+
+import Common.Constants;
+import Common.DemandModel;
+import Common.SimulationClock;
+
+/**
+ * ParkingPolicy.java
+ * <p>
+ * The rule used to choose the floor an idle elevator moves to while it waits for its next request.
+ * <p>
+ * - {@link ParkingPolicy#NONE}: The elevator stays at the floor it finished on. <p>
+ * - {@link ParkingPolicy#LOBBY}: Every idle elevator returns to the lobby, for the up peak. <p>
+ * - {@link ParkingPolicy#ZONING}: The floors are split into one zone per elevator, and each elevator waits in the
+ * middle of its zone, so every floor has an elevator close by. <p>
+ * - {@link ParkingPolicy#HISTORY}: The recent pick ups of the {@link TrafficHistory} are split into one share per
+ * elevator, and each elevator waits at the middle floor of its share. The elevators gather where the passengers
+ * are: at the lobby in the up peak, spread out with the traffic otherwise. Until the history holds
+ * {@link ParkingPolicy#MIN_HISTORY_SIZE} pick ups the elevators stay where they are. <p>
+ * - {@link ParkingPolicy#DEMAND}: The same as {@link ParkingPolicy#HISTORY}, with the passengers the
+ * {@link DemandModel} expects in the next {@link Constants#DEMAND_HORIZON} ms instead of the recent pick ups. The
+ * elevators move to where the passengers are going to be, such as the lobby just before the morning rush. Until the
+ * time of day profile of the model covers the next {@link Constants#DEMAND_HORIZON} ms this is
+ * {@link ParkingPolicy#HISTORY}. The model is fed by the scheduler and trained by the Simulation program, so this
+ * policy only works in the Simulation program: the Elevator program on its own runs in another process than the
+ * scheduler and always parks as {@link ParkingPolicy#HISTORY}.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public enum ParkingPolicy {
+    NONE, LOBBY, ZONING, HISTORY, DEMAND;
+
+    /**
+     * The number of pick ups the {@link ParkingPolicy#HISTORY} policy needs before it moves the elevators.
+     */
+    public static final int MIN_HISTORY_SIZE = 20;
+
+    /**
+     * Gets the floor an idle elevator should wait at.
+     *
+     * @param elevatorId        The id of the elevator, from 0 to numberOfElevators - 1.
+     * @param numberOfElevators The number of elevators.
+     * @param currentFloor      The floor the elevator is at.
+     * @return The parking floor, which is the current floor if the elevator should stay.
+     */
+    public int selectParkingFloor(int elevatorId, int numberOfElevators, int currentFloor) {
+        return switch (this) {
+            case NONE -> currentFloor;
+            case LOBBY -> 1;
+            case ZONING -> getZoneFloor(elevatorId, numberOfElevators);
+            case HISTORY -> getHistoryFloor(elevatorId, numberOfElevators, currentFloor);
+            case DEMAND -> getDemandFloor(elevatorId, numberOfElevators, currentFloor);
+        };
+    }
+
+    /**
+     * Gets the middle floor of the zone of an elevator.
+     */
+    private static int getZoneFloor(int elevatorId, int numberOfElevators) {
+        int zone = Math.floorMod(elevatorId, Math.max(1, numberOfElevators));
+        return 1 + (int) ((zone + 0.5) * Constants.NUMBER_OF_FLOORS / Math.max(1, numberOfElevators));
+    }
+
+    /**
+     * Gets the floor in the middle of the share of the recent pick ups of an elevator.
+     */
+    private static int getHistoryFloor(int elevatorId, int numberOfElevators, int currentFloor) {
+        TrafficHistory history = TrafficHistory.getInstance();
+        int total = history.size();
+        if (total < MIN_HISTORY_SIZE) {
+            return currentFloor;
+        }
+
+        int[] counts = history.getFloorCounts();
+        double[] weights = new double[counts.length];
+        for (int floor = 1; floor < counts.length; floor++) {
+            weights[floor] = counts[floor];
+        }
+        return getShareFloor(weights, total, elevatorId, numberOfElevators, -1);
+    }
+
+    /**
+     * Gets the floor in the middle of the share of the passengers the demand model expects of an elevator.
+     */
+    private static int getDemandFloor(int elevatorId, int numberOfElevators, int currentFloor) {
+        long now = SimulationClock.getInstance().currentTimeMillis();
+        DemandModel demandModel = DemandModel.getInstance();
+        if (!demandModel.hasProfile(now) || !demandModel.hasProfile(now + Constants.DEMAND_HORIZON)) {
+            return getHistoryFloor(elevatorId, numberOfElevators, currentFloor);
+        }
+        double[] arrivals = demandModel.getPredictedArrivals(now, now + Constants.DEMAND_HORIZON);
+        double total = 0;
+        for (double floorArrivals : arrivals) {
+            total += floorArrivals;
+        }
+        if (total < 1) {
+            return getHistoryFloor(elevatorId, numberOfElevators, currentFloor);
+        }
+        return getShareFloor(arrivals, total, elevatorId, numberOfElevators, currentFloor);
+    }
+
+    /**
+     * Splits the weights of the floors, indexed by floor number, into one share per elevator and gets the floor in
+     * the middle of the share of an elevator. Given its current floor, an elevator already at a floor of its share
+     * stays there, so a small change of the weights does not move every elevator; the current floor -1 always gets
+     * the middle floor.
+     */
+    private static int getShareFloor(double[] weights, double total, int elevatorId, int numberOfElevators, int currentFloor) {
+        int share = Math.floorMod(elevatorId, Math.max(1, numberOfElevators));
+        double low = share * total / Math.max(1, numberOfElevators);
+        double high = (share + 1) * total / Math.max(1, numberOfElevators);
+        double seen = 0;
+        int middleFloor = -1;
+        for (int floor = 1; floor < weights.length; floor++) {
+            double before = seen;
+            seen += weights[floor];
+            if (floor == currentFloor && seen >= low && before <= high) {
+                return currentFloor;
+            }
+            if (middleFloor < 0 && seen >= (low + high) / 2) {
+                middleFloor = floor;
+            }
+        }
+        return middleFloor < 0 ? weights.length - 1 : middleFloor;
+    }
+}
@@ -0,0 +1,111 @@
+package Elevator;
+
+import Common.Constants;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ParkingSchedule.java
+ * <p>
+ * The {@link ParkingPolicy} of the idle elevators at each time of day. A policy applies from its start time until
+ * the start time of the next one, and the last policy of the day carries on past midnight until the first one.
+ * <p>
+ * A schedule is written as a comma separated list of start times and policies, for example
+ * "07:00=LOBBY,10:00=HISTORY,16:00=ZONING". A policy without a start time applies all day. An idle elevator checks
+ * its parking floor again every {@link Constants#PARKING_CHECK_INTERVAL} ms, as it changes with the time of day.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class ParkingSchedule {
+
+    private static final ParkingSchedule defaultSchedule = parse(Constants.PARKING_SCHEDULE, Constants.NUMBER_OF_ELEVATORS);
+
+    private final TreeMap<LocalTime, ParkingPolicy> policies = new TreeMap<>();
+    private final int numberOfElevators;
+
+    /**
+     * Creates a schedule without parking for the given number of elevators.
+     *
+     * @param numberOfElevators The number of elevators, with ids from 0 to numberOfElevators - 1.
+     */
+    public ParkingSchedule(int numberOfElevators) {
+        this.numberOfElevators = numberOfElevators;
+    }
+
+    /**
+     * Reads a schedule.
+     *
+     * @param schedule          The schedule, for example "07:00=LOBBY,10:00=HISTORY".
+     * @param numberOfElevators The number of elevators.
+     * @return The schedule.
+     * @throws IllegalArgumentException If a time or a policy can not be read.
+     */
+    public static ParkingSchedule parse(String schedule, int numberOfElevators) {
+        ParkingSchedule parkingSchedule = new ParkingSchedule(numberOfElevators);
+        for (String entry : schedule.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split("=");
+            LocalTime start = parts.length > 1 ? LocalTime.parse(parts[0].trim()) : LocalTime.MIDNIGHT;
+            parkingSchedule.setPolicy(start, ParkingPolicy.valueOf(parts[parts.length - 1].trim().toUpperCase()));
+        }
+        return parkingSchedule;
+    }
+
+    /**
+     * Gets the schedule of {@link Constants#PARKING_SCHEDULE} for {@link Constants#NUMBER_OF_ELEVATORS} elevators.
+     *
+     * @return The schedule.
+     */
+    public static ParkingSchedule getDefault() {
+        return defaultSchedule;
+    }
+
+    /**
+     * Sets the policy that applies from the given time of day.
+     *
+     * @param start  The start time.
+     * @param policy The parking policy.
+     */
+    public synchronized void setPolicy(LocalTime start, ParkingPolicy policy) {
+        policies.put(start, policy);
+    }
+
+    /**
+     * Gets the policy that applies at the given time of day.
+     *
+     * @param time The time of day.
+     * @return The parking policy, {@link ParkingPolicy#NONE} if the schedule is empty.
+     */
+    public synchronized ParkingPolicy getPolicy(LocalTime time) {
+        Map.Entry<LocalTime, ParkingPolicy> entry = policies.floorEntry(time);
+        if (entry == null) {
+            entry = policies.lastEntry();
+        }
+        return entry == null ? ParkingPolicy.NONE : entry.getValue();
+    }
+
+    /**
+     * Gets the floor an idle elevator should wait at, with the policy that applies at the given time of day.
+     *
+     * @param elevatorId   The id of the elevator.
+     * @param currentFloor The floor the elevator is at.
+     * @param time         The time of day.
+     * @return The parking floor, which is the current floor if the elevator should stay.
+     */
+    public int selectParkingFloor(int elevatorId, int currentFloor, LocalTime time) {
+        return getPolicy(time).selectParkingFloor(elevatorId, numberOfElevators, currentFloor);
+    }
+
+    /**
+     * Gets the number of elevators the schedule spreads over the floors.
+     *
+     * @return The number of elevators.
+     */
+    public int getNumberOfElevators() {
+        return numberOfElevators;
+    }
+}
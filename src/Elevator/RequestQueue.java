@@ -0,0 +1,263 @@
+package Elevator;
+
+import Common.ElevatorRequest;
+import Common.FaultType;
+import Common.RequestStatus;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * RequestQueue.java
+ * <p>
+ * The elevator requests of one direction of travel, indexed by floor. Requests are kept in the order they were
+ * added and are also grouped in buckets by their current target floor (the pick up floor while the request is
+ * pending, the destination floor once the passenger is picked up). Bit sets mark the floors that have a
+ * request, so checking if a stop is needed at a floor is a single bit test, and handling the requests at a
+ * floor only looks at the requests of that floor.
+ * <p>
+ * The queue is not thread safe. It is guarded by the {@link ElevatorSubsystem} that owns it.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class RequestQueue {
+
+    private final LinkedHashSet<ElevatorRequest> requests = new LinkedHashSet<>();
+    private final ArrayList<ArrayList<ElevatorRequest>> buckets = new ArrayList<>();
+
+    // Floors with any request targeting them, and floors with a request waiting to be picked up
+    private final BitSet stopFloors = new BitSet();
+    private final BitSet pendingFloors = new BitSet();
+    private int[] pendingCounts = new int[0];
+    private int pickedUpCount;
+
+    /**
+     * Adds a request at the end of the queue.
+     *
+     * @param request The elevator request.
+     */
+    public void add(ElevatorRequest request) {
+        if (requests.add(request)) {
+            index(request);
+        }
+    }
+
+    /**
+     * Removes a request from the queue.
+     *
+     * @param request The elevator request.
+     * @return True if the request was in the queue.
+     */
+    public boolean remove(ElevatorRequest request) {
+        if (!requests.remove(request)) {
+            return false;
+        }
+        unindex(request);
+        return true;
+    }
+
+    /**
+     * Checks if any request targets the given floor.
+     *
+     * @param floorNumber The floor number.
+     * @return True if the elevator needs to stop at the floor.
+     */
+    public boolean isStopRequired(int floorNumber) {
+        return floorNumber >= 0 && stopFloors.get(floorNumber);
+    }
+
+    /**
+     * Gets the requests whose current target is the given floor. The returned list must not be modified.
+     *
+     * @param floorNumber The floor number.
+     * @return The requests targeting the floor, possibly empty.
+     */
+    public ArrayList<ElevatorRequest> getRequestsAt(int floorNumber) {
+        if (floorNumber < 0 || floorNumber >= buckets.size()) {
+            return new ArrayList<>(0);
+        }
+        return buckets.get(floorNumber);
+    }
+
+    /**
+     * Marks a pending request at the given floor as picked up and moves it to the bucket of its destination floor.
+     *
+     * @param request The elevator request.
+     */
+    public void markPickedUp(ElevatorRequest request) {
+        unindex(request);
+        request.setStatus(RequestStatus.PASSENGER_PICKED_UP);
+        index(request);
+    }
+
+    /**
+     * Removes the requests whose passenger was picked up and whose destination is the given floor.
+     *
+     * @param floorNumber The floor number.
+     * @return The completed requests.
+     */
+    public ArrayList<ElevatorRequest> removeCompletedAt(int floorNumber) {
+        ArrayList<ElevatorRequest> completed = new ArrayList<>();
+        if (floorNumber < 0 || floorNumber >= buckets.size()) {
+            return completed;
+        }
+        Iterator<ElevatorRequest> iterator = buckets.get(floorNumber).iterator();
+        while (iterator.hasNext()) {
+            ElevatorRequest r = iterator.next();
+            if (r.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
+                iterator.remove();
+                requests.remove(r);
+                pickedUpCount--;
+                completed.add(r);
+            }
+        }
+        if (buckets.get(floorNumber).isEmpty()) {
+            stopFloors.clear(floorNumber);
+        }
+        return completed;
+    }
+
+    /**
+     * Checks if a picked up passenger with the given fault is going to the given floor.
+     *
+     * @param faultType   The fault type.
+     * @param floorNumber The floor number.
+     * @return True if such a request exists.
+     */
+    public boolean hasFault(FaultType faultType, int floorNumber) {
+        for (ElevatorRequest r : getRequestsAt(floorNumber)) {
+            if (r.getStatus() == RequestStatus.PASSENGER_PICKED_UP && r.getFault() == faultType && r.getCarButton() == floorNumber) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the floors with a request waiting to be picked up.
+     *
+     * @return The floor numbers in increasing order.
+     */
+    public ArrayList<Integer> getPendingFloors() {
+        ArrayList<Integer> floors = new ArrayList<>(pendingFloors.cardinality());
+        for (int floor = pendingFloors.nextSetBit(0); floor >= 0; floor = pendingFloors.nextSetBit(floor + 1)) {
+            floors.add(floor);
+        }
+        return floors;
+    }
+
+    /**
+     * Gets the destination floors of the passengers that were picked up, once for every passenger.
+     *
+     * @return The floor numbers in increasing order.
+     */
+    public ArrayList<Integer> getPickedUpFloors() {
+        ArrayList<Integer> floors = new ArrayList<>();
+        if (pickedUpCount == 0) {
+            return floors;
+        }
+        for (int floor = stopFloors.nextSetBit(0); floor >= 0; floor = stopFloors.nextSetBit(floor + 1)) {
+            for (ElevatorRequest r : buckets.get(floor)) {
+                if (r.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
+                    floors.add(floor);
+                }
+            }
+        }
+        return floors;
+    }
+
+    /**
+     * Gets the oldest request whose passenger was picked up.
+     *
+     * @return The request, or null if no passenger was picked up.
+     */
+    public ElevatorRequest firstPickedUp() {
+        if (pickedUpCount == 0) {
+            return null;
+        }
+        for (ElevatorRequest r : requests) {
+            if (r.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the oldest request in the queue.
+     *
+     * @return The request, or null if the queue is empty.
+     */
+    public ElevatorRequest first() {
+        return requests.isEmpty() ? null : requests.iterator().next();
+    }
+
+    /**
+     * Gets all requests in the order they were added.
+     *
+     * @return A copy of the requests.
+     */
+    public ArrayList<ElevatorRequest> toList() {
+        return new ArrayList<>(requests);
+    }
+
+    /**
+     * Gets the number of requests in the queue.
+     *
+     * @return The number of requests.
+     */
+    public int size() {
+        return requests.size();
+    }
+
+    /**
+     * Checks if the queue is empty.
+     *
+     * @return True if there are no requests.
+     */
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    private void index(ElevatorRequest request) {
+        int floor = request.getCurrentTargetFloor();
+        ensureFloor(floor);
+        buckets.get(floor).add(request);
+        stopFloors.set(floor);
+        if (request.getStatus() == RequestStatus.PENDING) {
+            pendingCounts[floor]++;
+            pendingFloors.set(floor);
+        } else if (request.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
+            pickedUpCount++;
+        }
+    }
+
+    private void unindex(ElevatorRequest request) {
+        int floor = request.getCurrentTargetFloor();
+        ArrayList<ElevatorRequest> bucket = buckets.get(floor);
+        bucket.remove(request);
+        if (bucket.isEmpty()) {
+            stopFloors.clear(floor);
+        }
+        if (request.getStatus() == RequestStatus.PENDING) {
+            if (--pendingCounts[floor] == 0) {
+                pendingFloors.clear(floor);
+            }
+        } else if (request.getStatus() == RequestStatus.PASSENGER_PICKED_UP) {
+            pickedUpCount--;
+        }
+    }
+
+    private void ensureFloor(int floor) {
+        while (buckets.size() <= floor) {
+            buckets.add(new ArrayList<>());
+        }
+        if (pendingCounts.length <= floor) {
+            int[] counts = new int[Math.max(floor + 1, pendingCounts.length * 2)];
+            System.arraycopy(pendingCounts, 0, counts, 0, pendingCounts.length);
+            pendingCounts = counts;
+        }
+    }
+}
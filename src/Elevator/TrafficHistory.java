@@ -0,0 +1,90 @@
+package Elevator;
+
+import Common.Constants;
+
+import java.util.Arrays;
+
+/**
+ * TrafficHistory.java
+ * <p>
+ * Remembers the floors the last passengers were picked up at, for all the elevators of this process. The
+ * {@link ParkingPolicy#HISTORY} policy parks the idle elevators where most of the recent passengers were waiting.
+ * <p>
+ * The floors are kept in a ring of the last {@link Constants#PARKING_HISTORY_SIZE} pick ups, so the history
+ * follows the traffic as it changes during the day.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class TrafficHistory {
+
+    private static final TrafficHistory instance = new TrafficHistory(Constants.PARKING_HISTORY_SIZE);
+
+    private final int[] floors;
+    private final int[] floorCounts = new int[Constants.NUMBER_OF_FLOORS + 1];
+    private int next;
+    private int size;
+
+    /**
+     * Creates a history of the given number of pick ups.
+     *
+     * @param capacity The number of pick ups remembered.
+     */
+    public TrafficHistory(int capacity) {
+        this.floors = new int[capacity];
+    }
+
+    /**
+     * Gets the history of this process.
+     *
+     * @return The history.
+     */
+    public static TrafficHistory getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records a passenger picked up at the given floor, forgetting the oldest pick up once the history is full.
+     *
+     * @param floor The floor number.
+     */
+    public synchronized void record(int floor) {
+        if (floor < 1 || floor > Constants.NUMBER_OF_FLOORS || floors.length == 0) {
+            return;
+        }
+        if (size == floors.length) {
+            floorCounts[floors[next]]--;
+        } else {
+            size++;
+        }
+        floors[next] = floor;
+        floorCounts[floor]++;
+        next = (next + 1) % floors.length;
+    }
+
+    /**
+     * Gets the number of recent pick ups at each floor.
+     *
+     * @return The counts, indexed by floor number.
+     */
+    public synchronized int[] getFloorCounts() {
+        return floorCounts.clone();
+    }
+
+    /**
+     * Gets the number of pick ups remembered.
+     *
+     * @return The number of pick ups.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Forgets all the pick ups.
+     */
+    public synchronized void clear() {
+        Arrays.fill(floorCounts, 0);
+        next = 0;
+        size = 0;
+    }
+}
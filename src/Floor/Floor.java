@@ -3,9 +3,11 @@ package Floor;
 import Common.Constants;
 import Common.Direction;
 import Common.ElevatorRequest;
+import Common.SimulationClock;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -31,6 +33,9 @@ public class Floor {
     private boolean floorLampDown;
     private boolean[][] directionLamps;
 
+    // Elevator shown to the passengers going to each destination floor with destination dispatch, -1 if none
+    private int[] assignedElevators;
+
     // Flags indicating if the floor is first/last
     private boolean isFirstFloor;
     private boolean isLastFloor;
@@ -49,6 +54,8 @@ public class Floor {
         this.directionLamps = new boolean[Constants.NUMBER_OF_ELEVATORS][2];
         this.floorLampUp = false;
         this.floorLampDown = false;
+        this.assignedElevators = new int[numberOfFloors + 1];
+        Arrays.fill(this.assignedElevators, -1);
         this.isFirstFloor = floorNumber == 1;
         this.isLastFloor = floorNumber == numberOfFloors;
     }
@@ -71,10 +78,11 @@ public class Floor {
      * @return True if there is at least one elevator requests at the floor, False otherwise.
      */
     public ElevatorRequest checkForRequests() {
+        LocalTime now = SimulationClock.getInstance().now();
 
         // Check the up requests and update the floor lamp if needed
         for (int i = 0; i < upRequests.size(); i++) {
-            if (upRequests.get(i).getTime().isBefore(LocalTime.now())) {
+            if (!upRequests.get(i).getTime().isAfter(now)) {
                 this.setFloorLamp(Direction.UP, true);
                 return upRequests.remove(i);
             }
@@ -82,7 +90,7 @@ public class Floor {
 
         // Check the down requests and update the floor lamp if needed
         for (int i = 0; i < downRequests.size(); i++) {
-            if (downRequests.get(i).getTime().isBefore(LocalTime.now())) {
+            if (!downRequests.get(i).getTime().isAfter(now)) {
                 this.setFloorLamp(Direction.DOWN, true);
                 return downRequests.remove(i);
             }
@@ -118,6 +126,26 @@ public class Floor {
         }
     }
 
+    /**
+     * Sets the elevator the passengers going to the given destination floor have to take
+     *
+     * @param destinationFloor The destination floor
+     * @param elevatorId       The id of the assigned elevator
+     */
+    public synchronized void setAssignedElevator(int destinationFloor, int elevatorId) {
+        assignedElevators[destinationFloor] = elevatorId;
+    }
+
+    /**
+     * Gets the elevator the passengers going to the given destination floor have to take
+     *
+     * @param destinationFloor The destination floor
+     * @return The id of the assigned elevator, or -1 if none was assigned
+     */
+    public synchronized int getAssignedElevator(int destinationFloor) {
+        return assignedElevators[destinationFloor];
+    }
+
     /**
      * Gets the collection of elevator requests going up.
      *
@@ -14,7 +14,7 @@ import static Common.SystemRequestType.*;
 public class FloorController implements Runnable {
 
     private FloorSubsystem floorSubsystem;
-    private UDPSenderReceiver receiver;
+    private MessageTransport receiver;
 
     /**
      * Constructs a new FloorController for the specified floor subsystem.
@@ -23,7 +23,7 @@ public class FloorController implements Runnable {
      */
     public FloorController(FloorSubsystem floorSubsystem) {
         this.floorSubsystem = floorSubsystem;
-        this.receiver = new UDPSenderReceiver(Constants.FLOOR_CONTROLLER_PORT, 0);
+        this.receiver = MessageTransport.open(Constants.FLOOR_CONTROLLER_PORT, 0);
     }
 
     /**
@@ -37,6 +37,8 @@ public class FloorController implements Runnable {
                 this.floorSubsystem.setFloorLamp(request.getFloorNumber(), request.getDirection(), request.getState());
             } else if (request.getType() == SET_FLOOR_DIRECTION_LAMPS) {
                 this.floorSubsystem.setDirectionLamp(request.getId(), request.getFloorNumber(), request.getDirection(), request.getState());
+            } else if (request.getType() == HALL_CALL_ASSIGNMENT) {
+                this.floorSubsystem.setAssignedElevator(request.getElevatorRequest(), request.getId());
             }
         }
     }
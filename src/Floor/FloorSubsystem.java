@@ -1,12 +1,10 @@
 package Floor;
 
 import Common.*;
+import Journal.Journal;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.time.LocalTime;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Scanner;
 
 /**
  * FloorSubsystem.java
@@ -19,13 +17,27 @@ import java.util.Scanner;
  */
 public class FloorSubsystem implements Runnable {
 
-    private UDPSenderReceiver sender;
+    private static final long HALF_DAY_MILLIS = 12 * 60 * 60 * 1000L;
+
+    private MessageTransport sender;
 
     private int numberOfFloors;
 
     // List of all floors managed by the floor subsystem
     private ArrayList<Floor> floors = new ArrayList<>();
 
+    // Trace the requests are read from, null once it has ended
+    private TraceSource trace;
+
+    // Requests from all floors waiting for their time, and the signal fired when an earlier request is added
+    private final RequestReleaseQueue releaseQueue = new RequestReleaseQueue();
+    private final WakeupSignal releaseSignal = new WakeupSignal();
+
+    // How late the requests were released compared to their time, in milliseconds
+    private long releasedRequests;
+    private long totalReleaseJitter;
+    private long maxReleaseJitter;
+
     /**
      * Constructs an instance of the Floor.FloorSubsystem class
      *
@@ -33,74 +45,57 @@ public class FloorSubsystem implements Runnable {
      * @param numberOfFloors Total number of floors in the building
      */
     public FloorSubsystem(String inputFileName, int numberOfFloors) {
+        this(TraceSource.open(inputFileName, SimulationClock.getInstance().now()), numberOfFloors);
+    }
+
+    /**
+     * Constructs an instance of the Floor.FloorSubsystem class that replays the given trace
+     *
+     * @param trace          The elevator requests, read only shortly before they are due
+     * @param numberOfFloors Total number of floors in the building
+     */
+    public FloorSubsystem(TraceSource trace, int numberOfFloors) {
         this.numberOfFloors = numberOfFloors;
-        this.sender = new UDPSenderReceiver(0, Constants.SCHEDULER_PORT);
+        this.trace = trace;
+        this.sender = MessageTransport.open(0, Constants.SCHEDULER_PORT);
 
         // Instantiates all floors in the building
         for (int i = 0; i < numberOfFloors; i++) {
             floors.add(new Floor(i + 1, numberOfFloors));
         }
+    }
+
+    /**
+     * Adds an elevator request to be released to the scheduler at its time
+     *
+     * @param request The elevator request
+     */
+    public void addRequest(ElevatorRequest request) {
+        SimulationClock clock = SimulationClock.getInstance();
+        long delay = Duration.between(clock.now(), request.getTime()).toMillis();
 
-        // Adds the elevator requests from the file to their corresponding floor
-        for (ElevatorRequest e : readInputFile(inputFileName)) {
-            floors.get(e.getFloor() - 1).addRequest(e);
+        // Request times are times of day, so a request after midnight looks like it is almost a day early
+        if (delay < -HALF_DAY_MILLIS) {
+            delay += 2 * HALF_DAY_MILLIS;
+        }
+        if (releaseQueue.add(request, clock.currentTimeMillis() + Math.max(0, delay))) {
+            releaseSignal.fire();
         }
     }
 
     /**
-     * Reads an input file containing the elevator requests and returns the requests as a list
+     * Reads an input file containing the elevator requests and returns the requests as a list. The request
+     * times in the file are offsets from the current time of the simulation clock.
      *
      * @param fileName The filename for the input file
      * @return List of elevator requests
      */
-    private ArrayList<ElevatorRequest> readInputFile(String fileName) {
-        File dataFile = new File(fileName);
+    public static ArrayList<ElevatorRequest> readInputFile(String fileName) {
         ArrayList<ElevatorRequest> events = new ArrayList<>();
-
-        //Get the Current Time this won't work as we discussed it will take the time of the system to run in total
-        LocalTime currentTime = LocalTime.now();
-
-        try {
-            Scanner myReader = new Scanner(dataFile);
-
-            // Read the file line by line and send the elevator events to the scheduler
-            while (myReader.hasNextLine()) {
-
-                // Parse the input file line to elevator event
-                String[] data = myReader.nextLine().strip().split(" ");
-                LocalTime offset = LocalTime.parse(data[0]);
-
-                //Take the Offset Time found in the file and add it to the current time to get the time of the event
-                LocalTime time = currentTime.plusHours(offset.getHour()).plusMinutes(offset.getMinute()).plusSeconds(offset.getSecond());
-
-                int faultInt = Integer.parseInt(data[4]);
-                FaultType faultType = FaultType.NO_FAULT;
-                try {
-                    switch (faultInt) {
-                        case 0: //NoFault
-                            faultType = FaultType.NO_FAULT;
-                            break;
-                        case 1: //NoFault
-                            faultType = FaultType.DOOR_FAULT;
-                            break;
-                        case 2: //NoFault
-                            faultType = FaultType.FLOOR_TIMER_FAULT;
-                            break;
-                        default:
-                            throw new NumberFormatException("Error: Unrecognized fault type in input file, should be 0, 1, or 2.");
-                    }
-                } catch (NumberFormatException nfe) {
-                    nfe.printStackTrace();
-                    System.exit(1);
-                }
-
-                ElevatorRequest event = new ElevatorRequest(time, Integer.parseInt(data[1]), data[2], Integer.parseInt(data[3]), faultType);
-
+        try (TraceSource trace = TraceSource.open(fileName, SimulationClock.getInstance().now())) {
+            for (ElevatorRequest event = trace.next(); event != null; event = trace.next()) {
                 events.add(event);
             }
-            myReader.close();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
         }
         return events;
     }
@@ -129,6 +124,17 @@ public class FloorSubsystem implements Runnable {
         System.out.println("Set floor lamp: Direction = " + direction + " State = " + (state ? "ON" : "OFF"));
     }
 
+    /**
+     * Shows the passenger of a request at its floor which elevator to take to the destination floor
+     *
+     * @param request    The elevator request
+     * @param elevatorId The id of the elevator assigned to the request
+     */
+    public void setAssignedElevator(ElevatorRequest request, int elevatorId) {
+        this.floors.get(request.getFloor() - 1).setAssignedElevator(request.getCarButton(), elevatorId);
+        LogPrinter.print(elevatorId, "Hall call at floor " + request.getFloor() + " to floor " + request.getCarButton() + ": take Elevator " + elevatorId);
+    }
+
     public ArrayList<Floor> getFloors() {
         return this.floors;
     }
@@ -139,22 +145,103 @@ public class FloorSubsystem implements Runnable {
 
 
     /**
-     * Keeps checking the floors for new elevator request and sends any request
-     * received at a floor to the scheduler to be assigned to an elevator
+     * Gets the number of requests released to the scheduler
+     *
+     * @return The number of released requests
+     */
+    public synchronized long getReleasedRequests() {
+        return releasedRequests;
+    }
+
+    /**
+     * Gets the average time requests were released after their time
+     *
+     * @return The average release delay in milliseconds
+     */
+    public synchronized double getAverageReleaseJitter() {
+        return releasedRequests == 0 ? 0 : (double) totalReleaseJitter / releasedRequests;
+    }
+
+    /**
+     * Gets the longest time a request was released after its time
+     *
+     * @return The longest release delay in milliseconds
+     */
+    public synchronized long getMaxReleaseJitter() {
+        return maxReleaseJitter;
+    }
+
+    /**
+     * Reads requests from the trace until the release queue holds the look-ahead window
+     */
+    private void fillReleaseQueue() {
+        while (trace != null && releaseQueue.size() < Constants.TRACE_LOOK_AHEAD) {
+            ElevatorRequest request = trace.next();
+            if (request == null) {
+                trace.close();
+                trace = null;
+            } else {
+                addRequest(request);
+            }
+        }
+    }
+
+    /**
+     * Records how late a request was released
+     *
+     * @param request The released request
+     * @param jitter  The time between the request time and its release in milliseconds
+     */
+    private synchronized void recordRelease(ElevatorRequest request, long jitter) {
+        releasedRequests++;
+        totalReleaseJitter += jitter;
+        maxReleaseJitter = Math.max(maxReleaseJitter, jitter);
+        if (jitter > Constants.MAX_RELEASE_JITTER) {
+            LogPrinter.printWarning("Request released " + jitter + " ms late: " + request);
+        }
+    }
+
+    /**
+     * Releases each elevator request to the scheduler at its time. Requests are read from the trace a few at a
+     * time just ahead of their time, so the memory use does not grow with the length of the trace. The thread
+     * waits on the clock until the first request in the release queue is due, or until an earlier request is
+     * added, so it uses no CPU in between.
      */
     @Override
     public void run() {
-        while (true) {
-            for (Floor f : floors) {
-                ElevatorRequest request = f.checkForRequests();
-                if (request != null) {
-                    SystemRequest sr = new SystemRequest(SystemRequestType.ADD_NEW_REQUEST, request, 0);
-                    sender.sendSystemRequest(sr, Constants.SCHEDULER_PORT);
-                    System.out.println("Sending new request to the scheduler: " + request);
-
-                    this.setFloorLamp(request.getFloor(), request.getDirection(), true);
+        SimulationClock clock = SimulationClock.getInstance();
+        clock.register();
+        try {
+            while (true) {
+                fillReleaseQueue();
+                long dueTime = releaseQueue.getNextDueTime();
+                long delay = dueTime - clock.currentTimeMillis();
+                if (dueTime < 0) {
+                    releaseSignal.await();
+                    continue;
+                } else if (delay > 0) {
+                    releaseSignal.await(delay);
+                    continue;
                 }
+
+                long now = clock.currentTimeMillis();
+                ElevatorRequest request = releaseQueue.pollDue(now);
+                if (request == null) {
+                    continue;
+                }
+                recordRelease(request, now - dueTime);
+                request.setReleaseTime(now);
+                Journal.recordRelease(request);
+
+                SystemRequest sr = new SystemRequest(SystemRequestType.ADD_NEW_REQUEST, request, 0);
+                sender.sendSystemRequest(sr, Constants.SCHEDULER_PORT);
+                System.out.println("Sending new request to the scheduler: " + request);
+
+                this.setFloorLamp(request.getFloor(), request.getDirection(), true);
             }
+        } catch (InterruptedException e) {
+        } finally {
+            clock.deregister();
         }
     }
 }
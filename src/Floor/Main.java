@@ -4,6 +4,7 @@ import Common.Constants;
 import Common.ElevatorRequest;
 import Display.DisplayView;
 import Elevator.Elevator;
+import Journal.Journal;
 
 import java.util.ArrayList;
 
@@ -14,6 +15,9 @@ import java.util.ArrayList;
  */
 public class Main {
     public static void main(String[] args) {
+        if (!Constants.JOURNAL_DIRECTORY.isEmpty()) {
+            Journal.open(Constants.JOURNAL_DIRECTORY, "floor");
+        }
         FloorSubsystem flo = new FloorSubsystem("data.txt", Constants.NUMBER_OF_FLOORS);
         FloorController floCont = new FloorController(flo);
         Thread floorSubsystem = new Thread(flo, "FloorSubsystem");
@@ -0,0 +1,87 @@
+package Floor;
+
+import Common.ElevatorRequest;
+
+import java.util.PriorityQueue;
+
+/**
+ * RequestReleaseQueue.java
+ * <p>
+ * The elevator requests that have not been released to the scheduler yet, ordered by the clock time they are
+ * due. The floor subsystem only looks at the head of the queue, so waiting for the next request does not depend
+ * on the number of floors or requests. Requests due at the same time are released in the order they were added.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class RequestReleaseQueue {
+
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>();
+    private long sequence;
+
+    /**
+     * Adds a request to the queue.
+     *
+     * @param request   The elevator request.
+     * @param dueMillis The clock time the request is due in milliseconds since the epoch.
+     * @return True if the request is now the first request due.
+     */
+    public synchronized boolean add(ElevatorRequest request, long dueMillis) {
+        Entry entry = new Entry(request, dueMillis, sequence++);
+        entries.add(entry);
+        return entries.peek() == entry;
+    }
+
+    /**
+     * Gets the time the first request in the queue is due.
+     *
+     * @return The due time in milliseconds since the epoch, or -1 if the queue is empty.
+     */
+    public synchronized long getNextDueTime() {
+        return entries.isEmpty() ? -1 : entries.peek().dueMillis;
+    }
+
+    /**
+     * Removes the first request in the queue if it is due.
+     *
+     * @param nowMillis The current clock time in milliseconds since the epoch.
+     * @return The request, or null if no request is due yet.
+     */
+    public synchronized ElevatorRequest pollDue(long nowMillis) {
+        if (entries.isEmpty() || entries.peek().dueMillis > nowMillis) {
+            return null;
+        }
+        return entries.poll().request;
+    }
+
+    /**
+     * Gets the number of requests waiting to be released.
+     *
+     * @return The number of requests.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A request with the time it is due.
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final ElevatorRequest request;
+        private final long dueMillis;
+        private final long sequence;
+
+        Entry(ElevatorRequest request, long dueMillis, long sequence) {
+            this.request = request;
+            this.dueMillis = dueMillis;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (dueMillis != other.dueMillis) {
+                return Long.compare(dueMillis, other.dueMillis);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package Journal;
+
+import Common.Constants;
+import Common.ElevatorRequest;
+import Common.LogPrinter;
+import Common.SimulationClock;
+import Common.SystemRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Journal.java
+ * <p>
+ * Records the events of a run to a binary journal for analysis after the run and for replays: elevator state
+ * changes, the messages handled by the scheduler, and the release, pick up and completion of requests. Events
+ * are stamped with the time of the {@link SimulationClock}.
+ * <p>
+ * The journal is off until {@link #open} is called, and recording an event then does nothing but read one field.
+ * If opening or writing fails, an error is printed and the journal is closed so the run can go on. An open
+ * journal is closed when the program exits.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public final class Journal {
+
+    // Elevator states by their code in STATE_CHANGE records
+    public static final String[] STATE_NAMES = {"IdleState", "MovingState", "OpenDoorState", "CloseDoorState"};
+
+    private static volatile JournalWriter writer;
+
+    static {
+        // Write out the buffered events when a program ends with the journal still open
+        Runtime.getRuntime().addShutdownHook(new Thread(Journal::close, "JournalClose"));
+    }
+
+    private Journal() {
+    }
+
+    /**
+     * Starts a new journal, closing the current one first. If the journal can not be created, for example because
+     * the directory already holds a journal with the same prefix, an error is printed and no journal is recorded.
+     *
+     * @param directory The directory of the segment files.
+     * @param prefix    The start of the segment file names, so several processes can share a directory.
+     */
+    public static synchronized void open(String directory, String prefix) {
+        close();
+        try {
+            writer = new JournalWriter(Path.of(directory), prefix, Constants.JOURNAL_SEGMENT_SIZE,
+                    SimulationClock.getInstance().currentTimeMillis());
+        } catch (IOException e) {
+            LogPrinter.printError("Could not open the journal, recording none: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the buffered events and closes the journal. Does nothing if no journal is open.
+     */
+    public static synchronized void close() {
+        JournalWriter current = writer;
+        writer = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                LogPrinter.printError("Could not close the journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks whether events are being recorded.
+     *
+     * @return True if a journal is open.
+     */
+    public static boolean isOpen() {
+        return writer != null;
+    }
+
+    /**
+     * Gets the code of an elevator state in STATE_CHANGE records.
+     *
+     * @param stateName The simple class name of the state.
+     * @return The code of the state, or the number of known states if the state is unknown.
+     */
+    public static int getStateCode(String stateName) {
+        for (int i = 0; i < STATE_NAMES.length; i++) {
+            if (STATE_NAMES[i].equals(stateName)) {
+                return i;
+            }
+        }
+        return STATE_NAMES.length;
+    }
+
+    /**
+     * Records that an elevator entered a new state.
+     *
+     * @param elevatorId The id of the elevator.
+     * @param stateName  The simple class name of the new state.
+     * @param floor      The floor of the elevator.
+     */
+    public static void recordStateChange(int elevatorId, String stateName, int floor) {
+        if (writer != null) {
+            append(JournalEventType.STATE_CHANGE, getStateCode(stateName), elevatorId, floor, 0, 0);
+        }
+    }
+
+    /**
+     * Records a message handled by the scheduler.
+     *
+     * @param request    The message.
+     * @param senderPort The port the message was sent from.
+     */
+    public static void recordMessage(SystemRequest request, int senderPort) {
+        if (writer != null) {
+            append(JournalEventType.MESSAGE, request.getType().ordinal(), request.getId(), request.getFloorNumber(),
+                    request.getCorrelationId(), senderPort);
+        }
+    }
+
+    /**
+     * Records that a floor released a request to the scheduler.
+     *
+     * @param request The request.
+     */
+    public static void recordRelease(ElevatorRequest request) {
+        if (writer != null) {
+            int fault = request.getFault() == null ? 255 : request.getFault().ordinal();
+            int direction = "up".equalsIgnoreCase(request.getFloorButton()) ? 0 : 1;
+            append(JournalEventType.REQUEST_RELEASED, fault, -1, request.getFloor(), request.getCarButton(), direction);
+        }
+    }
+
+    /**
+     * Records that an elevator picked up the passenger of a request.
+     *
+     * @param elevatorId The id of the elevator.
+     * @param request    The request.
+     */
+    public static void recordPickUp(int elevatorId, ElevatorRequest request) {
+        if (writer != null) {
+            append(JournalEventType.PICK_UP, 0, elevatorId, request.getFloor(), request.getCarButton(), (int) request.getWaitTime());
+        }
+    }
+
+    /**
+     * Records that the passenger of a request arrived at the destination floor.
+     *
+     * @param elevatorId The id of the elevator.
+     * @param request    The request.
+     */
+    public static void recordCompletion(int elevatorId, ElevatorRequest request) {
+        if (writer != null) {
+            append(JournalEventType.COMPLETION, 0, elevatorId, request.getFloor(), request.getCarButton(), (int) request.getJourneyTime());
+        }
+    }
+
+    private static void append(JournalEventType type, int code, int elevatorId, int floor, int arg1, int arg2) {
+        JournalWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.append(SimulationClock.getInstance().currentTimeMillis(), type, code, elevatorId, floor, arg1, arg2);
+        } catch (IOException e) {
+            LogPrinter.printError("Could not write to the journal, closing it: " + e.getMessage());
+            close();
+        }
+    }
+}
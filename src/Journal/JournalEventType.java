@@ -0,0 +1,18 @@
+package Journal;
+
+/**
+ * JournalEventType.java
+ * <p>
+ * The kinds of events recorded in the journal.
+ * <p>
+ * - {@link JournalEventType#STATE_CHANGE}: An elevator entered a new state. <p>
+ * - {@link JournalEventType#MESSAGE}: The scheduler handled a message. <p>
+ * - {@link JournalEventType#REQUEST_RELEASED}: A floor released a request to the scheduler. <p>
+ * - {@link JournalEventType#PICK_UP}: An elevator picked up the passenger of a request. <p>
+ * - {@link JournalEventType#COMPLETION}: A passenger arrived at the destination floor.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public enum JournalEventType {
+    STATE_CHANGE, MESSAGE, REQUEST_RELEASED, PICK_UP, COMPLETION
+}
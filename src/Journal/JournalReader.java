@@ -0,0 +1,143 @@
+package Journal;
+
+import Common.LogPrinter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * JournalReader.java
+ * <p>
+ * Reads the events of a journal written by {@link JournalWriter} in the order they were appended, one segment
+ * after the other. A record cut off at the end of a segment, as left by a crash, is skipped.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class JournalReader implements AutoCloseable {
+
+    private static final int BUFFER_RECORDS = 4096;
+    private static final JournalEventType[] EVENT_TYPES = JournalEventType.values();
+
+    private final Path directory;
+    private final String prefix;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(JournalWriter.RECORD_SIZE * BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+    private final long startTime;
+    private FileChannel channel;
+    private int segmentIndex;
+
+    /**
+     * Opens a journal.
+     *
+     * @param directory The directory of the segment files.
+     * @param prefix    The start of the segment file names.
+     * @throws IOException If the first segment can not be opened or is not a journal segment.
+     */
+    public JournalReader(Path directory, String prefix) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.startTime = openSegment(0);
+    }
+
+    /**
+     * Gets the clock time the journal was opened at.
+     *
+     * @return The start time in milliseconds.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Reads the next event of the journal.
+     *
+     * @return The next record, or null if the journal has ended or could not be read.
+     */
+    public JournalRecord next() {
+        try {
+            while (channel != null && buffer.remaining() < JournalWriter.RECORD_SIZE) {
+                buffer.compact();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    nextSegment();
+                }
+            }
+        } catch (IOException e) {
+            LogPrinter.printError("Could not read the journal, ending it: " + e.getMessage());
+            close();
+        }
+        if (channel == null) {
+            return null;
+        }
+
+        long time = buffer.getLong();
+        JournalEventType type = EVENT_TYPES[buffer.get()];
+        int code = Byte.toUnsignedInt(buffer.get());
+        int floor = buffer.getShort();
+        int elevatorId = buffer.getInt();
+        int arg1 = buffer.getInt();
+        int arg2 = buffer.getInt();
+        return new JournalRecord(time, type, code, elevatorId, floor, arg1, arg2);
+    }
+
+    /**
+     * Closes the journal.
+     */
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LogPrinter.printError("Could not close the journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    /**
+     * Moves on to the next segment, or ends the journal if there is none. A partial record left in the buffer
+     * is dropped.
+     *
+     * @throws IOException If the next segment can not be opened or is not a journal segment.
+     */
+    private void nextSegment() throws IOException {
+        close();
+        buffer.clear().flip();
+        Path next = JournalWriter.segmentPath(directory, prefix, segmentIndex + 1);
+        if (Files.exists(next)) {
+            openSegment(segmentIndex + 1);
+        }
+    }
+
+    /**
+     * Opens a segment and checks its header.
+     *
+     * @param index The number of the segment.
+     * @return The start time stored in the header.
+     * @throws IOException If the segment can not be opened or is not a journal segment.
+     */
+    private long openSegment(int index) throws IOException {
+        Path path = JournalWriter.segmentPath(directory, prefix, index);
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        segmentIndex = index;
+
+        ByteBuffer header = ByteBuffer.allocate(JournalWriter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+        }
+        header.flip();
+        if (header.remaining() < JournalWriter.HEADER_SIZE || header.getInt() != JournalWriter.MAGIC
+                || header.getShort() != JournalWriter.VERSION || header.getShort() != JournalWriter.RECORD_SIZE) {
+            close();
+            throw new IOException("Not a journal segment: " + path);
+        }
+        buffer.clear().flip();
+        return header.getLong();
+    }
+}
@@ -0,0 +1,86 @@
+package Journal;
+
+/**
+ * JournalRecord.java
+ * <p>
+ * One event read from the journal. The meaning of the code and the two arguments depends on the type:
+ * <pre>
+ * STATE_CHANGE      code: state (see {@link Journal#STATE_NAMES}) floor: floor of the elevator
+ * MESSAGE           code: SystemRequestType ordinal  floor: floor of the message  arg1: correlation id  arg2: sender port
+ * REQUEST_RELEASED  code: fault ordinal  floor: origin floor  arg1: car button  arg2: direction (0 up, 1 down)
+ * PICK_UP           floor: origin floor  arg1: car button  arg2: wait time in ms, -1 if unknown
+ * COMPLETION        floor: origin floor  arg1: car button  arg2: journey time in ms, -1 if unknown
+ * </pre>
+ * The elevator id is -1 for events that do not belong to an elevator.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class JournalRecord {
+
+    private final long time;
+    private final JournalEventType type;
+    private final int code;
+    private final int elevatorId;
+    private final int floor;
+    private final int arg1;
+    private final int arg2;
+
+    /**
+     * Creates a journal record.
+     *
+     * @param time       The clock time of the event in milliseconds.
+     * @param type       The kind of event.
+     * @param code       The state, message type or fault of the event.
+     * @param elevatorId The id of the elevator, or -1.
+     * @param floor      The floor of the event.
+     * @param arg1       The first argument.
+     * @param arg2       The second argument.
+     */
+    public JournalRecord(long time, JournalEventType type, int code, int elevatorId, int floor, int arg1, int arg2) {
+        this.time = time;
+        this.type = type;
+        this.code = code;
+        this.elevatorId = elevatorId;
+        this.floor = floor;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public JournalEventType getType() {
+        return type;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public int getElevatorId() {
+        return elevatorId;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public int getArg1() {
+        return arg1;
+    }
+
+    public int getArg2() {
+        return arg2;
+    }
+
+    /**
+     * Returns the string representation of the record
+     *
+     * @return The string representation of the record
+     */
+    @Override
+    public String toString() {
+        return String.format("|%d %s code: %d elevator: %d floor: %d args: %d %d|", time, type, code, elevatorId, floor, arg1, arg2);
+    }
+}
@@ -0,0 +1,65 @@
+package Journal;
+
+import Common.ElevatorRequest;
+import Common.FaultType;
+import Common.TraceSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+
+/**
+ * JournalReplay.java
+ * <p>
+ * Replays the requests released in a recorded run. The requests come out at the same time after the start as
+ * in the recorded run, so running them through the discrete event simulation with the same number of elevators
+ * repeats the run exactly, for example to reproduce a bug that showed up under load.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class JournalReplay implements TraceSource {
+
+    private static final FaultType[] FAULT_TYPES = FaultType.values();
+
+    private final JournalReader reader;
+    private final LocalTime startTime;
+
+    /**
+     * Opens a journal for replay.
+     *
+     * @param directory The directory of the segment files.
+     * @param prefix    The start of the segment file names.
+     * @param startTime The time the time offsets of the released requests are added to.
+     * @throws IOException If the journal can not be opened.
+     */
+    public JournalReplay(Path directory, String prefix, LocalTime startTime) throws IOException {
+        this.reader = new JournalReader(directory, prefix);
+        this.startTime = startTime;
+    }
+
+    /**
+     * Reads the next released request of the journal.
+     *
+     * @return The next elevator request, or null if the journal has ended.
+     */
+    @Override
+    public ElevatorRequest next() {
+        for (JournalRecord record = reader.next(); record != null; record = reader.next()) {
+            if (record.getType() == JournalEventType.REQUEST_RELEASED) {
+                long offset = record.getTime() - reader.getStartTime();
+                FaultType fault = record.getCode() < FAULT_TYPES.length ? FAULT_TYPES[record.getCode()] : null;
+                return new ElevatorRequest(startTime.plusNanos(offset * 1_000_000L), record.getFloor(),
+                        record.getArg2() == 0 ? "Up" : "Down", record.getArg1(), fault);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the journal.
+     */
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
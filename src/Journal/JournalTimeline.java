@@ -0,0 +1,192 @@
+package Journal;
+
+import Common.SystemRequestType;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * JournalTimeline.java
+ * <p>
+ * Rebuilds the timeline of every elevator from the state changes in a journal: the states the elevator went
+ * through, when it entered and left each of them and the floor it was on. An elevator that was shut down stays
+ * in the {@link #STOPPED} state until the end of the journal.
+ * <p>
+ * The timelines can be written as CSV, or sampled at a fixed step into the idle/running/stopped lists plotted
+ * by timing_diagram.py.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class JournalTimeline {
+
+    public static final String STOPPED = "Stopped";
+
+    // Values of the states in the lists plotted by timing_diagram.py
+    public static final int DIAGRAM_STOPPED = 0;
+    public static final int DIAGRAM_IDLE = 1;
+    public static final int DIAGRAM_RUNNING = 2;
+
+    private final TreeMap<Integer, ArrayList<Interval>> timelines = new TreeMap<>();
+    private final long startTime;
+    private long endTime;
+
+    /**
+     * Reads a journal to its end and builds the timelines of its elevators.
+     *
+     * @param reader The journal.
+     */
+    public JournalTimeline(JournalReader reader) {
+        this.startTime = reader.getStartTime();
+        this.endTime = startTime;
+        for (JournalRecord record = reader.next(); record != null; record = reader.next()) {
+            endTime = Math.max(endTime, record.getTime());
+            if (record.getType() == JournalEventType.STATE_CHANGE) {
+                String state = record.getCode() < Journal.STATE_NAMES.length ? Journal.STATE_NAMES[record.getCode()] : "Unknown";
+                enter(record.getElevatorId(), state, record.getTime(), record.getFloor());
+            } else if (record.getType() == JournalEventType.MESSAGE
+                    && record.getCode() == SystemRequestType.ELEVATOR_SHUTDOWN_REQUEST.ordinal()) {
+                enter(record.getElevatorId(), STOPPED, record.getTime(), record.getFloor());
+            }
+        }
+        for (ArrayList<Interval> timeline : timelines.values()) {
+            timeline.get(timeline.size() - 1).end = endTime;
+        }
+    }
+
+    /**
+     * Gets the ids of the elevators with a timeline.
+     *
+     * @return The elevator ids in increasing order.
+     */
+    public Set<Integer> getElevatorIds() {
+        return timelines.keySet();
+    }
+
+    /**
+     * Gets the timeline of an elevator.
+     *
+     * @param elevatorId The id of the elevator.
+     * @return The states of the elevator in time order, empty if the elevator never changed state.
+     */
+    public ArrayList<Interval> getTimeline(int elevatorId) {
+        return timelines.getOrDefault(elevatorId, new ArrayList<>());
+    }
+
+    /**
+     * Gets the clock time the journal started at.
+     *
+     * @return The start time in milliseconds.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets the clock time of the last event in the journal.
+     *
+     * @return The end time in milliseconds.
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Writes the timelines as CSV with the columns elevator, state, start, end and floor. The times are in
+     * milliseconds after the start of the journal.
+     *
+     * @param fileName The name of the CSV file.
+     * @throws IOException If the file can not be written.
+     */
+    public void writeCsv(String fileName) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(fileName))) {
+            out.println("elevator,state,start_ms,end_ms,floor");
+            timelines.forEach((elevatorId, timeline) -> {
+                for (Interval interval : timeline) {
+                    out.println(elevatorId + "," + interval.state + "," + (interval.start - startTime) + ","
+                            + (interval.end - startTime) + "," + interval.floor);
+                }
+            });
+        }
+    }
+
+    /**
+     * Samples the timelines at a fixed step into lists of stopped (0), idle (1) and running (2) values, the input
+     * of scheduling_plot in timing_diagram.py. An elevator is stopped before its first state and after a shut down.
+     *
+     * @param stepMillis The time between samples in milliseconds.
+     * @return One list of samples per elevator, in increasing order of elevator id.
+     */
+    public int[][] toTimingDiagram(long stepMillis) {
+        int samples = (int) ((endTime - startTime) / stepMillis) + 1;
+        int[][] diagram = new int[timelines.size()][samples];
+        int row = 0;
+        for (ArrayList<Interval> timeline : timelines.values()) {
+            int index = 0;
+            for (int sample = 0; sample < samples; sample++) {
+                long time = startTime + sample * stepMillis;
+                while (index < timeline.size() && timeline.get(index).end <= time && index < timeline.size() - 1) {
+                    index++;
+                }
+                Interval interval = timeline.get(index);
+                if (time < interval.start || interval.state.equals(STOPPED)) {
+                    diagram[row][sample] = DIAGRAM_STOPPED;
+                } else if (interval.state.equals(Journal.STATE_NAMES[0])) {
+                    diagram[row][sample] = DIAGRAM_IDLE;
+                } else {
+                    diagram[row][sample] = DIAGRAM_RUNNING;
+                }
+            }
+            row++;
+        }
+        return diagram;
+    }
+
+    private void enter(int elevatorId, String state, long time, int floor) {
+        ArrayList<Interval> timeline = timelines.computeIfAbsent(elevatorId, key -> new ArrayList<>());
+        if (!timeline.isEmpty()) {
+            Interval last = timeline.get(timeline.size() - 1);
+            if (last.state.equals(STOPPED)) {
+                return;
+            }
+            last.end = time;
+        }
+        timeline.add(new Interval(state, time, floor));
+    }
+
+    /**
+     * A stretch of time an elevator spent in one state.
+     */
+    public static class Interval {
+        private final String state;
+        private final long start;
+        private final int floor;
+        private long end;
+
+        private Interval(String state, long start, int floor) {
+            this.state = state;
+            this.start = start;
+            this.floor = floor;
+            this.end = start;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public int getFloor() {
+            return floor;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package Journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * JournalWriter.java
+ * <p>
+ * Appends events to a journal: a series of segment files named prefix-000000.journal, prefix-000001.journal and
+ * so on in one directory. Records are collected in a buffer and written to the segment's {@link FileChannel} when
+ * the buffer is full, and a new segment is started when the current one reaches the segment size. Every segment
+ * starts with a 16 byte header followed by fixed 24 byte records, all in little endian byte order:
+ * <pre>
+ * header: magic i32 | version u16 | record size u16 | start time ms i64
+ * record: time ms i64 | type u8 | code u8 | floor i16 | elevator id i32 | arg1 i32 | arg2 i32
+ * </pre>
+ * The start time is the clock time the journal was opened at. The file is only ever appended to, so a journal
+ * cut off by a crash can still be read up to its last complete record.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class JournalWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x4E524A45;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 24;
+    public static final String EXTENSION = ".journal";
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final Path directory;
+    private final String prefix;
+    private final long segmentSize;
+    private final long startTime;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+    private FileChannel channel;
+    private int segmentIndex;
+    private long segmentBytes;
+    private long recordCount;
+
+    /**
+     * Creates a journal. An earlier journal is never overwritten, so the directory must not hold segments with the
+     * same prefix yet.
+     *
+     * @param directory   The directory of the segment files, created if needed.
+     * @param prefix      The start of the segment file names.
+     * @param segmentSize The largest size of a segment file in bytes.
+     * @param startTime   The clock time the journal starts at, in milliseconds.
+     * @throws FileAlreadyExistsException If the directory already holds a journal with the same prefix.
+     * @throws IOException                If the directory or the first segment can not be created.
+     */
+    public JournalWriter(Path directory, String prefix, long segmentSize, long startTime) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentSize = Math.max(HEADER_SIZE + RECORD_SIZE, segmentSize);
+        this.startTime = startTime;
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, prefix + "-*" + EXTENSION)) {
+            Iterator<Path> existing = segments.iterator();
+            if (existing.hasNext()) {
+                throw new FileAlreadyExistsException(existing.next().toString(), null, "a journal with this prefix already exists");
+            }
+        }
+        openSegment();
+    }
+
+    /**
+     * Gets the path of a segment file.
+     *
+     * @param directory The directory of the journal.
+     * @param prefix    The start of the segment file names.
+     * @param index     The number of the segment.
+     * @return The path of the segment file.
+     */
+    public static Path segmentPath(Path directory, String prefix, int index) {
+        return directory.resolve(String.format("%s-%06d%s", prefix, index, EXTENSION));
+    }
+
+    /**
+     * Appends an event to the journal.
+     *
+     * @param time       The clock time of the event in milliseconds.
+     * @param type       The kind of event.
+     * @param code       The state, message type or fault of the event.
+     * @param elevatorId The id of the elevator, or -1.
+     * @param floor      The floor of the event.
+     * @param arg1       The first argument.
+     * @param arg2       The second argument.
+     * @throws IOException If the buffered records can not be written.
+     */
+    public synchronized void append(long time, JournalEventType type, int code, int elevatorId, int floor, int arg1, int arg2) throws IOException {
+        if (segmentBytes + buffer.position() + RECORD_SIZE > segmentSize) {
+            flush();
+            channel.close();
+            segmentIndex++;
+            openSegment();
+        } else if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.putLong(time);
+        buffer.put((byte) type.ordinal());
+        buffer.put((byte) code);
+        buffer.putShort((short) floor);
+        buffer.putInt(elevatorId);
+        buffer.putInt(arg1);
+        buffer.putInt(arg2);
+        recordCount++;
+    }
+
+    /**
+     * Writes the buffered records to the current segment.
+     *
+     * @throws IOException If the records can not be written.
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        segmentBytes += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffered records and closes the journal.
+     *
+     * @throws IOException If the records can not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Gets the number of events appended so far.
+     *
+     * @return The number of records.
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the number of segment files written so far.
+     *
+     * @return The number of segments.
+     */
+    public synchronized int getSegmentCount() {
+        return segmentIndex + 1;
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(segmentPath(directory, prefix, segmentIndex), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort((short) VERSION).putShort((short) RECORD_SIZE).putLong(startTime).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        segmentBytes = HEADER_SIZE;
+    }
+}
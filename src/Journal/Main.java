@@ -0,0 +1,55 @@
+package Journal;
+
+import Common.LogPrinter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.StringJoiner;
+
+/**
+ * Main class for summarizing a journal and writing the timelines of its elevators.
+ * <p>
+ * Usage: Journal.Main [directory] [prefix] [timelineFile] [stepMillis]
+ * <p>
+ * Prints the number of events of each type, writes the state timelines of the elevators as CSV and prints them
+ * sampled every stepMillis as the task state lists taken by scheduling_plot in timing_diagram.py.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class Main {
+    public static void main(String[] args) {
+        String directory = args.length > 0 ? args[0] : "journal";
+        String prefix = args.length > 1 ? args[1] : "simulation";
+        String timelineFile = args.length > 2 ? args[2] : "timeline.csv";
+        long stepMillis = args.length > 3 ? Long.parseLong(args[3]) : 10000;
+
+        EnumMap<JournalEventType, Long> counts = new EnumMap<>(JournalEventType.class);
+        try (JournalReader reader = new JournalReader(Path.of(directory), prefix)) {
+            for (JournalRecord record = reader.next(); record != null; record = reader.next()) {
+                counts.merge(record.getType(), 1L, Long::sum);
+            }
+        } catch (IOException e) {
+            LogPrinter.printError("Could not open the journal: " + e.getMessage());
+            System.exit(1);
+        }
+        counts.forEach((type, count) -> System.out.println(type + ": " + count));
+
+        try (JournalReader reader = new JournalReader(Path.of(directory), prefix)) {
+            JournalTimeline timeline = new JournalTimeline(reader);
+            timeline.writeCsv(timelineFile);
+            System.out.println("Wrote the timelines of " + timeline.getElevatorIds().size() + " elevators over "
+                    + (timeline.getEndTime() - timeline.getStartTime()) + " ms to " + timelineFile);
+
+            StringJoiner states = new StringJoiner(", ", "tasks_states = [", "]");
+            for (int[] samples : timeline.toTimingDiagram(stepMillis)) {
+                states.add(Arrays.toString(samples));
+            }
+            System.out.println(states);
+        } catch (IOException e) {
+            LogPrinter.printError("Could not write the timelines: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
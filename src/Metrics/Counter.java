@@ -0,0 +1,48 @@
+package Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter.java
+ * <p>
+ * A count that many threads can increment at once without locking. Increments from different threads go to
+ * different cells and are only added up when the count is read.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Adds one to the count.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adds the given amount to the count.
+     *
+     * @param amount The amount to add.
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Gets the count.
+     *
+     * @return The current count.
+     */
+    public long get() {
+        return count.sum();
+    }
+
+    /**
+     * Sets the count back to zero.
+     */
+    public void reset() {
+        count.reset();
+    }
+}
@@ -0,0 +1,162 @@
+package Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram.java
+ * <p>
+ * A histogram of non-negative values, such as latencies, in the style of HdrHistogram. Values below 128 have a
+ * bucket each; above that, every power of two is split into 64 buckets, so any recorded value is known to within
+ * 1/64 of itself over the whole range of a long. Recording a value is a few bit operations and one atomic
+ * increment, so many threads can record at once without locking.
+ * <p>
+ * The unit of the values is up to the caller and is part of the name the histogram is registered under. A
+ * histogram can be limited to a highest value to need fewer buckets; larger values are then recorded as that
+ * value.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long highestValue;
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a histogram for any non-negative long value.
+     */
+    public LatencyHistogram() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a histogram for values up to the given highest value.
+     *
+     * @param highestValue The highest value the histogram tells apart.
+     */
+    public LatencyHistogram(long highestValue) {
+        this.highestValue = Math.max(1, highestValue);
+        this.counts = new AtomicLongArray(bucketOf(this.highestValue) + 1);
+    }
+
+    /**
+     * Records one value. Negative values are recorded as zero and values above the highest value as the highest
+     * value.
+     *
+     * @param value The value.
+     */
+    public void record(long value) {
+        value = Math.min(Math.max(0, value), highestValue);
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.increment();
+        totalValue.add(value);
+        maxValue.accumulate(value);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalValue.sum() / count;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return The largest value, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Gets the value below which the given percentage of the recorded values fall. The value is the upper end
+     * of the bucket holding that percentile, capped at the largest recorded value.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The value at the percentile, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears the histogram. Values recorded while it is being cleared may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalValue.reset();
+        maxValue.reset();
+    }
+
+    /**
+     * Summarizes the histogram on one line.
+     *
+     * @return The count, mean, 50th, 99th and 99.9th percentile and largest value.
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%d p99=%d p999=%d max=%d", getCount(), getMean(),
+                getValueAtPercentile(50), getValueAtPercentile(99), getValueAtPercentile(99.9), getMax());
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        // Shift the value so its top bits fall in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
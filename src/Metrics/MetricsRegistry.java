@@ -0,0 +1,141 @@
+package Metrics;
+
+import Common.Constants;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * MetricsRegistry.java
+ * <p>
+ * Holds the counters, gauges and latency histograms of one process by name. Metrics are created the first time
+ * they are asked for, so the classes that record them keep a reference in a field instead of looking them up for
+ * every value. Recording a value never takes a lock.
+ * <p>
+ * Once started, the registry is published as the JMX MBean {@value #OBJECT_NAME} and a snapshot of all metrics is
+ * printed every {@link Constants#METRICS_DUMP_INTERVAL} milliseconds.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+
+    public static final String OBJECT_NAME = "ElevatorSimulator:type=Metrics";
+
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private boolean started;
+
+    /**
+     * Gets the registry of this process.
+     *
+     * @return The registry.
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Gets the counter with the given name, creating it if needed.
+     *
+     * @param name The name of the counter.
+     * @return The counter.
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Gets the histogram with the given name, creating it if needed.
+     *
+     * @param name The name of the histogram, ending with the unit of its values.
+     * @return The histogram.
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge, a value that is read from the given supplier whenever the metrics are read. Replaces any
+     * gauge with the same name.
+     *
+     * @param name  The name of the gauge.
+     * @param value The supplier of the value.
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Publishes the registry as an MBean and starts printing snapshots. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            System.err.println("Metrics: could not register the MBean: " + e.getMessage());
+        }
+
+        if (Constants.METRICS_DUMP_INTERVAL > 0) {
+            Thread dumpThread = new Thread(() -> {
+                while (true) {
+                    try {
+                        Thread.sleep(Constants.METRICS_DUMP_INTERVAL);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    System.out.print(getSnapshot());
+                }
+            }, "MetricsDump");
+            dumpThread.setDaemon(true);
+            dumpThread.start();
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        TreeMap<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        TreeMap<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    @Override
+    public Map<String, String> getHistograms() {
+        TreeMap<String, String> values = new TreeMap<>();
+        histograms.forEach((name, histogram) -> values.put(name, histogram.toString()));
+        return values;
+    }
+
+    @Override
+    public String getSnapshot() {
+        StringBuilder snapshot = new StringBuilder("--- METRICS ---\n");
+        getCounters().forEach((name, value) -> snapshot.append(name).append(' ').append(value).append('\n'));
+        getGauges().forEach((name, value) -> snapshot.append(name).append(' ').append(value).append('\n'));
+        getHistograms().forEach((name, value) -> snapshot.append(name).append(' ').append(value).append('\n'));
+        return snapshot.toString();
+    }
+
+    @Override
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
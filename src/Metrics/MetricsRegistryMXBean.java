@@ -0,0 +1,47 @@
+package Metrics;
+
+import java.util.Map;
+
+/**
+ * MetricsRegistryMXBean.java
+ * <p>
+ * The management interface of the {@link MetricsRegistry}, so the metrics can be read with JConsole or any other
+ * JMX client while the system runs.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public interface MetricsRegistryMXBean {
+
+    /**
+     * Gets the current value of every counter.
+     *
+     * @return The counter values by name.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Gets the current value of every gauge.
+     *
+     * @return The gauge values by name.
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * Gets a summary of every histogram.
+     *
+     * @return The histogram summaries by name.
+     */
+    Map<String, String> getHistograms();
+
+    /**
+     * Gets all metrics as text, one metric per line.
+     *
+     * @return The snapshot.
+     */
+    String getSnapshot();
+
+    /**
+     * Sets all counters and histograms back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,178 @@
+package Metrics;
+
+import Common.ElevatorRequest;
+
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PassengerStatistics.java
+ * <p>
+ * Collects the wait, ride and journey times of completed requests, for all passengers and broken down by the
+ * elevator that served them and the floor they were waiting on. The wait time runs from the release of the
+ * request by the floor until the pick up, the journey time from the release until the arrival at the destination.
+ * All times are in clock milliseconds, so they are the simulated times when the simulation runs on a virtual clock.
+ * <p>
+ * The times of all passengers are also registered in the {@link MetricsRegistry}.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class PassengerStatistics {
+
+    // Longest time the per elevator and per floor histograms tell apart, to keep them small
+    private static final long HIGHEST_TIME = 4 * 60 * 60 * 1000L;
+
+    private static final PassengerStatistics instance = new PassengerStatistics();
+
+    private final LatencyHistogram waitTimes = MetricsRegistry.getInstance().histogram("passenger.waitMillis");
+    private final LatencyHistogram rideTimes = MetricsRegistry.getInstance().histogram("passenger.rideMillis");
+    private final LatencyHistogram journeyTimes = MetricsRegistry.getInstance().histogram("passenger.journeyMillis");
+
+    // Wait and journey time histograms, in that order, by elevator id and by floor number
+    private final ConcurrentHashMap<Integer, LatencyHistogram[]> byElevator = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, LatencyHistogram[]> byFloor = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the statistics of this process.
+     *
+     * @return The statistics.
+     */
+    public static PassengerStatistics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records the times of a completed request. Times that are unknown because the request was never released or
+     * picked up are left out.
+     *
+     * @param request    The completed request.
+     * @param elevatorId The id of the elevator that served the request.
+     */
+    public void recordCompletion(ElevatorRequest request, int elevatorId) {
+        LatencyHistogram[] elevator = byElevator.computeIfAbsent(elevatorId, key -> createHistograms());
+        LatencyHistogram[] floor = byFloor.computeIfAbsent(request.getFloor(), key -> createHistograms());
+
+        long waitTime = request.getWaitTime();
+        if (waitTime >= 0) {
+            waitTimes.record(waitTime);
+            elevator[0].record(waitTime);
+            floor[0].record(waitTime);
+        }
+        long rideTime = request.getRideTime();
+        if (rideTime >= 0) {
+            rideTimes.record(rideTime);
+        }
+        long journeyTime = request.getJourneyTime();
+        if (journeyTime >= 0) {
+            journeyTimes.record(journeyTime);
+            elevator[1].record(journeyTime);
+            floor[1].record(journeyTime);
+        }
+    }
+
+    /**
+     * Gets the wait times of all passengers.
+     *
+     * @return The wait time histogram in milliseconds.
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Gets the ride times of all passengers.
+     *
+     * @return The ride time histogram in milliseconds.
+     */
+    public LatencyHistogram getRideTimes() {
+        return rideTimes;
+    }
+
+    /**
+     * Gets the journey times of all passengers.
+     *
+     * @return The journey time histogram in milliseconds.
+     */
+    public LatencyHistogram getJourneyTimes() {
+        return journeyTimes;
+    }
+
+    /**
+     * Gets the wait times of the passengers served by an elevator.
+     *
+     * @param elevatorId The elevator id.
+     * @return The wait time histogram in milliseconds, or null if the elevator served nobody.
+     */
+    public LatencyHistogram getElevatorWaitTimes(int elevatorId) {
+        LatencyHistogram[] histograms = byElevator.get(elevatorId);
+        return histograms == null ? null : histograms[0];
+    }
+
+    /**
+     * Gets the journey times of the passengers served by an elevator.
+     *
+     * @param elevatorId The elevator id.
+     * @return The journey time histogram in milliseconds, or null if the elevator served nobody.
+     */
+    public LatencyHistogram getElevatorJourneyTimes(int elevatorId) {
+        LatencyHistogram[] histograms = byElevator.get(elevatorId);
+        return histograms == null ? null : histograms[1];
+    }
+
+    /**
+     * Gets the wait times of the passengers who waited on a floor.
+     *
+     * @param floorNumber The floor number.
+     * @return The wait time histogram in milliseconds, or null if nobody waited on the floor.
+     */
+    public LatencyHistogram getFloorWaitTimes(int floorNumber) {
+        LatencyHistogram[] histograms = byFloor.get(floorNumber);
+        return histograms == null ? null : histograms[0];
+    }
+
+    /**
+     * Gets the journey times of the passengers who waited on a floor.
+     *
+     * @param floorNumber The floor number.
+     * @return The journey time histogram in milliseconds, or null if nobody waited on the floor.
+     */
+    public LatencyHistogram getFloorJourneyTimes(int floorNumber) {
+        LatencyHistogram[] histograms = byFloor.get(floorNumber);
+        return histograms == null ? null : histograms[1];
+    }
+
+    /**
+     * Summarizes the wait and journey times for all passengers, per elevator and per floor, one line each.
+     *
+     * @return The report.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("--- PASSENGERS (ms) ---\n");
+        appendLine(report, "All", new LatencyHistogram[]{waitTimes, journeyTimes});
+        new TreeMap<>(byElevator).forEach((id, histograms) -> appendLine(report, "Elevator " + id, histograms));
+        new TreeMap<>(byFloor).forEach((floor, histograms) -> appendLine(report, "Floor " + floor, histograms));
+        return report.toString();
+    }
+
+    /**
+     * Forgets all recorded times.
+     */
+    public void reset() {
+        waitTimes.reset();
+        rideTimes.reset();
+        journeyTimes.reset();
+        byElevator.clear();
+        byFloor.clear();
+    }
+
+    private static LatencyHistogram[] createHistograms() {
+        return new LatencyHistogram[]{new LatencyHistogram(HIGHEST_TIME), new LatencyHistogram(HIGHEST_TIME)};
+    }
+
+    private static void appendLine(StringBuilder report, String label, LatencyHistogram[] histograms) {
+        report.append(String.format("%s: passengers=%d wait p50=%d p95=%d p99=%d journey p50=%d p95=%d p99=%d%n",
+                label, histograms[1].getCount(),
+                histograms[0].getValueAtPercentile(50), histograms[0].getValueAtPercentile(95), histograms[0].getValueAtPercentile(99),
+                histograms[1].getValueAtPercentile(50), histograms[1].getValueAtPercentile(95), histograms[1].getValueAtPercentile(99)));
+    }
+}
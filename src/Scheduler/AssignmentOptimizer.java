@@ -0,0 +1,203 @@
+package Scheduler;
+
+import Common.ElevatorRequest;
+import Common.ElevatorStatus;
+import Common.SimulationClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AssignmentOptimizer.java
+ * <p>
+ * Re-solves the assignment of all the requests whose passengers are still waiting for pick up as one batch. New
+ * requests are assigned greedily as they arrive, so an assignment can stop being a good one when the elevators
+ * move on. The optimizer runs a local search over the ETA cost of the {@link CarRoute} of every elevator: each
+ * waiting request is moved to the elevator where it costs the least, when that saves more than a minimum gain,
+ * until no move saves enough or the number of passes runs out. A request is moved at most
+ * {@link #MAX_MIGRATIONS} times, since the estimates change as the elevators move and a request would otherwise go
+ * back and forth between two elevators with close costs. The extra cost of the {@link Dispatcher} is added to every
+ * estimate, so a request the dispatcher kept away from an idle elevator is not moved to it.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class AssignmentOptimizer {
+
+    // Most times the optimizer goes over all the waiting requests
+    private static final int MAX_PASSES = 3;
+
+    // Most times a request is moved to another elevator
+    public static final int MAX_MIGRATIONS = 2;
+
+    private final long minGain;
+
+    // Number of times each waiting request has been moved, keyed by request id
+    private HashMap<Integer, Integer> migrationCounts = new HashMap<>();
+
+    /**
+     * A request moved from one elevator to another, and the time the move saves.
+     */
+    public static final class Migration {
+        private final ElevatorRequest request;
+        private final int fromElevatorId;
+        private int toElevatorId;
+        private long gain;
+
+        Migration(ElevatorRequest request, int fromElevatorId, int toElevatorId, long gain) {
+            this.request = request;
+            this.fromElevatorId = fromElevatorId;
+            this.toElevatorId = toElevatorId;
+            this.gain = gain;
+        }
+
+        /**
+         * Gets the moved request.
+         *
+         * @return The elevator request.
+         */
+        public ElevatorRequest getRequest() {
+            return request;
+        }
+
+        /**
+         * Gets the id of the elevator the request is assigned to now.
+         *
+         * @return The elevator id.
+         */
+        public int getFromElevatorId() {
+            return fromElevatorId;
+        }
+
+        /**
+         * Gets the id of the elevator the request should be assigned to.
+         *
+         * @return The elevator id.
+         */
+        public int getToElevatorId() {
+            return toElevatorId;
+        }
+
+        /**
+         * Gets the estimated time the move saves.
+         *
+         * @return The gain in ms.
+         */
+        public long getGain() {
+            return gain;
+        }
+    }
+
+    /**
+     * Creates an optimizer that only moves requests when it saves at least the given time.
+     *
+     * @param minGain The least time in ms a move has to save.
+     */
+    public AssignmentOptimizer(long minGain) {
+        this.minGain = minGain;
+    }
+
+    /**
+     * Finds the waiting requests that are better served by another elevator.
+     *
+     * @param elevatorStatuses The statuses of the available elevators
+     * @param waitingRequests  The requests waiting for each elevator, keyed by elevator id
+     * @param dispatcher       The dispatcher whose extra cost is added to the estimates
+     * @return The moves to make, at most one per request
+     */
+    public synchronized ArrayList<Migration> optimize(List<ElevatorStatus> elevatorStatuses, Map<Integer, List<ElevatorRequest>> waitingRequests, Dispatcher dispatcher) {
+        long now = SimulationClock.getInstance().currentTimeMillis();
+        HashMap<Integer, ArrayList<ElevatorRequest>> assignments = new HashMap<>();
+        HashMap<Integer, Integer> counts = new HashMap<>();
+        for (ElevatorStatus status : elevatorStatuses) {
+            List<ElevatorRequest> requests = waitingRequests.get(status.getElevatorId());
+            assignments.put(status.getElevatorId(), requests == null ? new ArrayList<>() : new ArrayList<>(requests));
+            if (requests != null) {
+                // Forget the requests that have been picked up
+                for (ElevatorRequest request : requests) {
+                    counts.put(request.getRequestId(), migrationCounts.getOrDefault(request.getRequestId(), 0));
+                }
+            }
+        }
+        migrationCounts = counts;
+
+        // Routes of the elevators with their current assignments, built again when the assignments change
+        HashMap<Integer, CarRoute> routes = new HashMap<>();
+
+        LinkedHashMap<ElevatorRequest, Migration> migrations = new LinkedHashMap<>();
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean moved = false;
+            for (ElevatorStatus from : elevatorStatuses) {
+                ArrayList<ElevatorRequest> fromRequests = assignments.get(from.getElevatorId());
+                for (ElevatorRequest request : new ArrayList<>(fromRequests)) {
+                    if (migrationCounts.get(request.getRequestId()) >= MAX_MIGRATIONS) {
+                        continue;
+                    }
+
+                    // Cost of the request where it is now, against the cheapest other elevator
+                    ArrayList<ElevatorRequest> others = new ArrayList<>(fromRequests);
+                    others.remove(request);
+                    long currentCost = addCosts(CarRoute.of(from, others, reported(waitingRequests, from)).estimateAddedCost(request),
+                            dispatcher.estimateExtraCost(request, from, elevatorStatuses, now));
+
+                    ElevatorStatus best = null;
+                    long minCost = Long.MAX_VALUE;
+                    for (ElevatorStatus to : elevatorStatuses) {
+                        if (to == from) {
+                            continue;
+                        }
+                        CarRoute route = routes.computeIfAbsent(to.getElevatorId(), id -> CarRoute.of(to, assignments.get(id), reported(waitingRequests, to)));
+                        long cost = addCosts(route.estimateAddedCost(request), dispatcher.estimateExtraCost(request, to, elevatorStatuses, now));
+                        if (cost < minCost) {
+                            minCost = cost;
+                            best = to;
+                        }
+                    }
+                    if (best == null || minCost == Long.MAX_VALUE || currentCost != Long.MAX_VALUE && currentCost - minCost < minGain) {
+                        continue;
+                    }
+
+                    long gain = currentCost == Long.MAX_VALUE ? Long.MAX_VALUE : currentCost - minCost;
+                    fromRequests.remove(request);
+                    assignments.get(best.getElevatorId()).add(request);
+                    routes.remove(from.getElevatorId());
+                    routes.remove(best.getElevatorId());
+                    Migration migration = migrations.get(request);
+                    if (migration == null) {
+                        migrations.put(request, new Migration(request, from.getElevatorId(), best.getElevatorId(), gain));
+                    } else if (migration.fromElevatorId == best.getElevatorId()) {
+                        migrations.remove(request);
+                    } else {
+                        migration.toElevatorId = best.getElevatorId();
+                        migration.gain = gain == Long.MAX_VALUE || migration.gain == Long.MAX_VALUE ? Long.MAX_VALUE : migration.gain + gain;
+                    }
+                    moved = true;
+                }
+            }
+            if (!moved) {
+                break;
+            }
+        }
+        for (Migration migration : migrations.values()) {
+            migrationCounts.merge(migration.request.getRequestId(), 1, Integer::sum);
+        }
+        return new ArrayList<>(migrations.values());
+    }
+
+    /**
+     * Adds an extra cost to the cost of a route, which stays Long.MAX_VALUE if the request would never be served.
+     */
+    private static long addCosts(long routeCost, long extraCost) {
+        return routeCost == Long.MAX_VALUE ? Long.MAX_VALUE : routeCost + extraCost;
+    }
+
+    /**
+     * Gets the waiting requests an elevator reported, whose pick ups its status already shows.
+     */
+    private static List<ElevatorRequest> reported(Map<Integer, List<ElevatorRequest>> waitingRequests, ElevatorStatus status) {
+        List<ElevatorRequest> requests = waitingRequests.get(status.getElevatorId());
+        return requests == null ? List.of() : requests;
+    }
+}
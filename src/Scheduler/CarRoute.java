@@ -0,0 +1,392 @@
+package Scheduler;
+
+import Common.Direction;
+import Common.ElevatorRequest;
+import Common.ElevatorStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static Common.Constants.*;
+
+/**
+ * CarRoute.java
+ * <p>
+ * The stops an elevator is committed to, and an estimate of when the elevator reaches each of them. The estimate
+ * follows the collective control of the elevators: the elevator keeps its direction while there is a stop ahead,
+ * stops at the destination floors and at the floors with a request in its direction of travel, and turns around
+ * at the last stop, where it also picks up the requests going the other way. Every floor travelled takes
+ * {@link Common.Constants#INCREMENTAL_MOVE_TIME}, and every stop takes {@link Common.Constants#LOADING_TIME}
+ * plus {@link Common.Constants#BOARDING_TIME_PER_PASSENGER} for each passenger boarding or leaving.
+ * <p>
+ * The drop off of a request added with {@link #addRequest} only becomes a stop once its passenger is picked up.
+ * <p>
+ * The estimate also follows the load of the elevator. Every pick up boards one passenger and every drop off lets
+ * one leave. An elevator that reaches a pick up full still opens its doors but leaves the passenger behind, and
+ * only picks them up on a later pass, once enough passengers have left. A request that would meet a full
+ * elevator therefore gets a later arrival time, and so a higher cost, than the distance alone suggests.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class CarRoute {
+
+    private final int startFloor;
+    private final Direction startDirection;
+    private final int startLoad;
+    private final ArrayList<Stop> stops = new ArrayList<>();
+
+    // Arrival times at the stops and loads leaving them, estimated when first needed
+    private long[] arrivalTimes;
+    private int[] loads;
+
+    /**
+     * A floor the elevator has to stop at. Pick ups have the direction of their request, drop offs have none.
+     */
+    private static final class Stop {
+        final int floor;
+        final Direction direction;
+        final boolean active;
+        int dropOff = -1;
+
+        Stop(int floor, Direction direction, boolean active) {
+            this.floor = floor;
+            this.direction = direction;
+            this.active = active;
+        }
+    }
+
+    /**
+     * Creates a route without stops for an elevator at the given floor.
+     *
+     * @param startFloor     The current floor of the elevator.
+     * @param startDirection The direction of travel of the elevator.
+     */
+    public CarRoute(int startFloor, Direction startDirection) {
+        this(startFloor, startDirection, 0);
+    }
+
+    /**
+     * Creates a route without stops for an elevator at the given floor with passengers on board.
+     *
+     * @param startFloor     The current floor of the elevator.
+     * @param startDirection The direction of travel of the elevator.
+     * @param startLoad      The number of passengers on board, each with a drop off added to the route.
+     */
+    public CarRoute(int startFloor, Direction startDirection, int startLoad) {
+        this.startFloor = startFloor;
+        this.startDirection = startDirection;
+        this.startLoad = startLoad;
+    }
+
+    /**
+     * Creates the route of the stops in an elevator status: the pending requests in both directions and the
+     * destination floors of the elevator.
+     *
+     * @param status The elevator status.
+     * @return The route of the elevator.
+     */
+    public static CarRoute of(ElevatorStatus status) {
+        CarRoute route = new CarRoute(status.getFloorNumber(), status.getDirection(), status.getPassengerCount());
+        for (Direction direction : new Direction[]{Direction.UP, Direction.DOWN}) {
+            ArrayList<Integer> floors = status.getStopRequestFloorsInDirection(direction);
+            if (floors != null) {
+                for (int floor : floors) {
+                    route.addPickUp(floor, direction);
+                }
+            }
+        }
+        if (status.getDestinationFloors() != null) {
+            for (int floor : status.getDestinationFloors()) {
+                route.addDropOff(floor);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Creates the route of an elevator from its status and the requests waiting for it. The waiting requests take
+     * the place of the pending requests of the status, so their destinations are part of the route.
+     *
+     * @param status          The elevator status.
+     * @param waitingRequests The requests assigned to the elevator whose passengers were not picked up yet.
+     * @return The route of the elevator.
+     */
+    public static CarRoute of(ElevatorStatus status, List<ElevatorRequest> waitingRequests) {
+        return of(status, waitingRequests, waitingRequests);
+    }
+
+    /**
+     * Creates the route of an elevator from its status and the requests waiting for it. The pick ups of the status
+     * that none of the reported requests covers are kept, such as the primary request of the elevator, which has
+     * left the queue before its passenger is picked up.
+     *
+     * @param status           The elevator status.
+     * @param waitingRequests  The requests assigned to the elevator whose passengers were not picked up yet.
+     * @param reportedRequests The waiting requests the elevator reported, which the pick ups of the status include.
+     * @return The route of the elevator.
+     */
+    public static CarRoute of(ElevatorStatus status, List<ElevatorRequest> waitingRequests, List<ElevatorRequest> reportedRequests) {
+        CarRoute route = new CarRoute(status.getFloorNumber(), status.getDirection(), status.getPassengerCount());
+        for (ElevatorRequest request : waitingRequests) {
+            route.addRequest(request);
+        }
+        for (Direction direction : new Direction[]{Direction.UP, Direction.DOWN}) {
+            ArrayList<Integer> floors = status.getStopRequestFloorsInDirection(direction);
+            if (floors != null) {
+                for (int floor : floors) {
+                    if (!covers(reportedRequests, floor, direction)) {
+                        route.addPickUp(floor, direction);
+                    }
+                }
+            }
+        }
+        if (status.getDestinationFloors() != null) {
+            for (int floor : status.getDestinationFloors()) {
+                route.addDropOff(floor);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Checks if one of the given requests is a pick up at the given floor going in the given direction.
+     */
+    private static boolean covers(List<ElevatorRequest> requests, int floor, Direction direction) {
+        for (ElevatorRequest request : requests) {
+            if (request.getFloor() == floor && request.getDirection() == direction) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a stop to pick up a passenger going in the given direction.
+     *
+     * @param floor     The floor number.
+     * @param direction The direction of the request.
+     * @return The index of the stop.
+     */
+    public int addPickUp(int floor, Direction direction) {
+        arrivalTimes = null;
+        loads = null;
+        stops.add(new Stop(floor, direction, true));
+        return stops.size() - 1;
+    }
+
+    /**
+     * Adds a stop to let a passenger on board leave the elevator.
+     *
+     * @param floor The floor number.
+     * @return The index of the stop.
+     */
+    public int addDropOff(int floor) {
+        arrivalTimes = null;
+        loads = null;
+        stops.add(new Stop(floor, null, true));
+        return stops.size() - 1;
+    }
+
+    /**
+     * Adds the pick up of a request, followed by its drop off once the passenger is on board.
+     *
+     * @param request The elevator request.
+     * @return The index of the pick up stop. The drop off stop has the next index.
+     */
+    public int addRequest(ElevatorRequest request) {
+        int pickUp = addPickUp(request.getFloor(), request.getDirection());
+        arrivalTimes = null;
+        stops.add(new Stop(request.getCarButton(), null, false));
+        stops.get(pickUp).dropOff = stops.size() - 1;
+        return pickUp;
+    }
+
+    /**
+     * Gets the number of stops of the route.
+     *
+     * @return The number of stops.
+     */
+    public int size() {
+        return stops.size();
+    }
+
+    /**
+     * Estimates the time that serving the given request adds to the trips of the passengers of this route: the time
+     * until the new passenger arrives at the destination floor plus the delay of every stop of the route. The
+     * route itself is left unchanged.
+     *
+     * @param request The elevator request.
+     * @return The added time in ms, or Long.MAX_VALUE if the request would never be served.
+     */
+    public long estimateAddedCost(ElevatorRequest request) {
+        int committedStops = stops.size();
+        long[] before = estimateArrivalTimes();
+        int[] beforeLoads = loads;
+        int pickUp = addRequest(request);
+        long[] after = estimateArrivalTimes();
+        stops.subList(committedStops, stops.size()).clear();
+        arrivalTimes = before;
+        loads = beforeLoads;
+        if (after[pickUp + 1] < 0) {
+            return Long.MAX_VALUE;
+        }
+
+        long cost = after[pickUp + 1];
+        for (int i = 0; i < committedStops; i++) {
+            cost += Math.max(0, after[i] - before[i]);
+        }
+        return cost;
+    }
+
+    /**
+     * Estimates the time the elevator reaches each stop of the route.
+     *
+     * @return The time in ms from now the elevator reaches each stop, indexed like the stops. A stop that is never
+     * reached has a time of -1. The returned array must not be modified.
+     */
+    public long[] estimateArrivalTimes() {
+        if (arrivalTimes == null) {
+            simulate();
+        }
+        return arrivalTimes;
+    }
+
+    /**
+     * Estimates the number of passengers on board when the elevator leaves each stop of the route.
+     *
+     * @return The load leaving each stop, indexed like the stops. A stop that is never reached has a load of -1.
+     * The returned array must not be modified.
+     */
+    public int[] estimateLoads() {
+        if (arrivalTimes == null) {
+            simulate();
+        }
+        return loads;
+    }
+
+    /**
+     * Runs the collective control of the elevator over the stops of the route, and records the arrival time and
+     * the load leaving each stop, -1 for the stops that are never reached.
+     */
+    private void simulate() {
+        int n = stops.size();
+        long[] times = new long[n];
+        int[] leavingLoads = new int[n];
+        Arrays.fill(times, -1);
+        Arrays.fill(leavingLoads, -1);
+        boolean[] active = new boolean[n];
+        int remaining = 0;
+        int dropOffs = 0;
+        for (int i = 0; i < n; i++) {
+            active[i] = stops.get(i).active;
+            remaining += active[i] ? 1 : 0;
+            dropOffs += active[i] && stops.get(i).direction == null ? 1 : 0;
+        }
+
+        // A passenger without a drop off would never leave, so the load is capped by the drop offs on board
+        int load = Math.min(startLoad, dropOffs);
+
+        int floor = startFloor;
+        Direction direction = startDirection;
+        long time = 0;
+        boolean departing = true;
+
+        // Every stop is reached within a sweep up and a sweep down of the building per stop
+        int steps = 2 * (NUMBER_OF_FLOORS + 1) * (n + 1);
+        while (remaining > 0 && steps-- > 0) {
+            if (direction == Direction.STOPPED || direction == null) {
+                direction = getDirectionToNearestStop(floor, active);
+            }
+
+            // Serve the stops at this floor, including the requests going the other way at the last stop. Passengers
+            // leave before the waiting ones board, and the ones that do not fit are left behind.
+            boolean stopAhead = hasStopAhead(floor, direction, active);
+            int served = 0;
+            int leftBehind = 0;
+            for (int dropOffPass = 1; dropOffPass >= 0; dropOffPass--) {
+                for (int i = 0; i < n; i++) {
+                    Stop stop = stops.get(i);
+                    if (!active[i] || stop.floor != floor || (stop.direction == null) != (dropOffPass == 1)
+                            || stop.direction != null && stop.direction != direction && stopAhead) {
+                        continue;
+                    }
+                    if (stop.direction != null && load >= MAX_PASSENGER_COUNT) {
+                        leftBehind++;
+                        continue;
+                    }
+                    load += stop.direction == null ? -1 : 1;
+                    load = Math.max(0, load);
+                    active[i] = false;
+                    times[i] = time;
+                    served++;
+                    remaining--;
+                    if (stop.dropOff >= 0) {
+                        active[stop.dropOff] = true;
+                        remaining++;
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (times[i] == time && !active[i] && stops.get(i).floor == floor && leavingLoads[i] < 0) {
+                    leavingLoads[i] = load;
+                }
+            }
+            if (served > 0) {
+                time += LOADING_TIME + (long) served * BOARDING_TIME_PER_PASSENGER;
+                departing = true;
+            } else if (leftBehind > 0 && !departing) {
+                // The doors open for nothing
+                time += LOADING_TIME;
+                departing = true;
+            }
+            if (remaining == 0) {
+                break;
+            }
+
+            // Turn around at the last stop, otherwise move on to the next floor
+            if (!hasStopAhead(floor, direction, active)) {
+                direction = direction == Direction.UP ? Direction.DOWN : Direction.UP;
+                continue;
+            }
+            if (departing) {
+                time += BASE_MOVE_TIME;
+                departing = false;
+            }
+            floor += direction == Direction.UP ? 1 : -1;
+            time += INCREMENTAL_MOVE_TIME;
+        }
+        arrivalTimes = times;
+        loads = leavingLoads;
+    }
+
+    /**
+     * Checks if a remaining stop lies beyond the given floor in the given direction.
+     */
+    private boolean hasStopAhead(int floor, Direction direction, boolean[] active) {
+        for (int i = 0; i < active.length; i++) {
+            if (active[i] && (direction == Direction.UP ? stops.get(i).floor > floor : stops.get(i).floor < floor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the direction an idle elevator leaves the given floor in to reach its nearest remaining stop. A stop at
+     * the floor itself gives the direction of its request.
+     */
+    private Direction getDirectionToNearestStop(int floor, boolean[] active) {
+        int nearest = -1;
+        for (int i = 0; i < active.length; i++) {
+            if (active[i] && (nearest < 0 || Math.abs(stops.get(i).floor - floor) < Math.abs(stops.get(nearest).floor - floor))) {
+                nearest = i;
+            }
+        }
+        Stop stop = stops.get(nearest);
+        if (stop.floor != floor) {
+            return stop.floor > floor ? Direction.UP : Direction.DOWN;
+        }
+        return stop.direction == Direction.DOWN ? Direction.DOWN : Direction.UP;
+    }
+}
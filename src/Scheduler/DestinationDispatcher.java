@@ -0,0 +1,208 @@
+package Scheduler;
+
+import Common.Constants;
+import Common.Direction;
+import Common.ElevatorRequest;
+import Common.ElevatorStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * DestinationDispatcher.java
+ * <p>
+ * Destination dispatch: every request is assigned knowing both its floor and its destination, and the passenger
+ * is told which elevator to take. The dispatcher remembers the requests sent to each elevator until their passengers
+ * are picked up, so the {@link CarRoute} of an elevator includes the destinations of the passengers still waiting
+ * for it, which the elevator statuses do not carry. Passengers waiting at the same floor for the same elevator form a
+ * batch of at most {@link Constants#MAX_PASSENGER_COUNT} passengers. A request joins the batch of an elevator going
+ * to the same or a nearby floor when it can: every stop a request adds to an elevator costs extra, so each trip
+ * makes fewer stops.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class DestinationDispatcher implements Dispatcher {
+
+    // Destinations this close to a stop of an elevator share that stop
+    private static final int NEARBY_FLOORS = 1;
+
+    // Cost of every stop a request adds to the trips of an elevator. A stop takes more than its own time from the
+    // fleet, since every passenger on board waits through it and the elevator comes back for its next trip later.
+    private static final long STOP_PENALTY = 3 * Constants.INCREMENTAL_MOVE_TIME;
+
+    // Requests assigned to each elevator whose passengers were not picked up yet, keyed by elevator id
+    private final HashMap<Integer, ArrayList<Assignment>> waitingRequests = new HashMap<>();
+
+    /**
+     * A request sent to an elevator, and whether a status of the elevator has shown its pick up yet.
+     */
+    private static final class Assignment {
+        final ElevatorRequest request;
+        boolean shown;
+
+        Assignment(ElevatorRequest request) {
+            this.request = request;
+        }
+    }
+
+    /**
+     * Gets the id of the elevator with the least added cost for the given request, among the elevators whose batch
+     * at the floor of the request is not full. The assignment is only remembered once the request is sent, with
+     * {@link #recordAssignment}.
+     *
+     * @param elevatorRequest  The elevator request to be assigned
+     * @param elevatorStatuses The statuses of the available elevators
+     * @return The id of the elevator to serve the request, or -1 if no elevator is available
+     */
+    @Override
+    public synchronized int selectElevator(ElevatorRequest elevatorRequest, List<ElevatorStatus> elevatorStatuses) {
+        ElevatorStatus best = null;
+        long minCost = Long.MAX_VALUE;
+        ElevatorStatus bestFull = null;
+        long minFullCost = Long.MAX_VALUE;
+        for (ElevatorStatus status : elevatorStatuses) {
+            ArrayList<Assignment> assigned = getWaitingRequests(status);
+            long cost = estimateCost(elevatorRequest, status, assigned);
+
+            int batchSize = 0;
+            for (Assignment a : assigned) {
+                ElevatorRequest r = a.request;
+                if (r.getFloor() == elevatorRequest.getFloor() && r.getDirection() == elevatorRequest.getDirection()) {
+                    batchSize++;
+                }
+            }
+            if (cost != Long.MAX_VALUE) {
+                cost += STOP_PENALTY * countNewStops(elevatorRequest, status, assigned);
+            }
+
+            // Full batches are only used if every elevator has one
+            if (batchSize >= Constants.MAX_PASSENGER_COUNT) {
+                if (cost < minFullCost) {
+                    minFullCost = cost;
+                    bestFull = status;
+                }
+            } else if (cost < minCost) {
+                minCost = cost;
+                best = status;
+            }
+        }
+
+        if (best == null) {
+            best = bestFull;
+        }
+        if (best == null) {
+            return -1;
+        }
+        return best.getElevatorId();
+    }
+
+    /**
+     * Remembers a request sent to an elevator until its passenger is picked up.
+     *
+     * @param elevatorRequest The assigned elevator request
+     * @param elevatorId      The id of the elevator the request was sent to
+     */
+    @Override
+    public synchronized void recordAssignment(ElevatorRequest elevatorRequest, int elevatorId) {
+        waitingRequests.computeIfAbsent(elevatorId, id -> new ArrayList<>()).add(new Assignment(elevatorRequest));
+    }
+
+    /**
+     * Tells the floors which elevator each passenger has to take.
+     *
+     * @return True
+     */
+    @Override
+    public boolean assignsHallCalls() {
+        return true;
+    }
+
+    /**
+     * Estimates the time in ms that assigning the given request to an elevator adds to the trips of its
+     * passengers, with the destinations of the requests already assigned to the elevator and the passengers on board,
+     * so an elevator that would arrive full costs the time until it has room.
+     *
+     * @param elevatorRequest The elevator request
+     * @param status          The status of the elevator
+     * @param assigned        The requests assigned to the elevator that were not picked up yet
+     * @return The added time, or Long.MAX_VALUE if the elevator would never serve the request
+     */
+    private long estimateCost(ElevatorRequest elevatorRequest, ElevatorStatus status, ArrayList<Assignment> assigned) {
+        CarRoute route = new CarRoute(status.getFloorNumber(), status.getDirection(), status.getPassengerCount());
+        for (Assignment a : assigned) {
+            route.addRequest(a.request);
+        }
+
+        // Pick ups the dispatcher does not know the destination of, for example requests reassigned on a shutdown
+        for (Direction direction : new Direction[]{Direction.UP, Direction.DOWN}) {
+            for (int floor : status.getStopRequestFloorsInDirection(direction)) {
+                if (!isAssigned(assigned, floor, direction)) {
+                    route.addPickUp(floor, direction);
+                }
+            }
+        }
+        for (int floor : status.getDestinationFloors()) {
+            route.addDropOff(floor);
+        }
+
+        return route.estimateAddedCost(elevatorRequest);
+    }
+
+    /**
+     * Counts the stops the given request adds to the trips of an elevator: its floor unless the elevator already
+     * picks up passengers there going the same way, and its destination unless the elevator already stops at the
+     * same or a nearby floor.
+     *
+     * @param elevatorRequest The elevator request
+     * @param status          The status of the elevator
+     * @param assigned        The requests assigned to the elevator that were not picked up yet
+     * @return The number of new stops, 0 to 2
+     */
+    private static int countNewStops(ElevatorRequest elevatorRequest, ElevatorStatus status, ArrayList<Assignment> assigned) {
+        int floor = elevatorRequest.getFloor();
+        int destination = elevatorRequest.getCarButton();
+        boolean sharesPickUp = status.getStopRequestFloorsInDirection(elevatorRequest.getDirection()).contains(floor)
+                || isAssigned(assigned, floor, elevatorRequest.getDirection());
+        boolean sharesDropOff = false;
+        for (int stop : status.getDestinationFloors()) {
+            sharesDropOff |= Math.abs(stop - destination) <= NEARBY_FLOORS;
+        }
+        for (Assignment a : assigned) {
+            sharesDropOff |= Math.abs(a.request.getCarButton() - destination) <= NEARBY_FLOORS;
+        }
+        return (sharesPickUp ? 0 : 1) + (sharesDropOff ? 0 : 1);
+    }
+
+    /**
+     * Gets the requests assigned to an elevator that are still waiting for it. A request is forgotten once a status
+     * has shown a pick up at its floor in its direction and a later status no longer shows it. Statuses published
+     * before the elevator got the request do not show its pick up yet, so they never make it forgotten. The pending
+     * primary request of an elevator is published as such a pick up too.
+     *
+     * @param status The latest status of the elevator
+     * @return The waiting requests
+     */
+    private ArrayList<Assignment> getWaitingRequests(ElevatorStatus status) {
+        ArrayList<Assignment> assigned = waitingRequests.computeIfAbsent(status.getElevatorId(), id -> new ArrayList<>());
+        assigned.removeIf(a -> {
+            boolean shown = status.getStopRequestFloorsInDirection(a.request.getDirection()).contains(a.request.getFloor());
+            boolean pickedUp = a.shown && !shown;
+            a.shown |= shown;
+            return pickedUp;
+        });
+        return assigned;
+    }
+
+    /**
+     * Checks if a request at the given floor going in the given direction is among the assigned requests.
+     */
+    private static boolean isAssigned(ArrayList<Assignment> assigned, int floor, Direction direction) {
+        for (Assignment a : assigned) {
+            if (a.request.getFloor() == floor && a.request.getDirection() == direction) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
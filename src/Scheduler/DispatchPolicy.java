@@ -0,0 +1,32 @@
+package Scheduler;
+
+/**
+ * DispatchPolicy.java
+ * <p>
+ * The rule used by the scheduler to assign requests to elevators.
+ * <p>
+ * - {@link DispatchPolicy#NEAREST_CAR}: Prefers an elevator already stopping at the floor, then the closest
+ * idle elevator, then the closest elevator. <p>
+ * - {@link DispatchPolicy#ETA}: Estimates the arrival time of every elevator at each of its stops and picks the
+ * elevator that adds the least time to the trips of its passengers and the new passenger. <p>
+ * - {@link DispatchPolicy#DESTINATION}: Destination dispatch. Groups the passengers going to the same or nearby
+ * floors into the same elevator and tells each passenger which elevator to take.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public enum DispatchPolicy {
+    NEAREST_CAR, ETA, DESTINATION;
+
+    /**
+     * Creates a dispatcher that applies this policy.
+     *
+     * @return The dispatcher.
+     */
+    public Dispatcher createDispatcher() {
+        return switch (this) {
+            case NEAREST_CAR -> new NearestCarDispatcher();
+            case ETA -> new EtaDispatcher();
+            case DESTINATION -> new DestinationDispatcher();
+        };
+    }
+}
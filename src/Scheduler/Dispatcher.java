@@ -0,0 +1,61 @@
+package Scheduler;
+
+import Common.ElevatorRequest;
+import Common.ElevatorStatus;
+
+import java.util.List;
+
+/**
+ * Dispatcher.java
+ * <p>
+ * Chooses the elevator that serves a new request from the statuses the elevators last published. The scheduler
+ * and the discrete event simulation call the dispatcher for every request from a floor, so implementations have
+ * to be safe to call from several threads at once.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public interface Dispatcher {
+
+    /**
+     * Gets the id of the elevator that should serve the given request.
+     *
+     * @param elevatorRequest  The elevator request to be assigned
+     * @param elevatorStatuses The statuses of the available elevators
+     * @return The id of the elevator to serve the request, or -1 if no elevator is available
+     */
+    int selectElevator(ElevatorRequest elevatorRequest, List<ElevatorStatus> elevatorStatuses);
+
+    /**
+     * Estimates the cost in ms of giving a request to an elevator on top of the time it adds to the trips of the
+     * passengers, such as the cost of taking an idle elevator away from a floor where passengers are expected. The
+     * {@link AssignmentOptimizer} adds it to its estimates, so it does not undo the choices of the dispatcher.
+     *
+     * @param elevatorRequest  The elevator request
+     * @param status           The status of the elevator
+     * @param elevatorStatuses The statuses of all the available elevators
+     * @param now              The current clock time in milliseconds since the epoch
+     * @return The extra cost, 0 by default
+     */
+    default long estimateExtraCost(ElevatorRequest elevatorRequest, ElevatorStatus status, List<ElevatorStatus> elevatorStatuses, long now) {
+        return 0;
+    }
+
+    /**
+     * Tells the dispatcher that a request was sent to the elevator it selected. A request that could not be sent,
+     * for example because the elevator was removed in the meantime, is never recorded.
+     *
+     * @param elevatorRequest The assigned elevator request
+     * @param elevatorId      The id of the elevator the request was sent to
+     */
+    default void recordAssignment(ElevatorRequest elevatorRequest, int elevatorId) {
+    }
+
+    /**
+     * Checks if the passengers are told which elevator to take when they make a request, as in destination dispatch.
+     *
+     * @return True if every request is announced to its floor with the elevator assigned to it
+     */
+    default boolean assignsHallCalls() {
+        return false;
+    }
+}
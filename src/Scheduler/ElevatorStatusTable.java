@@ -0,0 +1,86 @@
+package Scheduler;
+
+import Common.Constants;
+import Common.ElevatorStatus;
+
+import java.util.ArrayList;
+
+/**
+ * ElevatorStatusTable.java
+ * <p>
+ * Holds the latest status published by every registered elevator. Elevators push a new status whenever
+ * their floor, direction or stop requests change, so the scheduler can make dispatch decisions from this
+ * table without asking the elevators over the network.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class ElevatorStatusTable {
+
+    private final ElevatorStatus[] statuses;
+
+    /**
+     * Creates an empty table sized for the elevators in the building.
+     */
+    public ElevatorStatusTable() {
+        this(Constants.NUMBER_OF_ELEVATORS);
+    }
+
+    /**
+     * Creates an empty table for the given number of elevators.
+     *
+     * @param numberOfElevators The number of elevators.
+     */
+    public ElevatorStatusTable(int numberOfElevators) {
+        this.statuses = new ElevatorStatus[numberOfElevators];
+    }
+
+    /**
+     * Stores the given status unless a newer status of the same elevator is already known.
+     *
+     * @param status The status published by an elevator.
+     * @return True if the table was updated, false if the status was out of date.
+     */
+    public synchronized boolean update(ElevatorStatus status) {
+        int elevatorId = status.getElevatorId();
+        ElevatorStatus current = statuses[elevatorId];
+        if (current != null && current.getVersion() >= status.getVersion()) {
+            return false;
+        }
+        statuses[elevatorId] = status;
+        return true;
+    }
+
+    /**
+     * Removes the status of an elevator that left the system.
+     *
+     * @param elevatorId The elevator id.
+     */
+    public synchronized void remove(int elevatorId) {
+        statuses[elevatorId] = null;
+    }
+
+    /**
+     * Gets the latest status of an elevator.
+     *
+     * @param elevatorId The elevator id.
+     * @return The latest status, or null if the elevator has not published one.
+     */
+    public synchronized ElevatorStatus get(int elevatorId) {
+        return statuses[elevatorId];
+    }
+
+    /**
+     * Gets the latest status of every elevator that has published one.
+     *
+     * @return The list of statuses ordered by elevator id.
+     */
+    public synchronized ArrayList<ElevatorStatus> snapshot() {
+        ArrayList<ElevatorStatus> snapshot = new ArrayList<>(statuses.length);
+        for (ElevatorStatus status : statuses) {
+            if (status != null) {
+                snapshot.add(status);
+            }
+        }
+        return snapshot;
+    }
+}
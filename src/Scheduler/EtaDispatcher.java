@@ -0,0 +1,128 @@
+package Scheduler;
+
+import Common.Constants;
+import Common.DemandModel;
+import Common.Direction;
+import Common.ElevatorRequest;
+import Common.ElevatorStatus;
+import Common.SimulationClock;
+
+import java.util.List;
+
+/**
+ * EtaDispatcher.java
+ * <p>
+ * Assigns a request to the elevator that adds the least time to the trips of the passengers. For every elevator the
+ * {@link CarRoute} of its committed stops is estimated with and without the new request. The cost of the elevator
+ * is the time until the new passenger arrives at the destination floor plus the time the detour adds to the
+ * arrival at each of the stops the elevator already had.
+ * <p>
+ * Taking the last idle elevator away from a floor also costs the next passenger the {@link DemandModel} expects at
+ * that floor while the elevator is away, such as a passenger arriving at the lobby in the morning rush. The
+ * passenger is counted as waiting {@link Constants#DEMAND_RESERVE_WEIGHT} of the time away, so a request goes to
+ * another elevator when that costs less. Only a prediction from the time of day profile counts: the recent arrivals
+ * alone say too little about the next few minutes to hold an elevator back. The profile is only trained by the
+ * Simulation program, so the Scheduler program on its own only adds this cost once it has run through the same time
+ * of day before.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class EtaDispatcher implements Dispatcher {
+
+    /**
+     * Gets the id of the elevator with the least added cost for the given request
+     *
+     * @param elevatorRequest  The elevator request to be assigned
+     * @param elevatorStatuses The statuses of the available elevators
+     * @return The id of the elevator to serve the request, or -1 if no elevator is available
+     */
+    @Override
+    public int selectElevator(ElevatorRequest elevatorRequest, List<ElevatorStatus> elevatorStatuses) {
+        long now = SimulationClock.getInstance().currentTimeMillis();
+        int bestElevatorId = -1;
+        long minCost = Long.MAX_VALUE;
+        for (ElevatorStatus status : elevatorStatuses) {
+            long cost = estimateCost(elevatorRequest, status);
+            if (cost != Long.MAX_VALUE) {
+                cost += estimateExtraCost(elevatorRequest, status, elevatorStatuses, now);
+            }
+            if (cost < minCost) {
+                minCost = cost;
+                bestElevatorId = status.getElevatorId();
+            }
+        }
+        return bestElevatorId;
+    }
+
+    /**
+     * Estimates the time in ms that assigning the given request to an elevator adds to the trips of its
+     * passengers, including the whole trip of the new passenger.
+     *
+     * @param elevatorRequest The elevator request
+     * @param status          The status of the elevator
+     * @return The added time, or Long.MAX_VALUE if the elevator would never serve the request
+     */
+    public long estimateCost(ElevatorRequest elevatorRequest, ElevatorStatus status) {
+        return CarRoute.of(status).estimateAddedCost(elevatorRequest);
+    }
+
+    /**
+     * Estimates the waiting time the request costs the next passenger expected at the floor of the elevator, with
+     * {@link #estimateReserveCost}.
+     *
+     * @param elevatorRequest  The elevator request
+     * @param status           The status of the elevator
+     * @param elevatorStatuses The statuses of all the available elevators
+     * @param now              The current clock time in milliseconds since the epoch
+     * @return The added waiting time
+     */
+    @Override
+    public long estimateExtraCost(ElevatorRequest elevatorRequest, ElevatorStatus status, List<ElevatorStatus> elevatorStatuses, long now) {
+        return estimateReserveCost(elevatorRequest, status, elevatorStatuses, now);
+    }
+
+    /**
+     * Estimates the time in ms the next passenger expected at the floor of an idle elevator waits longer because
+     * the given request takes the elevator away. Nothing is lost if the elevator is busy, if the request is at its
+     * floor, if another idle elevator stays at the floor or if the demand model has no profile of the time.
+     *
+     * @param elevatorRequest  The elevator request
+     * @param status           The status of the elevator
+     * @param elevatorStatuses The statuses of all the available elevators
+     * @param now              The current clock time in milliseconds since the epoch
+     * @return The added waiting time
+     */
+    public long estimateReserveCost(ElevatorRequest elevatorRequest, ElevatorStatus status, List<ElevatorStatus> elevatorStatuses, long now) {
+        int floor = status.getFloorNumber();
+        DemandModel demandModel = DemandModel.getInstance();
+        if (Constants.DEMAND_RESERVE_WEIGHT <= 0 || !isIdle(status) || elevatorRequest.getFloor() == floor || !demandModel.hasProfile(now)) {
+            return 0;
+        }
+        for (ElevatorStatus other : elevatorStatuses) {
+            if (other.getElevatorId() != status.getElevatorId() && other.getFloorNumber() == floor && isIdle(other)) {
+                return 0;
+            }
+        }
+
+        // The elevator is away for the trip to the passenger, the ride and the way back
+        long awayMillis = (long) (Math.abs(elevatorRequest.getFloor() - floor) + Math.abs(elevatorRequest.getCarButton() - elevatorRequest.getFloor())
+                + Math.abs(floor - elevatorRequest.getCarButton())) * Constants.INCREMENTAL_MOVE_TIME;
+        double expectedPassengers = demandModel.getPredictedArrivals(floor, now, now + awayMillis);
+        return (long) (Math.min(1, expectedPassengers) * awayMillis * Constants.DEMAND_RESERVE_WEIGHT);
+    }
+
+    /**
+     * Checks if an elevator is stopped without any stops to make.
+     */
+    private static boolean isIdle(ElevatorStatus status) {
+        return status.getDirection() == Direction.STOPPED && isEmpty(status.getStopRequestFloorsInDirection(Direction.UP))
+                && isEmpty(status.getStopRequestFloorsInDirection(Direction.DOWN)) && isEmpty(status.getDestinationFloors());
+    }
+
+    /**
+     * Checks if a list of floors is missing or empty.
+     */
+    private static boolean isEmpty(List<Integer> floors) {
+        return floors == null || floors.isEmpty();
+    }
+}
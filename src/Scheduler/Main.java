@@ -1,5 +1,9 @@
 package Scheduler;
 
+import Common.Constants;
+import Journal.Journal;
+import Metrics.MetricsRegistry;
+
 /**
  * Main class for initializing and starting scheduler.
  *
@@ -8,10 +12,23 @@ package Scheduler;
 public class Main {
     public static void main(String[] args) {
 
-        Scheduler sch = new Scheduler();
+        // The event loop mode can be given as the first argument (SEQUENTIAL or CONCURRENT)
+        SchedulerMode mode = args.length > 0 ? SchedulerMode.valueOf(args[0].toUpperCase()) : SchedulerMode.CONCURRENT;
+        Scheduler sch = new Scheduler(mode);
+
+        // The dispatch policy can be given as the second argument (NEAREST_CAR, ETA or DESTINATION)
+        if (args.length > 1) {
+            sch.setDispatcher(DispatchPolicy.valueOf(args[1].toUpperCase()).createDispatcher());
+        }
 
         Thread scheduler = new Thread(sch, "Scheduler");
 
+        // Publish the metrics over JMX and print them periodically
+        MetricsRegistry.getInstance().start();
+        if (!Constants.JOURNAL_DIRECTORY.isEmpty()) {
+            Journal.open(Constants.JOURNAL_DIRECTORY, "scheduler");
+        }
+
         scheduler.start();
     }
 }
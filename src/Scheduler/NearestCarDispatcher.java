@@ -0,0 +1,78 @@
+package Scheduler;
+
+import Common.Direction;
+import Common.ElevatorRequest;
+import Common.ElevatorStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NearestCarDispatcher.java
+ * <p>
+ * Assigns a request to an elevator that already plans to stop at the floor in the direction of the request.
+ * Otherwise the closest idle elevator is chosen, or the closest elevator if none is idle. Full elevators are only
+ * chosen when every elevator is full, since they would leave the passenger behind.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class NearestCarDispatcher implements Dispatcher {
+
+    /**
+     * Gets the id of the elevator that is better suited to serve a given request
+     *
+     * @param elevatorRequest  The elevator request to be assigned
+     * @param elevatorStatuses The statuses of the available elevators
+     * @return The id of the best elevator to serve the request, or -1 if no elevator is available
+     */
+    @Override
+    public int selectElevator(ElevatorRequest elevatorRequest, List<ElevatorStatus> elevatorStatuses) {
+        // Leave out the full elevators, unless they all are
+        ArrayList<ElevatorStatus> availableElevators = new ArrayList<>();
+        for (ElevatorStatus e : elevatorStatuses) {
+            if (!e.isAtMaxCapacity()) {
+                availableElevators.add(e);
+            }
+        }
+        if (!availableElevators.isEmpty()) {
+            elevatorStatuses = availableElevators;
+        }
+
+        // Check if there is an elevator that is already planned to stop at the floor
+        for (ElevatorStatus e : elevatorStatuses) {
+            if (e.getStopRequestFloorsInDirection(elevatorRequest.getDirection()).contains(elevatorRequest.getFloor())) {
+                return e.getElevatorId();
+            }
+        }
+
+        // Get a list of all idle elevators
+        ArrayList<ElevatorStatus> idleElevators = new ArrayList<>();
+        for (int i = 0; i < elevatorStatuses.size(); i++) {
+            if (elevatorStatuses.get(i).getDirection() == Direction.STOPPED) {
+                idleElevators.add(elevatorStatuses.get(i));
+            }
+        }
+
+        // Get the list of candidate elevators for the request
+        List<ElevatorStatus> candidateElevators = new ArrayList<>();
+        if (!idleElevators.isEmpty()) {
+            candidateElevators = idleElevators;
+        } else {
+            candidateElevators = elevatorStatuses;
+        }
+
+        // Find the closest elevator
+        int bestElevatorId = -1;
+        int minDistance = Integer.MAX_VALUE;
+        for (ElevatorStatus elevator : candidateElevators) {
+            int distance = Math.abs(elevator.getFloorNumber() - elevatorRequest.getFloor());
+
+            if (distance < minDistance) {
+                minDistance = distance;
+                bestElevatorId = elevator.getElevatorId();
+            }
+        }
+
+        return bestElevatorId;
+    }
+}
@@ -2,9 +2,22 @@ package Scheduler;
 
 import Common.*;
 import Floor.FloorSubsystem;
+import Journal.Journal;
+import Metrics.Counter;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -15,20 +28,113 @@ import static Common.SystemRequestType.*;
  * <p>
  * The Scheduler class contains event queues and synchronizes the Elevator and Floor threads
  * by providing synchronized methods for writing and reading to event queues.
+ * <p>
+ * The scheduler runs either a {@link SchedulerMode#SEQUENTIAL} loop that handles one message at a time, or a
+ * {@link SchedulerMode#CONCURRENT} selector driven loop that hands messages to per-elevator worker lanes and
+ * relays controller replies without blocking. New requests are assigned to elevators by a {@link Dispatcher}.
+ * In the concurrent mode an {@link AssignmentOptimizer} also runs in the background and moves the requests still
+ * waiting for pick up to other elevators when their assignment has become a bad one.
  *
  * @version 3.0, March 17, 2024
  */
 public class Scheduler implements Runnable {
 
     private FloorSubsystem floorSubsystems;
-    private int[] elevatorPorts = new int[Constants.NUMBER_OF_ELEVATORS];
+    private AtomicIntegerArray elevatorPorts;
+    private ElevatorStatusTable statusTable;
+
+    private RelayTransport senderReceiver1;
+    private RelayTransport senderReceiver2;
+
+    private final SchedulerMode mode;
+
+    // Chooses the elevator for every new request
+    private volatile Dispatcher dispatcher = DispatchPolicy.ETA.createDispatcher();
+
+    // Worker lanes of the concurrent mode. Messages of an elevator are always handled by the same lane so
+    // they keep their order, while messages of different elevators are handled in parallel.
+    private ExecutorService[] workerLanes;
+
+    // Queries relayed to each elevator controller that are waiting for a reply, keyed by correlation id
+    private PendingResponseTable[] pendingReplies;
 
-    private UDPSenderReceiver senderReceiver1;
-    private UDPSenderReceiver senderReceiver2;
+    // Requests that arrived while no elevator was available, oldest first. They are assigned on the next status
+    // update or registration of an elevator, and before any newer request.
+    private final Queue<ElevatorRequest> heldRequests = new ConcurrentLinkedQueue<>();
 
+    // Re-optimizes the waiting requests in the background. Its queries carry negative correlation ids so their
+    // replies are told apart from the replies to the elevators.
+    private final AssignmentOptimizer optimizer = new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN);
+    private final PendingResponseTable optimizerReplies = new PendingResponseTable();
+    private MessageTransport optimizerTransport;
+    private int optimizerCorrelationId;
+
+    // Messages handled and controller replies relayed per request type, indexed by the ordinal of the type
+    private static final Counter[] messageCounters = new Counter[SystemRequestType.values().length];
+    private static final Counter[] replyCounters = new Counter[SystemRequestType.values().length];
+    private static final Counter droppedReplies = MetricsRegistry.getInstance().counter("scheduler.replies.dropped");
+    private static final Counter reassignedRequests = MetricsRegistry.getInstance().counter("scheduler.requests.reassigned");
+    private static final LatencyHistogram relayTimes = MetricsRegistry.getInstance().histogram("scheduler.relay.rttNanos");
+    private static final LatencyHistogram dispatchTimes = MetricsRegistry.getInstance().histogram("scheduler.dispatch.nanos");
+    private static final Dispatcher nearestCarDispatcher = new NearestCarDispatcher();
+
+    static {
+        for (SystemRequestType type : SystemRequestType.values()) {
+            messageCounters[type.ordinal()] = MetricsRegistry.getInstance().counter("scheduler.messages." + type);
+            replyCounters[type.ordinal()] = MetricsRegistry.getInstance().counter("scheduler.relayed." + type);
+        }
+    }
+
+    /**
+     * Creates a scheduler running the concurrent event loop.
+     */
     public Scheduler() {
-        this.senderReceiver1 = new UDPSenderReceiver(Constants.SCHEDULER_PORT, 0);
-        this.senderReceiver2 = new UDPSenderReceiver(Constants.SCHEDULER_PORT_2, 0);
+        this(SchedulerMode.CONCURRENT);
+    }
+
+    /**
+     * Creates a scheduler running the given event loop.
+     *
+     * @param mode The event loop mode of the scheduler
+     */
+    public Scheduler(SchedulerMode mode) {
+        this(mode, Constants.NUMBER_OF_ELEVATORS);
+    }
+
+    /**
+     * Creates a scheduler running the given event loop for the given number of elevators.
+     *
+     * @param mode              The event loop mode of the scheduler
+     * @param numberOfElevators The number of elevators, with ids from 0 to numberOfElevators - 1
+     */
+    public Scheduler(SchedulerMode mode, int numberOfElevators) {
+        this.mode = mode;
+        this.elevatorPorts = new AtomicIntegerArray(numberOfElevators);
+        this.statusTable = new ElevatorStatusTable(numberOfElevators);
+        this.pendingReplies = new PendingResponseTable[numberOfElevators];
+        for (int i = 0; i < pendingReplies.length; i++) {
+            pendingReplies[i] = new PendingResponseTable();
+        }
+        if (mode == SchedulerMode.SEQUENTIAL) {
+            this.senderReceiver1 = RelayTransport.open(Constants.SCHEDULER_PORT, 0);
+            this.senderReceiver2 = RelayTransport.open(Constants.SCHEDULER_PORT_2, 0);
+            return;
+        }
+
+        // The selector driven loop needs the channel based transport
+        this.senderReceiver1 = new UDPChannelTransport(Constants.SCHEDULER_PORT, 0);
+        this.senderReceiver2 = new UDPChannelTransport(Constants.SCHEDULER_PORT_2, 0);
+
+        // One lane per elevator and one lane for floor requests
+        this.workerLanes = new ExecutorService[numberOfElevators + 1];
+        for (int i = 0; i < workerLanes.length; i++) {
+            String name = "SchedulerWorker" + i;
+            workerLanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
     /**
@@ -46,7 +152,34 @@ public class Scheduler implements Runnable {
      * @param elevatorPort The new elevator
      */
     public void addElevator(int elevatorId, int elevatorPort) {
-        this.elevatorPorts[elevatorId] = elevatorPort;
+        this.elevatorPorts.set(elevatorId, elevatorPort);
+    }
+
+    /**
+     * Sets the dispatcher that chooses the elevator for every new request
+     *
+     * @param dispatcher The dispatcher
+     */
+    public void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Gets the dispatcher that chooses the elevator for every new request
+     *
+     * @return The dispatcher
+     */
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Gets the event loop mode of the scheduler
+     *
+     * @return The scheduler mode
+     */
+    public SchedulerMode getMode() {
+        return mode;
     }
 
     /**
@@ -54,129 +187,435 @@ public class Scheduler implements Runnable {
      */
     @Override
     public void run() {
+        if (mode == SchedulerMode.SEQUENTIAL) {
+            runSequential();
+        } else {
+            runConcurrent();
+        }
+    }
+
+    /**
+     * Handles one system request at a time. Relayed queries block until the elevator controller replies.
+     */
+    private void runSequential() {
         while (true) {
             System.out.println("Scheduler waiting for a system request.");
             SystemRequest request = senderReceiver1.receiveSystemRequest();
-            int id = request.getId();
-            int senderPort = senderReceiver1.getLastSenderPort();
-            switch (request.getType()) {
-                case ADD_NEW_REQUEST -> {
-                    System.out.println("Received new request from floor " + request.getFloorNumber());
-                    int bestElevatorId = selectBestElevatorNumber(request.getElevatorRequest());
-                    senderReceiver2.sendSystemRequest(new SystemRequest(ADD_NEW_REQUEST, request.getElevatorRequest(), 0), elevatorPorts[bestElevatorId]);
-                    System.out.println("Assigning the request to Elevator " + bestElevatorId);
-                }
-                case PROCESS_COMPLETED_REQUESTS -> {
-                    LogPrinter.print(request.getId(), "Received new PROCESS_COMPLETED_REQUESTS request from Elevator " + request.getId());
-                    senderReceiver2.sendSystemRequest(request, elevatorPorts[id]);
-                }
-                case PROCESSES_REQUESTS_AT_CURRENT_FLOOR -> {
-                    LogPrinter.print(request.getId(), "Received new PROCESSES_REQUESTS_AT_CURRENT_FLOOR request from Elevator " + request.getId());
-                    senderReceiver2.sendSystemRequest(request, elevatorPorts[id]);
-                }
-                case NEW_PRIMARY_REQUEST -> {
-                    LogPrinter.print(request.getId(), "Elevator " + request.getId() + " is asking for a new primary request");
-                    senderReceiver2.sendSystemRequest(request, elevatorPorts[id]);
-                    byte[] elevatorRequest = senderReceiver2.receiveResponse();
-                    senderReceiver1.sendResponse(elevatorRequest, senderPort);
-                    LogPrinter.print(request.getId(), "Sending Elevator " + request.getId() + " its new primary request");
-                }
-                case IS_STOP_REQUIRED -> {
-                    LogPrinter.print(request.getId(), "Elevator " + request.getId() + " asking if a stop is required at floor " + request.getFloorNumber());
-                    senderReceiver2.sendSystemRequest(request, elevatorPorts[id]);
-                    byte[] isRequired = senderReceiver2.receiveResponse();
-                    senderReceiver1.sendResponse(isRequired, senderPort);
-                    LogPrinter.print(request.getId(), "Replying to Elevator " + request.getId() + "'s IS_STOP_REQUIRED request");
-                }
-                case REGISTER_ELEVATOR_CONTROLLER -> {
-                    this.addElevator(request.getId(), senderPort);
-                    LogPrinter.print(request.getId(), "Registering Elevator " + request.getId() + " at port " + senderPort);
-                }
-                case SET_FLOOR_LAMPS -> {
-                    LogPrinter.print(request.getId(), "Received SET_FLOOR_LAMPS request. Forwarding it to Floor Controller");
-                    senderReceiver2.sendSystemRequest(request, Constants.FLOOR_CONTROLLER_PORT);
-                }
-                case SET_FLOOR_DIRECTION_LAMPS -> {
-                    LogPrinter.print(request.getId(), "Received SET_FLOOR_DIRECTION_LAMPS request. Forwarding it to Floor Controller");
-                    senderReceiver2.sendSystemRequest(request, Constants.FLOOR_CONTROLLER_PORT);
-                }
-                case ELEVATOR_SHUTDOWN_REQUEST -> {
-                    LogPrinter.print(request.getId(), "Received ELEVATOR_SHUTDOWN_REQUEST. Removing the elevator from the system");
-                    elevatorPorts[request.getId()] = 0;
-
-                    System.out.println("Reassigning waiting floor request to other elevators.");
-                    for(ElevatorRequest r: request.getElevatorRequests()){
-                        int bestElevatorId = selectBestElevatorNumber(r);
-                        senderReceiver2.sendSystemRequest(new SystemRequest(ADD_NEW_REQUEST, r, 0), elevatorPorts[bestElevatorId]);
-                        System.out.println("Reassigning the request to Elevator " + bestElevatorId);
-                        //if(bestElevatorId != -1){
-                        //    senderReceiver2.sendSystemRequest(new SystemRequest(ADD_NEW_REQUEST, r, 0), elevatorPorts[bestElevatorId]);
-                        //    System.out.println("Reassigning the request to Elevator " + bestElevatorId);
-                        //}
-                    }
+            handleRequest(request, senderReceiver1.getLastSenderPort());
+        }
+    }
+
+    /**
+     * Waits on a selector for messages from the elevators, the floors and the elevator controllers.
+     * System requests are handed to the worker lanes, and controller replies are relayed straight from the
+     * selector thread to the elevator waiting for them, so no thread blocks waiting for a reply.
+     */
+    private void runConcurrent() {
+        UDPChannelTransport requests = (UDPChannelTransport) senderReceiver1;
+        UDPChannelTransport responses = (UDPChannelTransport) senderReceiver2;
 
+        if (Constants.REOPTIMIZATION_INTERVAL > 0) {
+            Thread optimizerThread = new Thread(this::runOptimizer, "SchedulerOptimizer");
+            optimizerThread.setDaemon(true);
+            optimizerThread.start();
+        }
+
+        try (Selector selector = Selector.open()) {
+            requests.register(selector, requests);
+            responses.register(selector, responses);
+
+            while (true) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.attachment() == requests) {
+                        receiveRequests(requests);
+                    } else {
+                        relayResponses(responses);
+                    }
                 }
-                // TODO: Add a new case corresponding to elevator shutdown, and remove the elevator from the port list
-                // TODO: Add new case for time check requests from the elevator
+                selector.selectedKeys().clear();
             }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
         }
     }
 
     /**
-     * Gets the id of the elevator that is better suited to serve a given request
+     * Drains the system requests received on the scheduler port and hands them to the worker lanes.
      *
-     * @param elevatorRequest The elevator request to be assigned
-     * @return The id of the best elevator to serve the request
+     * @param requests The transport bound to the scheduler port
      */
-    private int selectBestElevatorNumber(ElevatorRequest elevatorRequest) {
-        // TODO: Make sure to use elevator id instead of list index
+    private void receiveRequests(UDPChannelTransport requests) {
+        ByteBuffer buffer;
+        while ((buffer = requests.poll()) != null) {
+            int senderPort = requests.getLastSenderPort();
+            SystemRequest request = MessageCodec.decodeSystemRequest(buffer);
+            requests.releaseBuffer(buffer);
+            workerLanes[getLane(request)].execute(() -> handleRequest(request, senderPort));
+        }
+    }
+
+    /**
+     * Drains the replies received from the elevator controllers and relays each one to the elevator
+     * waiting for it. Replies are matched to their query by correlation id, so they can arrive in any order.
+     *
+     * @param responses The transport bound to the second scheduler port
+     */
+    private void relayResponses(UDPChannelTransport responses) {
+        ByteBuffer buffer;
+        while ((buffer = responses.poll()) != null) {
+            forwardReply(buffer);
+            responses.releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Forwards a controller reply to the elevator whose query carries the same correlation id.
+     * The reply is relayed as is, without being copied or decoded.
+     *
+     * @param reply The buffer holding the encoded reply
+     */
+    private void forwardReply(ByteBuffer reply) {
+        replyCounters[MessageCodec.peekType(reply).ordinal()].increment();
+        int elevatorId = MessageCodec.peekId(reply);
+        int correlationId = MessageCodec.peekCorrelationId(reply);
+        int destinationPort = -1;
+        if (correlationId < 0) {
+            destinationPort = optimizerReplies.remove(correlationId);
+        } else if (elevatorId >= 0 && elevatorId < pendingReplies.length) {
+            long sentNanos = pendingReplies[elevatorId].getSentNanos(correlationId);
+            destinationPort = pendingReplies[elevatorId].remove(correlationId);
+            if (destinationPort >= 0) {
+                relayTimes.record(System.nanoTime() - sentNanos);
+            }
+        }
+        if (destinationPort < 0 && correlationId < 0) {
+            // A reply the re-optimization stopped waiting for
+            SystemRequest staleReply = MessageCodec.decodeSystemRequest(reply.duplicate());
+            if (mode == SchedulerMode.SEQUENTIAL) {
+                reassignRevokedRequest(staleReply);
+            } else {
+                workerLanes[workerLanes.length - 1].execute(() -> reassignRevokedRequest(staleReply));
+            }
+        } else if (destinationPort < 0) {
+            droppedReplies.increment();
+            LogPrinter.printWarning("Dropping unexpected reply " + correlationId + " from Elevator " + elevatorId);
+        } else {
+            senderReceiver1.sendBuffer(reply, destinationPort);
+        }
+    }
 
-        // Get the status of all elevators
-        ArrayList<ElevatorStatus> elevatorStatuses = new ArrayList<>();
-        for (int elevatorPort : elevatorPorts) {
-            if(elevatorPort == 0){
+    /**
+     * Re-optimizes the requests waiting for pick up every {@link Constants#REOPTIMIZATION_INTERVAL} ms of
+     * simulation time.
+     */
+    private void runOptimizer() {
+        SimulationClock clock = SimulationClock.getInstance();
+        optimizerTransport = MessageTransport.open(0, 0);
+        clock.register();
+        try {
+            while (true) {
+                clock.sleep(Constants.REOPTIMIZATION_INTERVAL);
+                reoptimize();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clock.deregister();
+        }
+    }
+
+    /**
+     * Gets the requests waiting for pick up from every elevator controller, and moves the ones the
+     * {@link AssignmentOptimizer} finds a better elevator for. A request is only given to its new elevator once
+     * the old one has given it up, so a request picked up in the meantime is never served twice. Nothing is moved
+     * with destination dispatch, whose batches the optimizer does not know about.
+     */
+    private void reoptimize() {
+        if (dispatcher.assignsHallCalls()) {
+            return;
+        }
+        List<ElevatorStatus> statuses = statusTable.snapshot();
+        HashMap<Integer, List<ElevatorRequest>> waitingRequests = new HashMap<>();
+        for (ElevatorStatus status : statuses) {
+            int id = status.getElevatorId();
+            if (elevatorPorts.get(id) != 0) {
+                SystemRequest reply = queryController(new SystemRequest(WAITING_REQUESTS, id));
+                if (reply != null) {
+                    waitingRequests.put(id, reply.getElevatorRequests());
+                }
+            }
+        }
+        statuses.removeIf(status -> !waitingRequests.containsKey(status.getElevatorId()));
+
+        for (AssignmentOptimizer.Migration migration : optimizer.optimize(statuses, waitingRequests, dispatcher)) {
+            int toPort = elevatorPorts.get(migration.getToElevatorId());
+            if (toPort == 0 || elevatorPorts.get(migration.getFromElevatorId()) == 0) {
+                continue;
+            }
+            SystemRequest reply = queryController(new SystemRequest(REVOKE_REQUEST, migration.getRequest(), migration.getFromElevatorId()));
+            if (reply == null) {
+                // The controller may still give the request up, its late reply is then assigned again
+                return;
+            }
+            ElevatorRequest request = reply.getElevatorRequest();
+            if (request == null) {
                 continue;
             }
-            senderReceiver2.sendSystemRequest(new SystemRequest(STATUS_REQUEST), elevatorPort);
-            ElevatorStatus elevatorStatus = ElevatorStatus.deserializeStatus(senderReceiver2.receiveResponse());
-            elevatorStatuses.add(elevatorStatus);
+
+            optimizerTransport.sendSystemRequest(new SystemRequest(ADD_NEW_REQUEST, request, 0), toPort);
+            reassignedRequests.increment();
+            LogPrinter.print(migration.getToElevatorId(), "Moving the request from floor " + request.getFloor() + " from Elevator "
+                    + migration.getFromElevatorId() + " to Elevator " + migration.getToElevatorId());
         }
+    }
 
-        // Check if there is an elevator that is already planned to stop at the floor
-        for (ElevatorStatus e : elevatorStatuses) {
-            if (e.getStopRequestFloorsInDirection(elevatorRequest.getDirection()).contains(elevatorRequest.getFloor())) {
-                return e.getElevatorId();
+    /**
+     * Sends a query of the optimizer to an elevator controller and waits for the reply, which the controller
+     * sends to the second scheduler port and {@link #forwardReply(ByteBuffer)} relays to the optimizer. If no reply
+     * arrives within {@link Constants#REOPTIMIZATION_REPLY_TIMEOUT} ms of real time the query is given up, and a reply
+     * arriving later is handled by {@link #reassignRevokedRequest(SystemRequest)}.
+     *
+     * @param query The query, with the id of the elevator
+     * @return The reply of the controller, or null if the controller did not reply in time
+     */
+    private SystemRequest queryController(SystemRequest query) {
+        int correlationId = --optimizerCorrelationId;
+        query.setCorrelationId(correlationId);
+        if (!optimizerReplies.put(correlationId, optimizerTransport.getLocalPort(), System.nanoTime())) {
+            LogPrinter.printWarning("The re-optimization has too many queries waiting for a reply");
+        }
+        optimizerTransport.sendSystemRequest(query, elevatorPorts.get(query.getId()));
+
+        // The reply travels over a socket, so the timeout is in real time even when the simulation clock is virtual
+        long deadline = System.nanoTime() + Constants.REOPTIMIZATION_REPLY_TIMEOUT * 1_000_000L;
+        while (true) {
+            long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            SystemRequest reply = remaining > 0 ? optimizerTransport.receiveSystemRequest((int) remaining) : null;
+            if (reply == null) {
+                optimizerReplies.remove(correlationId);
+                LogPrinter.printWarning("Elevator " + query.getId() + " did not reply to the re-optimization in time");
+                return null;
+            }
+            if (reply.getCorrelationId() == correlationId) {
+                return reply;
             }
+            // A reply to an earlier query that was relayed just before it was given up
+            reassignRevokedRequest(reply);
         }
+    }
+
+    /**
+     * Handles the reply to a re-optimization query that was given up. If the controller gave up a request in
+     * it, the request is assigned again so it is not lost.
+     *
+     * @param staleReply The reply that arrived too late
+     */
+    private void reassignRevokedRequest(SystemRequest staleReply) {
+        droppedReplies.increment();
+        if (staleReply.getType() != REVOKE_REQUEST || staleReply.getElevatorRequest() == null) {
+            return;
+        }
+        LogPrinter.printWarning("Elevator " + staleReply.getId() + " gave up a request after the re-optimization stopped waiting. Assigning it again");
+        assignOrHoldRequest(staleReply.getElevatorRequest());
+    }
+
+    /**
+     * Gets the worker lane that handles the given request.
+     *
+     * @param request The system request
+     * @return The index of the worker lane
+     */
+    private int getLane(SystemRequest request) {
+        if (request.getType() == ADD_NEW_REQUEST) {
+            return workerLanes.length - 1;
+        }
+        return request.getId() % (workerLanes.length - 1);
+    }
+
+    /**
+     * Processes a system request received from an elevator or a floor.
+     *
+     * @param request    The system request
+     * @param senderPort The port the request was sent from
+     */
+    private void handleRequest(SystemRequest request, int senderPort) {
+        messageCounters[request.getType().ordinal()].increment();
+        Journal.recordMessage(request, senderPort);
+        int id = request.getId();
+        switch (request.getType()) {
+            case ADD_NEW_REQUEST -> {
+                System.out.println("Received new request from floor " + request.getFloorNumber());
+                DemandModel.getInstance().record(request.getElevatorRequest(), SimulationClock.getInstance().currentTimeMillis());
+                assignOrHoldRequest(request.getElevatorRequest());
+            }
+            case PROCESS_COMPLETED_REQUESTS -> {
+                LogPrinter.print(request.getId(), "Received new PROCESS_COMPLETED_REQUESTS request from Elevator " + request.getId());
+                senderReceiver2.sendSystemRequest(request, elevatorPorts.get(id));
+            }
+            case PROCESSES_REQUESTS_AT_CURRENT_FLOOR -> {
+                LogPrinter.print(request.getId(), "Received new PROCESSES_REQUESTS_AT_CURRENT_FLOOR request from Elevator " + request.getId());
+                senderReceiver2.sendSystemRequest(request, elevatorPorts.get(id));
+            }
+            case NEW_PRIMARY_REQUEST -> {
+                LogPrinter.print(request.getId(), "Elevator " + request.getId() + " is asking for a new primary request");
+                relayToController(request, senderPort);
+                LogPrinter.print(request.getId(), "Sending Elevator " + request.getId() + " its new primary request");
+            }
+            case IS_STOP_REQUIRED -> {
+                LogPrinter.print(request.getId(), "Elevator " + request.getId() + " asking if a stop is required at floor " + request.getFloorNumber());
+                relayToController(request, senderPort);
+                LogPrinter.print(request.getId(), "Replying to Elevator " + request.getId() + "'s IS_STOP_REQUIRED request");
+            }
+            case REGISTER_ELEVATOR_CONTROLLER -> {
+                this.addElevator(request.getId(), senderPort);
+                LogPrinter.print(request.getId(), "Registering Elevator " + request.getId() + " at port " + senderPort);
+                assignHeldRequests();
+            }
+            case STATUS_UPDATE -> {
+                // Ignore statuses of elevators that have been removed from the system
+                if (elevatorPorts.get(id) != 0) {
+                    statusTable.update(request.getElevatorStatus());
+                    assignHeldRequests();
+                }
+            }
+            case SET_FLOOR_LAMPS -> {
+                LogPrinter.print(request.getId(), "Received SET_FLOOR_LAMPS request. Forwarding it to Floor Controller");
+                senderReceiver2.sendSystemRequest(request, Constants.FLOOR_CONTROLLER_PORT);
+            }
+            case SET_FLOOR_DIRECTION_LAMPS -> {
+                LogPrinter.print(request.getId(), "Received SET_FLOOR_DIRECTION_LAMPS request. Forwarding it to Floor Controller");
+                senderReceiver2.sendSystemRequest(request, Constants.FLOOR_CONTROLLER_PORT);
+            }
+            case ELEVATOR_SHUTDOWN_REQUEST -> {
+                LogPrinter.print(request.getId(), "Received ELEVATOR_SHUTDOWN_REQUEST. Removing the elevator from the system");
+                elevatorPorts.set(request.getId(), 0);
+                statusTable.remove(request.getId());
 
-        // Get a list of all idle elevators
-        ArrayList<ElevatorStatus> idleElevators = new ArrayList<>();
-        for (int i = 0; i < elevatorStatuses.size(); i++) {
-            if (elevatorStatuses.get(i).getDirection() == Direction.STOPPED) {
-                idleElevators.add(elevatorStatuses.get(i));
+                System.out.println("Reassigning waiting floor request to other elevators.");
+                for (ElevatorRequest r : request.getElevatorRequests()) {
+                    assignOrHoldRequest(r);
+                }
             }
+            // TODO: Add new case for time check requests from the elevator
         }
+    }
 
-        // Get the list of candidate elevators for the request
-        List<ElevatorStatus> candidateElevators = new ArrayList<>();
-        if (!idleElevators.isEmpty()) {
-            candidateElevators = idleElevators;
-        } else {
-            candidateElevators = elevatorStatuses;
+    /**
+     * Assigns a request to the elevator the dispatcher chooses and sends it to that elevator's controller.
+     *
+     * @param elevatorRequest The elevator request to be assigned
+     * @return True if the request was assigned, false if no elevator is available to serve it
+     */
+    private boolean assignRequest(ElevatorRequest elevatorRequest) {
+        int bestElevatorId = selectBestElevatorNumber(elevatorRequest);
+        int elevatorPort = bestElevatorId < 0 ? 0 : elevatorPorts.get(bestElevatorId);
+        if (elevatorPort == 0) {
+            return false;
         }
+        elevatorRequest.setAssignTime(SimulationClock.getInstance().currentTimeMillis());
+        senderReceiver2.sendSystemRequest(new SystemRequest(ADD_NEW_REQUEST, elevatorRequest, 0), elevatorPort);
+        dispatcher.recordAssignment(elevatorRequest, bestElevatorId);
+        LogPrinter.print(bestElevatorId, "Assigning the request to Elevator " + bestElevatorId);
 
-        // Find the closest elevator
-        int bestElevatorId = -1;
-        int minDistance = Integer.MAX_VALUE;
-        for (ElevatorStatus elevator : candidateElevators) {
-            int distance = Math.abs(elevator.getFloorNumber() - elevatorRequest.getFloor());
+        // With destination dispatch the floor shows the passenger which elevator to take
+        if (dispatcher.assignsHallCalls()) {
+            senderReceiver2.sendSystemRequest(new SystemRequest(HALL_CALL_ASSIGNMENT, elevatorRequest, bestElevatorId), Constants.FLOOR_CONTROLLER_PORT);
+        }
+        return true;
+    }
 
-            if (distance < minDistance) {
-                minDistance = distance;
-                bestElevatorId = elevator.getElevatorId();
+    /**
+     * Assigns a request once the requests held before it are assigned, or holds it until the next status update of
+     * an elevator if no elevator is available. The held requests are only changed by one lane at a time, so a status
+     * update handled by another lane never misses a request that is being held.
+     *
+     * @param elevatorRequest The elevator request to be assigned
+     */
+    private void assignOrHoldRequest(ElevatorRequest elevatorRequest) {
+        synchronized (heldRequests) {
+            assignHeldRequests();
+            if (heldRequests.isEmpty() && assignRequest(elevatorRequest)) {
+                return;
             }
+            heldRequests.add(elevatorRequest);
         }
+        LogPrinter.printWarning("No elevator is available. Holding the request from floor " + elevatorRequest.getFloor() + " until an elevator reports its status");
+    }
+
+    /**
+     * Assigns the held requests now that an elevator has reported its status, oldest first. Requests that still
+     * cannot be assigned stay held in their order. The lanes take turns, so a request is never assigned twice.
+     */
+    private void assignHeldRequests() {
+        synchronized (heldRequests) {
+            while (!heldRequests.isEmpty() && assignRequest(heldRequests.peek())) {
+                heldRequests.poll();
+            }
+        }
+    }
 
+    /**
+     * Forwards a query of an elevator to its controller and gets the reply back to the elevator.
+     * The elevator port is recorded under the correlation id of the query before it is sent. In the
+     * sequential mode this then waits for the matching reply; in the concurrent mode the reply is relayed
+     * by the selector loop when it arrives, so several queries can be in flight at once.
+     *
+     * @param request    The query of the elevator
+     * @param senderPort The port of the elevator waiting for the reply
+     */
+    private void relayToController(SystemRequest request, int senderPort) {
+        int controllerPort = elevatorPorts.get(request.getId());
+        if (!pendingReplies[request.getId()].put(request.getCorrelationId(), senderPort, System.nanoTime())) {
+            LogPrinter.printWarning("Elevator " + request.getId() + " has too many queries waiting for a reply");
+        }
+        senderReceiver2.sendSystemRequest(request, controllerPort);
+        if (mode == SchedulerMode.SEQUENTIAL) {
+            relayResponse(request.getId(), request.getCorrelationId());
+        }
+    }
+
+    /**
+     * Receives controller replies and forwards them to the elevators waiting for them until the reply
+     * of the given elevator with the given correlation id has been relayed.
+     *
+     * @param elevatorId    The id of the elevator waiting for a reply
+     * @param correlationId The correlation id of the query waiting for a reply
+     */
+    private void relayResponse(int elevatorId, int correlationId) {
+        boolean relayed;
+        do {
+            ByteBuffer response = senderReceiver2.receiveBuffer();
+            relayed = MessageCodec.peekId(response) == elevatorId && MessageCodec.peekCorrelationId(response) == correlationId;
+            forwardReply(response);
+            senderReceiver2.releaseBuffer(response);
+        } while (!relayed);
+    }
+
+    /**
+     * Gets the id of the elevator the dispatcher chooses to serve a given request, based on the
+     * statuses the elevators last published to the scheduler.
+     *
+     * @param elevatorRequest The elevator request to be assigned
+     * @return The id of the best elevator to serve the request, or -1 if no elevator is available
+     */
+    private int selectBestElevatorNumber(ElevatorRequest elevatorRequest) {
+        long startNanos = System.nanoTime();
+        int bestElevatorId = dispatcher.selectElevator(elevatorRequest, statusTable.snapshot());
+        dispatchTimes.record(System.nanoTime() - startNanos);
         return bestElevatorId;
     }
+
+    /**
+     * Gets the id of the elevator that is better suited to serve a given request, with the rule of the
+     * {@link NearestCarDispatcher}
+     *
+     * @param elevatorRequest  The elevator request to be assigned
+     * @param elevatorStatuses The statuses of the available elevators
+     * @return The id of the best elevator to serve the request, or -1 if no elevator is available
+     */
+    public static int selectBestElevatorNumber(ElevatorRequest elevatorRequest, List<ElevatorStatus> elevatorStatuses) {
+        return nearestCarDispatcher.selectElevator(elevatorRequest, elevatorStatuses);
+    }
 }
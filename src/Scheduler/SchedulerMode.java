@@ -0,0 +1,17 @@
+package Scheduler;
+
+/**
+ * SchedulerMode.java
+ * <p>
+ * The event loop used by the scheduler.
+ * <p>
+ * - {@link SchedulerMode#SEQUENTIAL}: Handles one message at a time and blocks while a query is relayed
+ * to an elevator controller. <p>
+ * - {@link SchedulerMode#CONCURRENT}: Waits on a selector, handles the messages of different elevators in
+ * parallel worker lanes and relays controller replies as they arrive.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public enum SchedulerMode {
+    SEQUENTIAL, CONCURRENT
+}
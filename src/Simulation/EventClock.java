@@ -0,0 +1,277 @@
+package Simulation;
+
+import Common.SimulationClock;
+import Common.WakeupSignal;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * EventClock.java
+ * <p>
+ * The clock of the discrete event simulation. Events are kept in a priority queue ordered by time and run one
+ * after the other, with the clock jumping straight to the time of each event.
+ * <p>
+ * Code written as a sequence of blocking steps, like the elevator states, runs as a process. A process runs on
+ * its own thread, but only while the simulation hands it the turn: sleeping on the clock schedules an event to
+ * resume the process and hands the turn back to the event loop, and waiting on a
+ * signal hands the turn back until the signal is fired. Only one thread runs at any time, so runs are
+ * repeatable and no locking between the elevators is needed.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class EventClock extends SimulationClock {
+
+    // Stack size of the process threads, kept small so thousands of processes can exist at once
+    private static final long PROCESS_STACK_SIZE = 256 * 1024;
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final ArrayList<Process> processes = new ArrayList<>();
+    private final ThreadLocal<Process> currentProcess = new ThreadLocal<>();
+    private final Semaphore loopTurn = new Semaphore(0);
+    private volatile long currentTime;
+    private volatile boolean stopped;
+    private long sequence;
+    private long processedEvents;
+
+    /**
+     * Creates an event clock starting at the current wall clock time.
+     */
+    public EventClock() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates an event clock.
+     *
+     * @param startTimeMillis The start time in milliseconds since the epoch.
+     */
+    public EventClock(long startTimeMillis) {
+        this.currentTime = startTimeMillis;
+    }
+
+    /**
+     * Gets the time of the event being run.
+     *
+     * @return The current time in milliseconds since the epoch.
+     */
+    @Override
+    public long currentTimeMillis() {
+        return currentTime;
+    }
+
+    /**
+     * Suspends the calling process until the given amount of simulated time has passed.
+     *
+     * @param millis The time to wait in milliseconds.
+     */
+    @Override
+    public void sleep(long millis) {
+        Process process = currentProcess.get();
+        if (process == null) {
+            throw new IllegalStateException("Only simulation processes can sleep on the event clock");
+        }
+        schedule(currentTime + Math.max(0, millis), () -> resume(process));
+        yieldTurn(process);
+    }
+
+    /**
+     * Suspends the calling process until the given signal is fired or the given amount of simulated time has
+     * passed. Firing the signal schedules an event that resumes the process at the time it was fired.
+     *
+     * @param signal        The signal to wait on.
+     * @param timeoutMillis The longest time to wait in milliseconds, or 0 to wait without a time limit.
+     * @return True if the signal was fired, false if the time ran out.
+     */
+    @Override
+    public boolean awaitSignal(WakeupSignal signal, long timeoutMillis) {
+        Process process = currentProcess.get();
+        if (process == null) {
+            throw new IllegalStateException("Only simulation processes can wait on the event clock");
+        }
+        if (signal.consume()) {
+            return true;
+        }
+        Waiter waiter = new Waiter(process);
+        signal.setWaiter(waiter);
+        if (timeoutMillis > 0) {
+            schedule(currentTime + timeoutMillis, () -> {
+                if (signal.getWaiter() == waiter) {
+                    signal.setWaiter(null);
+                    resume(process);
+                }
+            });
+        }
+        yieldTurn(process);
+        return signal.consume();
+    }
+
+    /**
+     * Fires the given signal and schedules the process waiting on it to resume at the current time.
+     *
+     * @param signal The signal to fire.
+     */
+    @Override
+    public void fireSignal(WakeupSignal signal) {
+        signal.set();
+        if (signal.getWaiter() instanceof Waiter waiter) {
+            signal.setWaiter(null);
+            schedule(currentTime, () -> resume(waiter.process));
+        }
+    }
+
+    /**
+     * Schedules an action to run at the given time. Actions scheduled for the same time run in the order they
+     * were scheduled.
+     *
+     * @param timeMillis The time of the event in milliseconds since the epoch.
+     * @param action     The action to run.
+     */
+    public void schedule(long timeMillis, Runnable action) {
+        events.add(new Event(Math.max(timeMillis, currentTime), sequence++, action));
+    }
+
+    /**
+     * Starts a new process at the current time.
+     *
+     * @param name The name of the process thread.
+     * @param body The code of the process.
+     */
+    public void startProcess(String name, Runnable body) {
+        Process process = new Process();
+        Thread thread = new Thread(null, () -> {
+            currentProcess.set(process);
+            process.turn.acquireUninterruptibly();
+            try {
+                if (!stopped) {
+                    body.run();
+                }
+            } catch (ProcessStopped e) {
+                // The simulation ended while the process was suspended
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                if (!stopped) {
+                    loopTurn.release();
+                }
+            }
+        }, name, PROCESS_STACK_SIZE);
+        thread.setDaemon(true);
+        processes.add(process);
+        thread.start();
+        schedule(currentTime, () -> resume(process));
+    }
+
+    /**
+     * Runs the events in time order until no event is left before the given time.
+     *
+     * @param endTimeMillis The time to stop at, in milliseconds since the epoch.
+     */
+    public void runUntil(long endTimeMillis) {
+        while (!events.isEmpty() && events.peek().time <= endTimeMillis) {
+            Event event = events.poll();
+            currentTime = event.time;
+            processedEvents++;
+            event.action.run();
+        }
+        currentTime = Math.max(currentTime, endTimeMillis);
+    }
+
+    /**
+     * Ends all processes. The clock can not be used after it has been shut down.
+     */
+    public void shutdown() {
+        stopped = true;
+        for (Process process : processes) {
+            process.turn.release();
+        }
+        processes.clear();
+        events.clear();
+    }
+
+    /**
+     * Gets the number of events run so far.
+     *
+     * @return The number of events.
+     */
+    public long getProcessedEvents() {
+        return processedEvents;
+    }
+
+    /**
+     * Hands the turn to a suspended process and waits until it sleeps again or ends.
+     *
+     * @param process The process to resume.
+     */
+    private void resume(Process process) {
+        process.turn.release();
+        loopTurn.acquireUninterruptibly();
+    }
+
+    /**
+     * Hands the turn back to the event loop and waits until the process is resumed.
+     *
+     * @param process The calling process.
+     */
+    private void yieldTurn(Process process) {
+        loopTurn.release();
+        process.turn.acquireUninterruptibly();
+        if (stopped) {
+            throw new ProcessStopped();
+        }
+    }
+
+    /**
+     * A thread that only runs while it holds the turn.
+     */
+    private static class Process {
+        private final Semaphore turn = new Semaphore(0);
+    }
+
+    /**
+     * A process waiting on a signal. A new waiter is made for every wait, so a timeout left over from an earlier
+     * wait can not resume the process.
+     */
+    private static class Waiter {
+        private final Process process;
+
+        Waiter(Process process) {
+            this.process = process;
+        }
+    }
+
+    /**
+     * Thrown in a suspended process to unwind it when the simulation is shut down.
+     */
+    private static class ProcessStopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ProcessStopped() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * An action scheduled at a point in time.
+     */
+    private static class Event implements Comparable<Event> {
+        private final long time;
+        private final long sequence;
+        private final Runnable action;
+
+        Event(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            if (time != other.time) {
+                return Long.compare(time, other.time);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package Simulation;
+
+import Common.MessageTransport;
+import Common.SystemRequest;
+
+import java.util.ArrayDeque;
+
+/**
+ * LocalTransport.java
+ * <p>
+ * A {@link MessageTransport} that hands messages to a {@link SimulatedNetwork} in the same process instead of
+ * sending them over a socket. Messages are passed as objects, so no raw bytes are exchanged.
+ * Replies to queries are delivered before the query returns, so receiving never waits.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class LocalTransport implements MessageTransport {
+
+    private final SimulatedNetwork network;
+    private final int elevatorId;
+    private final boolean controller;
+    private final int destinationPort;
+    private final ArrayDeque<SystemRequest> inbox = new ArrayDeque<>();
+
+    /**
+     * Creates a transport for an elevator or its controller.
+     *
+     * @param network         The network the messages are handed to.
+     * @param elevatorId      The id of the elevator.
+     * @param controller      True for the transport of the elevator controller, false for the elevator.
+     * @param destinationPort The default destination port.
+     */
+    LocalTransport(SimulatedNetwork network, int elevatorId, boolean controller, int destinationPort) {
+        this.network = network;
+        this.elevatorId = elevatorId;
+        this.controller = controller;
+        this.destinationPort = destinationPort;
+    }
+
+    /**
+     * Gets the id of the elevator the transport belongs to.
+     *
+     * @return The elevator id.
+     */
+    int getElevatorId() {
+        return elevatorId;
+    }
+
+    /**
+     * Checks if the transport belongs to an elevator controller.
+     *
+     * @return True for a controller transport, false for an elevator transport.
+     */
+    boolean isController() {
+        return controller;
+    }
+
+    /**
+     * Adds a message to the messages waiting to be received.
+     *
+     * @param request The delivered message.
+     */
+    void deliver(SystemRequest request) {
+        inbox.add(request);
+    }
+
+    /**
+     * Receives the next delivered SystemRequest.
+     *
+     * @return The received SystemRequest.
+     */
+    @Override
+    public SystemRequest receiveSystemRequest() {
+        SystemRequest request = inbox.poll();
+        if (request == null) {
+            throw new IllegalStateException("No message was delivered to elevator " + elevatorId);
+        }
+        return request;
+    }
+
+    /**
+     * Receives the next delivered SystemRequest. Replies are delivered before the query returns, so this
+     * never waits.
+     *
+     * @param timeoutMillis The longest time to wait in milliseconds.
+     * @return The received SystemRequest, or null if no message was delivered.
+     */
+    @Override
+    public SystemRequest receiveSystemRequest(int timeoutMillis) {
+        return inbox.poll();
+    }
+
+    /**
+     * Sends a SystemRequest to the default destination port.
+     *
+     * @param systemRequest The SystemRequest to be sent.
+     */
+    @Override
+    public void sendSystemRequest(SystemRequest systemRequest) {
+        sendSystemRequest(systemRequest, destinationPort);
+    }
+
+    /**
+     * Sends a SystemRequest to a specific destination port.
+     *
+     * @param systemRequest   The SystemRequest to be sent.
+     * @param destinationPort The destination port for sending the request.
+     */
+    @Override
+    public void sendSystemRequest(SystemRequest systemRequest, int destinationPort) {
+        network.route(this, systemRequest);
+    }
+
+    /**
+     * Gets the port of the sender of the last received message. The simulated network has no ports.
+     *
+     * @return Always 0.
+     */
+    @Override
+    public int getLastSenderPort() {
+        return 0;
+    }
+
+    /**
+     * Gets the local port of the transport. The simulated network has no ports.
+     *
+     * @return Always 0.
+     */
+    @Override
+    public int getLocalPort() {
+        return 0;
+    }
+}
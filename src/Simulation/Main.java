@@ -0,0 +1,217 @@
+package Simulation;
+
+import Common.Constants;
+import Common.DemandModel;
+import Common.LogPrinter;
+import Common.SimulationClock;
+import Common.TraceSource;
+import Common.TrafficGenerator;
+import Common.TrafficPattern;
+import Common.VirtualTimeClock;
+import Elevator.Elevator;
+import Elevator.ElevatorController;
+import Elevator.ElevatorSubsystem;
+import Elevator.ParkingSchedule;
+import Floor.FloorController;
+import Floor.FloorSubsystem;
+import Journal.Journal;
+import Journal.JournalReplay;
+import Metrics.MetricsRegistry;
+import Metrics.PassengerStatistics;
+import Scheduler.DispatchPolicy;
+import Scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Main class for running the scheduler, the elevators and the floors in a single process.
+ * <p>
+ * Usage: Simulation.Main [inputFile] [simulatedMinutes] [EVENT|UDP] [numberOfElevators] [journalDirectory]
+ * [NEAREST_CAR|ETA|DESTINATION] [parkingSchedule] [trainingInputs]
+ * <p>
+ * The EVENT mode runs the discrete event {@link SimulationEngine} without sockets and takes the number of
+ * elevators as the last argument. The UDP mode runs the usual threads and sockets on a virtual clock. The input
+ * file is either a text input file or a binary trace made with {@link Common.BinaryTraceWriter}. Instead of a
+ * file, PATTERN:requestsPerMinute[:seed] (for example UP_PEAK:30) generates synthetic traffic with the
+ * {@link TrafficGenerator}, and JOURNAL:directory[:prefix] replays the requests recorded in a journal.
+ * <p>
+ * If a journal directory is given, the events of the run are recorded there with the prefix "simulation", unless
+ * the directory already holds a journal with that prefix, which is never overwritten. A journal directory of -
+ * records no journal. Then come the {@link DispatchPolicy} (default ETA) and the
+ * {@link ParkingSchedule} of the idle elevators (default {@link Constants#PARKING_SCHEDULE}), for example
+ * "07:00=LOBBY,10:00=HISTORY".
+ * <p>
+ * The last argument is a comma separated list of inputs the {@link DemandModel} learns the days before the run
+ * from: the first input is the day before, the second the day before that, and so on. Their request times are
+ * offsets from the start of the run, the same as the input file. - trains nothing.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class Main {
+    public static void main(String[] args) throws InterruptedException {
+        String inputFile = args.length > 0 ? args[0] : "data.txt";
+        long simulatedMinutes = args.length > 1 ? Long.parseLong(args[1]) : 60;
+        boolean eventMode = args.length <= 2 || args[2].equalsIgnoreCase("EVENT");
+        String journalDirectory = args.length > 4 && !args[4].equals("-") ? args[4] : null;
+        DispatchPolicy policy = args.length > 5 ? DispatchPolicy.valueOf(args[5].toUpperCase()) : DispatchPolicy.ETA;
+        String parkingSchedule = args.length > 6 ? args[6] : Constants.PARKING_SCHEDULE;
+        String trainingInputs = args.length > 7 && !args[7].equals("-") ? args[7] : null;
+
+        if (eventMode) {
+            int numberOfElevators = args.length > 3 ? Integer.parseInt(args[3]) : Constants.NUMBER_OF_ELEVATORS;
+            runEventSimulation(inputFile, simulatedMinutes, numberOfElevators, journalDirectory, policy,
+                    ParkingSchedule.parse(parkingSchedule, numberOfElevators), trainingInputs);
+            return;
+        }
+
+        // Every component has to use the virtual clock, so it is set before anything is created
+        SimulationClock clock = new VirtualTimeClock();
+        SimulationClock.setInstance(clock);
+        MetricsRegistry.getInstance().start();
+        if (trainingInputs != null) {
+            trainDemandModel(trainingInputs, simulatedMinutes);
+        }
+
+        // The trace is opened first, so a journal being replayed is read before a new journal is started
+        TraceSource trace = openTrace(inputFile, simulatedMinutes);
+        if (journalDirectory != null) {
+            Journal.open(journalDirectory, "simulation");
+        }
+
+        Scheduler sch = new Scheduler();
+        sch.setDispatcher(policy.createDispatcher());
+        Thread scheduler = new Thread(sch, "Scheduler");
+        scheduler.setDaemon(true);
+        scheduler.start();
+
+        for (int elevatorId = 0; elevatorId < Constants.NUMBER_OF_ELEVATORS; elevatorId++) {
+            ElevatorSubsystem elevatorSubsystem = new ElevatorSubsystem(elevatorId);
+            Elevator elev = new Elevator(elevatorSubsystem, elevatorId, true);
+            elev.setParkingSchedule(ParkingSchedule.parse(parkingSchedule, Constants.NUMBER_OF_ELEVATORS));
+            ElevatorController elevatorCont = new ElevatorController(elev, elevatorSubsystem);
+
+            Thread elevator = new Thread(elev, "Elevator" + elevatorId);
+            Thread elevatorController = new Thread(elevatorCont, "ElevatorController" + elevatorId);
+            elevator.setDaemon(true);
+            elevatorController.setDaemon(true);
+            elevator.start();
+            elevatorController.start();
+        }
+
+        FloorSubsystem flo = new FloorSubsystem(trace, Constants.NUMBER_OF_FLOORS);
+        Thread floorSubsystem = new Thread(flo, "FloorSubsystem");
+        Thread floorController = new Thread(new FloorController(flo), "FloorController");
+        floorSubsystem.setDaemon(true);
+        floorController.setDaemon(true);
+        floorSubsystem.start();
+        floorController.start();
+
+        // Let the simulation run for the given amount of virtual time
+        long start = System.currentTimeMillis();
+        clock.sleep(simulatedMinutes * 60 * 1000);
+
+        for (Elevator e : Elevator.elevList) {
+            LogPrinter.print(e.getElevatorId(), "Elevator " + e.getElevatorId() + " moved " + e.getMovements() + " floors in " + e.getTotalTime() + " ms");
+        }
+        Journal.close();
+        LogPrinter.flush();
+        System.out.println("Simulated " + simulatedMinutes + " minutes in " + (System.currentTimeMillis() - start) + " ms");
+        System.out.printf("Requests released: %d, release jitter avg: %.2f ms, max: %d ms%n",
+                flo.getReleasedRequests(), flo.getAverageReleaseJitter(), flo.getMaxReleaseJitter());
+        System.out.print(MetricsRegistry.getInstance().getSnapshot());
+        System.out.print(PassengerStatistics.getInstance().getReport());
+        System.exit(0);
+    }
+
+    /**
+     * Runs the discrete event simulation and prints a summary of the run.
+     *
+     * @param inputFile         The input file with the elevator requests
+     * @param simulatedMinutes  The simulated time in minutes
+     * @param numberOfElevators The number of elevators
+     * @param journalDirectory  The directory to record the journal of the run in, or null
+     * @param policy            The rule used to assign requests to elevators
+     * @param parkingSchedule   The floors the idle elevators wait at
+     * @param trainingInputs    The inputs of the days before the run, or null
+     */
+    private static void runEventSimulation(String inputFile, long simulatedMinutes, int numberOfElevators, String journalDirectory, DispatchPolicy policy,
+                                           ParkingSchedule parkingSchedule, String trainingInputs) {
+        // The per-step log of thousands of elevators would take most of the run time
+        LogPrinter.setEnabled(numberOfElevators <= Constants.NUMBER_OF_ELEVATORS);
+
+        SimulationEngine engine = new SimulationEngine(numberOfElevators, new EventClock());
+        engine.getNetwork().setDispatcher(policy.createDispatcher());
+        engine.setParkingSchedule(parkingSchedule);
+        if (trainingInputs != null) {
+            trainDemandModel(trainingInputs, simulatedMinutes);
+        }
+        engine.addTrace(openTrace(inputFile, simulatedMinutes));
+        if (journalDirectory != null) {
+            Journal.open(journalDirectory, "simulation");
+        }
+
+        long start = System.currentTimeMillis();
+        engine.run(simulatedMinutes * 60 * 1000);
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        Journal.close();
+
+        LogPrinter.flush();
+        LogPrinter.setEnabled(true);
+        long movements = 0;
+        for (Elevator e : engine.getElevators()) {
+            movements += e.getMovements();
+        }
+        SimulatedNetwork network = engine.getNetwork();
+        System.out.println("Simulated " + simulatedMinutes + " minutes of " + numberOfElevators + " elevators in " + elapsed + " ms");
+        System.out.println("Requests assigned: " + network.getAssignedRequests() + ", held: " + network.getHeldRequests()
+                + ", still unassigned: " + network.getUnassignedRequests()
+                + ", reassigned: " + network.getReassignedRequests());
+        System.out.println("Floors travelled: " + movements);
+        System.out.println("Events: " + engine.getClock().getProcessedEvents() + " (" + engine.getClock().getProcessedEvents() * 1000 / elapsed + "/s)"
+                + ", messages: " + network.getRoutedMessages() + " (" + network.getRoutedMessages() * 1000 / elapsed + "/s)");
+        System.out.print(MetricsRegistry.getInstance().getSnapshot());
+        System.out.print(PassengerStatistics.getInstance().getReport());
+    }
+
+    /**
+     * Trains the time of day profile of the demand model with the requests of the days before the run.
+     *
+     * @param trainingInputs   The comma separated inputs, starting with the day before the run
+     * @param simulatedMinutes The simulated time in minutes, the length of generated traffic
+     */
+    private static void trainDemandModel(String trainingInputs, long simulatedMinutes) {
+        String[] inputs = trainingInputs.split(",");
+        for (int day = 0; day < inputs.length; day++) {
+            long trained = DemandModel.getInstance().train(openTrace(inputs[day].trim(), simulatedMinutes), day + 1);
+            System.out.println("Trained the demand model with " + trained + " requests from " + (day + 1) + " day(s) ago");
+        }
+    }
+
+    /**
+     * Opens the requests given on the command line, either a trace file or a traffic pattern.
+     *
+     * @param input            The trace file name, PATTERN:requestsPerMinute[:seed] or JOURNAL:directory[:prefix]
+     * @param simulatedMinutes The simulated time in minutes
+     * @return The elevator requests
+     */
+    private static TraceSource openTrace(String input, long simulatedMinutes) {
+        String[] spec = input.split(":");
+        if (spec.length >= 2 && spec[0].equalsIgnoreCase("JOURNAL")) {
+            try {
+                return new JournalReplay(Path.of(spec[1]), spec.length > 2 ? spec[2] : "simulation", SimulationClock.getInstance().now());
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            if (spec.length >= 2 && pattern.name().equalsIgnoreCase(spec[0])) {
+                long seed = spec.length > 2 ? Long.parseLong(spec[2]) : 1;
+                return new TrafficGenerator(pattern, Double.parseDouble(spec[1]), Constants.NUMBER_OF_FLOORS,
+                        simulatedMinutes * 60 * 1000, seed, SimulationClock.getInstance().now());
+            }
+        }
+        return TraceSource.open(input, SimulationClock.getInstance().now());
+    }
+}
@@ -0,0 +1,267 @@
+package Simulation;
+
+import Common.Constants;
+import Common.DemandModel;
+import Common.ElevatorRequest;
+import Common.ElevatorStatus;
+import Common.SimulationClock;
+import Common.SystemRequest;
+import Elevator.ElevatorController;
+import Journal.Journal;
+import Scheduler.AssignmentOptimizer;
+import Scheduler.DispatchPolicy;
+import Scheduler.Dispatcher;
+import Scheduler.ElevatorStatusTable;
+import Scheduler.Scheduler;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+
+import static Common.SystemRequestType.*;
+
+/**
+ * SimulatedNetwork.java
+ * <p>
+ * Takes the place of the scheduler and the sockets in the discrete event simulation. Messages sent by the
+ * elevators and their controllers through a {@link LocalTransport} are routed the same way the scheduler routes
+ * them, but by calling the receiver directly. Requests from the floors are assigned by a {@link Dispatcher}, the
+ * same way as in the {@link Scheduler}.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class SimulatedNetwork {
+
+    private final LocalTransport[] elevatorLinks;
+    private final ElevatorController[] controllers;
+    private final boolean[] removed;
+    private final ElevatorStatusTable statusTable;
+    private Dispatcher dispatcher = DispatchPolicy.ETA.createDispatcher();
+    private final AssignmentOptimizer optimizer = new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN);
+    private long routedMessages;
+    private long assignedRequests;
+    private long heldRequestCount;
+
+    // Requests that arrived while no elevator was available. They are assigned on the next status update.
+    private final ArrayDeque<ElevatorRequest> heldRequests = new ArrayDeque<>();
+    private long reassignedRequests;
+
+    /**
+     * Creates a network for the given number of elevators.
+     *
+     * @param numberOfElevators The number of elevators.
+     */
+    public SimulatedNetwork(int numberOfElevators) {
+        this.elevatorLinks = new LocalTransport[numberOfElevators];
+        this.controllers = new ElevatorController[numberOfElevators];
+        this.removed = new boolean[numberOfElevators];
+        this.statusTable = new ElevatorStatusTable(numberOfElevators);
+    }
+
+    /**
+     * Opens the transport an elevator uses to reach the scheduler.
+     *
+     * @param elevatorId The elevator id.
+     * @return The elevator transport.
+     */
+    public LocalTransport openElevatorTransport(int elevatorId) {
+        LocalTransport link = new LocalTransport(this, elevatorId, false, Constants.SCHEDULER_PORT);
+        elevatorLinks[elevatorId] = link;
+        return link;
+    }
+
+    /**
+     * Opens the transport an elevator controller uses to reach the scheduler.
+     *
+     * @param elevatorId The elevator id.
+     * @return The controller transport.
+     */
+    public LocalTransport openControllerTransport(int elevatorId) {
+        return new LocalTransport(this, elevatorId, true, Constants.SCHEDULER_PORT_2);
+    }
+
+    /**
+     * Connects the controller of an elevator to the network.
+     *
+     * @param elevatorId The elevator id.
+     * @param controller The elevator controller.
+     */
+    public void addController(int elevatorId, ElevatorController controller) {
+        controllers[elevatorId] = controller;
+    }
+
+    /**
+     * Sets the dispatcher that chooses the elevator for every request from a floor.
+     *
+     * @param dispatcher The dispatcher.
+     */
+    public void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Releases a request from a floor, records it in the journal and the demand model and assigns it to the best
+     * elevator.
+     *
+     * @param request The elevator request.
+     */
+    public void submit(ElevatorRequest request) {
+        long now = SimulationClock.getInstance().currentTimeMillis();
+        request.setReleaseTime(now);
+        Journal.recordRelease(request);
+        DemandModel.getInstance().record(request, now);
+        assignOrHold(request);
+    }
+
+    /**
+     * Assigns a request to the best elevator. A request handed on by an elevator that shut down keeps its release
+     * time, so the time it already waited still counts.
+     *
+     * @param request The elevator request.
+     * @return True if the request was assigned, false if no elevator is available to serve it.
+     */
+    private boolean assign(ElevatorRequest request) {
+        int bestElevatorId = dispatcher.selectElevator(request, statusTable.snapshot());
+        if (bestElevatorId < 0) {
+            return false;
+        }
+        assignedRequests++;
+        request.setAssignTime(SimulationClock.getInstance().currentTimeMillis());
+        controllers[bestElevatorId].handleRequest(new SystemRequest(ADD_NEW_REQUEST, request, 0));
+        dispatcher.recordAssignment(request, bestElevatorId);
+        return true;
+    }
+
+    /**
+     * Assigns a request once the requests held before it are assigned, or holds it until the next status update of
+     * an elevator if no elevator is available, the same way the scheduler does.
+     *
+     * @param request The elevator request.
+     */
+    private void assignOrHold(ElevatorRequest request) {
+        assignHeldRequests();
+        if (heldRequests.isEmpty() && assign(request)) {
+            return;
+        }
+        heldRequestCount++;
+        heldRequests.add(request);
+    }
+
+    /**
+     * Assigns the held requests now that an elevator has reported its status. Requests that still cannot be
+     * assigned stay held.
+     */
+    private void assignHeldRequests() {
+        while (!heldRequests.isEmpty() && assign(heldRequests.peek())) {
+            heldRequests.poll();
+        }
+    }
+
+    /**
+     * Re-solves the assignment of the requests waiting for pick up and moves the requests that another elevator
+     * serves sooner, the same way the scheduler does. Nothing is moved with destination dispatch.
+     */
+    public void reoptimize() {
+        if (dispatcher.assignsHallCalls()) {
+            return;
+        }
+        List<ElevatorStatus> statuses = statusTable.snapshot();
+        HashMap<Integer, List<ElevatorRequest>> waitingRequests = new HashMap<>();
+        for (ElevatorStatus status : statuses) {
+            waitingRequests.put(status.getElevatorId(), controllers[status.getElevatorId()].getWaitingRequests());
+        }
+        for (AssignmentOptimizer.Migration migration : optimizer.optimize(statuses, waitingRequests, dispatcher)) {
+            ElevatorRequest request = controllers[migration.getFromElevatorId()].revokeRequest(migration.getRequest().getRequestId());
+            if (request != null) {
+                reassignedRequests++;
+                controllers[migration.getToElevatorId()].handleRequest(new SystemRequest(ADD_NEW_REQUEST, request, 0));
+            }
+        }
+    }
+
+    /**
+     * Delivers a message sent through one of the transports of the network.
+     *
+     * @param from    The transport the message was sent from.
+     * @param request The message.
+     */
+    void route(LocalTransport from, SystemRequest request) {
+        routedMessages++;
+        int id = request.getId();
+        if (from.isController()) {
+            switch (request.getType()) {
+                case STATUS_UPDATE -> {
+                    // Ignore statuses of elevators that have been removed from the system
+                    if (!removed[id]) {
+                        statusTable.update(request.getElevatorStatus());
+                        assignHeldRequests();
+                    }
+                }
+                case NEW_PRIMARY_REQUEST, IS_STOP_REQUIRED, STATUS_REQUEST -> elevatorLinks[id].deliver(request);
+                default -> {
+                }
+            }
+            return;
+        }
+
+        switch (request.getType()) {
+            case NEW_PRIMARY_REQUEST, IS_STOP_REQUIRED, STATUS_REQUEST, PROCESS_COMPLETED_REQUESTS,
+                    PROCESSES_REQUESTS_AT_CURRENT_FLOOR -> controllers[id].handleRequest(request);
+            case ELEVATOR_SHUTDOWN_REQUEST -> {
+                removed[id] = true;
+                statusTable.remove(id);
+                for (ElevatorRequest r : request.getElevatorRequests()) {
+                    assignOrHold(r);
+                }
+            }
+            default -> {
+                // The floor lamps are not simulated
+            }
+        }
+    }
+
+    /**
+     * Gets the number of messages routed by the network.
+     *
+     * @return The number of messages.
+     */
+    public long getRoutedMessages() {
+        return routedMessages;
+    }
+
+    /**
+     * Gets the number of floor requests assigned to an elevator.
+     *
+     * @return The number of assigned requests.
+     */
+    public long getAssignedRequests() {
+        return assignedRequests;
+    }
+
+    /**
+     * Gets the number of waiting requests moved to another elevator by the re-optimization.
+     *
+     * @return The number of moved requests.
+     */
+    public long getReassignedRequests() {
+        return reassignedRequests;
+    }
+
+    /**
+     * Gets the number of floor requests that were held because no elevator was available.
+     *
+     * @return The number of held requests.
+     */
+    public long getHeldRequests() {
+        return heldRequestCount;
+    }
+
+    /**
+     * Gets the number of held requests that are still waiting for an elevator to become available.
+     *
+     * @return The number of requests waiting for an elevator.
+     */
+    public int getUnassignedRequests() {
+        return heldRequests.size();
+    }
+}
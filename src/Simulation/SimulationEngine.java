@@ -0,0 +1,185 @@
+package Simulation;
+
+import Common.Constants;
+import Common.DemandModel;
+import Common.ElevatorRequest;
+import Common.SimulationClock;
+import Common.TraceSource;
+import Elevator.Elevator;
+import Elevator.ElevatorController;
+import Elevator.ElevatorState;
+import Elevator.ElevatorSubsystem;
+import Elevator.ParkingSchedule;
+import Elevator.TrafficHistory;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SimulationEngine.java
+ * <p>
+ * Runs the elevator fleet as a discrete event simulation in a single process. The elevators run the usual
+ * elevator states as {@link EventClock} processes and talk to their controllers through a
+ * {@link SimulatedNetwork}, so no sockets are opened and no thread ever sleeps in real time.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class SimulationEngine {
+
+    private final EventClock clock;
+    private final SimulatedNetwork network;
+    private final ArrayList<Elevator> elevators = new ArrayList<>();
+
+    /**
+     * Creates the simulation of a fleet of elevators. The event clock becomes the clock of the simulation.
+     *
+     * @param numberOfElevators The number of elevators.
+     * @param clock             The event clock driving the simulation.
+     */
+    public SimulationEngine(int numberOfElevators, EventClock clock) {
+        this.clock = clock;
+        this.network = new SimulatedNetwork(numberOfElevators);
+        SimulationClock.setInstance(clock);
+        TrafficHistory.getInstance().clear();
+        DemandModel.getInstance().clear();
+
+        ParkingSchedule parkingSchedule = ParkingSchedule.parse(Constants.PARKING_SCHEDULE, numberOfElevators);
+        for (int elevatorId = 0; elevatorId < numberOfElevators; elevatorId++) {
+            ElevatorSubsystem elevatorSubsystem = new ElevatorSubsystem(elevatorId);
+            Elevator elevator = new Elevator(elevatorSubsystem, elevatorId, false, network.openElevatorTransport(elevatorId));
+            elevator.setParkingSchedule(parkingSchedule);
+            ElevatorController controller = new ElevatorController(elevator, elevatorSubsystem, network.openControllerTransport(elevatorId));
+            network.addController(elevatorId, controller);
+            elevators.add(elevator);
+        }
+    }
+
+    /**
+     * Schedules the given requests to arrive at their floors at the time of the request.
+     *
+     * @param requests The elevator requests.
+     */
+    public void addRequests(List<ElevatorRequest> requests) {
+        LocalTime start = clock.now();
+        long startMillis = clock.currentTimeMillis();
+        for (ElevatorRequest request : requests) {
+            long offset = Duration.between(start, request.getTime()).toMillis();
+            clock.schedule(startMillis + offset, () -> network.submit(request));
+        }
+    }
+
+    /**
+     * Schedules the requests of a trace to arrive at their floors at the time of the request. Only the next
+     * request of the trace is read ahead, so a trace of any length runs in constant memory. The trace has to be
+     * in time order; a request older than the one before it arrives right after it.
+     *
+     * @param trace The elevator requests.
+     */
+    public void addTrace(TraceSource trace) {
+        scheduleNext(trace, clock.now(), clock.currentTimeMillis());
+    }
+
+    /**
+     * Reads the next request of a trace and schedules its arrival, followed by the request after it.
+     *
+     * @param trace       The elevator requests.
+     * @param start       The time of day the trace started at.
+     * @param startMillis The clock time the trace started at.
+     */
+    private void scheduleNext(TraceSource trace, LocalTime start, long startMillis) {
+        ElevatorRequest request = trace.next();
+        if (request == null) {
+            trace.close();
+            return;
+        }
+        long offset = Duration.between(start, request.getTime()).toMillis();
+        clock.schedule(startMillis + offset, () -> {
+            network.submit(request);
+            scheduleNext(trace, start, startMillis);
+        });
+    }
+
+    /**
+     * Sets the schedule of the floors the idle elevators wait at.
+     *
+     * @param parkingSchedule The parking schedule.
+     */
+    public void setParkingSchedule(ParkingSchedule parkingSchedule) {
+        for (Elevator elevator : elevators) {
+            elevator.setParkingSchedule(parkingSchedule);
+        }
+    }
+
+    /**
+     * Runs the simulation for the given amount of simulated time.
+     *
+     * @param durationMillis The simulated time in milliseconds.
+     */
+    public void run(long durationMillis) {
+        for (Elevator elevator : elevators) {
+            clock.startProcess("Elevator" + elevator.getElevatorId(), () -> runStates(elevator));
+        }
+        if (Constants.REOPTIMIZATION_INTERVAL > 0) {
+            scheduleReoptimization(clock.currentTimeMillis() + Constants.REOPTIMIZATION_INTERVAL);
+        }
+        clock.runUntil(clock.currentTimeMillis() + durationMillis);
+        clock.shutdown();
+    }
+
+    /**
+     * Schedules the re-optimization of the waiting requests at the given time and every
+     * {@link Constants#REOPTIMIZATION_INTERVAL} after it.
+     *
+     * @param timeMillis The time of the first re-optimization.
+     */
+    private void scheduleReoptimization(long timeMillis) {
+        clock.schedule(timeMillis, () -> {
+            network.reoptimize();
+            scheduleReoptimization(timeMillis + Constants.REOPTIMIZATION_INTERVAL);
+        });
+    }
+
+    /**
+     * Runs the states of an elevator one after the other until the elevator shuts down. The elevator is created
+     * without running states automatically, so the states do not nest on the stack of the process.
+     *
+     * @param elevator The elevator.
+     */
+    private void runStates(Elevator elevator) {
+        elevator.journalState();
+        ElevatorState state;
+        do {
+            state = elevator.getCurrentState();
+            state.handleState();
+        } while (elevator.getCurrentState() != state);
+    }
+
+    /**
+     * Gets the simulated elevators.
+     *
+     * @return The list of elevators.
+     */
+    public ArrayList<Elevator> getElevators() {
+        return elevators;
+    }
+
+    /**
+     * Gets the network connecting the elevators.
+     *
+     * @return The simulated network.
+     */
+    public SimulatedNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Gets the clock driving the simulation.
+     *
+     * @return The event clock.
+     */
+    public EventClock getClock() {
+        return clock;
+    }
+}
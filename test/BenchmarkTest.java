@@ -0,0 +1,52 @@
+import Benchmark.BenchmarkHarness;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BenchmarkTest.java
+ * <p>
+ * JUnit tests for the classes in the Benchmark package.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class BenchmarkTest {
+
+    /**
+     * Tests that the harness measures the selected benchmarks and writes their results as JSON.
+     */
+    @Test
+    public void testBenchmarkHarness() throws IOException {
+        BenchmarkHarness harness = new BenchmarkHarness(1, 3, 10, "selected");
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("size", "10");
+
+        harness.run("selected.sum", params, () -> Integer.toString(12345).length());
+        harness.run("skipped.sum", Map.of(), () -> 0);
+
+        assertEquals(1, harness.getResults().size());
+        BenchmarkHarness.Result result = harness.getResults().get(0);
+        assertEquals("selected.sum", result.getName());
+        assertEquals(params, result.getParams());
+        assertTrue(result.getScore() > 0);
+        assertTrue(result.getError() >= 0);
+
+        Path file = Files.createTempFile("benchmark", ".json");
+        try {
+            harness.writeJson(file.toString());
+            String json = Files.readString(file);
+            assertTrue(json.contains("\"benchmark\" : \"selected.sum\""));
+            assertTrue(json.contains("\"size\" : \"10\""));
+            assertTrue(json.contains("\"scoreUnit\" : \"ns/op\""));
+            assertFalse(json.contains("skipped"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -2,8 +2,18 @@ import Common.*;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -82,6 +92,41 @@ public class CommonTest {
 
         // Test printWarning method
         LogPrinter.printWarning("This is a warning message.");
+        LogPrinter.flush();
+    }
+
+    /**
+     * Tests that the log levels filter messages and that the log ring buffer keeps the order of its messages
+     * across wrap-arounds and rejects messages when it is full.
+     */
+    @Test
+    public void testAsyncLog() {
+        LogPrinter.setLevel(LogLevel.WARNING);
+        assertFalse(LogPrinter.isEnabled(LogLevel.INFO));
+        assertTrue(LogPrinter.isEnabled(LogLevel.ERROR));
+        LogPrinter.setEnabled(false);
+        assertFalse(LogPrinter.isEnabled(LogLevel.ERROR));
+        assertFalse(LogPrinter.isEnabled(LogLevel.OFF));
+        LogPrinter.setEnabled(true);
+        assertTrue(LogPrinter.isEnabled(LogLevel.INFO));
+
+        LogRingBuffer buffer = new LogRingBuffer(5);
+        assertEquals(8, buffer.getCapacity());
+        assertTrue(buffer.isEmpty());
+
+        ArrayList<String> drained = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 8; i++) {
+                assertTrue(buffer.offer(i, "m" + i));
+            }
+            assertFalse(buffer.offer(0, "dropped"));
+            assertEquals(3, buffer.drain((text, style) -> drained.add(text + ":" + style), 3));
+            assertEquals(5, buffer.drain((text, style) -> drained.add(text + ":" + style), 100));
+            assertTrue(buffer.isEmpty());
+        }
+        assertEquals(24, drained.size());
+        assertEquals("m0:0", drained.get(16));
+        assertEquals("m7:7", drained.get(23));
     }
 
     /**
@@ -167,5 +212,313 @@ public class CommonTest {
 
         assertNotNull(receivedRequest);
         assertEquals(SystemRequestType.ADD_NEW_REQUEST, receivedRequest.getType());
+
+        // Test receiving with a timeout
+        assertNull(udpReceiver.receiveSystemRequest(50));
+        udpSender.sendSystemRequest(request);
+        assertEquals(SystemRequestType.ADD_NEW_REQUEST, udpReceiver.receiveSystemRequest(1000).getType());
+    }
+
+    /**
+     * Tests the UDPChannelTransport class for sending, receiving and relaying pooled buffers.
+     */
+    @Test
+    public void testUDPChannelTransport() {
+        BufferPool pool = new BufferPool(MessageCodec.MAX_MESSAGE_SIZE, 4);
+        UDPChannelTransport sender = new UDPChannelTransport(50007, 50008, pool);
+        UDPChannelTransport receiver = new UDPChannelTransport(50008, 50007, pool);
+
+        // Test sending and receiving a system request
+        sender.sendSystemRequest(new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, 5, Direction.UP, 2));
+        SystemRequest receivedRequest = receiver.receiveSystemRequest();
+        assertEquals(SystemRequestType.IS_STOP_REQUIRED, receivedRequest.getType());
+        assertEquals(5, receivedRequest.getFloorNumber());
+        assertEquals(50007, receiver.getLastSenderPort());
+
+        // Test relaying a received buffer back without copying it
+        sender.sendResponse(new byte[]{1});
+        ByteBuffer response = receiver.receiveBuffer();
+        receiver.sendBuffer(response, 50007);
+        assertEquals(1, response.remaining());
+        receiver.releaseBuffer(response);
+        assertArrayEquals(new byte[]{1}, sender.receiveResponse());
+
+        // Test receiving with a timeout, and that blocking receives still work afterwards
+        assertNull(receiver.receiveSystemRequest(50));
+        sender.sendSystemRequest(new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, 6, Direction.UP, 2));
+        assertEquals(6, receiver.receiveSystemRequest(1000).getFloorNumber());
+        assertEquals(50007, receiver.getLastSenderPort());
+        sender.sendSystemRequest(new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, 7, Direction.UP, 2));
+        assertEquals(7, receiver.receiveSystemRequest().getFloorNumber());
+
+        // Buffers are handed back to the pool after use
+        assertTrue(pool.size() > 0);
+    }
+
+    /**
+     * Tests that the virtual clock jumps ahead when every registered thread sleeps and wakes threads in order.
+     */
+    @Test
+    public void testVirtualTimeClock() throws InterruptedException {
+        VirtualTimeClock clock = new VirtualTimeClock(0, 1);
+        List<Long> wakeUps = Collections.synchronizedList(new ArrayList<>());
+
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            long delay = (threads.length - i) * 3_600_000L;
+            threads[i] = new Thread(() -> {
+                clock.register();
+                try {
+                    clock.sleep(delay);
+                    wakeUps.add(clock.currentTimeMillis());
+                } catch (InterruptedException e) {
+                } finally {
+                    clock.deregister();
+                }
+            });
+        }
+
+        // Hold the clock back until every thread has started and registered
+        long start = System.currentTimeMillis();
+        clock.register();
+        for (Thread t : threads) {
+            t.start();
+        }
+        Thread.sleep(100);
+        clock.deregister();
+        for (Thread t : threads) {
+            t.join(5000);
+        }
+
+        // Three hours of virtual time pass in well under the real time
+        assertEquals(List.of(3_600_000L, 7_200_000L, 10_800_000L), wakeUps);
+        assertEquals(10_800_000L, clock.currentTimeMillis());
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    /**
+     * Tests that a thread waiting on a signal counts as asleep on the virtual clock and wakes up when it is fired.
+     */
+    @Test
+    public void testWakeupSignal() throws InterruptedException {
+        VirtualTimeClock clock = new VirtualTimeClock(0, 1);
+        SimulationClock.setInstance(clock);
+        WakeupSignal signal = new WakeupSignal();
+        List<Long> wakeUps = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            Thread waiter = new Thread(() -> {
+                clock.register();
+                try {
+                    // The signal fired at the start is not lost even if it came before the wait
+                    signal.await();
+                    wakeUps.add(clock.currentTimeMillis());
+                    signal.await();
+                    wakeUps.add(clock.currentTimeMillis());
+                    assertFalse(signal.await(1000));
+                    wakeUps.add(clock.currentTimeMillis());
+                } catch (InterruptedException e) {
+                } finally {
+                    clock.deregister();
+                }
+            });
+            Thread firer = new Thread(() -> {
+                clock.register();
+                try {
+                    clock.sleep(60_000);
+                    signal.fire();
+                } catch (InterruptedException e) {
+                } finally {
+                    clock.deregister();
+                }
+            });
+
+            // Hold the clock back until both threads have started and registered
+            clock.register();
+            waiter.start();
+            firer.start();
+            signal.fire();
+            Thread.sleep(100);
+            clock.deregister();
+            waiter.join(5000);
+            firer.join(5000);
+        } finally {
+            SimulationClock.setInstance(new RealTimeClock());
+        }
+
+        assertEquals(List.of(0L, 60_000L, 61_000L), wakeUps);
+    }
+
+    /**
+     * Tests that the trace reader parses the request lines one at a time and skips blank lines.
+     */
+    @Test
+    public void testTraceReader() throws IOException {
+        Path file = Files.createTempFile("trace", ".txt");
+        Files.write(file, List.of("00:00:12.45 1 Up 19 0", "", "  00:01:05 7  Down 2 1", "01:30 3 Up 4 2"));
+        LocalTime start = LocalTime.of(8, 0);
+
+        try (TraceSource trace = new TraceReader(file.toString(), start)) {
+            ElevatorRequest first = trace.next();
+            assertEquals(start.plusNanos(12_450_000_000L), first.getTime());
+            assertEquals(1, first.getFloor());
+            assertEquals(Direction.UP, first.getDirection());
+            assertEquals(19, first.getCarButton());
+            assertEquals(FaultType.NO_FAULT, first.getFault());
+
+            ElevatorRequest second = trace.next();
+            assertEquals(start.plusSeconds(65), second.getTime());
+            assertEquals(7, second.getFloor());
+            assertEquals("Down", second.getFloorButton());
+            assertEquals(FaultType.DOOR_FAULT, second.getFault());
+
+            ElevatorRequest third = trace.next();
+            assertEquals(start.plusMinutes(90), third.getTime());
+            assertEquals(FaultType.FLOOR_TIMER_FAULT, third.getFault());
+
+            assertNull(trace.next());
+            assertNull(trace.next());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that a text trace converted to the binary format replays the same requests.
+     */
+    @Test
+    public void testBinaryTrace() throws IOException {
+        Path input = Files.createTempFile("trace", ".txt");
+        Path output = Files.createTempFile("trace", ".trace");
+        Files.write(input, List.of("00:00:00.15 2 Up 18 0", "00:01:05 7 Down 2 1", "02:00:00 3 Up 4 2"));
+        LocalTime start = LocalTime.of(8, 0);
+
+        try {
+            assertEquals(3, BinaryTraceWriter.convert(input.toString(), output.toString()));
+            assertEquals(BinaryTraceWriter.HEADER_SIZE + 3 * BinaryTraceWriter.RECORD_SIZE, Files.size(output));
+
+            try (TraceSource text = TraceSource.open(input.toString(), start);
+                 TraceSource binary = TraceSource.open(output.toString(), start)) {
+                assertInstanceOf(BinaryTraceReader.class, binary);
+                for (ElevatorRequest expected = text.next(); expected != null; expected = text.next()) {
+                    ElevatorRequest actual = binary.next();
+                    assertEquals(expected.getTime(), actual.getTime());
+                    assertEquals(expected.getFloor(), actual.getFloor());
+                    assertEquals(expected.getFloorButton(), actual.getFloorButton());
+                    assertEquals(expected.getCarButton(), actual.getCarButton());
+                    assertEquals(expected.getFault(), actual.getFault());
+                }
+                assertNull(binary.next());
+            }
+        } finally {
+            Files.delete(input);
+            Files.delete(output);
+        }
+    }
+
+    /**
+     * Tests that the traffic generator is repeatable and follows its pattern and fault rates.
+     */
+    @Test
+    public void testTrafficGenerator() {
+        LocalTime start = LocalTime.of(8, 0);
+        TrafficGenerator first = new TrafficGenerator(TrafficPattern.UP_PEAK, 60, 20, 3_600_000, 0.1, 0.05, 42, start);
+        TrafficGenerator second = new TrafficGenerator(TrafficPattern.UP_PEAK, 60, 20, 3_600_000, 0.1, 0.05, 42, start);
+
+        int count = 0;
+        int fromLobby = 0;
+        int doorFaults = 0;
+        int timerFaults = 0;
+        LocalTime previous = start;
+        for (ElevatorRequest request = first.next(); request != null; request = first.next()) {
+            ElevatorRequest same = second.next();
+            assertEquals(request.getTime(), same.getTime());
+            assertEquals(request.getFloor(), same.getFloor());
+            assertEquals(request.getCarButton(), same.getCarButton());
+
+            assertFalse(request.getTime().isBefore(previous));
+            assertTrue(request.getTime().isBefore(start.plusHours(1)));
+            assertNotEquals(request.getFloor(), request.getCarButton());
+            assertTrue(request.getFloor() >= 1 && request.getFloor() <= 20);
+            assertTrue(request.getCarButton() >= 1 && request.getCarButton() <= 20);
+            assertEquals(request.getCarButton() > request.getFloor() ? "Up" : "Down", request.getFloorButton());
+
+            previous = request.getTime();
+            count++;
+            fromLobby += request.getFloor() == 1 ? 1 : 0;
+            doorFaults += request.getFault() == FaultType.DOOR_FAULT ? 1 : 0;
+            timerFaults += request.getFault() == FaultType.FLOOR_TIMER_FAULT ? 1 : 0;
+        }
+        assertNull(second.next());
+
+        // About 3600 requests, most of them from the lobby, with about 10% and 5% faults
+        assertTrue(count > 3300 && count < 3900);
+        assertTrue(fromLobby > count * 0.8);
+        assertTrue(doorFaults > count * 0.07 && doorFaults < count * 0.13);
+        assertTrue(timerFaults > count * 0.03 && timerFaults < count * 0.07);
+    }
+
+    @Test
+    public void testDemandModel() {
+        DemandModel model = new DemandModel(22, 15, 300000, 0.5, 0.3);
+        long day = LocalDate.of(2024, 3, 17).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long eight = day + 8 * 3_600_000L;
+
+        // The recent rate is the decayed count of the arrivals, halved after every half life
+        for (int i = 0; i < 10; i++) {
+            model.record(1, Direction.UP, eight);
+        }
+        assertEquals(10 * Math.log(2) / 5, model.getRecentRate(1, Direction.UP, eight), 1e-9);
+        assertEquals(5 * Math.log(2) / 5, model.getRecentRate(1, Direction.UP, eight + 300000), 1e-9);
+        assertEquals(0, model.getRecentRate(1, Direction.DOWN, eight));
+        for (int i = 0; i < 20; i++) {
+            model.record(1, Direction.UP, eight + 60000);
+        }
+
+        // The bucket is added to the profile once it ends, so the next day the rush is expected before it starts
+        model.record(5, Direction.DOWN, eight + 20 * 60000);
+        long nextDay = eight + 24 * 3_600_000L;
+        assertEquals(0, model.getPredictedArrivals(1, Direction.UP, nextDay - 10 * 60000, nextDay - 5 * 60000), 1e-6);
+        assertEquals(0.7 * 30, model.getPredictedArrivals(1, Direction.UP, nextDay - 10 * 60000, nextDay + 15 * 60000), 1e-6);
+        assertEquals(0.7 * 30 / 3, model.getPredictedArrivals(1, nextDay + 10 * 60000, nextDay + 15 * 60000), 1e-6);
+        assertEquals(0.7 * 30, model.getPredictedArrivals(nextDay, nextDay + 15 * 60000)[1], 1e-6);
+
+        // A quiet day halves the weight of the day before
+        model.record(5, Direction.DOWN, nextDay + 60000);
+        model.record(5, Direction.DOWN, nextDay + 20 * 60000);
+        long thirdDay = nextDay + 24 * 3_600_000L;
+        assertEquals(0.7 * 30 * 0.5 / 1.5, model.getPredictedArrivals(1, Direction.UP, thirdDay, thirdDay + 15 * 60000), 1e-6);
+
+        // A trace of the day before trains the profile
+        DemandModel trained = new DemandModel(22, 15, 300000, 0.5, 0.3);
+        ArrayList<ElevatorRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            requests.add(new ElevatorRequest(LocalTime.of(8, 5), 1, "Up", 10, FaultType.NO_FAULT));
+        }
+        assertEquals(12, trained.train(new ListTrace(requests), 1));
+        long today = LocalDate.now().atTime(8, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals(0.7 * 12, trained.getPredictedArrivals(1, Direction.UP, today, today + 15 * 60000), 1e-6);
+        trained.clear();
+        assertEquals(0, trained.getPredictedArrivals(1, Direction.UP, today, today + 15 * 60000));
+    }
+
+    /**
+     * A trace of the requests in a list.
+     */
+    private static class ListTrace implements TraceSource {
+        private final Iterator<ElevatorRequest> requests;
+
+        ListTrace(List<ElevatorRequest> requests) {
+            this.requests = requests.iterator();
+        }
+
+        @Override
+        public ElevatorRequest next() {
+            return requests.hasNext() ? requests.next() : null;
+        }
+
+        @Override
+        public void close() {
+        }
     }
 }
@@ -1,8 +1,11 @@
 import Common.*;
 import Elevator.*;
+import Metrics.Counter;
+import Metrics.MetricsRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,5 +89,118 @@ public class ElevatorTest {
         // Testing if a stop is required
         boolean stopRequired = subsystem.isStopRequiredForFloor(3, Direction.UP);
         assertFalse(stopRequired);
+
+        // Testing the load, with a destination listed for every passenger on board
+        subsystem.addNewRequest(new ElevatorRequest(LocalTime.now(), 3, "up", 5, FaultType.NO_FAULT));
+        subsystem.addNewRequest(new ElevatorRequest(LocalTime.now(), 3, "up", 5, FaultType.NO_FAULT));
+        subsystem.processRequestsAtCurrentFloor(3, Direction.UP);
+        assertEquals(List.of(5, 5), subsystem.getDestinationFloors());
+        assertEquals(2, subsystem.getPassengerCount());
+
+        // Testing revoking a request, which only works while its passenger is waiting
+        ElevatorRequest request3 = new ElevatorRequest(LocalTime.now(), 6, "down", 1, FaultType.NO_FAULT);
+        subsystem.addNewRequest(request3);
+        assertNotEquals(request2.getRequestId(), request3.getRequestId());
+        assertSame(request3, subsystem.revokeRequest(request3.getRequestId()));
+        assertNull(subsystem.revokeRequest(request3.getRequestId()));
+        subsystem.processRequestsAtCurrentFloor(2, Direction.UP);
+        assertNull(subsystem.revokeRequest(request2.getRequestId()));
+    }
+
+    /**
+     * Tests that a passenger left behind by a full elevator is counted once, however many times it is passed over.
+     */
+    @Test
+    public void testLeftBehindPassengers() {
+        ElevatorSubsystem subsystem = new ElevatorSubsystem(1);
+        for (int i = 0; i < Constants.MAX_PASSENGER_COUNT; i++) {
+            subsystem.updateCountersForBoardingPassengers();
+        }
+        Counter leftBehind = MetricsRegistry.getInstance().counter("elevator.passengers.leftBehind");
+        long before = leftBehind.get();
+
+        subsystem.addNewRequest(new ElevatorRequest(LocalTime.now(), 4, "up", 9, FaultType.NO_FAULT));
+        subsystem.processRequestsAtCurrentFloor(4, Direction.UP);
+        subsystem.processRequestsAtCurrentFloor(4, Direction.UP);
+        assertEquals(before + 1, leftBehind.get());
+        assertTrue(subsystem.hasWaitingRequests());
+    }
+
+    /**
+     * Tests the per-floor index of the RequestQueue class.
+     */
+    @Test
+    public void testRequestQueue() {
+        RequestQueue queue = new RequestQueue();
+        ElevatorRequest first = new ElevatorRequest(LocalTime.now(), 3, "Up", 8, FaultType.NO_FAULT);
+        ElevatorRequest second = new ElevatorRequest(LocalTime.now(), 5, "Up", 8, FaultType.DOOR_FAULT);
+        queue.add(first);
+        queue.add(second);
+
+        // Pending requests are indexed by their pick up floor
+        assertTrue(queue.isStopRequired(3));
+        assertTrue(queue.isStopRequired(5));
+        assertFalse(queue.isStopRequired(8));
+        assertEquals(List.of(3, 5), queue.getPendingFloors());
+        assertSame(first, queue.first());
+        assertNull(queue.firstPickedUp());
+
+        // Picked up requests move to their destination floor
+        queue.markPickedUp(second);
+        assertFalse(queue.isStopRequired(5));
+        assertTrue(queue.isStopRequired(8));
+        assertEquals(List.of(3), queue.getPendingFloors());
+        assertSame(second, queue.firstPickedUp());
+        assertTrue(queue.hasFault(FaultType.DOOR_FAULT, 8));
+
+        // Only picked up requests are completed at their destination
+        queue.markPickedUp(first);
+        assertEquals(List.of(second, first), queue.removeCompletedAt(8));
+        assertFalse(queue.isStopRequired(8));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testParkingSchedule() {
+        // Zoning parks each elevator in the middle of its own share of the floors
+        assertEquals(1, ParkingPolicy.LOBBY.selectParkingFloor(2, 4, 12));
+        assertEquals(12, ParkingPolicy.NONE.selectParkingFloor(2, 4, 12));
+        int previous = 0;
+        for (int elevatorId = 0; elevatorId < 4; elevatorId++) {
+            int floor = ParkingPolicy.ZONING.selectParkingFloor(elevatorId, 4, 12);
+            assertTrue(floor > previous && floor <= Constants.NUMBER_OF_FLOORS);
+            previous = floor;
+        }
+
+        // The history gathers the elevators where the passengers were picked up
+        TrafficHistory history = TrafficHistory.getInstance();
+        history.clear();
+        assertEquals(12, ParkingPolicy.HISTORY.selectParkingFloor(3, 4, 12));
+        for (int i = 0; i < Constants.PARKING_HISTORY_SIZE; i++) {
+            history.record(1);
+        }
+        assertEquals(1, ParkingPolicy.HISTORY.selectParkingFloor(3, 4, 12));
+
+        // Without a time of day profile the demand policy parks the same as the history
+        assertEquals(1, ParkingPolicy.DEMAND.selectParkingFloor(3, 4, 12));
+
+        // Only the most recent pick ups are remembered
+        for (int i = 0; i < Constants.PARKING_HISTORY_SIZE; i++) {
+            history.record(7);
+        }
+        assertEquals(Constants.PARKING_HISTORY_SIZE, history.size());
+        assertEquals(0, history.getFloorCounts()[1]);
+        assertEquals(7, ParkingPolicy.HISTORY.selectParkingFloor(0, 4, 12));
+        history.clear();
+
+        // Each policy applies until the next one, and the last one carries on past midnight
+        ParkingSchedule schedule = ParkingSchedule.parse("07:00=LOBBY, 10:00=zoning", 4);
+        assertEquals(ParkingPolicy.LOBBY, schedule.getPolicy(LocalTime.of(8, 30)));
+        assertEquals(ParkingPolicy.ZONING, schedule.getPolicy(LocalTime.of(23, 0)));
+        assertEquals(ParkingPolicy.ZONING, schedule.getPolicy(LocalTime.of(3, 0)));
+        assertEquals(1, schedule.selectParkingFloor(2, 12, LocalTime.of(7, 0)));
+        assertEquals(ParkingPolicy.HISTORY, ParkingSchedule.parse("HISTORY", 4).getPolicy(LocalTime.NOON));
+        assertEquals(ParkingPolicy.NONE, new ParkingSchedule(4).getPolicy(LocalTime.NOON));
+        assertThrows(IllegalArgumentException.class, () -> ParkingSchedule.parse("07:00=SKY", 4));
     }
 }
@@ -45,5 +45,34 @@ public class FloorTest {
 
         floor.setFloorLamp(Direction.DOWN, true);
         assertFalse(floor.getFloorLampDown());
+
+        // Testing the elevator shown for a destination with destination dispatch
+        assertEquals(-1, floor.getAssignedElevator(3));
+        floor.setAssignedElevator(3, 2);
+        assertEquals(2, floor.getAssignedElevator(3));
+    }
+
+    /**
+     * Tests that the release queue hands out requests by due time, and in insertion order for equal times.
+     */
+    @Test
+    public void testRequestReleaseQueue() {
+        RequestReleaseQueue queue = new RequestReleaseQueue();
+        ElevatorRequest late = new ElevatorRequest(LocalTime.now(), 5, "down", 1, FaultType.NO_FAULT);
+        ElevatorRequest first = new ElevatorRequest(LocalTime.now(), 2, "up", 4, FaultType.NO_FAULT);
+        ElevatorRequest second = new ElevatorRequest(LocalTime.now(), 3, "up", 6, FaultType.NO_FAULT);
+
+        assertEquals(-1, queue.getNextDueTime());
+        assertTrue(queue.add(late, 3000));
+        assertTrue(queue.add(first, 1000));
+        assertFalse(queue.add(second, 1000));
+        assertEquals(1000, queue.getNextDueTime());
+
+        assertNull(queue.pollDue(999));
+        assertEquals(first, queue.pollDue(1000));
+        assertEquals(second, queue.pollDue(2000));
+        assertNull(queue.pollDue(2000));
+        assertEquals(late, queue.pollDue(5000));
+        assertEquals(0, queue.size());
     }
 }
@@ -0,0 +1,162 @@
+import Common.ElevatorRequest;
+import Common.FaultType;
+import Common.LogPrinter;
+import Common.RealTimeClock;
+import Common.SimulationClock;
+import Common.SystemRequestType;
+import Journal.Journal;
+import Journal.JournalEventType;
+import Journal.JournalReader;
+import Journal.JournalRecord;
+import Journal.JournalReplay;
+import Journal.JournalTimeline;
+import Journal.JournalWriter;
+import Simulation.EventClock;
+import Simulation.SimulationEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JournalTest.java
+ * <p>
+ * JUnit tests for the classes in the Journal package.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class JournalTest {
+
+    /**
+     * Tests that records come back in order across segment rotations, that a cut off record at the end is
+     * skipped, and that the timelines and the replay are rebuilt from the records.
+     */
+    @Test
+    public void testJournal() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            // Room for 10 records per segment
+            long segmentSize = JournalWriter.HEADER_SIZE + 10 * JournalWriter.RECORD_SIZE;
+            try (JournalWriter writer = new JournalWriter(directory, "test", segmentSize, 1000)) {
+                for (int i = 0; i < 25; i++) {
+                    writer.append(1000 + i * 100, JournalEventType.MESSAGE, SystemRequestType.IS_STOP_REQUIRED.ordinal(), i % 2, 3, i, 50000);
+                }
+                writer.append(1000, JournalEventType.STATE_CHANGE, 0, 0, 1, 0, 0);
+                writer.append(2000, JournalEventType.STATE_CHANGE, 3, 0, 1, 0, 0);
+                writer.append(5000, JournalEventType.STATE_CHANGE, 1, 0, 1, 0, 0);
+                writer.append(4000, JournalEventType.MESSAGE, SystemRequestType.ELEVATOR_SHUTDOWN_REQUEST.ordinal(), 1, 7, 0, 0);
+                writer.append(3000, JournalEventType.REQUEST_RELEASED, FaultType.DOOR_FAULT.ordinal(), -1, 4, 9, 0);
+                writer.append(6000, JournalEventType.COMPLETION, 0, 0, 4, 9, 3000);
+                assertEquals(31, writer.getRecordCount());
+                assertEquals(4, writer.getSegmentCount());
+            }
+
+            // A crash leaves half a record at the end of the last segment
+            Files.write(JournalWriter.segmentPath(directory, "test", 3), new byte[10], StandardOpenOption.APPEND);
+
+            ArrayList<JournalRecord> records = new ArrayList<>();
+            try (JournalReader reader = new JournalReader(directory, "test")) {
+                assertEquals(1000, reader.getStartTime());
+                for (JournalRecord record = reader.next(); record != null; record = reader.next()) {
+                    records.add(record);
+                }
+            }
+            assertEquals(31, records.size());
+            for (int i = 0; i < 25; i++) {
+                assertEquals(i, records.get(i).getArg1());
+                assertEquals(JournalEventType.MESSAGE, records.get(i).getType());
+            }
+            assertEquals(9, records.get(30).getArg1());
+            assertEquals(3000, records.get(30).getArg2());
+
+            try (JournalReader reader = new JournalReader(directory, "test")) {
+                JournalTimeline timeline = new JournalTimeline(reader);
+                assertEquals(3, timeline.getTimeline(0).size());
+                assertEquals("CloseDoorState", timeline.getTimeline(0).get(1).getState());
+                assertEquals(2000, timeline.getTimeline(0).get(1).getStart());
+                assertEquals(5000, timeline.getTimeline(0).get(1).getEnd());
+                assertEquals(JournalTimeline.STOPPED, timeline.getTimeline(1).get(0).getState());
+
+                int[][] diagram = timeline.toTimingDiagram(1000);
+                assertArrayEquals(new int[]{1, 2, 2, 2, 2, 2}, diagram[0]);
+                assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0}, diagram[1]);
+            }
+
+            try (JournalReplay replay = new JournalReplay(directory, "test", LocalTime.NOON)) {
+                ElevatorRequest request = replay.next();
+                assertEquals(LocalTime.NOON.plusSeconds(2), request.getTime());
+                assertEquals(4, request.getFloor());
+                assertEquals(9, request.getCarButton());
+                assertEquals("Up", request.getFloorButton());
+                assertEquals(FaultType.DOOR_FAULT, request.getFault());
+                assertNull(replay.next());
+            }
+
+            // An earlier journal is never overwritten, and the journal stays closed when it can not be opened
+            assertThrows(FileAlreadyExistsException.class, () -> new JournalWriter(directory, "test", segmentSize, 1000));
+            Journal.open(directory.toString(), "test");
+            assertFalse(Journal.isOpen());
+            assertTrue(Files.exists(JournalWriter.segmentPath(directory, "test", 3)));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Tests that the replay of an event simulation in which an elevator shuts down holds every passenger once,
+     * including the passengers that were handed to another elevator.
+     */
+    @Test
+    public void testReplayWithShutdown() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        LogPrinter.setEnabled(false);
+        try {
+            SimulationEngine engine = new SimulationEngine(2, new EventClock(0));
+            LocalTime start = SimulationClock.getInstance().now();
+            ArrayList<ElevatorRequest> requests = new ArrayList<>();
+            requests.add(new ElevatorRequest(start.plusSeconds(5), 1, "Up", 12, FaultType.FLOOR_TIMER_FAULT));
+            for (int i = 0; i < 12; i++) {
+                requests.add(new ElevatorRequest(start.plusSeconds(6 + 2 * i), 2 + i % 8, "Up", 14 + i % 4, FaultType.NO_FAULT));
+            }
+            engine.addRequests(requests);
+            Journal.open(directory.toString(), "test");
+            engine.run(20 * 60 * 1000);
+            Journal.close();
+
+            // Requests of the elevator that shut down were assigned a second time
+            assertTrue(engine.getNetwork().getAssignedRequests() > requests.size());
+
+            ArrayList<ElevatorRequest> replayed = new ArrayList<>();
+            try (JournalReplay replay = new JournalReplay(directory, "test", start)) {
+                for (ElevatorRequest request = replay.next(); request != null; request = replay.next()) {
+                    replayed.add(request);
+                }
+            }
+            assertEquals(requests.size(), replayed.size());
+            for (int i = 0; i < requests.size(); i++) {
+                assertEquals(requests.get(i).getTime(), replayed.get(i).getTime());
+                assertEquals(requests.get(i).getFloor(), replayed.get(i).getFloor());
+                assertEquals(requests.get(i).getCarButton(), replayed.get(i).getCarButton());
+                assertEquals(requests.get(i).getFault(), replayed.get(i).getFault());
+            }
+        } finally {
+            Journal.close();
+            SimulationClock.setInstance(new RealTimeClock());
+            LogPrinter.setEnabled(true);
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
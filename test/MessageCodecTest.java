@@ -0,0 +1,219 @@
+import Common.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MessageCodecTest.java
+ * <p>
+ * JUnit tests for the binary wire format implemented by MessageCodec.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class MessageCodecTest {
+
+    /**
+     * Tests that the correlation id, elevator id and type of a query can be read without decoding it.
+     */
+    @Test
+    public void testCorrelationId() {
+        SystemRequest query = new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, 7, Direction.UP, 3);
+        query.setCorrelationId(123456);
+
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MAX_MESSAGE_SIZE);
+        MessageCodec.encodeSystemRequest(query, buffer);
+        buffer.flip();
+        assertEquals(123456, MessageCodec.peekCorrelationId(buffer));
+        assertEquals(3, MessageCodec.peekId(buffer));
+        assertEquals(SystemRequestType.IS_STOP_REQUIRED, MessageCodec.peekType(buffer));
+        assertEquals(0, buffer.position());
+        assertEquals(123456, MessageCodec.decodeSystemRequest(buffer).getCorrelationId());
+
+        PendingResponseTable table = new PendingResponseTable(4);
+        assertTrue(table.put(1, 50010, 100));
+        assertTrue(table.put(2, 50011, 200));
+        assertEquals(50011, table.remove(2));
+        assertEquals(-1, table.remove(2));
+        assertEquals(100, table.getSentNanos(1));
+        assertFalse(table.put(5, 50012, 300));
+        assertEquals(-1, table.remove(1));
+        assertEquals(50012, table.remove(5));
+        assertEquals(0, table.size());
+    }
+
+    /**
+     * Tests that every request type survives an encode/decode round trip.
+     */
+    @Test
+    public void testSystemRequestRoundTrip() {
+        ElevatorRequest elevatorRequest = new ElevatorRequest(LocalTime.of(10, 15, 30), 3, "Up", 12, FaultType.DOOR_FAULT);
+        ArrayList<ElevatorRequest> waiting = new ArrayList<>();
+        waiting.add(elevatorRequest);
+        waiting.add(new ElevatorRequest(LocalTime.of(11, 0), 9, "Down", 1, FaultType.NO_FAULT));
+
+        List<SystemRequest> requests = List.of(
+                new SystemRequest(SystemRequestType.REGISTER_ELEVATOR_CONTROLLER, 2),
+                new SystemRequest(SystemRequestType.NEW_PRIMARY_REQUEST, 3),
+                new SystemRequest(SystemRequestType.ADD_NEW_REQUEST, elevatorRequest, 0),
+                new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, 7, Direction.UP, 1),
+                new SystemRequest(SystemRequestType.SET_FLOOR_LAMPS, 22, Direction.DOWN, true, 3),
+                new SystemRequest(SystemRequestType.STATUS_REQUEST),
+                new SystemRequest(SystemRequestType.ELEVATOR_SHUTDOWN_REQUEST, waiting, 1));
+
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MAX_MESSAGE_SIZE);
+        for (SystemRequest request : requests) {
+            buffer.clear();
+            MessageCodec.encodeSystemRequest(request, buffer);
+            buffer.flip();
+            SystemRequest decoded = MessageCodec.decodeSystemRequest(buffer);
+
+            assertEquals(request.toString(), decoded.toString());
+            assertEquals(request.getId(), decoded.getId());
+            assertEquals(request.getFloorNumber(), decoded.getFloorNumber());
+            assertEquals(request.getDirection(), decoded.getDirection());
+            assertEquals(request.getState(), decoded.getState());
+            assertFalse(buffer.hasRemaining());
+        }
+
+        SystemRequest shutdown = SystemRequest.deserializeRequest(SystemRequest.serializeRequest(requests.get(6)));
+        assertEquals(2, shutdown.getElevatorRequests().size());
+        assertElevatorRequestEquals(waiting.get(1), shutdown.getElevatorRequests().get(1));
+    }
+
+    /**
+     * Tests the elevator request round trip, including null requests and picked up passengers.
+     */
+    @Test
+    public void testElevatorRequestRoundTrip() {
+        ElevatorRequest request = new ElevatorRequest(LocalTime.of(23, 59, 59, 123456789), 21, "down", 2, FaultType.FLOOR_TIMER_FAULT);
+        request.setStatus(RequestStatus.PASSENGER_PICKED_UP);
+        request.setReleaseTime(1710700000000L);
+        request.setAssignTime(1710700000004L);
+        request.setPickUpTime(1710700031000L);
+
+        assertElevatorRequestEquals(request, ElevatorRequest.deserializeRequest(ElevatorRequest.serializeRequest(request)));
+        assertEquals(31000, ElevatorRequest.deserializeRequest(ElevatorRequest.serializeRequest(request)).getWaitTime());
+        assertNull(ElevatorRequest.deserializeRequest(ElevatorRequest.serializeRequest(null)));
+
+        ElevatorRequest noTime = new ElevatorRequest(null, 1, "up", 4, FaultType.NO_FAULT);
+        assertElevatorRequestEquals(noTime, ElevatorRequest.deserializeRequest(ElevatorRequest.serializeRequest(noTime)));
+    }
+
+    /**
+     * Tests the elevator status round trip.
+     */
+    @Test
+    public void testElevatorStatusRoundTrip() {
+        ArrayList<Integer> up = new ArrayList<>(List.of(3, 5, 18));
+        ArrayList<Integer> down = new ArrayList<>();
+        ArrayList<Integer> destinations = new ArrayList<>(List.of(9, 21));
+        ElevatorStatus status = new ElevatorStatus(2, Direction.UP, 4, up, down, destinations, 2, 7);
+
+        ElevatorStatus decoded = ElevatorStatus.deserializeStatus(ElevatorStatus.serializeStatus(status));
+        assertEquals(2, decoded.getElevatorId());
+        assertEquals(Direction.UP, decoded.getDirection());
+        assertEquals(4, decoded.getFloorNumber());
+        assertEquals(up, decoded.getStopRequestFloorsInDirection(Direction.UP));
+        assertEquals(down, decoded.getStopRequestFloorsInDirection(Direction.DOWN));
+        assertEquals(destinations, decoded.getDestinationFloors());
+        assertEquals(2, decoded.getPassengerCount());
+        assertEquals(7, decoded.getVersion());
+        assertTrue(decoded.hasSameStateAs(status));
+    }
+
+    /**
+     * Tests that a message with the most elevator requests fits in the largest message, and that a longer list is
+     * rejected instead of overflowing the buffer.
+     */
+    @Test
+    public void testRequestListLimit() {
+        ArrayList<ElevatorRequest> requests = new ArrayList<>();
+        for (int i = 0; i < MessageCodec.MAX_REQUESTS_PER_MESSAGE; i++) {
+            ElevatorRequest request = new ElevatorRequest(LocalTime.of(23, 59), 100 + i, "Down", 1, FaultType.FLOOR_TIMER_FAULT);
+            request.setReleaseTime(1000);
+            request.setAssignTime(2000);
+            request.setPickUpTime(3000);
+            request.setCompletionTime(4000);
+            requests.add(request);
+        }
+        SystemRequest shutdown = new SystemRequest(SystemRequestType.ELEVATOR_SHUTDOWN_REQUEST, requests, 3);
+        byte[] bytes = SystemRequest.serializeRequest(shutdown);
+        assertTrue(bytes.length <= MessageCodec.MAX_MESSAGE_SIZE);
+        SystemRequest decoded = SystemRequest.deserializeRequest(bytes);
+        assertEquals(MessageCodec.MAX_REQUESTS_PER_MESSAGE, decoded.getElevatorRequests().size());
+        assertElevatorRequestEquals(requests.get(requests.size() - 1), decoded.getElevatorRequests().get(requests.size() - 1));
+
+        requests.add(new ElevatorRequest(LocalTime.of(23, 59), 2, "Up", 3, FaultType.NO_FAULT));
+        SystemRequest tooLong = new SystemRequest(SystemRequestType.ELEVATOR_SHUTDOWN_REQUEST, requests, 3);
+        assertThrows(IllegalArgumentException.class, () -> SystemRequest.serializeRequest(tooLong));
+    }
+
+    /**
+     * Tests that messages with an unknown version or the wrong tag are rejected.
+     */
+    @Test
+    public void testRejectsMismatchedMessages() {
+        byte[] bytes = SystemRequest.serializeRequest(new SystemRequest(SystemRequestType.NEW_PRIMARY_REQUEST, 1));
+        assertThrows(IllegalArgumentException.class, () -> ElevatorRequest.deserializeRequest(bytes));
+
+        bytes[0] = MessageCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> SystemRequest.deserializeRequest(bytes));
+
+        byte[] truncated = new byte[]{MessageCodec.VERSION, MessageCodec.SYSTEM_REQUEST_TAG, 1};
+        assertThrows(IllegalArgumentException.class, () -> SystemRequest.deserializeRequest(truncated));
+    }
+
+    /**
+     * Tests that the encoded messages are much smaller than their Java object serialization. Encode/decode latency
+     * against Java object serialization is measured by Benchmark.CodecBenchmarks.
+     */
+    @Test
+    public void testSizeAgainstObjectSerialization() {
+        SystemRequest stopRequest = new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, 7, Direction.UP, 1);
+        SystemRequest addRequest = new SystemRequest(SystemRequestType.ADD_NEW_REQUEST, new ElevatorRequest(LocalTime.now(), 3, "Up", 12, FaultType.NO_FAULT), 0);
+        ElevatorStatus status = new ElevatorStatus(1, Direction.DOWN, 9, new ArrayList<>(List.of(2, 4)), new ArrayList<>(List.of(8)));
+
+        int codecStop = SystemRequest.serializeRequest(stopRequest).length;
+        int codecAdd = SystemRequest.serializeRequest(addRequest).length;
+        int codecStatus = ElevatorStatus.serializeStatus(status).length;
+
+        assertTrue(codecStop * 10 < javaSerialize(stopRequest).length);
+        assertTrue(codecAdd * 5 < javaSerialize(addRequest).length);
+        assertTrue(codecStatus * 10 < javaSerialize(status).length);
+        assertTrue(codecAdd <= MessageCodec.MAX_MESSAGE_SIZE);
+        assertTrue(codecStatus <= MessageCodec.MAX_MESSAGE_SIZE);
+    }
+
+    private static void assertElevatorRequestEquals(ElevatorRequest expected, ElevatorRequest actual) {
+        assertEquals(expected.getRequestId(), actual.getRequestId());
+        assertEquals(expected.getTime(), actual.getTime());
+        assertEquals(expected.getFloor(), actual.getFloor());
+        assertEquals(expected.getFloorButton(), actual.getFloorButton());
+        assertEquals(expected.getCarButton(), actual.getCarButton());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getFault(), actual.getFault());
+        assertEquals(expected.getReleaseTime(), actual.getReleaseTime());
+        assertEquals(expected.getAssignTime(), actual.getAssignTime());
+        assertEquals(expected.getPickUpTime(), actual.getPickUpTime());
+        assertEquals(expected.getCompletionTime(), actual.getCompletionTime());
+    }
+
+    private static byte[] javaSerialize(Serializable object) {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(); ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(object);
+            oos.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import Common.ElevatorRequest;
+import Common.FaultType;
+import Metrics.Counter;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Metrics.PassengerStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MetricsTest.java
+ * <p>
+ * JUnit tests for the classes in the Metrics package.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class MetricsTest {
+
+    /**
+     * Tests that the histogram percentiles stay within the bucket precision over a wide range of values.
+     */
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+
+        assertEquals(100001, histogram.getCount());
+        assertEquals(100000, histogram.getMax());
+        assertEquals(50000, histogram.getMean(), 1);
+        assertEquals(50000, histogram.getValueAtPercentile(50), 50000 / 64.0);
+        assertEquals(99000, histogram.getValueAtPercentile(99), 99000 / 64.0);
+        assertEquals(100000, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    /**
+     * Tests that counters incremented from several threads at once add up, and that the registry reports them.
+     */
+    @Test
+    public void testMetricsRegistry() throws InterruptedException {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        Counter counter = registry.counter("test.counter");
+        assertSame(counter, registry.counter("test.counter"));
+        counter.reset();
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    counter.increment();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        registry.gauge("test.gauge", () -> 7);
+        registry.histogram("test.histogram.nanos").record(42);
+
+        assertEquals(40000, registry.getCounters().get("test.counter"));
+        assertEquals(7, registry.getGauges().get("test.gauge"));
+        assertTrue(registry.getHistograms().get("test.histogram.nanos").contains("max=42"));
+        assertTrue(registry.getSnapshot().contains("test.counter 40000"));
+
+        registry.reset();
+        assertEquals(0, registry.getCounters().get("test.counter"));
+    }
+
+    /**
+     * Tests that the wait and journey times of completed requests are aggregated per elevator and per floor.
+     */
+    @Test
+    public void testPassengerStatistics() {
+        PassengerStatistics statistics = PassengerStatistics.getInstance();
+        statistics.reset();
+
+        for (int i = 1; i <= 10; i++) {
+            ElevatorRequest request = new ElevatorRequest(LocalTime.NOON, 3, "Up", 9, FaultType.NO_FAULT);
+            request.setReleaseTime(1000);
+            request.setAssignTime(1001);
+            request.setPickUpTime(1000 + i * 1000);
+            request.setCompletionTime(1000 + i * 1000 + 30000);
+            assertEquals(i * 1000, request.getWaitTime());
+            assertEquals(30000, request.getRideTime());
+            statistics.recordCompletion(request, i % 2);
+        }
+
+        // A request that was never released only has a ride time
+        ElevatorRequest unreleased = new ElevatorRequest(LocalTime.NOON, 5, "Down", 1, FaultType.NO_FAULT);
+        unreleased.setPickUpTime(0);
+        unreleased.setCompletionTime(20000);
+        statistics.recordCompletion(unreleased, 0);
+
+        assertEquals(10, statistics.getWaitTimes().getCount());
+        assertEquals(11, statistics.getRideTimes().getCount());
+        assertEquals(10000, statistics.getWaitTimes().getMax());
+        assertEquals(5000, statistics.getWaitTimes().getValueAtPercentile(50), 5000 / 64.0);
+        assertEquals(5, statistics.getElevatorWaitTimes(0).getCount());
+        assertEquals(10000, statistics.getElevatorWaitTimes(0).getMax());
+        assertEquals(10, statistics.getFloorJourneyTimes(3).getCount());
+        assertEquals(0, statistics.getFloorJourneyTimes(5).getCount());
+        assertNull(statistics.getFloorWaitTimes(7));
+        assertTrue(statistics.getReport().contains("Floor 3: passengers=10"));
+        statistics.reset();
+    }
+}
@@ -1,7 +1,24 @@
+import Common.*;
 import Floor.FloorSubsystem;
+import Scheduler.AssignmentOptimizer;
+import Scheduler.CarRoute;
+import Scheduler.DestinationDispatcher;
+import Scheduler.DispatchPolicy;
+import Scheduler.Dispatcher;
+import Scheduler.ElevatorStatusTable;
+import Scheduler.EtaDispatcher;
 import Scheduler.Scheduler;
+import Scheduler.SchedulerMode;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -12,13 +29,49 @@ import static org.junit.jupiter.api.Assertions.*;
  * @version 1.0, March 17, 2024
  */
 public class SchedulerTest {
+
+    // The scheduler binds the scheduler ports, so the tests share one running scheduler
+    private static Scheduler scheduler;
+    private static Thread schedulerThread;
+
+    /**
+     * Starts the shared scheduler running the concurrent event loop, if it is not running yet.
+     *
+     * @return The running scheduler
+     */
+    private static synchronized Scheduler startScheduler() {
+        if (scheduler == null) {
+            scheduler = new Scheduler();
+            schedulerThread = new Thread(scheduler);
+            schedulerThread.start();
+        }
+        return scheduler;
+    }
+
+    /**
+     * Receives the next message of the given type, skipping the other messages, such as the queries of the
+     * background re-optimization.
+     *
+     * @param transport The transport to receive from
+     * @param type      The type of the message
+     * @return The message, or null if none arrived within 5 seconds
+     */
+    private static SystemRequest receive(MessageTransport transport, SystemRequestType type) {
+        SystemRequest request;
+        do {
+            request = transport.receiveSystemRequest(5000);
+        } while (request != null && request.getType() != type);
+        return request;
+    }
+
     /**
      * Tests the functionality of the Scheduler class.
      */
     @Test
     public void testScheduler() {
-        // Create a Scheduler instance
-        Scheduler scheduler = new Scheduler();
+        // Start the Scheduler
+        Scheduler scheduler = startScheduler();
+        assertEquals(SchedulerMode.CONCURRENT, scheduler.getMode());
 
         // Test adding elevators
         scheduler.addElevator(1, 1234);
@@ -29,15 +82,368 @@ public class SchedulerTest {
         scheduler.setFloorSubsystems(floorSubsystem);
 
         // Test the run method (assuming it runs indefinitely)
-        Thread thread = new Thread(scheduler);
-        thread.start();
-
         try {
             Thread.sleep(2000);
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
 
-        assertTrue(thread.isAlive());
+        assertTrue(schedulerThread.isAlive());
+    }
+
+    /**
+     * Tests that the concurrent event loop relays the queries of the elevators to their controllers, and each reply
+     * back to the elevator waiting for it, when the replies arrive in another order than the queries.
+     */
+    @Test
+    public void testConcurrentRelay() {
+        startScheduler();
+        MessageTransport[] elevators = new MessageTransport[2];
+        MessageTransport[] controllers = new MessageTransport[2];
+        int[] ids = {0, 3};
+        for (int i = 0; i < ids.length; i++) {
+            elevators[i] = MessageTransport.open(0, Constants.SCHEDULER_PORT);
+            controllers[i] = MessageTransport.open(0, Constants.SCHEDULER_PORT_2);
+            controllers[i].sendSystemRequest(new SystemRequest(SystemRequestType.REGISTER_ELEVATOR_CONTROLLER, ids[i]), Constants.SCHEDULER_PORT);
+        }
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        // Both elevators ask with the same correlation ids, two queries each
+        for (int i = 0; i < ids.length; i++) {
+            for (int correlationId = 1; correlationId <= 2; correlationId++) {
+                SystemRequest query = new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, 10 * ids[i] + correlationId, Direction.UP, ids[i]);
+                query.setCorrelationId(correlationId);
+                elevators[i].sendSystemRequest(query);
+            }
+        }
+        ArrayList<SystemRequest> queries = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            for (int n = 0; n < 2; n++) {
+                SystemRequest query = receive(controllers[i], SystemRequestType.IS_STOP_REQUIRED);
+                assertNotNull(query);
+                assertEquals(ids[i], query.getId());
+                queries.add(query);
+            }
+        }
+
+        // The controllers reply last query first, the last elevator first
+        for (int q = queries.size() - 1; q >= 0; q--) {
+            SystemRequest query = queries.get(q);
+            SystemRequest reply = new SystemRequest(SystemRequestType.IS_STOP_REQUIRED, query.getFloorNumber(), Direction.UP, true, query.getId());
+            reply.setCorrelationId(query.getCorrelationId());
+            controllers[q / 2].sendSystemRequest(reply);
+        }
+
+        // Every reply reaches the elevator that asked, matched to its query by correlation id
+        for (int i = 0; i < ids.length; i++) {
+            for (int n = 0; n < 2; n++) {
+                SystemRequest reply = receive(elevators[i], SystemRequestType.IS_STOP_REQUIRED);
+                assertNotNull(reply);
+                assertEquals(ids[i], reply.getId());
+                assertEquals(10 * ids[i] + reply.getCorrelationId(), reply.getFloorNumber());
+            }
+        }
+    }
+
+    /**
+     * Tests that a request that arrives while no elevator is available is held, and assigned once an elevator
+     * registers and reports its status.
+     */
+    @Test
+    public void testHeldRequests() throws InterruptedException {
+        startScheduler();
+        MessageTransport floor = MessageTransport.open(0, Constants.SCHEDULER_PORT);
+        MessageTransport controller = MessageTransport.open(0, Constants.SCHEDULER_PORT_2);
+
+        // No elevator has reported its status yet, so the request is held
+        ElevatorRequest request = new ElevatorRequest(LocalTime.now(), 3, "Up", 7, FaultType.NO_FAULT);
+        floor.sendSystemRequest(new SystemRequest(SystemRequestType.ADD_NEW_REQUEST, request, 0));
+        Thread.sleep(500);
+
+        // An idle elevator becomes available and gets the held request
+        controller.sendSystemRequest(new SystemRequest(SystemRequestType.REGISTER_ELEVATOR_CONTROLLER, 0), Constants.SCHEDULER_PORT);
+        ElevatorStatus idle = new ElevatorStatus(0, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 1);
+        controller.sendSystemRequest(new SystemRequest(SystemRequestType.STATUS_UPDATE, idle, 0), Constants.SCHEDULER_PORT);
+        SystemRequest assigned = receive(controller, SystemRequestType.ADD_NEW_REQUEST);
+        assertNotNull(assigned);
+        assertEquals(3, assigned.getElevatorRequest().getFloor());
+        assertEquals(7, assigned.getElevatorRequest().getCarButton());
+    }
+
+    /**
+     * Tests that the status table keeps the newest status of each elevator and that dispatch decisions
+     * can be made from it.
+     */
+    @Test
+    public void testElevatorStatusTable() {
+        ElevatorStatusTable table = new ElevatorStatusTable(3);
+        assertTrue(table.update(new ElevatorStatus(0, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), 1)));
+        assertTrue(table.update(new ElevatorStatus(1, Direction.UP, 10, new ArrayList<>(List.of(12)), new ArrayList<>(), 4)));
+
+        // Out of date statuses are ignored
+        assertFalse(table.update(new ElevatorStatus(1, Direction.DOWN, 9, new ArrayList<>(), new ArrayList<>(), 3)));
+        assertEquals(Direction.UP, table.get(1).getDirection());
+        assertEquals(2, table.snapshot().size());
+
+        // Elevator 1 already stops at floor 12 going up, elevator 0 is the closest idle elevator otherwise
+        ElevatorRequest onTheWay = new ElevatorRequest(LocalTime.now(), 12, "Up", 15, FaultType.NO_FAULT);
+        ElevatorRequest lobby = new ElevatorRequest(LocalTime.now(), 2, "Up", 5, FaultType.NO_FAULT);
+        assertEquals(1, Scheduler.selectBestElevatorNumber(onTheWay, table.snapshot()));
+        assertEquals(0, Scheduler.selectBestElevatorNumber(lobby, table.snapshot()));
+
+        table.remove(0);
+        assertNull(table.get(0));
+        assertEquals(1, Scheduler.selectBestElevatorNumber(lobby, table.snapshot()));
+    }
+
+    /**
+     * Tests that the route estimate follows the collective control of the elevators and that the ETA dispatcher
+     * prefers an elevator passing by on its way over a closer elevator going the other way.
+     */
+    @Test
+    public void testEtaDispatcher() {
+        // Going up from floor 5: drop off at 8, pick up at 10 going down on the way back from 12
+        CarRoute route = new CarRoute(5, Direction.UP);
+        int dropOff = route.addDropOff(8);
+        int turn = route.addDropOff(12);
+        int pickUp = route.addPickUp(10, Direction.DOWN);
+        long[] times = route.estimateArrivalTimes();
+        long stop = Constants.LOADING_TIME + Constants.BOARDING_TIME_PER_PASSENGER;
+        assertEquals(3 * Constants.INCREMENTAL_MOVE_TIME + Constants.BASE_MOVE_TIME, times[dropOff]);
+        assertEquals(7 * Constants.INCREMENTAL_MOVE_TIME + 2 * Constants.BASE_MOVE_TIME + stop, times[turn]);
+        assertEquals(9 * Constants.INCREMENTAL_MOVE_TIME + 3 * Constants.BASE_MOVE_TIME + 2 * stop, times[pickUp]);
+
+        // The drop off of a request only counts once its passenger is picked up
+        CarRoute idle = new CarRoute(1, Direction.STOPPED);
+        int request = idle.addRequest(new ElevatorRequest(LocalTime.now(), 3, "Up", 6, FaultType.NO_FAULT));
+        times = idle.estimateArrivalTimes();
+        assertEquals(2 * Constants.INCREMENTAL_MOVE_TIME + Constants.BASE_MOVE_TIME, times[request]);
+        assertEquals(5 * Constants.INCREMENTAL_MOVE_TIME + 2 * Constants.BASE_MOVE_TIME + stop, times[request + 1]);
+
+        // Elevator 0 is closer but heads down to the lobby, elevator 1 passes floor 9 going up
+        List<ElevatorStatus> statuses = List.of(
+                new ElevatorStatus(0, Direction.DOWN, 8, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(1)), 1),
+                new ElevatorStatus(1, Direction.UP, 4, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(15)), 1));
+        ElevatorRequest request9 = new ElevatorRequest(LocalTime.now(), 9, "Up", 14, FaultType.NO_FAULT);
+        Dispatcher eta = DispatchPolicy.ETA.createDispatcher();
+        assertEquals(1, eta.selectElevator(request9, statuses));
+        assertEquals(0, DispatchPolicy.NEAREST_CAR.createDispatcher().selectElevator(request9, statuses));
+        assertTrue(((EtaDispatcher) eta).estimateCost(request9, statuses.get(1)) < ((EtaDispatcher) eta).estimateCost(request9, statuses.get(0)));
+        assertEquals(-1, eta.selectElevator(request9, List.of()));
+    }
+
+    /**
+     * Tests that a full elevator leaves the passengers it passes behind until its passengers have left, and that
+     * the dispatchers prefer an elevator with room.
+     */
+    @Test
+    public void testCapacityAwareDispatch() {
+        // Five passengers on board to floor 10, and one waiting at floor 5 going up
+        CarRoute full = new CarRoute(1, Direction.UP, Constants.MAX_PASSENGER_COUNT);
+        for (int i = 0; i < Constants.MAX_PASSENGER_COUNT; i++) {
+            full.addDropOff(10);
+        }
+        int pickUp = full.addPickUp(5, Direction.UP);
+        CarRoute empty = new CarRoute(1, Direction.UP);
+        int emptyPickUp = empty.addPickUp(5, Direction.UP);
+        assertEquals(4 * Constants.INCREMENTAL_MOVE_TIME + Constants.BASE_MOVE_TIME, empty.estimateArrivalTimes()[emptyPickUp]);
+        assertEquals(1, empty.estimateLoads()[emptyPickUp]);
+
+        // The full elevator picks the passenger up on its way back down from floor 10
+        assertTrue(full.estimateArrivalTimes()[pickUp] > full.estimateArrivalTimes()[0]);
+        assertEquals(0, full.estimateLoads()[0]);
+        assertEquals(1, full.estimateLoads()[pickUp]);
+
+        // Both elevators are at floor 4 going up, but elevator 0 is full
+        ArrayList<Integer> destinations = new ArrayList<>();
+        for (int i = 0; i < Constants.MAX_PASSENGER_COUNT; i++) {
+            destinations.add(12);
+        }
+        List<ElevatorStatus> statuses = List.of(
+                new ElevatorStatus(0, Direction.UP, 4, new ArrayList<>(List.of(6)), new ArrayList<>(), destinations, Constants.MAX_PASSENGER_COUNT, 1),
+                new ElevatorStatus(1, Direction.UP, 4, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(12)), 1, 1));
+        assertTrue(statuses.get(0).isAtMaxCapacity());
+        assertFalse(statuses.get(1).isAtMaxCapacity());
+        ElevatorRequest request6 = new ElevatorRequest(LocalTime.now(), 6, "Up", 9, FaultType.NO_FAULT);
+        assertEquals(1, DispatchPolicy.ETA.createDispatcher().selectElevator(request6, statuses));
+        assertEquals(1, DispatchPolicy.NEAREST_CAR.createDispatcher().selectElevator(request6, statuses));
+
+        // Destination dispatch would add the passenger to the drop off of the elevator passing by at floor 9 rather
+        // than send the idle elevator from the lobby, but that elevator is full and only picks the passenger up after
+        // coming back from there
+        List<ElevatorStatus> sharedDropOff = List.of(
+                new ElevatorStatus(0, Direction.UP, 4, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(9, 9, 9, 9, 9)), Constants.MAX_PASSENGER_COUNT, 1),
+                new ElevatorStatus(1, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 0, 1));
+        assertEquals(1, DispatchPolicy.DESTINATION.createDispatcher().selectElevator(request6, sharedDropOff));
+        assertEquals(0, DispatchPolicy.NEAREST_CAR.createDispatcher().selectElevator(request6, statuses.subList(0, 1)));
+    }
+
+    /**
+     * Tests that the ETA dispatcher keeps the last idle elevator at a floor where the demand model expects
+     * passengers, once the model has a profile of the time of day, and that the optimizer does not undo it.
+     */
+    @Test
+    public void testDemandReserve() {
+        DemandModel demandModel = DemandModel.getInstance();
+        demandModel.clear();
+        long now = SimulationClock.getInstance().currentTimeMillis();
+        LocalTime timeOfDay = LocalTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault());
+        List<ElevatorStatus> statuses = List.of(
+                new ElevatorStatus(0, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 1),
+                new ElevatorStatus(1, Direction.STOPPED, 8, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 1));
+        ElevatorRequest request = new ElevatorRequest(timeOfDay, 3, "Up", 9, FaultType.NO_FAULT);
+        EtaDispatcher dispatcher = new EtaDispatcher();
+
+        // Without a profile the closest elevator takes the request
+        demandModel.record(1, Direction.UP, now);
+        assertEquals(0, dispatcher.estimateReserveCost(request, statuses.get(0), statuses, now));
+        assertEquals(0, dispatcher.selectElevator(request, statuses));
+
+        // Yesterday the lobby was busy at this time, so the elevator at the lobby stays there
+        ArrayList<ElevatorRequest> yesterday = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            yesterday.add(new ElevatorRequest(timeOfDay, 1, "Up", 10, FaultType.NO_FAULT));
+        }
+        Iterator<ElevatorRequest> requests = yesterday.iterator();
+        demandModel.train(new TraceSource() {
+            @Override
+            public ElevatorRequest next() {
+                return requests.hasNext() ? requests.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        }, 1);
+        assertTrue(demandModel.hasProfile(now));
+        long awayMillis = (2 + 6 + 8) * Constants.INCREMENTAL_MOVE_TIME;
+        assertEquals(awayMillis * Constants.DEMAND_RESERVE_WEIGHT, dispatcher.estimateReserveCost(request, statuses.get(0), statuses, now), 1);
+        assertEquals(0, dispatcher.estimateReserveCost(request, statuses.get(1), statuses, now));
+        assertEquals(1, dispatcher.selectElevator(request, statuses));
+
+        // Another idle elevator at the lobby can go instead
+        List<ElevatorStatus> twoAtLobby = List.of(statuses.get(0), statuses.get(1),
+                new ElevatorStatus(2, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 1));
+        assertEquals(0, dispatcher.estimateReserveCost(request, statuses.get(0), twoAtLobby, now));
+
+        // The optimizer adds the same cost, so it does not move the request back to the elevator at the lobby
+        List<ElevatorStatus> assigned = List.of(statuses.get(0),
+                new ElevatorStatus(1, Direction.STOPPED, 8, new ArrayList<>(List.of(3)), new ArrayList<>(), new ArrayList<>(), 2));
+        Map<Integer, List<ElevatorRequest>> waitingRequests = Map.of(0, List.of(), 1, List.of(request));
+        assertTrue(new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN).optimize(assigned, waitingRequests, dispatcher).isEmpty());
+        assertEquals(1, new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN).optimize(assigned, waitingRequests, DispatchPolicy.NEAREST_CAR.createDispatcher()).size());
+        demandModel.clear();
+    }
+
+    /**
+     * Tests that the optimizer moves a waiting request to an elevator that now passes by its floor, and only when
+     * the move saves enough time.
+     */
+    @Test
+    public void testAssignmentOptimizer() {
+        // Elevator 0 heads down to the lobby from floor 20, elevator 1 passes floor 5 going up
+        List<ElevatorStatus> statuses = List.of(
+                new ElevatorStatus(0, Direction.DOWN, 20, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(1)), 1),
+                new ElevatorStatus(1, Direction.UP, 2, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(10)), 1));
+        ElevatorRequest request = new ElevatorRequest(LocalTime.now(), 5, "Up", 9, FaultType.NO_FAULT);
+        Dispatcher eta = DispatchPolicy.ETA.createDispatcher();
+        Map<Integer, List<ElevatorRequest>> waitingRequests = Map.of(0, List.of(request), 1, List.of());
+
+        List<AssignmentOptimizer.Migration> migrations = new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN).optimize(statuses, waitingRequests, eta);
+        assertEquals(1, migrations.size());
+        assertSame(request, migrations.get(0).getRequest());
+        assertEquals(0, migrations.get(0).getFromElevatorId());
+        assertEquals(1, migrations.get(0).getToElevatorId());
+        assertTrue(migrations.get(0).getGain() >= Constants.REOPTIMIZATION_MIN_GAIN);
+
+        // Already on the best elevator, or not enough to gain
+        assertTrue(new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN).optimize(statuses, Map.of(0, List.of(), 1, List.of(request)), eta).isEmpty());
+        assertTrue(new AssignmentOptimizer(Long.MAX_VALUE).optimize(statuses, waitingRequests, eta).isEmpty());
+
+        // A request is only moved a few times
+        AssignmentOptimizer optimizer = new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN);
+        for (int i = 0; i < AssignmentOptimizer.MAX_MIGRATIONS; i++) {
+            assertEquals(1, optimizer.optimize(statuses, waitingRequests, eta).size());
+        }
+        assertTrue(optimizer.optimize(statuses, waitingRequests, eta).isEmpty());
+
+        // Elevator 0 heads down to the pick up of its primary request at the lobby, which is not a waiting request
+        // but only shows in its status, so the idle elevator 1 keeps the request
+        List<ElevatorStatus> primaryPickUp = List.of(
+                new ElevatorStatus(0, Direction.DOWN, 10, new ArrayList<>(List.of(1)), new ArrayList<>(), new ArrayList<>(), 1),
+                new ElevatorStatus(1, Direction.STOPPED, 18, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 1));
+        ElevatorRequest request12 = new ElevatorRequest(LocalTime.now(), 12, "Up", 15, FaultType.NO_FAULT);
+        assertEquals(1, DispatchPolicy.ETA.createDispatcher().selectElevator(request12, primaryPickUp));
+        assertTrue(new AssignmentOptimizer(Constants.REOPTIMIZATION_MIN_GAIN).optimize(primaryPickUp, Map.of(0, List.of(), 1, List.of(request12)), eta).isEmpty());
+    }
+
+    /**
+     * Selects the elevator for a request and records the assignment, the way the scheduler does once the request is
+     * sent.
+     */
+    private static int assign(Dispatcher dispatcher, ElevatorRequest request, List<ElevatorStatus> statuses) {
+        int elevatorId = dispatcher.selectElevator(request, statuses);
+        if (elevatorId >= 0) {
+            dispatcher.recordAssignment(request, elevatorId);
+        }
+        return elevatorId;
+    }
+
+    /**
+     * Tests that destination dispatch groups the passengers going to the same floor into the same elevator until
+     * its batch is full.
+     */
+    @Test
+    public void testDestinationDispatcher() {
+        List<ElevatorStatus> statuses = List.of(
+                new ElevatorStatus(0, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), 1),
+                new ElevatorStatus(1, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), 1));
+        Dispatcher dispatcher = DispatchPolicy.DESTINATION.createDispatcher();
+        assertTrue(dispatcher instanceof DestinationDispatcher);
+        assertTrue(dispatcher.assignsHallCalls());
+        assertFalse(DispatchPolicy.ETA.createDispatcher().assignsHallCalls());
+
+        // The passengers from the lobby to floor 15 share an elevator until it is full
+        int first = assign(dispatcher, new ElevatorRequest(LocalTime.now(), 1, "Up", 15, FaultType.NO_FAULT), statuses);
+        for (int i = 1; i < Constants.MAX_PASSENGER_COUNT; i++) {
+            assertEquals(first, assign(dispatcher, new ElevatorRequest(LocalTime.now(), 1, "Up", 15, FaultType.NO_FAULT), statuses));
+        }
+        assertEquals(1 - first, assign(dispatcher, new ElevatorRequest(LocalTime.now(), 1, "Up", 15, FaultType.NO_FAULT), statuses));
+
+        // A passenger going to a nearby floor joins the same batch
+        assertEquals(1 - first, assign(dispatcher, new ElevatorRequest(LocalTime.now(), 1, "Up", 16, FaultType.NO_FAULT), statuses));
+        assertEquals(-1, assign(dispatcher, new ElevatorRequest(LocalTime.now(), 1, "Up", 15, FaultType.NO_FAULT), List.of()));
+
+        // A request that is selected but never sent does not join the batch
+        Dispatcher fresh = DispatchPolicy.DESTINATION.createDispatcher();
+        int batch = fresh.selectElevator(new ElevatorRequest(LocalTime.now(), 5, "Up", 15, FaultType.NO_FAULT), statuses);
+        for (int i = 0; i < Constants.MAX_PASSENGER_COUNT; i++) {
+            assertEquals(batch, fresh.selectElevator(new ElevatorRequest(LocalTime.now(), 5, "Up", 15, FaultType.NO_FAULT), statuses));
+        }
+        for (int i = 0; i < Constants.MAX_PASSENGER_COUNT; i++) {
+            assertEquals(batch, assign(fresh, new ElevatorRequest(LocalTime.now(), 5, "Up", 15, FaultType.NO_FAULT), statuses));
+        }
+
+        // A newer status published before the elevator got the batch does not show its pick up yet, and the batch is
+        // still remembered as full
+        List<ElevatorStatus> moved = List.of(
+                new ElevatorStatus(batch, Direction.UP, 2, new ArrayList<>(), new ArrayList<>(), 2),
+                new ElevatorStatus(1 - batch, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), 2));
+        assertEquals(1 - batch, fresh.selectElevator(new ElevatorRequest(LocalTime.now(), 5, "Up", 15, FaultType.NO_FAULT), moved));
+
+        // Once a status has shown the pick up, a later status without it means the batch was picked up, and the batch
+        // is forgotten even if a passenger on board is going to its floor
+        List<ElevatorStatus> shown = List.of(
+                new ElevatorStatus(batch, Direction.UP, 3, new ArrayList<>(List.of(5)), new ArrayList<>(), 3),
+                new ElevatorStatus(1 - batch, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), 3));
+        assertEquals(1 - batch, fresh.selectElevator(new ElevatorRequest(LocalTime.now(), 5, "Up", 15, FaultType.NO_FAULT), shown));
+        List<ElevatorStatus> pickedUp = List.of(
+                new ElevatorStatus(batch, Direction.UP, 4, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(5)), 1, 4),
+                new ElevatorStatus(1 - batch, Direction.STOPPED, 1, new ArrayList<>(), new ArrayList<>(), 4));
+        assertEquals(batch, fresh.selectElevator(new ElevatorRequest(LocalTime.now(), 5, "Up", 15, FaultType.NO_FAULT), pickedUp));
     }
 }
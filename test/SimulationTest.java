@@ -0,0 +1,100 @@
+import Common.*;
+import Elevator.Elevator;
+import Simulation.EventClock;
+import Simulation.SimulationEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SimulationTest.java
+ * <p>
+ * JUnit tests for the classes in the Simulation package.
+ *
+ * @version 1.0, March 17, 2024
+ */
+public class SimulationTest {
+
+    /**
+     * Puts the real time clock back after each test.
+     */
+    @AfterEach
+    public void restoreClock() {
+        SimulationClock.setInstance(new RealTimeClock());
+        LogPrinter.setEnabled(true);
+    }
+
+    /**
+     * Tests that the event clock runs events in time order and resumes sleeping processes on time.
+     */
+    @Test
+    public void testEventClock() {
+        EventClock clock = new EventClock(0);
+        List<String> trace = new ArrayList<>();
+
+        clock.schedule(5000, () -> trace.add("event@" + clock.currentTimeMillis()));
+        clock.startProcess("Process", () -> {
+            trace.add("start@" + clock.currentTimeMillis());
+            clock.sleep(3000);
+            trace.add("wake@" + clock.currentTimeMillis());
+            clock.sleep(4000);
+            trace.add("wake@" + clock.currentTimeMillis());
+        });
+        clock.runUntil(60_000);
+        clock.shutdown();
+
+        assertEquals(List.of("start@0", "wake@3000", "event@5000", "wake@7000"), trace);
+        assertEquals(60_000, clock.currentTimeMillis());
+    }
+
+    /**
+     * Tests that the engine serves requests without sockets and that runs are repeatable.
+     */
+    @Test
+    public void testSimulationEngine() {
+        LogPrinter.setEnabled(false);
+        long[] movements = new long[2];
+        for (int run = 0; run < movements.length; run++) {
+            SimulationEngine engine = new SimulationEngine(3, new EventClock(0));
+            ArrayList<ElevatorRequest> requests = new ArrayList<>();
+            SimulationClock clock = SimulationClock.getInstance();
+            requests.add(new ElevatorRequest(clock.now().plusSeconds(5), 4, "Up", 9, FaultType.NO_FAULT));
+            requests.add(new ElevatorRequest(clock.now().plusSeconds(8), 12, "Down", 2, FaultType.NO_FAULT));
+            engine.addRequests(requests);
+            engine.run(10 * 60 * 1000);
+
+            assertEquals(2, engine.getNetwork().getAssignedRequests());
+            for (Elevator e : engine.getElevators()) {
+                movements[run] += e.getMovements();
+                assertNull(e.getPrimaryRequest());
+            }
+        }
+        assertTrue(movements[0] > 0);
+        assertEquals(movements[0], movements[1]);
+    }
+
+    /**
+     * Tests that a request is held instead of dropped while no elevator is available to serve it.
+     */
+    @Test
+    public void testHoldsRequestsWithoutElevator() {
+        LogPrinter.setEnabled(false);
+        SimulationEngine engine = new SimulationEngine(1, new EventClock(0));
+        LocalTime start = SimulationClock.getInstance().now();
+        ArrayList<ElevatorRequest> requests = new ArrayList<>();
+        requests.add(new ElevatorRequest(start.plusSeconds(5), 1, "Up", 12, FaultType.FLOOR_TIMER_FAULT));
+        requests.add(new ElevatorRequest(start.plusSeconds(200), 4, "Up", 9, FaultType.NO_FAULT));
+        engine.addRequests(requests);
+        engine.run(10 * 60 * 1000);
+
+        // The only elevator shut down on its first trip, so the second request waits for an elevator
+        assertFalse(engine.getElevators().get(0).isMotorRunning());
+        assertEquals(1, engine.getNetwork().getHeldRequests());
+        assertEquals(1, engine.getNetwork().getUnassignedRequests());
+    }
+}